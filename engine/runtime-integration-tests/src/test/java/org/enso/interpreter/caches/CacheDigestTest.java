@@ -0,0 +1,61 @@
+package org.enso.interpreter.caches;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.enso.text.Hex;
+import org.junit.Test;
+
+public class CacheDigestTest {
+
+  @Test
+  public void xxHash64MatchesReferenceValues() {
+    assertEquals("ef46db3751d8e999", xxHash64(""));
+    assertEquals("d24ec4f1a98c6e5b", xxHash64("a"));
+    assertEquals("44bc2cf5ad770999", xxHash64("abc"));
+    assertEquals("fbcea83c8a378bf1", xxHash64("Nobody inspects the spammish repetition"));
+  }
+
+  @Test
+  public void xxHash64DoesNotDependOnChunking() {
+    var random = new Random(42);
+    var bytes = new byte[10_000];
+    random.nextBytes(bytes);
+    var whole = new XxHash64();
+    whole.update(bytes);
+    var expected = Hex.toHexString(whole.digest());
+
+    for (var attempt = 0; attempt < 10; attempt++) {
+      var chunked = new XxHash64();
+      var position = 0;
+      while (position < bytes.length) {
+        var length = Math.min(bytes.length - position, random.nextInt(100));
+        if (random.nextBoolean()) {
+          chunked.update(bytes, position, length);
+        } else {
+          chunked.update(ByteBuffer.wrap(bytes, position, length));
+        }
+        position += length;
+      }
+      assertEquals(expected, Hex.toHexString(chunked.digest()));
+    }
+  }
+
+  @Test
+  public void digestOfBytesKeepsBufferPosition() {
+    var buffer = ByteBuffer.wrap("Hello World!".getBytes(StandardCharsets.UTF_8));
+    buffer.position(6);
+    var first = CacheUtils.computeDigestFromBytes(buffer);
+    var second = CacheUtils.computeDigestFromBytes(buffer);
+    assertEquals(6, buffer.position());
+    assertEquals(first, second);
+  }
+
+  private static String xxHash64(String text) {
+    var digest = new XxHash64();
+    digest.update(text.getBytes(StandardCharsets.UTF_8));
+    return Hex.toHexString(digest.digest());
+  }
+}
@@ -251,10 +251,7 @@ public final class Cache<T, M> {
     if (optMeta.isPresent()) {
       M meta = optMeta.get();
       boolean sourceDigestValid =
-          !needsSourceDigestVerification
-              || spi.computeDigestFromSource(context, logger)
-                  .map(digest -> digest.equals(spi.sourceHash(meta)))
-                  .orElseGet(() -> false);
+          !needsSourceDigestVerification || spi.isSourceDigestValid(context, meta, logger);
       var file = new File(dataPath.toUri());
       ByteBuffer blobBytes;
       var threeMbs = 3 * 1024 * 1024;
@@ -511,6 +508,21 @@ public final class Cache<T, M> {
     public abstract Optional<String> computeDigestFromSource(
         EnsoContext context, TruffleLogger logger);
 
+    /**
+     * Checks that data's source has not changed since the cache was written. Override in
+     * subclasses which can check that without computing the digest of the source.
+     *
+     * @param context the language context in which loading is taking place
+     * @param meta metadata of the cache
+     * @param logger Truffle's logger
+     * @return {@code true} if the digest of data's source matches the one in the metadata
+     */
+    public default boolean isSourceDigestValid(EnsoContext context, M meta, TruffleLogger logger) {
+      return computeDigestFromSource(context, logger)
+          .map(digest -> digest.equals(sourceHash(meta)))
+          .orElse(false);
+    }
+
     /**
      * Returns locations where caches can be located
      *
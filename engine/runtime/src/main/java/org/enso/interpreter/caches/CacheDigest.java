@@ -0,0 +1,97 @@
+package org.enso.interpreter.caches;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hashing algorithm used to check the integrity of Enso caches. The algorithm is selected by the
+ * {@value #ALGORITHM_PROPERTY} system property, which is either {@code xxh64} (the default) or
+ * {@code sha-1}. The caches only need to detect changes of the sources and the data, not to resist
+ * deliberate collisions, so a fast non-cryptographic hash is used unless configured otherwise.
+ *
+ * <p>Digests of different algorithms differ in length, so a cache written with one algorithm is
+ * rejected, and rewritten, when read with the other one.
+ */
+abstract class CacheDigest {
+  /** Name of the system property selecting the algorithm. */
+  static final String ALGORITHM_PROPERTY = "enso.cache.digest";
+
+  CacheDigest() {}
+
+  /**
+   * Creates a new digest using the configured algorithm.
+   *
+   * @return a new digest without any data
+   */
+  static CacheDigest create() {
+    var algorithm = System.getProperty(ALGORITHM_PROPERTY, "xxh64");
+    return switch (algorithm.toLowerCase()) {
+      case "xxh64" -> new XxHash64();
+      case "sha-1", "sha1" -> new MessageDigestWrapper("SHA-1");
+      default ->
+          throw new IllegalStateException(
+              "Unknown " + ALGORITHM_PROPERTY + " algorithm: " + algorithm);
+    };
+  }
+
+  /**
+   * Adds bytes to the digest.
+   *
+   * @param bytes the array with the bytes
+   * @param offset the offset of the first byte to add
+   * @param length the number of bytes to add
+   */
+  abstract void update(byte[] bytes, int offset, int length);
+
+  /**
+   * Adds the remaining bytes of the buffer to the digest, consuming them.
+   *
+   * @param bytes the bytes to add
+   */
+  abstract void update(ByteBuffer bytes);
+
+  /**
+   * Adds all the bytes to the digest.
+   *
+   * @param bytes the bytes to add
+   */
+  final void update(byte[] bytes) {
+    update(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Completes the computation.
+   *
+   * @return the digest of all the added bytes
+   */
+  abstract byte[] digest();
+
+  /** Digest computed by a {@link MessageDigest} from the JDK. */
+  private static final class MessageDigestWrapper extends CacheDigest {
+    private final MessageDigest digest;
+
+    MessageDigestWrapper(String algorithm) {
+      try {
+        this.digest = MessageDigest.getInstance(algorithm);
+      } catch (NoSuchAlgorithmException ex) {
+        throw CacheUtils.raise(RuntimeException.class, ex);
+      }
+    }
+
+    @Override
+    void update(byte[] bytes, int offset, int length) {
+      digest.update(bytes, offset, length);
+    }
+
+    @Override
+    void update(ByteBuffer bytes) {
+      digest.update(bytes);
+    }
+
+    @Override
+    byte[] digest() {
+      return digest.digest();
+    }
+  }
+}
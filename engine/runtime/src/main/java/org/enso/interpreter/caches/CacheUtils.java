@@ -1,14 +1,17 @@
 package org.enso.interpreter.caches;
 
 import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.TruffleSafepoint;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.ByteBuffer;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import org.enso.compiler.context.CompilerContext;
 import org.enso.compiler.core.ir.ProcessingPass;
@@ -20,7 +23,8 @@ import org.enso.text.Hex;
 final class CacheUtils {
   private CacheUtils() {}
 
-  private static int BUFFER_SIZE = 1024;
+  /** Separates the stamp of library sources from the digest of their contents. */
+  private static final char STAMP_SEPARATOR = ':';
 
   static Function<Object, Object> writeReplace(CompilerContext context, boolean keepUUIDs) {
     return (obj) ->
@@ -49,59 +53,144 @@ final class CacheUtils {
   }
 
   /**
-   * Returns a default hashing algorithm used for Enso caches.
+   * Computes digest from an array of bytes using a default hashing algorithm. The position of the
+   * buffer is not changed.
    *
-   * @return digest used for computing hashes
+   * @param bytes bytes for which hash will be computed
+   * @return string representation of bytes' hash
    */
-  private static MessageDigest messageDigest() {
-    try {
-      return MessageDigest.getInstance("SHA-1");
-    } catch (NoSuchAlgorithmException ex) {
-      throw raise(RuntimeException.class, ex);
-    }
+  static String computeDigestFromBytes(ByteBuffer bytes) {
+    var digest = CacheDigest.create();
+    digest.update(bytes.duplicate());
+    return Hex.toHexString(digest.digest());
   }
 
   /**
-   * Computes digest from an array of bytes using a default hashing algorithm.
+   * Computes digest from package sources using a default hashing algorithm. The digest consists of
+   * a stamp of the sources, derived from their names, sizes and modification times, and of a
+   * digest of their contents.
    *
-   * @param bytes bytes for which hash will be computed
-   * @return string representation of bytes' hash
+   * @param pkgSources the list of package sources
+   * @param pool the pool to hash the sources in parallel, or {@code null}
+   * @return string representation of the sources' hash
+   * @see #isDigestOfLibrarySourcesValid
    */
-  static String computeDigestFromBytes(ByteBuffer bytes) {
-    var sha = messageDigest();
-    sha.update(bytes);
-    return Hex.toHexString(sha.digest());
+  static String computeDigestOfLibrarySources(
+      List<SourceFile<TruffleFile>> pkgSources, ExecutorService pool) {
+    pkgSources.sort(Comparator.comparing(o -> o.qualifiedName().toString()));
+    return computeStampOfLibrarySources(pkgSources)
+        + STAMP_SEPARATOR
+        + computeDigestOfLibrarySourcesContents(pkgSources, pool);
   }
 
   /**
-   * Computes digest from package sources using a default hashing algorithm.
+   * Checks that package sources have the digest computed by {@link
+   * #computeDigestOfLibrarySources}. If none of the sources was renamed, resized or modified since
+   * the digest was computed, the contents of the sources are not read at all.
    *
    * @param pkgSources the list of package sources
-   * @return string representation of bytes' hash
+   * @param expectedDigest the previously computed digest
+   * @param pool the pool to hash the sources in parallel, or {@code null}
+   * @return {@code true} if the sources have the same contents as when the digest was computed
    */
-  static final String computeDigestOfLibrarySources(List<SourceFile<TruffleFile>> pkgSources) {
+  static boolean isDigestOfLibrarySourcesValid(
+      List<SourceFile<TruffleFile>> pkgSources, String expectedDigest, ExecutorService pool) {
+    var separator = expectedDigest.indexOf(STAMP_SEPARATOR);
+    if (separator < 0) {
+      return false;
+    }
     pkgSources.sort(Comparator.comparing(o -> o.qualifiedName().toString()));
+    var stamp = computeStampOfLibrarySources(pkgSources);
+    if (stamp.length() == separator && expectedDigest.startsWith(stamp)) {
+      return true;
+    } else {
+      var digest = computeDigestOfLibrarySourcesContents(pkgSources, pool);
+      return expectedDigest.substring(separator + 1).equals(digest);
+    }
+  }
 
+  private static String computeStampOfLibrarySources(List<SourceFile<TruffleFile>> pkgSources) {
     try {
-      var digest = messageDigest();
+      var stamp = ByteBuffer.allocate(2 * Long.BYTES);
+      var digest = CacheDigest.create();
       for (var source : pkgSources) {
-        byte[] buffer = new byte[BUFFER_SIZE];
-        try (InputStream is = source.file().newInputStream()) {
-          int read = is.read(buffer, 0, BUFFER_SIZE);
-          while (read > -1) {
-            digest.update(buffer, 0, read);
-            read = is.read(buffer, 0, BUFFER_SIZE);
+        digest.update(source.qualifiedName().toString().getBytes(StandardCharsets.UTF_8));
+        stamp.clear();
+        stamp.putLong(source.file().size());
+        stamp.putLong(source.file().getLastModifiedTime().toMillis());
+        digest.update(stamp.array());
+      }
+      return Hex.toHexString(digest.digest());
+    } catch (IOException ex) {
+      throw raise(RuntimeException.class, ex);
+    }
+  }
+
+  /**
+   * Hashes the contents of every source separately, in parallel if a pool is provided, and then
+   * combines their names and digests into a single digest.
+   */
+  private static String computeDigestOfLibrarySourcesContents(
+      List<SourceFile<TruffleFile>> pkgSources, ExecutorService pool) {
+    try {
+      var sourceDigests = new ArrayList<byte[]>(pkgSources.size());
+      if (pool == null) {
+        for (var source : pkgSources) {
+          sourceDigests.add(computeDigestOfSource(source));
+        }
+      } else {
+        var tasks = new ArrayList<Future<byte[]>>(pkgSources.size());
+        for (var source : pkgSources) {
+          tasks.add(pool.submit(() -> computeDigestOfSource(source)));
+        }
+        var completed = false;
+        try {
+          for (var task : tasks) {
+            TruffleSafepoint.setBlockedThreadInterruptible(null, CacheUtils::await, task);
+            sourceDigests.add(task.resultNow());
+          }
+          completed = true;
+        } finally {
+          if (!completed) {
+            tasks.forEach(task -> task.cancel(true));
           }
         }
       }
+
+      var digest = CacheDigest.create();
+      for (var i = 0; i < pkgSources.size(); i++) {
+        var name = pkgSources.get(i).qualifiedName().toString();
+        digest.update(name.getBytes(StandardCharsets.UTF_8));
+        digest.update(sourceDigests.get(i));
+      }
       return Hex.toHexString(digest.digest());
     } catch (IOException ex) {
       throw raise(RuntimeException.class, ex);
     }
   }
 
+  /**
+   * Waits for the digest of a source. The thread can process the safepoints while it waits, so that
+   * it can still be interrupted. A failure of the task is rethrown as an {@link IOException}.
+   */
+  private static void await(Future<byte[]> task) throws InterruptedException {
+    try {
+      task.get();
+    } catch (ExecutionException ex) {
+      var cause = ex.getCause();
+      throw raise(
+          RuntimeException.class, cause instanceof IOException io ? io : new IOException(cause));
+    }
+  }
+
+  private static byte[] computeDigestOfSource(SourceFile<TruffleFile> source) throws IOException {
+    var digest = CacheDigest.create();
+    digest.update(source.file().readAllBytes());
+    return digest.digest();
+  }
+
   public static String computeDigestFromSuggestions(List<Suggestion> suggestions) {
-    var digest = messageDigest();
+    var digest = CacheDigest.create();
     for (var suggestion : suggestions) {
       digest.update(suggestion.module().getBytes());
       digest.update(suggestion.name().getBytes());
@@ -111,7 +200,7 @@ final class CacheUtils {
   }
 
   public static String computeDigestFromLibName(LibraryName libName) {
-    var digest = messageDigest();
+    var digest = CacheDigest.create();
     digest.update(libName.qualifiedName().getBytes());
     return Hex.toHexString(digest.digest());
   }
@@ -85,16 +85,31 @@ public final class ImportExportCache
 
   @Override
   public Optional<String> computeDigest(CachedBindings entry, TruffleLogger logger) {
-    return entry.sources().map(sources -> CacheUtils.computeDigestOfLibrarySources(sources));
+    return entry.sources().map(sources -> CacheUtils.computeDigestOfLibrarySources(sources, null));
   }
 
   @Override
   @SuppressWarnings("unchecked")
   public Optional<String> computeDigestFromSource(EnsoContext context, TruffleLogger logger) {
+    var pool = context.getComputeThreadPool();
     return context
         .getPackageRepository()
         .getPackageForLibraryJava(libraryName)
-        .map(pkg -> CacheUtils.computeDigestOfLibrarySources(pkg.listSourcesJava()));
+        .map(pkg -> CacheUtils.computeDigestOfLibrarySources(pkg.listSourcesJava(), pool));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean isSourceDigestValid(EnsoContext context, Metadata meta, TruffleLogger logger) {
+    var pool = context.getComputeThreadPool();
+    return context
+        .getPackageRepository()
+        .getPackageForLibraryJava(libraryName)
+        .map(
+            pkg ->
+                CacheUtils.isDigestOfLibrarySourcesValid(
+                    pkg.listSourcesJava(), sourceHash(meta), pool))
+        .orElse(false);
   }
 
   @Override
@@ -0,0 +1,122 @@
+package org.enso.interpreter.caches;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Streaming implementation of the 64-bit xxHash (XXH64) with seed {@code 0}. The digest is the
+ * hash in big-endian order, matching the canonical representation of the reference implementation.
+ */
+final class XxHash64 extends CacheDigest {
+  private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+  private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+  private static final long PRIME64_3 = 0x165667B19E3779F9L;
+  private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+  private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+  /** Size of a stripe consumed by the accumulators at once. */
+  private static final int STRIPE = 32;
+
+  private long v1 = PRIME64_1 + PRIME64_2;
+  private long v2 = PRIME64_2;
+  private long v3 = 0;
+  private long v4 = -PRIME64_1;
+  private long totalLength;
+
+  /** Bytes not yet consumed by the accumulators, always less than a stripe. */
+  private final ByteBuffer pending =
+      ByteBuffer.allocate(STRIPE).order(ByteOrder.LITTLE_ENDIAN);
+
+  @Override
+  void update(byte[] bytes, int offset, int length) {
+    update(ByteBuffer.wrap(bytes, offset, length));
+  }
+
+  @Override
+  void update(ByteBuffer bytes) {
+    var input = bytes.slice().order(ByteOrder.LITTLE_ENDIAN);
+    totalLength += input.remaining();
+    bytes.position(bytes.limit());
+
+    if (pending.position() > 0) {
+      var n = Math.min(pending.remaining(), input.remaining());
+      pending.put(pending.position(), input, input.position(), n);
+      pending.position(pending.position() + n);
+      input.position(input.position() + n);
+      if (pending.hasRemaining()) {
+        return;
+      }
+      consumeStripe(pending, 0);
+      pending.clear();
+    }
+
+    var position = input.position();
+    var limit = input.limit();
+    while (limit - position >= STRIPE) {
+      consumeStripe(input, position);
+      position += STRIPE;
+    }
+    pending.put(0, input, position, limit - position);
+    pending.position(limit - position);
+  }
+
+  private void consumeStripe(ByteBuffer input, int at) {
+    v1 = round(v1, input.getLong(at));
+    v2 = round(v2, input.getLong(at + 8));
+    v3 = round(v3, input.getLong(at + 16));
+    v4 = round(v4, input.getLong(at + 24));
+  }
+
+  @Override
+  byte[] digest() {
+    long h;
+    if (totalLength >= STRIPE) {
+      h =
+          Long.rotateLeft(v1, 1)
+              + Long.rotateLeft(v2, 7)
+              + Long.rotateLeft(v3, 12)
+              + Long.rotateLeft(v4, 18);
+      h = mergeRound(h, v1);
+      h = mergeRound(h, v2);
+      h = mergeRound(h, v3);
+      h = mergeRound(h, v4);
+    } else {
+      h = PRIME64_5;
+    }
+    h += totalLength;
+
+    var at = 0;
+    var length = pending.position();
+    for (; at + 8 <= length; at += 8) {
+      h ^= round(0, pending.getLong(at));
+      h = Long.rotateLeft(h, 27) * PRIME64_1 + PRIME64_4;
+    }
+    if (at + 4 <= length) {
+      h ^= Integer.toUnsignedLong(pending.getInt(at)) * PRIME64_1;
+      h = Long.rotateLeft(h, 23) * PRIME64_2 + PRIME64_3;
+      at += 4;
+    }
+    for (; at < length; at++) {
+      h ^= Byte.toUnsignedLong(pending.get(at)) * PRIME64_5;
+      h = Long.rotateLeft(h, 11) * PRIME64_1;
+    }
+
+    h ^= h >>> 33;
+    h *= PRIME64_2;
+    h ^= h >>> 29;
+    h *= PRIME64_3;
+    h ^= h >>> 32;
+    return ByteBuffer.allocate(Long.BYTES).putLong(h).array();
+  }
+
+  private static long round(long acc, long input) {
+    acc += input * PRIME64_2;
+    acc = Long.rotateLeft(acc, 31);
+    return acc * PRIME64_1;
+  }
+
+  private static long mergeRound(long acc, long value) {
+    acc ^= round(0, value);
+    return acc * PRIME64_1 + PRIME64_4;
+  }
+}
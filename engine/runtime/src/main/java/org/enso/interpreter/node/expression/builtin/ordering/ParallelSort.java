@@ -0,0 +1,232 @@
+package org.enso.interpreter.node.expression.builtin.ordering;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleSafepoint;
+import com.oracle.truffle.api.nodes.Node;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.enso.interpreter.runtime.EnsoContext;
+
+/**
+ * Merge sort of large arrays, which splits the work across a thread pool. The array is split into
+ * runs, one per thread, which are sorted in parallel. The sorted runs are then merged pairwise,
+ * the merges of each round again running in parallel.
+ *
+ * <p>The tasks never wait for each other, only the calling thread waits for each round to finish,
+ * so a pool with a fixed number of threads cannot deadlock. The sort of object arrays is stable,
+ * just like {@link Arrays#sort(Object[], Comparator)}.
+ *
+ * <p>The comparisons run on the threads of the pool, so they must be thread-safe and must not
+ * execute any guest code.
+ */
+final class ParallelSort {
+  /** Arrays shorter than this are sorted on the calling thread. */
+  static final int THRESHOLD = 1 << 16;
+
+  /** The minimal length of a run sorted by a single task. */
+  private static final int MIN_RUN_LENGTH = 1 << 13;
+
+  private ParallelSort() {}
+
+  /**
+   * Sorts the values in ascending order.
+   *
+   * @param node the node requesting the sort, used to handle safepoints while waiting
+   * @param values the values to sort
+   */
+  @TruffleBoundary
+  static void sort(Node node, long[] values) {
+    var pool = threadPool(node, values.length);
+    if (pool == null) {
+      Arrays.sort(values);
+    } else {
+      new Sort<long[]>(node, pool, values.length) {
+        @Override
+        void sortRun(long[] array, int from, int to) {
+          Arrays.sort(array, from, to);
+        }
+
+        @Override
+        void merge(long[] src, long[] dst, int from, int mid, int to) {
+          int i = from, j = mid, k = from;
+          while (i < mid && j < to) {
+            dst[k++] = src[i] <= src[j] ? src[i++] : src[j++];
+          }
+          System.arraycopy(src, i, dst, k, mid - i);
+          System.arraycopy(src, j, dst, k + mid - i, to - j);
+        }
+      }.run(values, new long[values.length]);
+    }
+  }
+
+  /**
+   * Sorts the values in ascending order, as defined by {@link Double#compare}.
+   *
+   * @param node the node requesting the sort, used to handle safepoints while waiting
+   * @param values the values to sort
+   */
+  @TruffleBoundary
+  static void sort(Node node, double[] values) {
+    var pool = threadPool(node, values.length);
+    if (pool == null) {
+      Arrays.sort(values);
+    } else {
+      new Sort<double[]>(node, pool, values.length) {
+        @Override
+        void sortRun(double[] array, int from, int to) {
+          Arrays.sort(array, from, to);
+        }
+
+        @Override
+        void merge(double[] src, double[] dst, int from, int mid, int to) {
+          int i = from, j = mid, k = from;
+          while (i < mid && j < to) {
+            dst[k++] = Double.compare(src[i], src[j]) <= 0 ? src[i++] : src[j++];
+          }
+          System.arraycopy(src, i, dst, k, mid - i);
+          System.arraycopy(src, j, dst, k + mid - i, to - j);
+        }
+      }.run(values, new double[values.length]);
+    }
+  }
+
+  /**
+   * Sorts the values according to the order. The sort is stable.
+   *
+   * @param node the node requesting the sort, used to handle safepoints while waiting
+   * @param values the values to sort
+   * @param order a thread-safe order of the values
+   */
+  @TruffleBoundary
+  static <T> void sort(Node node, T[] values, Comparator<? super T> order) {
+    var pool = threadPool(node, values.length);
+    if (pool == null) {
+      Arrays.sort(values, order);
+    } else {
+      new Sort<T[]>(node, pool, values.length) {
+        @Override
+        void sortRun(T[] array, int from, int to) {
+          Arrays.sort(array, from, to, order);
+        }
+
+        @Override
+        void merge(T[] src, T[] dst, int from, int mid, int to) {
+          int i = from, j = mid, k = from;
+          while (i < mid && j < to) {
+            dst[k++] = order.compare(src[i], src[j]) <= 0 ? src[i++] : src[j++];
+          }
+          System.arraycopy(src, i, dst, k, mid - i);
+          System.arraycopy(src, j, dst, k + mid - i, to - j);
+        }
+      }.run(values, values.clone());
+    }
+  }
+
+  /** Returns the pool to sort an array of the given length in, or {@code null} if it is short. */
+  private static ExecutorService threadPool(Node node, int length) {
+    if (length < THRESHOLD) {
+      return null;
+    } else {
+      return EnsoContext.get(node).getComputeThreadPool();
+    }
+  }
+
+  /**
+   * A single parallel sort of an array of type {@code A}.
+   *
+   * @param <A> the type of the sorted array
+   */
+  private abstract static class Sort<A> {
+    private final Node node;
+    private final ExecutorService pool;
+    private final int[] bounds;
+
+    Sort(Node node, ExecutorService pool, int length) {
+      var threads = Runtime.getRuntime().availableProcessors();
+      var runs = Math.max(1, Math.min(threads, length / MIN_RUN_LENGTH));
+      this.node = node;
+      this.pool = pool;
+      this.bounds = new int[runs + 1];
+      for (var i = 0; i <= runs; i++) {
+        bounds[i] = (int) ((long) length * i / runs);
+      }
+    }
+
+    /** Sorts the elements between {@code from} (inclusive) and {@code to} (exclusive). */
+    abstract void sortRun(A array, int from, int to);
+
+    /** Merges the sorted ranges {@code [from, mid)} and {@code [mid, to)} of src into dst. */
+    abstract void merge(A src, A dst, int from, int mid, int to);
+
+    /**
+     * Sorts the array.
+     *
+     * @param array the array to sort
+     * @param buffer an array of the same length to merge into
+     */
+    final void run(A array, A buffer) {
+      var runs = bounds.length - 1;
+      var tasks = new ArrayList<Future<?>>(runs);
+      for (var r = 0; r < runs; r++) {
+        var from = bounds[r];
+        var to = bounds[r + 1];
+        tasks.add(pool.submit(() -> sortRun(array, from, to)));
+      }
+      awaitAll(tasks);
+
+      var src = array;
+      var dst = buffer;
+      for (var width = 1; width < runs; width *= 2) {
+        tasks.clear();
+        for (var r = 0; r < runs; r += 2 * width) {
+          var from = bounds[r];
+          var mid = bounds[Math.min(r + width, runs)];
+          var to = bounds[Math.min(r + 2 * width, runs)];
+          var s = src;
+          var d = dst;
+          tasks.add(pool.submit(() -> merge(s, d, from, mid, to)));
+        }
+        awaitAll(tasks);
+        var swap = src;
+        src = dst;
+        dst = swap;
+      }
+      if (src != array) {
+        System.arraycopy(src, 0, array, 0, bounds[runs]);
+      }
+    }
+
+    private void awaitAll(List<Future<?>> tasks) {
+      try {
+        for (var task : tasks) {
+          TruffleSafepoint.setBlockedThreadInterruptible(node, ParallelSort::await, task);
+        }
+      } catch (RuntimeException | Error e) {
+        for (var task : tasks) {
+          task.cancel(true);
+        }
+        throw e;
+      }
+    }
+  }
+
+  private static void await(Future<?> task) throws InterruptedException {
+    try {
+      task.get();
+    } catch (ExecutionException e) {
+      var cause = e.getCause();
+      if (cause instanceof RuntimeException re) {
+        throw re;
+      } else if (cause instanceof Error err) {
+        throw err;
+      } else {
+        throw new IllegalStateException(cause);
+      }
+    }
+  }
+}
@@ -46,6 +46,7 @@ import org.enso.interpreter.runtime.warning.AppendWarningNode;
 import org.enso.interpreter.runtime.warning.Warning;
 import org.enso.interpreter.runtime.warning.WarningsLibrary;
 import org.enso.interpreter.runtime.warning.WithWarnings;
+import org.enso.polyglot.common_utils.Core_Text_Utils;
 
 /**
  * Sorts a vector with elements that have only Default_Comparator, thus, only elements with a
@@ -90,6 +91,90 @@ public abstract class SortVectorNode extends Node {
       Object onFunc,
       long problemBehavior);
 
+  /**
+   * Sorts a vector backed by a {@code long[]}, e.g. one built by {@code Vector.new} or a {@code
+   * Vector.Builder} from integers. The values are sorted in a copy of the backing array, so none
+   * of them gets boxed and the result is backed by a {@code long[]} again.
+   */
+  @Specialization(
+      guards = {
+        "isLongVector(self)",
+        "interop.isNull(byFunc)",
+        "interop.isNull(onFunc)",
+        "areAllDefaultComparators(lengthNode, atNode, comparators)"
+      })
+  Object sortLongs(
+      VirtualFrame frame,
+      State state,
+      Object self,
+      long ascending,
+      Object comparators,
+      Object compareFunctions,
+      Object byFunc,
+      Object onFunc,
+      long problemBehavior,
+      @Shared("lengthNode") @Cached ArrayLikeLengthNode lengthNode,
+      @Shared("atNode") @Cached ArrayLikeAtNode atNode,
+      @Shared("interop") @CachedLibrary(limit = "10") InteropLibrary interop) {
+    var values = ArrayLikeHelpers.copyLongs(self);
+    sortLongArray(this, values, ascending > 0);
+    return ArrayLikeHelpers.asVectorFromLongs(values);
+  }
+
+  /**
+   * Sorts a vector backed by a {@code double[]} the same way as {@link #sortLongs}. Values which
+   * are incomparable ({@code NaN}), or equal but distinguishable ({@code 0.0} and {@code -0.0}),
+   * have to be ordered by the {@link DefaultSortComparator}, so such vectors are sorted by {@link
+   * #sortPrimitives}.
+   */
+  @Specialization(
+      guards = {
+        "isDoubleVector(self)",
+        "interop.isNull(byFunc)",
+        "interop.isNull(onFunc)",
+        "areAllDefaultComparators(lengthNode, atNode, comparators)"
+      })
+  Object sortDoubles(
+      VirtualFrame frame,
+      State state,
+      Object self,
+      long ascending,
+      Object comparators,
+      Object compareFunctions,
+      Object byFunc,
+      Object onFunc,
+      long problemBehavior,
+      @Shared("lessThanNode") @Cached LessThanNode lessThanNode,
+      @Shared("equalsNode") @Cached EqualsNode equalsNode,
+      @Shared("lengthNode") @Cached ArrayLikeLengthNode lengthNode,
+      @Shared("atNode") @Cached ArrayLikeAtNode atNode,
+      @Shared("typeOfNode") @Cached TypeOfNode typeOfNode,
+      @Shared("anyToTextNode") @Cached AnyToTextNode toTextNode,
+      @Shared("interop") @CachedLibrary(limit = "10") InteropLibrary interop) {
+    var values = ArrayLikeHelpers.copyDoubles(self);
+    if (sortDoubleArray(this, values, ascending > 0)) {
+      return ArrayLikeHelpers.asVectorFromDoubles(values);
+    } else {
+      return sortPrimitives(
+          frame,
+          state,
+          self,
+          ascending,
+          comparators,
+          compareFunctions,
+          byFunc,
+          onFunc,
+          problemBehavior,
+          lessThanNode,
+          equalsNode,
+          lengthNode,
+          atNode,
+          typeOfNode,
+          toTextNode,
+          interop);
+    }
+  }
+
   /**
    * Sorts primitive values, i.e., values with only Default_Comparator. We can optimize this case.
    * It is important that `byFunc` is Nothing, i.e., has the default value. In that case, we can
@@ -134,6 +219,9 @@ public abstract class SortVectorNode extends Node {
     } catch (ArithmeticException | InvalidArrayIndexException e) {
       throw invalidArrayIndexException(e, longSize);
     }
+    if (areAllTexts(elems)) {
+      return sortTextArray(this, elems, ascending > 0);
+    }
     var javaComparator =
         createDefaultComparator(
             frame.materialize(),
@@ -295,6 +383,89 @@ public abstract class SortVectorNode extends Node {
     }
   }
 
+  boolean isLongVector(Object vector) {
+    return ArrayLikeHelpers.isLongVector(vector);
+  }
+
+  boolean isDoubleVector(Object vector) {
+    return ArrayLikeHelpers.isDoubleVector(vector);
+  }
+
+  @TruffleBoundary
+  private static void sortLongArray(Node node, long[] values, boolean ascending) {
+    ParallelSort.sort(node, values);
+    if (!ascending) {
+      for (int i = 0, j = values.length - 1; i < j; i++, j--) {
+        var swap = values[i];
+        values[i] = values[j];
+        values[j] = swap;
+      }
+    }
+  }
+
+  /**
+   * Sorts the values, unless there is a {@code NaN} or both zeros among them.
+   *
+   * @return {@code false} if the values were not sorted
+   */
+  @TruffleBoundary
+  private static boolean sortDoubleArray(Node node, double[] values, boolean ascending) {
+    var hasPositiveZero = false;
+    var hasNegativeZero = false;
+    for (var value : values) {
+      if (Double.isNaN(value)) {
+        return false;
+      } else if (value == 0.0) {
+        if (Double.doubleToRawLongBits(value) == 0L) {
+          hasPositiveZero = true;
+        } else {
+          hasNegativeZero = true;
+        }
+      }
+    }
+    if (hasPositiveZero && hasNegativeZero) {
+      return false;
+    }
+
+    ParallelSort.sort(node, values);
+    if (!ascending) {
+      for (int i = 0, j = values.length - 1; i < j; i++, j--) {
+        var swap = values[i];
+        values[i] = values[j];
+        values[j] = swap;
+      }
+    }
+    return true;
+  }
+
+  private static boolean areAllTexts(Object[] elems) {
+    for (var elem : elems) {
+      if (!(elem instanceof Text)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Sorts texts without dispatching through {@link LessThanNode} and {@link EqualsNode}. The order
+   * is the same as theirs, and the sort is stable, as with the {@link DefaultSortComparator}.
+   */
+  @TruffleBoundary
+  private static Object sortTextArray(Node node, Object[] elems, boolean ascending) {
+    java.util.Comparator<Object> order = (x, y) -> compareTexts((Text) x, (Text) y);
+    ParallelSort.sort(node, elems, ascending ? order : order.reversed());
+    return ArrayLikeHelpers.asVectorWithCheckAt(elems);
+  }
+
+  private static int compareTexts(Text x, Text y) {
+    if (x.is_normalized() && y.is_normalized()) {
+      return x.toString().compareTo(y.toString());
+    } else {
+      return Core_Text_Utils.compare_normalized(x.toString(), y.toString());
+    }
+  }
+
   @TruffleBoundary(allowInlining = true)
   private Object sortPrimitiveVector(Object[] elems, DefaultSortComparator javaComparator)
       throws CompareException {
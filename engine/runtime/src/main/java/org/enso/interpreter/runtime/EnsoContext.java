@@ -95,6 +95,7 @@ public final class EnsoContext {
   private @CompilationFinal TopLevelScope topScope;
   private final ThreadManager threadManager;
   private final ThreadExecutors threadExecutors;
+  private volatile ExecutorService computeThreadPool;
   private final ResourceManager resourceManager;
   private final boolean isInlineCachingDisabled;
   private final boolean isIrCachingDisabled;
@@ -787,6 +788,31 @@ public final class EnsoContext {
     return threadExecutors.newFixedThreadPool(parallel, name, systemThreads);
   }
 
+  /**
+   * Returns the pool for CPU-bound work split into parallel tasks, like sorting large vectors or
+   * hashing sources of cached libraries. The pool is created on first use and runs on system
+   * threads, so the tasks submitted to it must not execute any guest code.
+   *
+   * @return the pool, or {@code null} if there is just a single processor
+   */
+  public ExecutorService getComputeThreadPool() {
+    var pool = computeThreadPool;
+    if (pool == null) {
+      var processors = Runtime.getRuntime().availableProcessors();
+      if (processors < 2) {
+        return null;
+      }
+      synchronized (threadExecutors) {
+        pool = computeThreadPool;
+        if (pool == null) {
+          pool = newFixedThreadPool(processors, "compute-pool", true);
+          computeThreadPool = pool;
+        }
+      }
+    }
+    return pool;
+  }
+
   /**
    * @return the thread manager for this context.
    */
@@ -11,12 +11,13 @@ import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.library.ExportLibrary;
 import com.oracle.truffle.api.library.ExportMessage;
 import com.oracle.truffle.api.profiles.ConditionProfile;
+import java.util.Iterator;
 import org.enso.interpreter.dsl.Builtin;
 import org.enso.interpreter.node.expression.builtin.meta.EqualsNode;
 import org.enso.interpreter.node.expression.builtin.meta.HashCodeNode;
 import org.enso.interpreter.runtime.EnsoContext;
 import org.enso.interpreter.runtime.builtin.BuiltinObject;
-import org.enso.interpreter.runtime.data.hash.EnsoHashMapBuilder.StorageEntry;
+import org.enso.interpreter.runtime.data.hash.EnsoHashMapBuilder.Entry;
 import org.enso.interpreter.runtime.data.vector.ArrayLikeHelpers;
 
 /**
@@ -26,28 +27,61 @@ import org.enso.interpreter.runtime.data.vector.ArrayLikeHelpers;
  * {@code insert} operation in constant time. In other words, every map is just a snapshot of its
  * builder.
  *
+ * <p>Modifying an older snapshot, or removing from a map, requires a copy of the builder. Large
+ * maps avoid that by switching to a persistent {@link EnsoHashMapTrie} instead, once they reach
+ * {@link #TRIE_THRESHOLD} entries. Modifications of such map copy only {@code O(log32 n)} nodes of
+ * the trie and share the rest with the original map.
+ *
  * <p>Users should not use Enso objects as keys to Java maps, because equals won't work the same way
  * as it works in Enso.
  */
 @ExportLibrary(InteropLibrary.class)
 @Builtin(stdlibName = "Standard.Base.Data.Dictionary.Dictionary", name = "Dictionary")
 public final class EnsoHashMap extends BuiltinObject {
+  /**
+   * The size from which a map that would have to copy its builder is converted to a trie instead.
+   */
+  static final int TRIE_THRESHOLD = 1024;
+
+  /** The builder this map is a snapshot of, or {@code null} if the map is backed by a trie. */
   private final EnsoHashMapBuilder mapBuilder;
+
+  /** The trie holding the entries, or {@code null} if the map is backed by a builder. */
+  private final EnsoHashMapTrie trie;
+
   private final int generation;
   private final int size;
 
   private Object cachedVectorRepresentation;
 
+  /**
+   * The trie converted from the builder of this map, kept so that further modifications of this
+   * snapshot share it instead of converting the builder again.
+   */
+  private EnsoHashMapTrie cachedTrie;
+
   private EnsoHashMap(EnsoHashMapBuilder mapBuilder) {
     this.mapBuilder = mapBuilder;
+    this.trie = null;
     this.generation = mapBuilder.generation();
     this.size = mapBuilder.size();
   }
 
+  private EnsoHashMap(EnsoHashMapTrie trie) {
+    this.mapBuilder = null;
+    this.trie = trie;
+    this.generation = 0;
+    this.size = trie.size();
+  }
+
   static EnsoHashMap createWithBuilder(EnsoHashMapBuilder mapBuilder) {
     return new EnsoHashMap(mapBuilder);
   }
 
+  static EnsoHashMap createWithTrie(EnsoHashMapTrie trie) {
+    return new EnsoHashMap(trie);
+  }
+
   static EnsoHashMap createEmpty() {
     return new EnsoHashMap(EnsoHashMapBuilder.create());
   }
@@ -57,12 +91,73 @@ public final class EnsoHashMap extends BuiltinObject {
     return "Dictionary";
   }
 
-  EnsoHashMapBuilder getMapBuilder(
-      VirtualFrame frame, boolean readOnly, HashCodeNode hashCodeNode, EqualsNode equalsNode) {
-    if (readOnly) {
-      return mapBuilder;
+  /**
+   * Returns a new map with the given key mapped to the value. A map backed by a builder keeps using
+   * it as long as the builder does not have to be copied for this snapshot, or the map is small.
+   */
+  EnsoHashMap insert(
+      VirtualFrame frame,
+      Object key,
+      Object value,
+      HashCodeNode hashCodeNode,
+      EqualsNode equalsNode) {
+    if (trie == null && (size < TRIE_THRESHOLD || mapBuilder.generation() == generation)) {
+      var modifiableBuilder = mapBuilder.asModifiable(frame, generation, hashCodeNode, equalsNode);
+      modifiableBuilder.put(frame, key, value, hashCodeNode, equalsNode);
+      return modifiableBuilder.build();
+    } else {
+      var newTrie = getTrie(frame, hashCodeNode, equalsNode);
+      return createWithTrie(newTrie.put(frame, key, value, hashCodeNode, equalsNode));
+    }
+  }
+
+  /**
+   * Returns a new map without the given key, or {@code null} if there is no such key. Large maps
+   * are converted to a trie, where the removed entries do not occupy any space.
+   */
+  EnsoHashMap remove(
+      VirtualFrame frame, Object key, HashCodeNode hashCodeNode, EqualsNode equalsNode) {
+    if (trie == null && size < TRIE_THRESHOLD) {
+      var modifiableBuilder = mapBuilder.asModifiable(frame, generation, hashCodeNode, equalsNode);
+      if (modifiableBuilder.remove(frame, key, hashCodeNode, equalsNode)) {
+        return modifiableBuilder.build();
+      } else {
+        return null;
+      }
+    } else {
+      var oldTrie = getTrie(frame, hashCodeNode, equalsNode);
+      var newTrie = oldTrie.remove(frame, key, hashCodeNode, equalsNode);
+      return newTrie == oldTrie ? null : createWithTrie(newTrie);
+    }
+  }
+
+  private EnsoHashMapTrie getTrie(
+      VirtualFrame frame, HashCodeNode hashCodeNode, EqualsNode equalsNode) {
+    if (trie != null) {
+      return trie;
+    }
+    if (cachedTrie == null) {
+      cachedTrie =
+          EnsoHashMapTrie.fromBuilder(frame, mapBuilder, generation, hashCodeNode, equalsNode);
+    }
+    return cachedTrie;
+  }
+
+  /** Iterates over all the entries of this map. */
+  Iterator<Entry> getEntriesIterator() {
+    if (trie != null) {
+      return trie.getEntriesIterator();
+    } else {
+      return mapBuilder.getEntriesIterator(generation);
+    }
+  }
+
+  private Object get(Object key, HashCodeNode hashCodeNode, EqualsNode equalsNode) {
+    if (trie != null) {
+      return trie.get(null, key, hashCodeNode, equalsNode);
     } else {
-      return mapBuilder.asModifiable(frame, generation, hashCodeNode, equalsNode);
+      var entry = mapBuilder.get(null, key, generation, hashCodeNode, equalsNode);
+      return entry == null ? null : entry.value();
     }
   }
 
@@ -76,7 +171,9 @@ public final class EnsoHashMap extends BuiltinObject {
       var keys = new Object[size];
       var values = new Object[size];
       var at = 0;
-      for (var entry : mapBuilder.getEntries(generation, size)) {
+      var it = getEntriesIterator();
+      while (it.hasNext()) {
+        var entry = it.next();
         keys[at] = entry.key();
         values[at] = entry.value();
         at++;
@@ -108,8 +205,7 @@ public final class EnsoHashMap extends BuiltinObject {
       Object key,
       @Shared("hash") @Cached HashCodeNode hashCodeNode,
       @Shared("equals") @Cached EqualsNode equalsNode) {
-    var entry = mapBuilder.get(null, key, generation, hashCodeNode, equalsNode);
-    return entry != null;
+    return get(key, hashCodeNode, equalsNode) != null;
   }
 
   @ExportMessage
@@ -126,9 +222,9 @@ public final class EnsoHashMap extends BuiltinObject {
       @Shared("hash") @Cached HashCodeNode hashCodeNode,
       @Shared("equals") @Cached EqualsNode equalsNode)
       throws UnknownKeyException {
-    StorageEntry entry = mapBuilder.get(null, key, generation, hashCodeNode, equalsNode);
-    if (entry != null) {
-      return entry.value();
+    var value = get(key, hashCodeNode, equalsNode);
+    if (value != null) {
+      return value;
     } else {
       throw UnknownKeyException.create(key);
     }
@@ -162,7 +258,9 @@ public final class EnsoHashMap extends BuiltinObject {
     var sb = new StringBuilder();
     sb.append("{");
     boolean empty = true;
-    for (StorageEntry entry : mapBuilder.getEntries(generation, size)) {
+    var it = getEntriesIterator();
+    while (it.hasNext()) {
+      var entry = it.next();
       empty = false;
       sb.append(entryToString(entry, useInterop)).append(", ");
     }
@@ -174,7 +272,7 @@ public final class EnsoHashMap extends BuiltinObject {
     return sb.toString();
   }
 
-  private static String entryToString(StorageEntry entry, boolean useInterop) {
+  private static String entryToString(Entry entry, boolean useInterop) {
     String keyStr;
     String valStr;
     if (useInterop) {
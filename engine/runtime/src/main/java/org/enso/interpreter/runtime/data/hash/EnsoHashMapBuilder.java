@@ -68,26 +68,6 @@ final class EnsoHashMapBuilder {
     return actualSize;
   }
 
-  /**
-   * Provides access to all {@code StorageEntry} in this builder at given {@code atGeneration}.
-   * Classical usage is to {@code for (var e : this) if (e.isVisible(atGeneration) operation(e))}.
-   */
-  StorageEntry[] getEntries(int atGeneration, int size) {
-    var arr = new StorageEntry[size];
-    var at = 0;
-    for (var i = 0; i < byHash.length; i++) {
-      var e = byHash[i];
-      if (e != null && e.isVisible(atGeneration)) {
-        arr[at++] = e;
-      }
-    }
-    if (at != arr.length) {
-      return Arrays.copyOf(arr, at);
-    } else {
-      return arr;
-    }
-  }
-
   record Entry(Object key, Object value) {}
 
   Iterator<Entry> getEntriesIterator(int atGeneration) {
@@ -294,7 +274,7 @@ final class EnsoHashMapBuilder {
         + "}";
   }
 
-  private static boolean compare(VirtualFrame frame, EqualsNode equalsNode, Object a, Object b) {
+  static boolean compare(VirtualFrame frame, EqualsNode equalsNode, Object a, Object b) {
     if (a instanceof Double aDbl && b instanceof Double bDbl && aDbl.isNaN() && bDbl.isNaN()) {
       return true;
     } else {
@@ -0,0 +1,503 @@
+package org.enso.interpreter.runtime.data.hash;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.enso.interpreter.node.expression.builtin.meta.EqualsNode;
+import org.enso.interpreter.node.expression.builtin.meta.HashCodeNode;
+import org.enso.interpreter.runtime.data.hash.EnsoHashMapBuilder.Entry;
+
+/**
+ * A persistent storage for a {@link EnsoHashMap}, implemented as a <em>hash array mapped
+ * trie</em>. Unlike {@link EnsoHashMapBuilder}, the trie is immutable. Both {@code put} and {@code
+ * remove} create a new trie, copying only the nodes on the path to the changed key, and share all
+ * the other nodes with the original trie. Hence any snapshot can be modified in {@code O(log32 n)}
+ * time.
+ *
+ * <p>Each level of the trie consumes 5 bits of the 32-bit hash of a key. Every {@link BitmapNode}
+ * has one bitmap of the hash fragments stored directly as key-value pairs and another one of the
+ * fragments stored in sub-nodes, and keeps only the present ones in a compact array. Keys with
+ * equal hashes are kept in a {@link CollisionNode} once all the bits of the hash are consumed.
+ *
+ * <p>The operations are implemented with loops instead of recursion, so that they can be partially
+ * evaluated together with the {@link HashCodeNode} and {@link EqualsNode} they use.
+ */
+final class EnsoHashMapTrie {
+  private static final int BITS_PER_LEVEL = 5;
+  private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+
+  /** The largest shift of a {@link BitmapNode}, deeper levels are collision nodes. */
+  private static final int MAX_SHIFT = 30;
+
+  /** The maximal number of bitmap nodes on a path from the root to any node. */
+  private static final int MAX_DEPTH = MAX_SHIFT / BITS_PER_LEVEL + 1;
+
+  private static final EnsoHashMapTrie EMPTY =
+      new EnsoHashMapTrie(new BitmapNode(0, 0, new Object[0]), 0);
+
+  private final BitmapNode root;
+  private final int size;
+
+  private EnsoHashMapTrie(BitmapNode root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  static EnsoHashMapTrie empty() {
+    return EMPTY;
+  }
+
+  /** Creates a trie with all the entries of the builder that are visible at given generation. */
+  static EnsoHashMapTrie fromBuilder(
+      VirtualFrame frame,
+      EnsoHashMapBuilder builder,
+      int atGeneration,
+      HashCodeNode hashCodeNode,
+      EqualsNode equalsNode) {
+    var trie = EMPTY;
+    var it = builder.getEntriesIterator(atGeneration);
+    while (it.hasNext()) {
+      var entry = it.next();
+      trie = trie.put(frame, entry.key(), entry.value(), hashCodeNode, equalsNode);
+    }
+    return trie;
+  }
+
+  /** Returns the number of entries in the trie. */
+  int size() {
+    return size;
+  }
+
+  /** Finds the value for given key, or returns {@code null} if the key is not present. */
+  Object get(VirtualFrame frame, Object key, HashCodeNode hashCodeNode, EqualsNode equalsNode) {
+    var hash = hash(key, hashCodeNode);
+    var node = root;
+    for (var shift = 0; shift <= MAX_SHIFT; shift += BITS_PER_LEVEL) {
+      var bit = bit(hash, shift);
+      if ((node.dataMap & bit) != 0) {
+        var at = node.dataIndex(bit);
+        if (EnsoHashMapBuilder.compare(frame, equalsNode, key, node.keyAt(at))) {
+          return node.valueAt(at);
+        } else {
+          return null;
+        }
+      } else if ((node.nodeMap & bit) != 0) {
+        var subNode = node.subNode(bit);
+        if (subNode instanceof BitmapNode bitmapNode) {
+          node = bitmapNode;
+        } else {
+          var collisionNode = (CollisionNode) subNode;
+          var at = collisionNode.find(frame, key, equalsNode);
+          return at < 0 ? null : collisionNode.valueAt(at);
+        }
+      } else {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns a new trie with the key mapped to the value. If an equal key is already present, its
+   * mapping is replaced.
+   */
+  EnsoHashMapTrie put(
+      VirtualFrame frame,
+      Object key,
+      Object value,
+      HashCodeNode hashCodeNode,
+      EqualsNode equalsNode) {
+    assert value != null;
+    var hash = hash(key, hashCodeNode);
+    var path = new BitmapNode[MAX_DEPTH];
+    var depth = 0;
+    var node = root;
+    var added = true;
+    Object replacement;
+    while (true) {
+      var shift = depth * BITS_PER_LEVEL;
+      var bit = bit(hash, shift);
+      if ((node.dataMap & bit) != 0) {
+        var at = node.dataIndex(bit);
+        var existingKey = node.keyAt(at);
+        if (EnsoHashMapBuilder.compare(frame, equalsNode, existingKey, key)) {
+          replacement = node.withValue(at, key, value);
+          added = false;
+        } else {
+          var existingHash = hash(existingKey, hashCodeNode);
+          var merged =
+              merge(
+                  shift + BITS_PER_LEVEL,
+                  existingKey,
+                  node.valueAt(at),
+                  existingHash,
+                  key,
+                  value,
+                  hash);
+          replacement = node.withEntryMovedToNode(bit, merged);
+        }
+        break;
+      } else if ((node.nodeMap & bit) != 0) {
+        path[depth++] = node;
+        var subNode = node.subNode(bit);
+        if (subNode instanceof BitmapNode bitmapNode) {
+          node = bitmapNode;
+        } else {
+          var collisionNode = (CollisionNode) subNode;
+          var at = collisionNode.find(frame, key, equalsNode);
+          if (at < 0) {
+            replacement = collisionNode.withEntry(key, value);
+          } else {
+            replacement = collisionNode.withValue(at, key, value);
+            added = false;
+          }
+          depth--;
+          replacement = path[depth].withNode(bit, replacement);
+          break;
+        }
+      } else {
+        replacement = node.withEntry(bit, key, value);
+        break;
+      }
+    }
+    while (depth > 0) {
+      depth--;
+      replacement = path[depth].withNode(bit(hash, depth * BITS_PER_LEVEL), replacement);
+    }
+    return new EnsoHashMapTrie((BitmapNode) replacement, added ? size + 1 : size);
+  }
+
+  /**
+   * Returns a new trie without the mapping for the given key, or {@code this} if there is no such
+   * key.
+   */
+  EnsoHashMapTrie remove(
+      VirtualFrame frame, Object key, HashCodeNode hashCodeNode, EqualsNode equalsNode) {
+    var hash = hash(key, hashCodeNode);
+    var path = new BitmapNode[MAX_DEPTH];
+    var depth = 0;
+    var node = root;
+    Object replacement;
+    while (true) {
+      var bit = bit(hash, depth * BITS_PER_LEVEL);
+      if ((node.dataMap & bit) != 0) {
+        var at = node.dataIndex(bit);
+        if (!EnsoHashMapBuilder.compare(frame, equalsNode, key, node.keyAt(at))) {
+          return this;
+        }
+        replacement = node.withoutEntry(bit, at);
+        break;
+      } else if ((node.nodeMap & bit) != 0) {
+        path[depth++] = node;
+        var subNode = node.subNode(bit);
+        if (subNode instanceof BitmapNode bitmapNode) {
+          node = bitmapNode;
+        } else {
+          var collisionNode = (CollisionNode) subNode;
+          var at = collisionNode.find(frame, key, equalsNode);
+          if (at < 0) {
+            return this;
+          }
+          replacement = collisionNode.withoutEntry(at);
+          break;
+        }
+      } else {
+        return this;
+      }
+    }
+    // A sub-node left with a single entry is inlined into its parent, so that the trie stays as
+    // shallow as if the removed key has never been there.
+    while (depth > 0) {
+      depth--;
+      var parent = path[depth];
+      var bit = bit(hash, depth * BITS_PER_LEVEL);
+      if (replacement instanceof BitmapNode bitmapNode && bitmapNode.isSingleEntry()) {
+        replacement = parent.withNodeInlined(bit, bitmapNode.keyAt(0), bitmapNode.valueAt(0));
+      } else if (replacement instanceof CollisionNode collisionNode
+          && collisionNode.isSingleEntry()) {
+        replacement =
+            parent.withNodeInlined(bit, collisionNode.keyAt(0), collisionNode.valueAt(0));
+      } else {
+        replacement = parent.withNode(bit, replacement);
+      }
+    }
+    return new EnsoHashMapTrie((BitmapNode) replacement, size - 1);
+  }
+
+  /** Iterates over all the entries of the trie, in the order of their hashes. */
+  Iterator<Entry> getEntriesIterator() {
+    return new EntriesIterator(root);
+  }
+
+  /**
+   * Creates a node holding two entries with different keys. Its level is the first one, starting
+   * at {@code shift}, where the hashes of the keys differ. All the levels above it get a node with
+   * a single sub-node.
+   */
+  private static Object merge(
+      int shift, Object key1, Object value1, int hash1, Object key2, Object value2, int hash2) {
+    var differsAt = shift;
+    while (differsAt <= MAX_SHIFT && fragment(hash1, differsAt) == fragment(hash2, differsAt)) {
+      differsAt += BITS_PER_LEVEL;
+    }
+    Object node;
+    if (differsAt > MAX_SHIFT) {
+      node = new CollisionNode(new Object[] {key1, value1, key2, value2});
+    } else if (fragment(hash1, differsAt) < fragment(hash2, differsAt)) {
+      var dataMap = bit(hash1, differsAt) | bit(hash2, differsAt);
+      node = new BitmapNode(dataMap, 0, new Object[] {key1, value1, key2, value2});
+    } else {
+      var dataMap = bit(hash1, differsAt) | bit(hash2, differsAt);
+      node = new BitmapNode(dataMap, 0, new Object[] {key2, value2, key1, value1});
+    }
+    for (var at = differsAt - BITS_PER_LEVEL; at >= shift; at -= BITS_PER_LEVEL) {
+      node = new BitmapNode(0, bit(hash1, at), new Object[] {node});
+    }
+    return node;
+  }
+
+  private static int hash(Object key, HashCodeNode hashCodeNode) {
+    var hash = hashCodeNode.execute(key);
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  private static int fragment(int hash, int shift) {
+    return (hash >>> shift) & LEVEL_MASK;
+  }
+
+  private static int bit(int hash, int shift) {
+    return 1 << fragment(hash, shift);
+  }
+
+  /**
+   * A node of the trie. The {@code content} array holds the key-value pairs for the fragments in
+   * {@code dataMap}, followed by the sub-nodes for the fragments in {@code nodeMap}, both ordered
+   * by the fragment.
+   */
+  private static final class BitmapNode {
+    private final int dataMap;
+    private final int nodeMap;
+    private final Object[] content;
+
+    BitmapNode(int dataMap, int nodeMap, Object[] content) {
+      assert (dataMap & nodeMap) == 0;
+      assert content.length == 2 * Integer.bitCount(dataMap) + Integer.bitCount(nodeMap);
+      this.dataMap = dataMap;
+      this.nodeMap = nodeMap;
+      this.content = content;
+    }
+
+    int entryCount() {
+      return Integer.bitCount(dataMap);
+    }
+
+    int nodeCount() {
+      return Integer.bitCount(nodeMap);
+    }
+
+    boolean isSingleEntry() {
+      return nodeMap == 0 && entryCount() == 1;
+    }
+
+    int dataIndex(int bit) {
+      return Integer.bitCount(dataMap & (bit - 1));
+    }
+
+    private int nodeIndex(int bit) {
+      return 2 * entryCount() + Integer.bitCount(nodeMap & (bit - 1));
+    }
+
+    Object keyAt(int at) {
+      return content[2 * at];
+    }
+
+    Object valueAt(int at) {
+      return content[2 * at + 1];
+    }
+
+    Object subNode(int bit) {
+      return content[nodeIndex(bit)];
+    }
+
+    Object nodeAt(int at) {
+      return content[2 * entryCount() + at];
+    }
+
+    BitmapNode withValue(int at, Object key, Object value) {
+      var newContent = content.clone();
+      newContent[2 * at] = key;
+      newContent[2 * at + 1] = value;
+      return new BitmapNode(dataMap, nodeMap, newContent);
+    }
+
+    BitmapNode withNode(int bit, Object node) {
+      var newContent = content.clone();
+      newContent[nodeIndex(bit)] = node;
+      return new BitmapNode(dataMap, nodeMap, newContent);
+    }
+
+    BitmapNode withEntry(int bit, Object key, Object value) {
+      var at = 2 * dataIndex(bit);
+      var newContent = new Object[content.length + 2];
+      System.arraycopy(content, 0, newContent, 0, at);
+      newContent[at] = key;
+      newContent[at + 1] = value;
+      System.arraycopy(content, at, newContent, at + 2, content.length - at);
+      return new BitmapNode(dataMap | bit, nodeMap, newContent);
+    }
+
+    BitmapNode withoutEntry(int bit, int at) {
+      var from = 2 * at;
+      var newContent = new Object[content.length - 2];
+      System.arraycopy(content, 0, newContent, 0, from);
+      System.arraycopy(content, from + 2, newContent, from, content.length - from - 2);
+      return new BitmapNode(dataMap ^ bit, nodeMap, newContent);
+    }
+
+    /** Replaces the key-value pair at given fragment with a sub-node. */
+    BitmapNode withEntryMovedToNode(int bit, Object node) {
+      var from = 2 * dataIndex(bit);
+      var newNodeMap = nodeMap | bit;
+      var to = 2 * entryCount() - 2 + Integer.bitCount(newNodeMap & (bit - 1));
+      var newContent = new Object[content.length - 1];
+      System.arraycopy(content, 0, newContent, 0, from);
+      System.arraycopy(content, from + 2, newContent, from, to - from);
+      newContent[to] = node;
+      System.arraycopy(content, to + 2, newContent, to + 1, content.length - to - 2);
+      return new BitmapNode(dataMap ^ bit, newNodeMap, newContent);
+    }
+
+    /** Replaces the sub-node at given fragment with a key-value pair. */
+    BitmapNode withNodeInlined(int bit, Object key, Object value) {
+      var from = nodeIndex(bit);
+      var newDataMap = dataMap | bit;
+      var to = 2 * Integer.bitCount(newDataMap & (bit - 1));
+      var newContent = new Object[content.length + 1];
+      System.arraycopy(content, 0, newContent, 0, to);
+      newContent[to] = key;
+      newContent[to + 1] = value;
+      System.arraycopy(content, to, newContent, to + 2, from - to);
+      System.arraycopy(content, from + 1, newContent, from + 2, content.length - from - 1);
+      return new BitmapNode(newDataMap, nodeMap ^ bit, newContent);
+    }
+  }
+
+  /** A leaf of the trie holding key-value pairs of keys with equal hashes. */
+  private static final class CollisionNode {
+    private final Object[] content;
+
+    CollisionNode(Object[] content) {
+      this.content = content;
+    }
+
+    int entryCount() {
+      return content.length / 2;
+    }
+
+    boolean isSingleEntry() {
+      return content.length == 2;
+    }
+
+    Object keyAt(int at) {
+      return content[2 * at];
+    }
+
+    Object valueAt(int at) {
+      return content[2 * at + 1];
+    }
+
+    int find(VirtualFrame frame, Object key, EqualsNode equalsNode) {
+      for (var at = 0; at < entryCount(); at++) {
+        if (EnsoHashMapBuilder.compare(frame, equalsNode, key, keyAt(at))) {
+          return at;
+        }
+      }
+      return -1;
+    }
+
+    CollisionNode withValue(int at, Object key, Object value) {
+      var newContent = content.clone();
+      newContent[2 * at] = key;
+      newContent[2 * at + 1] = value;
+      return new CollisionNode(newContent);
+    }
+
+    CollisionNode withEntry(Object key, Object value) {
+      var newContent = new Object[content.length + 2];
+      System.arraycopy(content, 0, newContent, 0, content.length);
+      newContent[content.length] = key;
+      newContent[content.length + 1] = value;
+      return new CollisionNode(newContent);
+    }
+
+    CollisionNode withoutEntry(int at) {
+      var from = 2 * at;
+      var newContent = new Object[content.length - 2];
+      System.arraycopy(content, 0, newContent, 0, from);
+      System.arraycopy(content, from + 2, newContent, from, content.length - from - 2);
+      return new CollisionNode(newContent);
+    }
+  }
+
+  /** Depth-first iterator over the entries, keeping the path to the current node on a stack. */
+  private static final class EntriesIterator implements Iterator<Entry> {
+    private final Object[] nodes = new Object[MAX_DEPTH + 1];
+
+    /** Index of the next entry, followed by the index of the next sub-node, for every level. */
+    private final int[] positions = new int[2 * (MAX_DEPTH + 1)];
+
+    private int depth = 0;
+    private Entry next;
+
+    EntriesIterator(BitmapNode root) {
+      nodes[0] = root;
+      next = advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Entry next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      var result = next;
+      next = advance();
+      return result;
+    }
+
+    private Entry advance() {
+      while (depth >= 0) {
+        var node = nodes[depth];
+        var entryAt = positions[2 * depth];
+        if (node instanceof BitmapNode bitmapNode) {
+          if (entryAt < bitmapNode.entryCount()) {
+            positions[2 * depth]++;
+            return new Entry(bitmapNode.keyAt(entryAt), bitmapNode.valueAt(entryAt));
+          }
+          var nodeAt = positions[2 * depth + 1];
+          if (nodeAt < bitmapNode.nodeCount()) {
+            positions[2 * depth + 1]++;
+            depth++;
+            nodes[depth] = bitmapNode.nodeAt(nodeAt);
+            positions[2 * depth] = 0;
+            positions[2 * depth + 1] = 0;
+            continue;
+          }
+        } else {
+          var collisionNode = (CollisionNode) node;
+          if (entryAt < collisionNode.entryCount()) {
+            positions[2 * depth]++;
+            return new Entry(collisionNode.keyAt(entryAt), collisionNode.valueAt(entryAt));
+          }
+        }
+        nodes[depth] = null;
+        depth--;
+      }
+      return null;
+    }
+  }
+}
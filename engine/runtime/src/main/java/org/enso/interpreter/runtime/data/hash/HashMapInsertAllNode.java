@@ -53,14 +53,12 @@ public abstract class HashMapInsertAllNode extends Node {
     }
     var mapBuilder = EnsoHashMapBuilder.createWithCapacity(selfSize + otherSize);
 
-    var selfMapBuilder = self.getMapBuilder(frame, true, hashCodeNode, equalsNode);
-    var selfEntriesIt = selfMapBuilder.getEntriesIterator(selfMapBuilder.generation());
+    var selfEntriesIt = self.getEntriesIterator();
     while (selfEntriesIt.hasNext()) {
       var selfEntry = selfEntriesIt.next();
       mapBuilder.put(frame, selfEntry.key(), selfEntry.value(), hashCodeNode, equalsNode);
     }
-    var otherMapBuilder = other.getMapBuilder(frame, true, hashCodeNode, equalsNode);
-    var otherEntriesIt = otherMapBuilder.getEntriesIterator(otherMapBuilder.generation());
+    var otherEntriesIt = other.getEntriesIterator();
     var itemsInserted = 0;
     while (otherEntriesIt.hasNext()) {
       if (itemsInserted >= maxItems) {
@@ -47,10 +47,7 @@ public abstract class HashMapInsertNode extends Node {
       @Shared("hash") @Cached HashCodeNode hashCodeNode,
       @Shared("equals") @Cached EqualsNode equalsNode) {
     assert value != null;
-    var mapBuilder = hashMap.getMapBuilder(frame, false, hashCodeNode, equalsNode);
-    mapBuilder.put(frame, key, value, hashCodeNode, equalsNode);
-    var newMap = mapBuilder.build();
-    return newMap;
+    return hashMap.insert(frame, key, value, hashCodeNode, equalsNode);
   }
 
   /**
@@ -40,9 +40,9 @@ public abstract class HashMapRemoveNode extends Node {
       Object key,
       @Shared("hash") @Cached HashCodeNode hashCodeNode,
       @Shared("equals") @Cached EqualsNode equalsNode) {
-    var mapBuilder = ensoMap.getMapBuilder(frame, false, hashCodeNode, equalsNode);
-    if (mapBuilder.remove(frame, key, hashCodeNode, equalsNode)) {
-      return mapBuilder.build();
+    var newMap = ensoMap.remove(frame, key, hashCodeNode, equalsNode);
+    if (newMap != null) {
+      return newMap;
     } else {
       throw DataflowError.withDefaultTrace("No such key", null);
     }
@@ -1,19 +1,73 @@
 package org.enso.interpreter.runtime.data.text;
 
-/** Represents a concatenation of two text values. */
-public class ConcatRope {
+import com.ibm.icu.lang.UCharacter;
+import com.ibm.icu.lang.UCharacter.GraphemeClusterBreak;
+import com.ibm.icu.lang.UProperty;
+import com.oracle.truffle.api.CompilerDirectives;
+import java.util.ArrayDeque;
+import org.enso.polyglot.common_utils.Core_Text_Utils;
+
+/**
+ * Represents a concatenation of two text values. The operands are either {@link String}s or other
+ * ropes.
+ *
+ * <p>The ropes are balanced like AVL trees - the depths of the operands of any rope differ by at
+ * most one. Hence any character is at most {@code O(log n)} levels deep, no matter in which order
+ * the texts were concatenated. Short strings concatenated at the edge of a rope are merged into a
+ * single leaf, so that appending characters one by one does not create a node per character.
+ *
+ * <p>Every rope knows its length in UTF-16 characters and caches its length in grapheme clusters,
+ * once computed. The grapheme length is computed from the lengths of the operands whenever the
+ * concatenation cannot join the grapheme clusters around its seam.
+ */
+public final class ConcatRope {
+  /** The maximal length of a leaf created by merging two strings. */
+  private static final int MAX_MERGED_LEAF_LENGTH = 256;
+
   private final Object left;
   private final Object right;
+  private final int length;
+  private final int depth;
+  private volatile int graphemeLength = -1;
 
   /**
-   * Creates a new rope concatenating the arguments.
+   * Creates a new rope concatenating the arguments. The arguments must be balanced.
    *
    * @param left the left operand
    * @param right the right operand
    */
-  public ConcatRope(Object left, Object right) {
+  private ConcatRope(Object left, Object right) {
+    assert Math.abs(depth(left) - depth(right)) <= 1;
     this.left = left;
     this.right = right;
+    this.length = Math.addExact(length(left), length(right));
+    this.depth = Math.max(depth(left), depth(right)) + 1;
+  }
+
+  /**
+   * Concatenates two text values, keeping the result balanced.
+   *
+   * @param left the left operand, a {@link String} or a {@link ConcatRope}
+   * @param right the right operand, a {@link String} or a {@link ConcatRope}
+   * @return the concatenation, a {@link String} or a {@link ConcatRope}
+   */
+  @CompilerDirectives.TruffleBoundary
+  static Object concat(Object left, Object right) {
+    if (length(left) == 0) {
+      return right;
+    } else if (length(right) == 0) {
+      return left;
+    }
+
+    var leftDepth = depth(left);
+    var rightDepth = depth(right);
+    if (leftDepth > rightDepth + 1) {
+      return joinRight((ConcatRope) left, right);
+    } else if (rightDepth > leftDepth + 1) {
+      return joinLeft(left, (ConcatRope) right);
+    } else {
+      return mergeOrJoin(left, right);
+    }
   }
 
   /**
@@ -29,4 +83,227 @@ public class ConcatRope {
   public Object getRight() {
     return right;
   }
+
+  /**
+   * @return the number of UTF-16 characters in this rope.
+   */
+  public int length() {
+    return length;
+  }
+
+  /**
+   * @return the number of extended grapheme clusters in this rope.
+   */
+  int graphemeLength() {
+    var l = graphemeLength;
+    if (l == -1) {
+      l = computeGraphemeLength();
+      graphemeLength = l;
+    }
+    return l;
+  }
+
+  /**
+   * Builds the string this rope represents.
+   *
+   * @return the concatenated string.
+   */
+  String flatten() {
+    var workStack = new ArrayDeque<>();
+    var bldr = new StringBuilder(length);
+    workStack.push(this);
+    while (!workStack.isEmpty()) {
+      var item = workStack.pop();
+      if (item instanceof String s) {
+        bldr.append(s);
+      } else {
+        var rope = (ConcatRope) item;
+        workStack.push(rope.right);
+        workStack.push(rope.left);
+      }
+    }
+    return bldr.toString();
+  }
+
+  private int computeGraphemeLength() {
+    if (isGraphemeBoundary(lastCodePoint(left), firstCodePoint(right))) {
+      return graphemeLength(left) + graphemeLength(right);
+    } else {
+      return Core_Text_Utils.computeGraphemeLength(flatten());
+    }
+  }
+
+  private static int graphemeLength(Object part) {
+    if (part instanceof String s) {
+      return Core_Text_Utils.computeGraphemeLength(s);
+    } else {
+      return ((ConcatRope) part).graphemeLength();
+    }
+  }
+
+  /**
+   * Checks whether there is a grapheme cluster boundary between the two code points, which does
+   * not influence the boundaries following it. That is the case unless one of the rules of Unicode
+   * Standard Annex 29 that prevent a break, or look behind it, may apply. The check is
+   * conservative, it may return {@code false} for a boundary which turns out not to be affected.
+   *
+   * @param before the code point before the seam, or {@code -1} if it is not known
+   * @param after the code point after the seam, or {@code -1} if it is not known
+   */
+  private static boolean isGraphemeBoundary(int before, int after) {
+    if (before < 0 || after < 0) {
+      return false;
+    }
+
+    var breakBefore = UCharacter.getIntPropertyValue(before, UProperty.GRAPHEME_CLUSTER_BREAK);
+    var breakAfter = UCharacter.getIntPropertyValue(after, UProperty.GRAPHEME_CLUSTER_BREAK);
+    return switch (breakAfter) {
+      case GraphemeClusterBreak.LF -> breakBefore != GraphemeClusterBreak.CR;
+      case GraphemeClusterBreak.CR, GraphemeClusterBreak.CONTROL -> true;
+      case GraphemeClusterBreak.EXTEND,
+          GraphemeClusterBreak.ZWJ,
+          GraphemeClusterBreak.SPACING_MARK -> false;
+      default ->
+          switch (breakBefore) {
+            case GraphemeClusterBreak.PREPEND, GraphemeClusterBreak.ZWJ -> false;
+            // An Indic conjunct may join a consonant after a linker, which is an Extend. All the
+            // conjunct consonants are outside of the Latin, Greek, Cyrillic, Hebrew and Arabic
+            // blocks.
+            case GraphemeClusterBreak.EXTEND -> after < 0x0900;
+            case GraphemeClusterBreak.REGIONAL_INDICATOR ->
+                breakAfter != GraphemeClusterBreak.REGIONAL_INDICATOR;
+            case GraphemeClusterBreak.L,
+                GraphemeClusterBreak.V,
+                GraphemeClusterBreak.T,
+                GraphemeClusterBreak.LV,
+                GraphemeClusterBreak.LVT -> !isHangulSyllable(breakAfter);
+            default -> true;
+          };
+    };
+  }
+
+  private static boolean isHangulSyllable(int graphemeClusterBreak) {
+    return switch (graphemeClusterBreak) {
+      case GraphemeClusterBreak.L,
+          GraphemeClusterBreak.V,
+          GraphemeClusterBreak.T,
+          GraphemeClusterBreak.LV,
+          GraphemeClusterBreak.LVT -> true;
+      default -> false;
+    };
+  }
+
+  /** Returns the last code point of the part, or {@code -1} if it is split between leaves. */
+  private static int lastCodePoint(Object part) {
+    while (part instanceof ConcatRope rope) {
+      part = rope.right;
+    }
+    var s = (String) part;
+    var last = s.charAt(s.length() - 1);
+    if (Character.isHighSurrogate(last)) {
+      return -1;
+    } else if (Character.isLowSurrogate(last)) {
+      var cp = s.codePointBefore(s.length());
+      return Character.isSupplementaryCodePoint(cp) ? cp : -1;
+    } else {
+      return last;
+    }
+  }
+
+  /** Returns the first code point of the part, or {@code -1} if it is split between leaves. */
+  private static int firstCodePoint(Object part) {
+    while (part instanceof ConcatRope rope) {
+      part = rope.left;
+    }
+    var s = (String) part;
+    var first = s.charAt(0);
+    if (Character.isLowSurrogate(first)) {
+      return -1;
+    } else if (Character.isHighSurrogate(first)) {
+      var cp = s.codePointAt(0);
+      return Character.isSupplementaryCodePoint(cp) ? cp : -1;
+    } else {
+      return first;
+    }
+  }
+
+  private static int length(Object part) {
+    if (part instanceof String s) {
+      return s.length();
+    } else {
+      return ((ConcatRope) part).length;
+    }
+  }
+
+  private static int depth(Object part) {
+    if (part instanceof ConcatRope rope) {
+      return rope.depth;
+    } else {
+      return 0;
+    }
+  }
+
+  /**
+   * Concatenates operands of similar depths, merging them into a single leaf if they are short
+   * strings.
+   */
+  private static Object mergeOrJoin(Object left, Object right) {
+    if (left instanceof String l
+        && right instanceof String r
+        && l.length() + r.length() <= MAX_MERGED_LEAF_LENGTH) {
+      return l.concat(r);
+    } else {
+      return new ConcatRope(left, right);
+    }
+  }
+
+  /**
+   * Concatenates a rope with a shallower operand, descending along its right edge. Where the
+   * result would get too deep, it is rotated to the left.
+   */
+  private static Object joinRight(ConcatRope left, Object right) {
+    var outer = left.left;
+    var inner = left.right;
+    var joined =
+        depth(inner) <= depth(right) + 1
+            ? mergeOrJoin(inner, right)
+            : joinRight((ConcatRope) inner, right);
+    if (depth(joined) <= depth(outer) + 1) {
+      return new ConcatRope(outer, joined);
+    }
+
+    var joinedRope = (ConcatRope) joined;
+    if (depth(joinedRope.left) > depth(joinedRope.right)) {
+      var middle = (ConcatRope) joinedRope.left;
+      return new ConcatRope(
+          new ConcatRope(outer, middle.left), new ConcatRope(middle.right, joinedRope.right));
+    } else {
+      return new ConcatRope(new ConcatRope(outer, joinedRope.left), joinedRope.right);
+    }
+  }
+
+  /**
+   * Concatenates a rope with a shallower operand, descending along its left edge. Where the result
+   * would get too deep, it is rotated to the right.
+   */
+  private static Object joinLeft(Object left, ConcatRope right) {
+    var inner = right.left;
+    var outer = right.right;
+    var joined =
+        depth(inner) <= depth(left) + 1
+            ? mergeOrJoin(left, inner)
+            : joinLeft(left, (ConcatRope) inner);
+    if (depth(joined) <= depth(outer) + 1) {
+      return new ConcatRope(joined, outer);
+    }
+
+    var joinedRope = (ConcatRope) joined;
+    if (depth(joinedRope.right) > depth(joinedRope.left)) {
+      var middle = (ConcatRope) joinedRope.right;
+      return new ConcatRope(
+          new ConcatRope(joinedRope.left, middle.left), new ConcatRope(middle.right, outer));
+    } else {
+      return new ConcatRope(joinedRope.left, new ConcatRope(joinedRope.right, outer));
+    }
+  }
 }
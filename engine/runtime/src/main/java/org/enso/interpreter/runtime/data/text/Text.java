@@ -8,19 +8,21 @@ import com.oracle.truffle.api.library.ExportLibrary;
 import com.oracle.truffle.api.library.ExportMessage;
 import com.oracle.truffle.api.strings.TruffleString;
 import com.oracle.truffle.api.strings.TruffleString.Encoding;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import org.enso.interpreter.dsl.Builtin;
 import org.enso.interpreter.node.expression.builtin.text.util.ToJavaStringNode;
 import org.enso.interpreter.runtime.builtin.BuiltinObject;
 import org.enso.polyglot.common_utils.Core_Text_Utils;
 
-/** The main runtime type for Enso's Text. */
+/**
+ * The main runtime type for Enso's Text.
+ *
+ * <p>The contents are either a {@link String} or a balanced {@link ConcatRope}. A rope is flattened
+ * into a string when the text is first converted to a Java string. The flattening is not
+ * synchronized - concurrent threads may flatten the same rope, but they all produce equal strings,
+ * so it does not matter which one gets stored.
+ */
 @ExportLibrary(InteropLibrary.class)
 public final class Text extends BuiltinObject {
-  private static final Lock LOCK = new ReentrantLock();
   private static final Text EMPTY = new Text("");
   private volatile Object contents;
   private volatile int length = -1;
@@ -36,7 +38,7 @@ public final class Text extends BuiltinObject {
     this.contents = string;
   }
 
-  private Text(ConcatRope contents) {
+  private Text(Object contents) {
     this.contents = contents;
   }
 
@@ -120,7 +122,7 @@ public final class Text extends BuiltinObject {
    * @return a Text representing concatenation of t1 and t2.
    */
   public static Text create(Text t1, Text t2) {
-    return new Text(new ConcatRope(t1.contents, t2.contents));
+    return new Text(ConcatRope.concat(t1.contents, t2.contents));
   }
 
   /**
@@ -131,7 +133,7 @@ public final class Text extends BuiltinObject {
    * @return a Text representing concatenation of t1 and t2.
    */
   public static Text create(Text t1, String t2) {
-    return new Text(new ConcatRope(t1.contents, t2));
+    return new Text(ConcatRope.concat(t1.contents, t2));
   }
 
   /**
@@ -142,7 +144,7 @@ public final class Text extends BuiltinObject {
    * @return a Text representing concatenation of t1 and t2.
    */
   public static Text create(String t1, Text t2) {
-    return new Text(new ConcatRope(t1, t2.contents));
+    return new Text(ConcatRope.concat(t1, t2.contents));
   }
 
   /**
@@ -153,7 +155,7 @@ public final class Text extends BuiltinObject {
    * @return a Text representing concatenation of t1 and t2.
    */
   public static Text create(String t1, String t2) {
-    return new Text(new ConcatRope(t1, t2));
+    return new Text(ConcatRope.concat(t1, t2));
   }
 
   /**
@@ -163,7 +165,7 @@ public final class Text extends BuiltinObject {
    * @return the concatenation of this and the requested string.
    */
   public Text add(String other) {
-    return new Text(new ConcatRope(this.contents, other));
+    return new Text(ConcatRope.concat(this.contents, other));
   }
 
   /**
@@ -173,7 +175,7 @@ public final class Text extends BuiltinObject {
    * @return the concatenation of this and the requested text.
    */
   public Text add(Text other) {
-    return new Text(new ConcatRope(this.contents, other.contents));
+    return new Text(ConcatRope.concat(this.contents, other.contents));
   }
 
   @ExportMessage
@@ -191,9 +193,18 @@ public final class Text extends BuiltinObject {
     return fromJavaStringNode.execute(toString(), Encoding.UTF_16);
   }
 
+  /**
+   * Computes the number of grapheme clusters. A rope computes it from the lengths of its parts, so
+   * that it does not need to be flattened.
+   */
   @CompilerDirectives.TruffleBoundary
   private int computeLength() {
-    return Core_Text_Utils.computeGraphemeLength(toString());
+    Object c = this.contents;
+    if (c instanceof ConcatRope rope) {
+      return rope.graphemeLength();
+    } else {
+      return Core_Text_Utils.computeGraphemeLength((String) c);
+    }
   }
 
   @Override
@@ -211,11 +222,6 @@ public final class Text extends BuiltinObject {
     return Core_Text_Utils.prettyPrint(str);
   }
 
-  private void setContents(String contents) {
-    assert length == -1 || length == contents.length();
-    this.contents = contents;
-  }
-
   private void setFcdNormalized(boolean flag) {
     if (flag) {
       fcdNormalized = FcdNormalized.YES;
@@ -242,33 +248,14 @@ public final class Text extends BuiltinObject {
    */
   @CompilerDirectives.TruffleBoundary
   private static String flattenIfNecessary(Text text) {
-    LOCK.lock();
-    String result;
-    try {
-      Object c = text.contents;
-      if (c instanceof String s) {
-        result = s;
-      } else {
-        Deque<Object> workStack = new ArrayDeque<>();
-        StringBuilder bldr = new StringBuilder();
-        workStack.push(c);
-        while (!workStack.isEmpty()) {
-          Object item = workStack.pop();
-          if (item instanceof String) {
-            bldr.append((String) item);
-          } else {
-            ConcatRope rope = (ConcatRope) item;
-            workStack.push(rope.getRight());
-            workStack.push(rope.getLeft());
-          }
-        }
-        result = bldr.toString();
-        text.setContents(result);
-      }
-    } finally {
-      LOCK.unlock();
+    Object c = text.contents;
+    if (c instanceof String s) {
+      return s;
+    } else {
+      String result = ((ConcatRope) c).flatten();
+      text.contents = result;
+      return result;
     }
-    return result;
   }
 
   @Override
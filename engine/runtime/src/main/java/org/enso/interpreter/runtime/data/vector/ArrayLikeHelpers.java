@@ -121,6 +121,54 @@ public final class ArrayLikeHelpers extends BuiltinObject {
     return Vector.fromInteropArray(storage);
   }
 
+  public static EnsoObject asVectorFromLongs(long[] arr) {
+    return Vector.fromLongArray(arr);
+  }
+
+  public static EnsoObject asVectorFromDoubles(double[] arr) {
+    return Vector.fromDoubleArray(arr);
+  }
+
+  /**
+   * Checks whether the object is a vector backed by a {@code long[]}.
+   *
+   * @param obj the object to check
+   * @return {@code true} if {@link #copyLongs} can be used on the object
+   */
+  public static boolean isLongVector(Object obj) {
+    return obj instanceof Vector.Long;
+  }
+
+  /**
+   * Checks whether the object is a vector backed by a {@code double[]}.
+   *
+   * @param obj the object to check
+   * @return {@code true} if {@link #copyDoubles} can be used on the object
+   */
+  public static boolean isDoubleVector(Object obj) {
+    return obj instanceof Vector.Double;
+  }
+
+  /**
+   * Copies the elements of a vector backed by a {@code long[]}, without boxing them.
+   *
+   * @param obj a vector for which {@link #isLongVector} holds
+   * @return a new array with the elements of the vector
+   */
+  public static long[] copyLongs(Object obj) {
+    return ((Vector.Long) obj).copyStorage();
+  }
+
+  /**
+   * Copies the elements of a vector backed by a {@code double[]}, without boxing them.
+   *
+   * @param obj a vector for which {@link #isDoubleVector} holds
+   * @return a new array with the elements of the vector
+   */
+  public static double[] copyDoubles(Object obj) {
+    return ((Vector.Double) obj).copyStorage();
+  }
+
   public static EnsoObject asVectorEnsoObjects(EnsoObject... arr) {
     return Vector.fromEnsoOnlyArray(arr);
   }
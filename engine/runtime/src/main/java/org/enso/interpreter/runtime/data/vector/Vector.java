@@ -295,6 +295,10 @@ abstract class Vector extends BuiltinObject {
       this.storage = storage;
     }
 
+    double[] copyStorage() {
+      return storage.clone();
+    }
+
     @ExportMessage
     long getArraySize() {
       return storage.length;
@@ -358,6 +362,10 @@ abstract class Vector extends BuiltinObject {
       this.storage = storage;
     }
 
+    long[] copyStorage() {
+      return storage.clone();
+    }
+
     @ExportMessage
     long getArraySize() {
       return storage.length;
@@ -13,6 +13,29 @@ public class Environment_Utils {
     }
   }
 
+  /**
+   * Gets the environment variable, including any overrides, as a non-negative integer.
+   *
+   * <p>Returns the default value if the variable is not set or is not a valid non-negative integer.
+   */
+  public static long getNonNegativeLong(String name, long defaultValue) {
+    String value = get_environment_variable(name);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      long parsed = Long.parseLong(value.trim());
+      return parsed >= 0 ? parsed : defaultValue;
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  /** Checks if the environment variable, including any overrides, is set to {@code true}. */
+  public static boolean isEnabled(String name) {
+    return Boolean.parseBoolean(get_environment_variable(name));
+  }
+
   public static void setOverride(String name, String value) {
     overrides.put(name, value);
   }
@@ -0,0 +1,274 @@
+package org.enso.base;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.enso.base.arrays.LongArrayList;
+import org.enso.base.parallel.ParallelTasks;
+import org.graalvm.polyglot.Context;
+
+/**
+ * Builds the row map of {@link FileLineReader} - the positions at which the lines of a file start.
+ *
+ * <p>The file is split into segments which are scanned for line breaks concurrently. The row map
+ * can also be stored in a sidecar file, so that it does not have to be built again for an unchanged
+ * file.
+ */
+public final class FileLineIndex {
+  private static final Logger LOGGER = Logger.getLogger("enso-file-line-reader");
+
+  /** The extension appended to the name of the file to get the name of its sidecar index. */
+  public static final String INDEX_FILE_EXTENSION = ".lines";
+
+  /** Files smaller than this are scanned on a single thread (16MB). */
+  public static final long DEFAULT_PARALLEL_THRESHOLD = 16 * 1024 * 1024;
+
+  /** Amount of data scanned by a single task (32MB). */
+  public static final int DEFAULT_SEGMENT_SIZE = 32 * 1024 * 1024;
+
+  /** The environment variable overriding {@link #DEFAULT_PARALLEL_THRESHOLD}. */
+  public static final String PARALLEL_THRESHOLD_ENV_VAR = "ENSO_FILE_LINE_PARALLEL_THRESHOLD";
+
+  /** The environment variable overriding {@link #DEFAULT_SEGMENT_SIZE}. */
+  public static final String SEGMENT_SIZE_ENV_VAR = "ENSO_FILE_LINE_SEGMENT_SIZE";
+
+  /** How many bytes are scanned between the checks for cancellation (1MB). */
+  private static final int CANCELLATION_CHECK_INTERVAL = 1024 * 1024;
+
+  private static final long INDEX_MAGIC = 0x456e736f4c696e65L;
+  private static final int INDEX_VERSION = 1;
+  private static final int INDEX_HEADER_SIZE = 4 * Long.BYTES + 2 * Integer.BYTES;
+
+  private FileLineIndex() {}
+
+  /** Checks if the row map already contains the positions of all lines up to {@code length}. */
+  public static boolean isComplete(LongArrayList rowMap, long length) {
+    return rowMap.get(rowMap.getSize() - 1) >= length;
+  }
+
+  /**
+   * Adds the positions of all the lines following the last known one to the row map, ending it
+   * with {@code length} - the same way as {@link FileLineReader#forEachLine} does when it reaches
+   * the end of the file without a filter.
+   */
+  public static void complete(File file, long length, LongArrayList rowMap) throws IOException {
+    if (isComplete(rowMap, length)) {
+      return;
+    }
+
+    long start = rowMap.get(rowMap.getSize() - 1);
+    int size =
+        Math.clamp(
+            Environment_Utils.getNonNegativeLong(SEGMENT_SIZE_ENV_VAR, DEFAULT_SEGMENT_SIZE),
+            1,
+            Integer.MAX_VALUE);
+    long parallelThreshold =
+        Environment_Utils.getNonNegativeLong(
+            PARALLEL_THRESHOLD_ENV_VAR, DEFAULT_PARALLEL_THRESHOLD);
+    int segmentCount = (int) ((length - start + size - 1) / size);
+    LongArrayList[] segmentLines = new LongArrayList[segmentCount];
+
+    try (var channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      if (length - start < parallelThreshold || !ParallelTasks.isParallelismAvailable()) {
+        Context context = Context.getCurrent();
+        for (int i = 0; i < segmentCount; i++) {
+          segmentLines[i] = scanSegment(channel, start, length, size, i, context::safepoint);
+        }
+      } else {
+        try {
+          ParallelTasks.run(
+              segmentCount,
+              (i, cancellation) -> {
+                try {
+                  segmentLines[i] =
+                      scanSegment(channel, start, length, size, i, cancellation::check);
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              });
+        } catch (UncheckedIOException e) {
+          throw e.getCause();
+        }
+      }
+    }
+
+    for (LongArrayList lines : segmentLines) {
+      for (int i = 0; i < lines.getSize(); i++) {
+        rowMap.add(lines.get(i));
+      }
+    }
+
+    if (rowMap.get(rowMap.getSize() - 1) != length) {
+      // Add the last line to mark reached the end.
+      rowMap.add(length);
+    }
+  }
+
+  /**
+   * Finds the positions following the line breaks within a single segment.
+   *
+   * <p>A {@code \r\n} pair is a single line break, so one more byte past the segment is mapped to
+   * decide about a {@code \r} at its end.
+   */
+  private static LongArrayList scanSegment(
+      FileChannel channel,
+      long start,
+      long length,
+      int size,
+      int segment,
+      Runnable checkCancellation)
+      throws IOException {
+    long from = start + (long) segment * size;
+    long to = Math.min(from + size, length);
+    long mappedEnd = Math.min(to + 1, length);
+    MappedByteBuffer buffer =
+        channel.map(FileChannel.MapMode.READ_ONLY, from, (int) (mappedEnd - from));
+
+    var lines = new LongArrayList();
+    int segmentLength = (int) (to - from);
+    int mappedLength = (int) (mappedEnd - from);
+    for (int i = 0; i < segmentLength; i++) {
+      byte c = buffer.get(i);
+      if (c == '\n' || (c == '\r' && (i + 1 == mappedLength || buffer.get(i + 1) != '\n'))) {
+        lines.add(from + i + 1);
+      }
+
+      if ((i + 1) % CANCELLATION_CHECK_INTERVAL == 0) {
+        checkCancellation.run();
+      }
+    }
+    return lines;
+  }
+
+  /** Returns the default location of the sidecar index of the file. */
+  public static File defaultIndexFile(File file) {
+    return new File(file.getPath() + INDEX_FILE_EXTENSION);
+  }
+
+  /**
+   * Loads the row map of the file from its sidecar index, if the index matches the current size
+   * and modification time of the file. Otherwise, builds the row map and, if allowed, stores it in
+   * the index.
+   *
+   * <p>Failing to write the index is not an error - the row map is still returned, it will just
+   * have to be built again next time.
+   *
+   * @param file the file to index
+   * @param offset the position of the first line in the file
+   * @param indexFile the sidecar index
+   * @param saveIndex whether a newly built row map should be stored in the sidecar index; it is
+   *     only kept in memory otherwise
+   */
+  public static LongArrayList loadOrBuild(
+      File file, long offset, File indexFile, boolean saveIndex) throws IOException {
+    long length = file.length();
+    long lastModified = file.lastModified();
+
+    LongArrayList rowMap = tryLoad(indexFile.toPath(), length, lastModified, offset);
+    if (rowMap != null) {
+      return rowMap;
+    }
+
+    rowMap = new LongArrayList();
+    rowMap.add(offset);
+    complete(file, length, rowMap);
+    if (!saveIndex) {
+      return rowMap;
+    }
+
+    try {
+      save(indexFile.toPath(), rowMap, length, lastModified, offset);
+    } catch (IOException e) {
+      LOGGER.log(Level.WARNING, "Unable to save the line index " + indexFile, e);
+    }
+    return rowMap;
+  }
+
+  private static LongArrayList tryLoad(Path path, long length, long lastModified, long offset) {
+    if (!Files.isRegularFile(path)) {
+      return null;
+    }
+
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() < INDEX_HEADER_SIZE) {
+        return null;
+      }
+
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getLong() != INDEX_MAGIC
+          || buffer.getInt() != INDEX_VERSION
+          || buffer.getLong() != length
+          || buffer.getLong() != lastModified
+          || buffer.getLong() != offset) {
+        return null;
+      }
+
+      int count = buffer.getInt();
+      if (count < 1 || buffer.remaining() != (long) count * Long.BYTES) {
+        return null;
+      }
+
+      var rowMap = new LongArrayList();
+      for (int i = 0; i < count; i++) {
+        rowMap.add(buffer.getLong());
+      }
+      return rowMap;
+    } catch (IOException e) {
+      LOGGER.log(Level.WARNING, "Unable to load the line index " + path, e);
+      return null;
+    }
+  }
+
+  /** Writes the index to a temporary file first, so that a partially written one is never seen. */
+  private static void save(
+      Path path, LongArrayList rowMap, long length, long lastModified, long offset)
+      throws IOException {
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    try (var channel =
+        FileChannel.open(
+            temporary,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+      buffer
+          .putLong(INDEX_MAGIC)
+          .putInt(INDEX_VERSION)
+          .putLong(length)
+          .putLong(lastModified)
+          .putLong(offset)
+          .putInt(rowMap.getSize());
+      for (int i = 0; i < rowMap.getSize(); i++) {
+        if (buffer.remaining() < Long.BYTES) {
+          writeFully(channel, buffer);
+        }
+        buffer.putLong(rowMap.get(i));
+      }
+      writeFully(channel, buffer);
+    }
+
+    try {
+      Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+}
@@ -5,6 +5,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
@@ -56,6 +57,11 @@ public class FileLineReader {
       return longestPrefix;
     }
 
+    /** Checks if the contents of the stream pass the given filter. */
+    public boolean matches(ContainsFilter filter) {
+      return filter.matches(ByteBuffer.wrap(buf, 0, count), 0, count);
+    }
+
     /** Checks if the stream contains the given byte array. */
     public boolean contains(byte[] bytes, int[] longestPrefix) {
       // ToDo: Needs to deal with the Unicode scenario where the next character is a combining
@@ -97,6 +103,40 @@ public class FileLineReader {
     }
   }
 
+  /**
+   * A filter checking if a line contains the given byte patterns.
+   *
+   * <p>Unlike other filters, it can check the line directly within the mapped file, so that only
+   * the matching lines are copied out and decoded.
+   */
+  public static final class ContainsFilter
+      implements Function<ByteArrayOutputStreamWithContains, String> {
+    /** Each of the matchers has to find one of its patterns in the line. */
+    private final List<MultiPatternMatcher> matchers;
+
+    private final Charset charset;
+
+    private ContainsFilter(List<MultiPatternMatcher> matchers, Charset charset) {
+      this.matchers = matchers;
+      this.charset = charset;
+    }
+
+    /** Checks if the line between the given positions of the buffer passes the filter. */
+    boolean matches(ByteBuffer buffer, int from, int to) {
+      for (MultiPatternMatcher matcher : matchers) {
+        if (!matcher.containsAny(buffer, from, to)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public String apply(ByteArrayOutputStreamWithContains outputStream) {
+      return outputStream.matches(this) ? outputStream.toString(charset) : null;
+    }
+  }
+
   private static final Logger LOGGER = Logger.getLogger("enso-file-line-reader");
 
   /** Amount of data to read at a time for a single line (4KB). */
@@ -150,6 +190,21 @@ public class FileLineReader {
     return c != -1 && (c != '\r' || buffer.hasRemaining());
   }
 
+  /**
+   * Returns the end of the contents of the line which has just been scanned, excluding its line
+   * terminator.
+   */
+  private static int lineContentEnd(MappedByteBuffer buffer, int lineStart) {
+    int end = buffer.position();
+    if (end > lineStart && buffer.get(end - 1) == '\n') {
+      end--;
+    }
+    if (end > lineStart && buffer.get(end - 1) == '\r') {
+      end--;
+    }
+    return end;
+  }
+
   /** Reads a line from a file at the given index using the existing rowMap. */
   private static String readLineByIndex(
       File file, long length, LongArrayList rowMap, int index, Charset charset) throws IOException {
@@ -260,6 +315,13 @@ public class FileLineReader {
     if (startAt >= rowMap.getSize()) {
       throw new IndexOutOfBoundsException(startAt);
     }
+
+    if (filter == null && action == null && endAt == -1) {
+      // Only the positions of the lines are needed, which can be found in parallel.
+      FileLineIndex.complete(file, length, rowMap);
+      return null;
+    }
+
     int index = action == null ? rowMap.getSize() - 1 : startAt;
 
     long position = rowMap.get(index);
@@ -268,6 +330,7 @@ public class FileLineReader {
     }
 
     boolean readAll = filter != null || action != null || endAt == -1;
+    ContainsFilter containsFilter = filter instanceof ContainsFilter f ? f : null;
     var outputStream = new ByteArrayOutputStreamWithContains(128);
     String output = null;
 
@@ -286,12 +349,32 @@ public class FileLineReader {
 
         // Read a line.
         outputStream.reset();
-        boolean success =
-            (readAll || index == endAt) ? readLine(buffer, outputStream) : scanLine(buffer);
+        boolean success;
+        boolean matchesFilter = false;
+        if (containsFilter != null) {
+          // Check the line within the buffer, only copying it out if it matches.
+          int lineStart = buffer.position();
+          success = scanLine(buffer);
+          if (success || !truncated) {
+            int lineEnd = lineContentEnd(buffer, lineStart);
+            matchesFilter = containsFilter.matches(buffer, lineStart, lineEnd);
+            if (matchesFilter) {
+              byte[] bytes = new byte[lineEnd - lineStart];
+              buffer.get(lineStart, bytes);
+              outputStream.write(bytes, 0, bytes.length);
+            }
+          }
+        } else {
+          success =
+              (readAll || index == endAt) ? readLine(buffer, outputStream) : scanLine(buffer);
+        }
 
         if (success || !truncated) {
           String line = null;
-          if (filter == null || (line = filter.apply(outputStream)) != null) {
+          if (filter == null
+              || (containsFilter != null
+                  ? matchesFilter && (line = outputStream.toString(charset)) != null
+                  : (line = filter.apply(outputStream)) != null)) {
             if (index >= rowMap.getSize()) {
               rowMap.add(linePosition);
             }
@@ -383,10 +466,37 @@ public class FileLineReader {
       }
     }
 
-    var bytes = contains.getBytes(charset);
-    var prefixes = ByteArrayOutputStreamWithContains.computeLongestPrefix(bytes);
-    return (outputStream) ->
-        outputStream.contains(bytes, prefixes) ? outputStream.toString(charset) : null;
+    var matcher = MultiPatternMatcher.build(List.of(contains.getBytes(charset)));
+    return new ContainsFilter(List.of(matcher), charset);
+  }
+
+  /** Creates a filter that checks if the line contains any of the given strings. */
+  public static Function<ByteArrayOutputStreamWithContains, String> createContainsAnyFilter(
+      List<String> needles, Charset charset) {
+    if (isUnicodeCharset(charset)) {
+      for (String needle : needles) {
+        var nfcVersion = Normalizer2.getNFCInstance().normalize(needle);
+        var nfdVersion = Normalizer2.getNFDInstance().normalize(needle);
+        if (!nfcVersion.equals(nfdVersion)) {
+          // Need to use Unicode normalization for equality.
+          return (outputStream) -> {
+            var line = outputStream.toString(charset);
+            for (String n : needles) {
+              if (Text_Utils.contains(line, n)) {
+                return line;
+              }
+            }
+            return null;
+          };
+        }
+      }
+    }
+
+    List<byte[]> patterns = new ArrayList<>(needles.size());
+    for (String needle : needles) {
+      patterns.add(needle.getBytes(charset));
+    }
+    return new ContainsFilter(List.of(MultiPatternMatcher.build(patterns)), charset);
   }
 
   /** Wraps an Enso function filter in a FileLineReader filter. */
@@ -402,6 +512,14 @@ public class FileLineReader {
   public static Function<ByteArrayOutputStreamWithContains, String> mergeTwoFilters(
       Function<ByteArrayOutputStreamWithContains, String> first,
       Function<ByteArrayOutputStreamWithContains, String> second) {
+    if (first instanceof ContainsFilter firstContains
+        && second instanceof ContainsFilter secondContains
+        && firstContains.charset.equals(secondContains.charset)) {
+      List<MultiPatternMatcher> matchers = new ArrayList<>(firstContains.matchers);
+      matchers.addAll(secondContains.matchers);
+      return new ContainsFilter(matchers, firstContains.charset);
+    }
+
     return (outputStream) -> {
       var first_result = first.apply(outputStream);
       return first_result != null ? second.apply(outputStream) : null;
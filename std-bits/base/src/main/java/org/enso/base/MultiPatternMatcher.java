@@ -0,0 +1,110 @@
+package org.enso.base;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks if a sequence of bytes contains any of several patterns, in a single pass.
+ *
+ * <p>It is an Aho-Corasick automaton with the transitions of all states precomputed, so every byte
+ * of the input costs a single table lookup, regardless of the number of patterns.
+ */
+final class MultiPatternMatcher {
+  private static final int ALPHABET_SIZE = 256;
+
+  /** The transitions, {@code ALPHABET_SIZE} entries for every state; state 0 is the root. */
+  private final int[] transitions;
+
+  /** Whether a pattern ends in the given state, or in any of its suffix states. */
+  private final boolean[] isMatch;
+
+  /** Set if one of the patterns is empty, so that every input matches. */
+  private final boolean matchesEverything;
+
+  private MultiPatternMatcher(int[] transitions, boolean[] isMatch, boolean matchesEverything) {
+    this.transitions = transitions;
+    this.isMatch = isMatch;
+    this.matchesEverything = matchesEverything;
+  }
+
+  static MultiPatternMatcher build(List<byte[]> patterns) {
+    int maxStates = 1;
+    for (byte[] pattern : patterns) {
+      maxStates += pattern.length;
+    }
+
+    // Build the trie, with -1 marking the missing transitions.
+    int[] transitions = new int[maxStates * ALPHABET_SIZE];
+    Arrays.fill(transitions, -1);
+    boolean[] isMatch = new boolean[maxStates];
+    boolean matchesEverything = false;
+    int stateCount = 1;
+    for (byte[] pattern : patterns) {
+      if (pattern.length == 0) {
+        matchesEverything = true;
+      }
+
+      int state = 0;
+      for (byte b : pattern) {
+        int index = state * ALPHABET_SIZE + (b & 0xFF);
+        if (transitions[index] == -1) {
+          transitions[index] = stateCount++;
+        }
+        state = transitions[index];
+      }
+      isMatch[state] = true;
+    }
+
+    // Fill in the missing transitions in breadth-first order, following the suffix links.
+    int[] suffixLink = new int[stateCount];
+    ArrayDeque<Integer> queue = new ArrayDeque<>();
+    for (int c = 0; c < ALPHABET_SIZE; c++) {
+      int next = transitions[c];
+      if (next == -1) {
+        transitions[c] = 0;
+      } else {
+        suffixLink[next] = 0;
+        queue.add(next);
+      }
+    }
+
+    while (!queue.isEmpty()) {
+      int state = queue.poll();
+      int link = suffixLink[state];
+      isMatch[state] |= isMatch[link];
+      for (int c = 0; c < ALPHABET_SIZE; c++) {
+        int index = state * ALPHABET_SIZE + c;
+        int next = transitions[index];
+        if (next == -1) {
+          transitions[index] = transitions[link * ALPHABET_SIZE + c];
+        } else {
+          suffixLink[next] = transitions[link * ALPHABET_SIZE + c];
+          queue.add(next);
+        }
+      }
+    }
+
+    return new MultiPatternMatcher(
+        Arrays.copyOf(transitions, stateCount * ALPHABET_SIZE),
+        Arrays.copyOf(isMatch, stateCount),
+        matchesEverything);
+  }
+
+  /** Checks if the bytes of the buffer between {@code from} and {@code to} contain any pattern. */
+  boolean containsAny(ByteBuffer buffer, int from, int to) {
+    if (matchesEverything) {
+      return true;
+    }
+
+    int state = 0;
+    for (int i = from; i < to; i++) {
+      state = transitions[state * ALPHABET_SIZE + (buffer.get(i) & 0xFF)];
+      if (isMatch[state]) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
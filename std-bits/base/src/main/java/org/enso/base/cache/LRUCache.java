@@ -2,6 +2,7 @@ package org.enso.base.cache;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -9,17 +10,18 @@ import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.SortedSet;
 import java.util.TreeSet;
-import java.util.function.Predicate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import org.enso.base.Stream_Utils;
+import org.graalvm.polyglot.Context;
 
 /**
  * LRUCache is a cache for data presented via InputStreams. Files are deleted on JVM exit.
@@ -48,6 +50,11 @@ import org.enso.base.Stream_Utils;
  * <p>Regardless of other settings, the total cache size is capped at a percentage of the free disk
  * space (MAX_PERCENTAGE).
  *
+ * <p>The cache is safe to use from many threads. Lookups go through a concurrent map, while the
+ * entries are kept in a linked list in the order of their use, so that finding the least recently
+ * used ones does not need sorting. Concurrent requests for a key that is not cached yet are sent
+ * only once, unless the response turns out not to be cacheable or takes too long to download.
+ *
  * @param <M> Additional metadata to associate with the data.
  */
 public class LRUCache<M> {
@@ -59,10 +66,48 @@ public class LRUCache<M> {
    */
   private static final double MAX_PERCENTAGE = 0.9;
 
-  /** Used to override cache parameters for testing. */
-  private final Map<String, CacheEntry<M>> cache = new HashMap<>();
+  /** How often a waiting request polls the safepoint, so that it can be interrupted. */
+  private static final long SAFEPOINT_POLL_INTERVAL_NS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  /**
+   * The cache entries. Lookups do not take the lock; all modifications are done under {@link
+   * #lock}, together with the updates of the LRU list and the size accounting.
+   */
+  private final ConcurrentHashMap<String, Node<M>> cache = new ConcurrentHashMap<>();
+
+  /**
+   * Requests for keys that are being downloaded right now. Other callers asking for the same key
+   * wait for the download to finish instead of issuing the same request again.
+   */
+  private final ConcurrentHashMap<String, Download> inFlight = new ConcurrentHashMap<>();
+
+  /** Guards the LRU list, the expiry order and the sizes. */
+  private final Object lock = new Object();
+
+  /**
+   * A sentinel of the circular list of entries, ordered from the least recently used ({@code
+   * lruHead.next}) to the most recently used ({@code lruHead.prev}).
+   */
+  private final Node<M> lruHead = new Node<>(null, null, 0);
+
+  /** The entries ordered by their expiry, so that the stale ones can be found without a scan. */
+  private final TreeSet<Node<M>> expiryOrder =
+      new TreeSet<>(
+          Comparator.<Node<M>, ZonedDateTime>comparing(node -> node.entry.expiry())
+              .thenComparingLong(node -> node.sequence));
+
+  private long nextSequence = 0;
 
-  private final Map<String, ZonedDateTime> lastUsed = new HashMap<>();
+  /** The total size of the cache files of all the entries. */
+  private long storedSize = 0;
+
+  /** The space set aside for the downloads in progress. */
+  private long reservedSize = 0;
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+  private final LongAdder waitingCount = new LongAdder();
 
   /** Defines the per-file and total cache size limits. */
   private final LRUCacheSettings settings;
@@ -84,11 +129,18 @@ public class LRUCache<M> {
     this.settings = settings;
     this.nowGetter = nowGetter;
     this.diskSpaceGetter = diskSpaceGetter;
+    lruHead.prev = lruHead;
+    lruHead.next = lruHead;
   }
 
   /**
    * IOExceptions thrown by the HTTP request are propagated; exceptions thrown while creating or
    * accessing cache files are caught, and the request is re-issued without caching.
+   *
+   * <p>Can be called from many threads at once. If the key is already being downloaded by another
+   * thread, this call waits for that download and reads the cached result. If that response is not
+   * cacheable, or the download does not finish within the in-flight timeout, the request is sent
+   * again without caching.
    */
   public CacheResult<M> getResult(ItemBuilder<M> itemBuilder)
       throws IOException, InterruptedException, ResponseTooLargeException {
@@ -97,10 +149,37 @@ public class LRUCache<M> {
     String cacheKey = itemBuilder.makeCacheKey();
 
     try {
-      if (cache.containsKey(cacheKey)) {
-        return getResultForCacheEntry(cacheKey);
-      } else {
-        return makeRequestAndCache(cacheKey, itemBuilder);
+      while (true) {
+        Node<M> node = cache.get(cacheKey);
+        if (node != null) {
+          hitCount.increment();
+          return getResultForCacheEntry(node);
+        }
+
+        var download = new Download();
+        var otherDownload = inFlight.putIfAbsent(cacheKey, download);
+        if (otherDownload != null) {
+          if (awaitDownload(otherDownload) && !otherDownload.isUncacheable) {
+            // If the other download has failed, the next iteration will make the request.
+            continue;
+          }
+          // All the waiting requests are sent at once, instead of queueing behind each other.
+          missCount.increment();
+          Item<M> item = itemBuilder.buildItem();
+          return new CacheResult<>(item.stream(), item.metadata());
+        }
+
+        try {
+          // The entry could have been added just before the download was registered.
+          if (cache.containsKey(cacheKey)) {
+            continue;
+          }
+          missCount.increment();
+          return makeRequestAndCache(cacheKey, itemBuilder, download);
+        } finally {
+          inFlight.remove(cacheKey, download);
+          download.done.countDown();
+        }
       }
     } catch (LRUCacheException e) {
       // Re-issue the request without caching.
@@ -116,13 +195,15 @@ public class LRUCache<M> {
     }
   }
 
-  private CacheResult<M> makeRequestAndCache(String cacheKey, ItemBuilder<M> itemBuilder)
+  private CacheResult<M> makeRequestAndCache(
+      String cacheKey, ItemBuilder<M> itemBuilder, Download download)
       throws IOException, InterruptedException, LRUCacheException, ResponseTooLargeException {
     assert !cache.containsKey(cacheKey) : "Cache should not contain key " + cacheKey;
 
     Item<M> item = itemBuilder.buildItem();
 
     if (!item.shouldCache()) {
+      download.isUncacheable = true;
       return new CacheResult<>(item.stream(), item.metadata());
     }
 
@@ -130,16 +211,19 @@ public class LRUCache<M> {
 
     // If we have a content-length, clear up enough space for that. If not,
     // then clear up enough space for the largest allowed size.
+    long reserved;
     if (item.sizeMaybe.isPresent()) {
       long size = item.sizeMaybe().get();
       if (size > maxAllowedDownloadSize) {
         throw new ResponseTooLargeException(size, maxAllowedDownloadSize);
       }
-      makeRoomFor(size);
+      reserved = size;
     } else {
-      makeRoomFor(maxAllowedDownloadSize);
+      reserved = maxAllowedDownloadSize;
     }
+    makeRoomFor(reserved);
 
+    Node<M> node = null;
     try {
       // Download the response data.
       File responseData = downloadResponseData(cacheKey, item);
@@ -149,14 +233,58 @@ public class LRUCache<M> {
 
       // Create a cache entry.
       var cacheEntry = new CacheEntry<>(responseData, metadata, size, expiry);
-      cache.put(cacheKey, cacheEntry);
-      markCacheEntryUsed(cacheKey);
+      node = addCacheEntry(cacheKey, cacheEntry, reserved);
 
-      return getResultForCacheEntry(cacheKey);
+      return getResultForCacheEntry(node);
     } catch (IOException e) {
       // Throw this to re-issue the request since we don't know if we've consumed any of the
       // response.
       throw new LRUCacheException("Failure storing cache entry", e);
+    } finally {
+      if (node == null) {
+        synchronized (lock) {
+          reservedSize -= reserved;
+        }
+      }
+    }
+  }
+
+  /**
+   * Waits for the download of the same key by another request. The safepoint is polled while
+   * waiting, so that the computation can be interrupted.
+   *
+   * @return whether the download has finished before the in-flight timeout
+   */
+  private boolean awaitDownload(Download download) throws InterruptedException {
+    Context context = currentContext();
+    long timeout = TimeUnit.MILLISECONDS.toNanos(settings.getInFlightTimeoutMs());
+    long deadline = System.nanoTime() + timeout;
+    waitingCount.increment();
+    try {
+      while (true) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          return false;
+        }
+        long interval = Math.min(remaining, SAFEPOINT_POLL_INTERVAL_NS);
+        if (download.done.await(interval, TimeUnit.NANOSECONDS)) {
+          return true;
+        }
+        if (context != null) {
+          context.safepoint();
+        }
+      }
+    } finally {
+      waitingCount.decrement();
+    }
+  }
+
+  /** The polyglot context entered by the calling thread, or null if there is none. */
+  private static Context currentContext() {
+    try {
+      return Context.getCurrent();
+    } catch (IllegalStateException e) {
+      return null;
     }
   }
 
@@ -166,17 +294,19 @@ public class LRUCache<M> {
    * <p>If the file has been deleted, an LRUCacheException is thrown, causing .makeRequest to
    * re-issue the request without caching.
    */
-  private CacheResult<M> getResultForCacheEntry(String cacheKey)
-      throws IOException, LRUCacheException {
-    var cacheFile = cache.get(cacheKey).responseData;
+  private CacheResult<M> getResultForCacheEntry(Node<M> node) throws LRUCacheException {
+    var cacheFile = node.entry.responseData();
 
-    if (!cacheFile.exists()) {
-      removeCacheEntry(cacheKey, cache.get(cacheKey));
+    FileInputStream inputStream;
+    try {
+      inputStream = new FileInputStream(cacheFile);
+    } catch (FileNotFoundException e) {
+      removeCacheEntry(node);
       throw new LRUCacheException("Missing cache file " + cacheFile.getPath());
     }
 
-    markCacheEntryUsed(cacheKey);
-    return new CacheResult<>(new FileInputStream(cacheFile), cache.get(cacheKey).metadata());
+    markCacheEntryUsed(node);
+    return new CacheResult<>(inputStream, node.entry.metadata());
   }
 
   /**
@@ -210,20 +340,70 @@ public class LRUCache<M> {
     }
   }
 
-  /** Mark the entry with the current time, to maintain LRU data. */
-  private void markCacheEntryUsed(String cacheKey) {
-    lastUsed.put(cacheKey, nowGetter.get());
+  /**
+   * Adds the entry as the most recently used one, replacing the space reserved for its download
+   * with its actual size.
+   */
+  private Node<M> addCacheEntry(String cacheKey, CacheEntry<M> cacheEntry, long reserved) {
+    Node<M> replaced;
+    Node<M> node;
+    synchronized (lock) {
+      node = new Node<>(cacheKey, cacheEntry, nextSequence++);
+      replaced = cache.put(cacheKey, node);
+      if (replaced != null) {
+        unlink(replaced);
+      }
+      linkLast(node);
+      expiryOrder.add(node);
+      storedSize += cacheEntry.size();
+      reservedSize -= reserved;
+    }
+
+    if (replaced != null) {
+      removeCacheFile(replaced);
+    }
+    return node;
+  }
+
+  /** Move the entry to the end of the LRU list. */
+  private void markCacheEntryUsed(Node<M> node) {
+    synchronized (lock) {
+      if (node.isLinked()) {
+        detach(node);
+        linkLast(node);
+      }
+    }
   }
 
   /** Remove all cache entries (and their files) that have passed their TTL. */
   private void removeStaleEntries() {
     var now = nowGetter.get();
-    removeCacheEntriesByPredicate(e -> e.expiry().isBefore(now));
+    var toRemove = new ArrayList<Node<M>>();
+    synchronized (lock) {
+      while (!expiryOrder.isEmpty() && expiryOrder.first().entry.expiry().isBefore(now)) {
+        Node<M> node = expiryOrder.first();
+        cache.remove(node.key, node);
+        unlink(node);
+        toRemove.add(node);
+      }
+    }
+    evictionCount.add(toRemove.size());
+    removeCacheFiles(toRemove);
   }
 
   /** Remove all cache entries (and their files). */
   public void clear() {
-    removeCacheEntriesByPredicate(e -> true);
+    var toRemove = new ArrayList<Node<M>>();
+    synchronized (lock) {
+      for (Node<M> node = lruHead.next; node != lruHead; node = node.next) {
+        toRemove.add(node);
+      }
+      for (Node<M> node : toRemove) {
+        cache.remove(node.key, node);
+        unlink(node);
+      }
+    }
+    removeCacheFiles(toRemove);
   }
 
   private void clearOnReload() {
@@ -232,80 +412,96 @@ public class LRUCache<M> {
     }
   }
 
-  /** Remove all cache entries (and their cache files) that match the predicate. */
-  private void removeCacheEntriesByPredicate(Predicate<CacheEntry<M>> predicate) {
-    List<Map.Entry<String, CacheEntry<M>>> toRemove =
-        cache.entrySet().stream()
-            .filter(me -> predicate.test(me.getValue()))
-            .collect(Collectors.toList());
-    removeCacheEntries(toRemove);
-  }
-
-  /** Remove a set of cache entries. */
-  private void removeCacheEntries(List<Map.Entry<String, CacheEntry<M>>> toRemove) {
-    for (var entry : toRemove) {
-      removeCacheEntry(entry);
+  /** Remove a cache entry: from `cache`, the LRU list, and the filesystem. */
+  private void removeCacheEntry(Node<M> node) {
+    boolean removed;
+    synchronized (lock) {
+      removed = cache.remove(node.key, node);
+      if (removed) {
+        unlink(node);
+      }
+    }
+    if (removed) {
+      removeCacheFile(node);
     }
   }
 
-  /** Remove a cache entry: from `cache`, `lastUsed`, and the filesystem. */
-  private void removeCacheEntry(Map.Entry<String, CacheEntry<M>> toRemove) {
-    removeCacheEntry(toRemove.getKey(), toRemove.getValue());
-  }
-
-  /** Remove a cache entry: from `cache`, `lastUsed`, and the filesystem. */
-  private void removeCacheEntry(String key, CacheEntry<M> value) {
-    cache.remove(key);
-    lastUsed.remove(key);
-    removeCacheFile(key, value);
+  private void removeCacheFiles(List<Node<M>> nodes) {
+    for (Node<M> node : nodes) {
+      removeCacheFile(node);
+    }
   }
 
   /** Remove a cache file. */
-  private void removeCacheFile(String key, CacheEntry<M> cacheEntry) {
-    boolean removed = cacheEntry.responseData.delete();
+  private void removeCacheFile(Node<M> node) {
+    boolean removed = node.entry.responseData().delete();
     if (!removed) {
-      logger.log(Level.WARNING, "Unable to delete cache file for key {0}", key);
+      logger.log(Level.WARNING, "Unable to delete cache file for key {0}", node.key);
     }
   }
 
-  /** Remove least-recently used entries until there is enough room for a new file. */
+  /**
+   * Remove least-recently used entries until there is enough room for a new file, and reserve the
+   * room for it.
+   */
   private void makeRoomFor(long newFileSize) {
     removeStaleEntries();
 
-    // Size of files on disk.
-    long currentCacheSize = getTotalCacheSize();
-    // Upper limit to cache size.
-    long maxTotalCacheSize = getMaxTotalCacheSize(currentCacheSize);
-    // Size including new file.
-    long totalSize = currentCacheSize + newFileSize;
-
-    if (totalSize <= maxTotalCacheSize) {
-      return;
-    }
-
-    // Remove least-recently used entries first.
-    var sortedEntries = getSortedEntries();
-    var toRemove = new ArrayList<Map.Entry<String, CacheEntry<M>>>();
-    for (var mapEntry : sortedEntries) {
-      if (totalSize <= maxTotalCacheSize) {
-        break;
+    var toRemove = new ArrayList<Node<M>>();
+    synchronized (lock) {
+      // Upper limit to cache size.
+      long maxTotalCacheSize = getMaxTotalCacheSize(storedSize);
+      // Size including the downloads in progress and the new file.
+      long totalSize = storedSize + reservedSize + newFileSize;
+
+      // Remove least-recently used entries first.
+      for (Node<M> node = lruHead.next;
+          node != lruHead && totalSize > maxTotalCacheSize;
+          node = node.next) {
+        toRemove.add(node);
+        totalSize -= node.entry.size();
+      }
+      for (Node<M> node : toRemove) {
+        cache.remove(node.key, node);
+        unlink(node);
       }
-      toRemove.add(mapEntry);
-      totalSize -= mapEntry.getValue().size();
+      reservedSize += newFileSize;
     }
-    assert totalSize <= maxTotalCacheSize
-        : "totalSize > maxTotalCacheSize (" + totalSize + " > " + maxTotalCacheSize + ")";
-    removeCacheEntries(toRemove);
+
+    evictionCount.add(toRemove.size());
+    removeCacheFiles(toRemove);
+  }
+
+  /** Appends a node to the end of the LRU list. Must be called under the lock. */
+  private void linkLast(Node<M> node) {
+    node.prev = lruHead.prev;
+    node.next = lruHead;
+    lruHead.prev.next = node;
+    lruHead.prev = node;
   }
 
-  private SortedSet<Map.Entry<String, CacheEntry<M>>> getSortedEntries() {
-    var sortedEntries = new TreeSet<Map.Entry<String, CacheEntry<M>>>(cacheEntryLRUComparator);
-    sortedEntries.addAll(cache.entrySet());
-    return sortedEntries;
+  /** Removes a node from the LRU list only. Must be called under the lock. */
+  private void detach(Node<M> node) {
+    node.prev.next = node.next;
+    node.next.prev = node.prev;
+    node.prev = null;
+    node.next = null;
+  }
+
+  /**
+   * Removes a node from the LRU list and the expiry order, and releases its size. Must be called
+   * under the lock.
+   */
+  private void unlink(Node<M> node) {
+    detach(node);
+    expiryOrder.remove(node);
+    storedSize -= node.entry.size();
   }
 
   private long getTotalCacheSize() {
-    return cache.values().stream().collect(Collectors.summingLong(e -> e.size()));
+    synchronized (lock) {
+      return storedSize;
+    }
   }
 
   /**
@@ -343,17 +539,37 @@ public class LRUCache<M> {
     return cache.size();
   }
 
+  /** The number of requests answered from the cache. */
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /** The number of requests that had to be sent, because their result was not cached. */
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  /** The number of entries removed to make room for new ones, or because they have expired. */
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  /** The number of requests waiting for the download of the same key by another request. */
+  public long getNumWaitingRequests() {
+    return waitingCount.sum();
+  }
+
   /** Public for testing. */
   public List<Long> getFileSizes() {
     return new ArrayList<>(
-        cache.values().stream().map(CacheEntry::size).collect(Collectors.toList()));
+        cache.values().stream().map(node -> node.entry.size()).collect(Collectors.toList()));
   }
 
   /** Public for testing. */
   public List<String> getFiles() {
     return new ArrayList<>(
         cache.values().stream()
-            .map(CacheEntry::responseData)
+            .map(node -> node.entry.responseData())
             .map(f -> f.getPath())
             .collect(Collectors.toList()));
   }
@@ -370,6 +586,36 @@ public class LRUCache<M> {
 
   private record CacheEntry<M>(File responseData, M metadata, long size, ZonedDateTime expiry) {}
 
+  /** A cache entry, linked into the LRU list. The links are guarded by the lock of the cache. */
+  private static final class Node<M> {
+    final String key;
+    final CacheEntry<M> entry;
+
+    /** Distinguishes the entries with the same expiry. */
+    final long sequence;
+
+    Node<M> prev;
+    Node<M> next;
+
+    Node(String key, CacheEntry<M> entry, long sequence) {
+      this.key = key;
+      this.entry = entry;
+      this.sequence = sequence;
+    }
+
+    boolean isLinked() {
+      return next != null;
+    }
+  }
+
+  /** A download in progress, which the other requests for the same key can wait for. */
+  private static final class Download {
+    final CountDownLatch done = new CountDownLatch(1);
+
+    /** Set before {@link #done} is released, if the response is not going to be cached. */
+    volatile boolean isUncacheable = false;
+  }
+
   /**
    * A record to define the contents and properties of something to be cached.
    *
@@ -400,9 +646,6 @@ public class LRUCache<M> {
     Item<M> buildItem() throws IOException, InterruptedException;
   }
 
-  private final Comparator<Map.Entry<String, CacheEntry<M>>> cacheEntryLRUComparator =
-      Comparator.comparing(me -> lastUsed.get(me.getKey()));
-
   /** Represents an internal error in creating or accessing the cache file. */
   private static class LRUCacheException extends Exception {
     public LRUCacheException(String errorMessage) {
@@ -23,6 +23,12 @@ public class LRUCacheSettings {
    */
   private static final double DEFAULT_TOTAL_CACHE_SIZE_FREE_SPACE_PERCENTAGE = 0.2;
 
+  /**
+   * How long a request waits for the download of the same key by another request, before sending
+   * its own request without caching it, so that a stalled download does not block the others.
+   */
+  public static final long DEFAULT_IN_FLIGHT_TIMEOUT_MS = 60_000;
+
   /**
    * Maximum size allowed for a single file. If a file larger than this is requested through this
    * cache, a ResponseTooLargeException is thrown.
@@ -37,13 +43,32 @@ public class LRUCacheSettings {
    */
   private final TotalCacheLimit.Limit totalCacheLimit;
 
+  /** How long a request waits for the download of the same key by another request. */
+  private final long inFlightTimeoutMs;
+
   public LRUCacheSettings(long maxFileSize, TotalCacheLimit.Limit totalCacheLimit) {
+    this(maxFileSize, totalCacheLimit, DEFAULT_IN_FLIGHT_TIMEOUT_MS);
+  }
+
+  public LRUCacheSettings(
+      long maxFileSize, TotalCacheLimit.Limit totalCacheLimit, long inFlightTimeoutMs) {
+    if (inFlightTimeoutMs <= 0) {
+      throw new IllegalArgumentException(
+          "The in-flight timeout must be positive, got " + inFlightTimeoutMs);
+    }
     this.maxFileSize = maxFileSize;
     this.totalCacheLimit = totalCacheLimit;
+    this.inFlightTimeoutMs = inFlightTimeoutMs;
   }
 
   public String toString() {
-    return "LRUCacheSettings(" + maxFileSize + ", " + totalCacheLimit + ")";
+    return "LRUCacheSettings("
+        + maxFileSize
+        + ", "
+        + totalCacheLimit
+        + ", "
+        + inFlightTimeoutMs
+        + ")";
   }
 
   /** Uses defaults if the vars are not set. */
@@ -59,6 +84,10 @@ public class LRUCacheSettings {
     return totalCacheLimit;
   }
 
+  public long getInFlightTimeoutMs() {
+    return inFlightTimeoutMs;
+  }
+
   // Uses the environment variable if set and correctly formatted, otherwise
   // uses a default.
   private static long parseMaxFileSizeEnvVar() {
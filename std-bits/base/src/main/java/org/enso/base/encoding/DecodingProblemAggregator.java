@@ -8,7 +8,7 @@ public class DecodingProblemAggregator {
   private final List<DecodingProblem> baseProblems = new ArrayList<>();
   private int invalidUnitCount = 0;
   private String invalidCharacterErrorPrefix = "";
-  private final List<Integer> invalidUnitExamplePositions = new ArrayList<>();
+  private final List<Long> invalidUnitExamplePositions = new ArrayList<>();
   private static final int MAX_ENCODING_ISSUE_EXAMPLES = 3;
 
   public void reportOtherProblem(String message) {
@@ -24,7 +24,7 @@ public class DecodingProblemAggregator {
     invalidCharacterErrorPrefix = prefix;
   }
 
-  public void reportInvalidCharacterProblem(int position) {
+  public void reportInvalidCharacterProblem(long position) {
     invalidUnitCount++;
     if (invalidUnitExamplePositions.size() < MAX_ENCODING_ISSUE_EXAMPLES) {
       invalidUnitExamplePositions.add(position);
@@ -7,10 +7,16 @@ import java.util.concurrent.Future;
 /**
  * The high-level API for logging audit events.
  *
- * <p>The messages are sent on a single background thread in batches, but also as soon as possible.
- * That means that we are never waiting for more messages to be batched to avoid delaying logs.
- * However, if sending the previous batch took enough time that many messages have been scheduled in
- * the meantime, all waiting messages (up to some limit) will be sent in a single request.
+ * <p>The messages are sent on a single background thread in batches. A batch is sent once it is
+ * full, or after a short delay since its first message - unless the batch contains a message that
+ * someone is waiting for, which is sent immediately. If sending the previous batch took enough time
+ * that many messages have been scheduled in the meantime, all waiting messages (up to some limit)
+ * will be sent in a single request. The limit grows while the requests are quick, and shrinks when
+ * they are slow or failing.
+ *
+ * <p>Adding a message does not take any locks. The number of messages kept in memory is bounded -
+ * once it is reached, asynchronous messages are spilled to a temporary file (and dropped if that
+ * is full too), while synchronous ones wait for the queue to make room.
  */
 public final class AuditLog {
   /** Schedules the log message to be sent in the next batch, and returns immediately. */
@@ -36,6 +42,23 @@ public final class AuditLog {
     }
   }
 
+  /**
+   * Counters describing the work of the audit log.
+   *
+   * @param sentCount the number of messages successfully sent
+   * @param failedCount the number of messages that could not be sent after retrying
+   * @param spilledCount the number of messages that did not fit in memory and were written to disk
+   * @param droppedCount the number of messages that were lost, because both the in-memory queue and
+   *     the spill file were full
+   * @param queuedCount the number of messages currently waiting in memory
+   */
+  public record Statistics(
+      long sentCount, long failedCount, long spilledCount, long droppedCount, int queuedCount) {}
+
+  public static Statistics getStatistics() {
+    return AuditLogApiAccess.INSTANCE.getStatistics();
+  }
+
   public static void resetCache() {
     AuditLogApiAccess.INSTANCE.resetCache();
   }
@@ -15,9 +15,15 @@ import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 import org.enso.base.enso_cloud.AuthenticationProvider;
 import org.enso.base.enso_cloud.CloudAPI;
+import org.graalvm.polyglot.Context;
 
 /**
  * Gives access to the low-level log event API in the Cloud and manages asynchronously submitting
@@ -26,20 +32,72 @@ import org.enso.base.enso_cloud.CloudAPI;
 class AuditLogApiAccess {
   private static final Logger logger = Logger.getLogger(AuditLogApiAccess.class.getName());
 
+  /**
+   * The initial number of messages sent in one request. It is adjusted between {@link
+   * #MIN_BATCH_SIZE} and {@link #MAX_BATCH_SIZE} depending on how quickly the endpoint responds.
+   */
+  private static final int INITIAL_BATCH_SIZE = 100;
+
+  private static final int MIN_BATCH_SIZE = 10;
+
   /**
    * We still want to limit the batch size to some reasonable number - sending too many logs in one
    * request could also be problematic.
    */
-  private static final int MAX_BATCH_SIZE = 100;
+  private static final int MAX_BATCH_SIZE = 1000;
+
+  /**
+   * A request taking longer than this is considered slow, and the next batches are made smaller.
+   */
+  private static final long SLOW_REQUEST_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  /**
+   * How long the background thread waits for more messages to fill up a batch, before sending it.
+   * Messages that someone waits for are sent without delay.
+   */
+  private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+  /** How often a caller waiting for room in the queue polls the safepoint. */
+  private static final long SAFEPOINT_POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  /** The maximum number of messages kept in memory. */
+  private static final int QUEUE_CAPACITY = 8192;
+
+  /** The maximum size of the messages kept on disk, once the in-memory queue is full (64MB). */
+  private static final long MAX_SPILL_BYTES = 64L * 1024 * 1024;
 
   private static final int MAX_RETRIES = 5;
 
   public static AuditLogApiAccess INSTANCE = new AuditLogApiAccess();
 
   private HttpClient httpClient;
-  private final LogJobsQueue logQueue = new LogJobsQueue();
+  private final LogJobsQueue logQueue = new LogJobsQueue(QUEUE_CAPACITY);
+  private final LogSpillFile spillFile = new LogSpillFile(MAX_SPILL_BYTES);
   private final ThreadPoolExecutor backgroundThreadService;
 
+  /** Set while a {@link #logThreadEntryPoint} is running or scheduled to run. */
+  private final AtomicBoolean isSenderScheduled = new AtomicBoolean(false);
+
+  /** Only accessed from the background thread. */
+  private int batchSize = INITIAL_BATCH_SIZE;
+
+  /** Guards the waiting for room in the queue. */
+  private final ReentrantLock roomLock = new ReentrantLock();
+
+  /**
+   * Signalled by the sender whenever it takes messages from the queue or the spill file, so that
+   * the callers waiting for room can try again.
+   */
+  private final Condition roomAvailable = roomLock.newCondition();
+
+  /** Incremented under {@link #roomLock} every time the sender takes messages. */
+  private volatile long takenBatches = 0;
+
+  private final LongAdder sentCount = new LongAdder();
+  private final LongAdder failedCount = new LongAdder();
+  private final LongAdder spilledCount = new LongAdder();
+  private final LongAdder droppedCount = new LongAdder();
+
   private AuditLogApiAccess() {
     // We set-up a thread 'pool' that will contain at most one thread.
     // If the thread is idle for 60 seconds, it will be shut down.
@@ -47,52 +105,134 @@ class AuditLogApiAccess {
         new ThreadPoolExecutor(0, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
   }
 
+  /**
+   * Schedules the message to be sent and returns a future completed once it has been sent.
+   *
+   * <p>Someone is waiting for this message, so it is neither dropped nor spilled to disk. Instead,
+   * the caller is slowed down until the spilled messages have been sent and there is room in the
+   * queue, so that the message is still sent after all the messages logged before it. The safepoint
+   * is polled while waiting, so that the computation can be interrupted.
+   */
   public Future<Void> logWithConfirmation(LogMessage message) {
     var currentRequestConfig = getRequestConfig();
     CompletableFuture<Void> completionNotification = new CompletableFuture<>();
-    enqueueJob(new LogJob(message, completionNotification, currentRequestConfig));
+    var job = new LogJob(message, completionNotification, currentRequestConfig);
+    Context context = currentContext();
+    while (true) {
+      long seenBatches = takenBatches;
+      if (spillFile.isEmpty() && logQueue.offer(job)) {
+        break;
+      }
+
+      ensureSenderScheduled();
+      try {
+        awaitTakenBatch(seenBatches);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        completionNotification.completeExceptionally(
+            new InterruptedException("Interrupted while waiting for room in the audit log queue."));
+        return completionNotification;
+      }
+
+      if (context != null) {
+        context.safepoint();
+      }
+    }
+    ensureSenderScheduled();
     return completionNotification;
   }
 
+  /**
+   * Waits until the sender takes another batch of messages after {@code seenBatches}, or until it
+   * is time to poll the safepoint again.
+   */
+  private void awaitTakenBatch(long seenBatches) throws InterruptedException {
+    long remaining = SAFEPOINT_POLL_INTERVAL_NANOS;
+    roomLock.lock();
+    try {
+      while (takenBatches == seenBatches && remaining > 0) {
+        remaining = roomAvailable.awaitNanos(remaining);
+      }
+    } finally {
+      roomLock.unlock();
+    }
+  }
+
+  /** Wakes up the callers waiting for room, after the sender has taken some messages. */
+  private void signalTakenBatch() {
+    roomLock.lock();
+    try {
+      takenBatches++;
+      roomAvailable.signalAll();
+    } finally {
+      roomLock.unlock();
+    }
+  }
+
+  /** The polyglot context entered by the calling thread, or null if there is none. */
+  private static Context currentContext() {
+    try {
+      return Context.getCurrent();
+    } catch (IllegalStateException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Schedules the message to be sent, without waiting for it.
+   *
+   * <p>If the queue is full, the message is spilled to disk. Once any message has been spilled, the
+   * following ones are spilled too until the file is drained, so that they are sent in order. If
+   * the message cannot be spilled either, it is dropped - putting it in the queue would send it
+   * ahead of the messages already waiting in the file.
+   */
   public void logWithoutConfirmation(LogMessage message) {
     var currentRequestConfig = getRequestConfig();
-    enqueueJob(new LogJob(message, null, currentRequestConfig));
+    var job = new LogJob(message, null, currentRequestConfig);
+    boolean isQueued = spillFile.isEmpty() && logQueue.offer(job);
+    if (!isQueued) {
+      if (spillFile.append(message.payload(), currentRequestConfig)) {
+        spilledCount.increment();
+      } else {
+        droppedCount.increment();
+        logger.warning("The audit log queue is full, a log message has been dropped.");
+      }
+    }
+    ensureSenderScheduled();
   }
 
-  private void enqueueJob(LogJob job) {
-    int queuedJobs = logQueue.enqueue(job);
-    if (queuedJobs == 1 && backgroundThreadService.getQueue().isEmpty()) {
-      // If we are the first message in the queue, we need to start the background thread.
-      // It is possible that a job was already running, but adding a new one will not hurt - once
-      // the queue is empty, the currently running job will finish and any additional jobs will also
-      // terminate immediately.
+  private void ensureSenderScheduled() {
+    if (isSenderScheduled.compareAndSet(false, true)) {
       backgroundThreadService.execute(this::logThreadEntryPoint);
     }
 
     /*
-     * Liveness is guaranteed, because the queue size always increments exactly by 1,
-     * so `enqueue` returns 1 if and only if the queue was empty beforehand.
-     *
-     * If the queue was empty before adding a message, we always schedule a `logThreadEntryPoint` to run,
-     * unless it was already pending on the job queue.
+     * Liveness is guaranteed, because the sender clears `isSenderScheduled` before its final check
+     * for pending messages.
      *
-     * Any running `logThreadEntryPoint` will not finish until the queue is empty.
-     * So after every append, either a job is already running or scheduled to be run.
+     * If a message is added before that check, the sender sees it and continues running.
+     * If it is added after the flag was cleared, the producer sets the flag again and schedules
+     * a new `logThreadEntryPoint`.
+     * So after every append, either a sender is already running or scheduled to be run.
      */
   }
 
   /** Runs as long as there are any pending log messages queued and sends them in batches. */
   private void logThreadEntryPoint() {
     while (true) {
-      List<LogJob> pendingMessages = logQueue.popEnqueuedJobs(MAX_BATCH_SIZE);
+      List<LogJob> pendingMessages = takeBatch();
       if (pendingMessages.isEmpty()) {
         // If there are no more pending messages, we can stop the thread for now.
-        // If during this teardown a new message is added, it will see no elements on `logQueue` and
-        // thus,
-        // `logQueue.enqueue` will return 1, thus ensuring that at least one new job is scheduled.
+        isSenderScheduled.set(false);
+        boolean hasPendingMessages = !logQueue.isEmpty() || !spillFile.isEmpty();
+        if (hasPendingMessages && isSenderScheduled.compareAndSet(false, true)) {
+          // A message was added during the teardown, and no other sender was scheduled for it.
+          continue;
+        }
         return;
       }
 
+      signalTakenBatch();
       var batchesByConfig = splitMessagesByConfig(pendingMessages);
       for (var batch : batchesByConfig) {
         sendBatch(batch);
@@ -100,6 +240,77 @@ class AuditLogApiAccess {
     }
   }
 
+  /**
+   * Takes the next batch of messages to send.
+   *
+   * <p>A batch is sent once it is full, or once {@link #FLUSH_INTERVAL_NANOS} has passed since its
+   * first message was taken.
+   *
+   * <p>The messages are sent in the order they were logged: the queue holds the messages logged
+   * before it filled up, and the spill file the ones logged after, until it is drained. So the
+   * queue is emptied first, and the spill file only afterwards. While there are spilled messages,
+   * the batch is not held back to collect more messages from the queue.
+   */
+  private List<LogJob> takeBatch() {
+    List<LogJob> batch = logQueue.popEnqueuedJobs(batchSize);
+    if (batch.isEmpty()) {
+      return spillFile.take(batchSize);
+    }
+
+    if (batch.size() < batchSize && !hasAwaitedJobs(batch) && spillFile.isEmpty()) {
+      batch = new ArrayList<>(batch);
+      long deadline = System.nanoTime() + FLUSH_INTERVAL_NANOS;
+      while (batch.size() < batchSize) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          break;
+        }
+
+        List<LogJob> more = logQueue.popEnqueuedJobs(batchSize - batch.size());
+        if (more.isEmpty()) {
+          LockSupport.parkNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(1)));
+        } else {
+          batch.addAll(more);
+          if (hasAwaitedJobs(more)) {
+            break;
+          }
+        }
+      }
+    }
+    return batch;
+  }
+
+  private static boolean hasAwaitedJobs(List<LogJob> jobs) {
+    for (var job : jobs) {
+      if (job.completionNotification() != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Adjusts the size of the next batches: a full batch that was sent quickly means that there are
+   * more messages waiting and the endpoint can handle more at once, a slow or failed request means
+   * it is overloaded.
+   */
+  private void adjustBatchSize(int sentBatchSize, long elapsedNanos, boolean succeeded) {
+    if (!succeeded || elapsedNanos > SLOW_REQUEST_NANOS) {
+      batchSize = Math.max(MIN_BATCH_SIZE, batchSize / 2);
+    } else if (sentBatchSize >= batchSize) {
+      batchSize = Math.min(MAX_BATCH_SIZE, batchSize * 2);
+    }
+  }
+
+  AuditLog.Statistics getStatistics() {
+    return new AuditLog.Statistics(
+        sentCount.sum(),
+        failedCount.sum(),
+        spilledCount.sum(),
+        droppedCount.sum() + spillFile.getLostCount(),
+        logQueue.size());
+  }
+
   /**
    * Sends a batch of log messages.
    *
@@ -115,11 +326,16 @@ class AuditLogApiAccess {
     assert batch.stream().allMatch(job -> job.requestConfig().equals(requestConfig))
         : "All messages in a batch must have the same request configuration.";
 
+    long start = System.nanoTime();
     try {
       var request = buildRequest(requestConfig, batch);
       sendLogRequest(request, MAX_RETRIES);
+      adjustBatchSize(batch.size(), System.nanoTime() - start, true);
+      sentCount.add(batch.size());
       notifyJobsAboutSuccess(batch);
     } catch (RequestFailureException e) {
+      adjustBatchSize(batch.size(), System.nanoTime() - start, false);
+      failedCount.add(batch.size());
       notifyJobsAboutFailure(batch, e);
     }
   }
@@ -211,7 +427,7 @@ class AuditLogApiAccess {
    * the configs will be the same, they only change during testing. Tests should this into account,
    * by sending the last message in synchronous mode.
    */
-  private record RequestConfig(URI apiUri, String accessToken) {}
+  record RequestConfig(URI apiUri, String accessToken) {}
 
   private void sendLogRequest(HttpRequest request, int retryCount) throws RequestFailureException {
     try {
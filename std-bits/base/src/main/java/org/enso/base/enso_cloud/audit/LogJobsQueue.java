@@ -1,36 +1,106 @@
 package org.enso.base.enso_cloud.audit;
 
 import java.util.ArrayList;
-import java.util.Deque;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * A bounded queue of log jobs, to which many threads can add without taking a lock, and from which
+ * a single background thread removes them.
+ *
+ * <p>It is a ring buffer in which every slot has a sequence number. The number tells whether the
+ * slot is free for the producer that claimed the given position, or whether it holds a job that is
+ * ready to be taken by the consumer.
+ */
 class LogJobsQueue {
+  private final int mask;
+  private final AtomicReferenceArray<AuditLogApiAccess.LogJob> slots;
+  private final AtomicLongArray sequences;
 
-  private final Deque<AuditLogApiAccess.LogJob> queue = new LinkedList<>();
+  /** The next position to be claimed by a producer. */
+  private final AtomicLong tail = new AtomicLong();
 
-  /** Enqueues a log message to be sent and returns the number of messages in the queue. */
-  synchronized int enqueue(AuditLogApiAccess.LogJob job) {
-    int previousSize = queue.size();
-    queue.addLast(job);
-    int newSize = queue.size();
-    assert newSize == previousSize + 1
-        : "Appending to queue is synchronized, so the size is always incremented exactly by 1.";
-    return newSize;
+  /** The next position to be taken by the consumer; only written by the consumer. */
+  private volatile long head = 0;
+
+  /**
+   * @param capacity the maximum number of enqueued jobs, must be a power of two
+   */
+  LogJobsQueue(int capacity) {
+    assert capacity > 0 && (capacity & (capacity - 1)) == 0 : "Capacity must be a power of two.";
+    mask = capacity - 1;
+    slots = new AtomicReferenceArray<>(capacity);
+    sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
   }
 
-  /** Removes and returns up to {@code limit} enqueued jobs. */
-  synchronized List<AuditLogApiAccess.LogJob> popEnqueuedJobs(int limit) {
-    assert limit > 0;
-    if (queue.isEmpty()) {
-      return List.of();
+  /**
+   * Enqueues a log message to be sent.
+   *
+   * @return {@code false} if the queue is full and the job was not added
+   */
+  boolean offer(AuditLogApiAccess.LogJob job) {
+    long position = tail.get();
+    while (true) {
+      int index = (int) (position & mask);
+      long difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          slots.set(index, job);
+          // Publishes the job to the consumer.
+          sequences.set(index, position + 1);
+          return true;
+        }
+        position = tail.get();
+      } else if (difference < 0) {
+        // The slot still holds a job from the previous round - the queue is full.
+        return false;
+      } else {
+        // Another producer has claimed this position in the meantime.
+        position = tail.get();
+      }
     }
+  }
+
+  /**
+   * Removes and returns up to {@code limit} enqueued jobs.
+   *
+   * <p>Must only be called from the single consumer thread. A job whose producer has claimed a
+   * position but not yet stored the job ends the returned batch.
+   */
+  List<AuditLogApiAccess.LogJob> popEnqueuedJobs(int limit) {
+    assert limit > 0;
+    List<AuditLogApiAccess.LogJob> result = null;
+    long position = head;
+    while (result == null || result.size() < limit) {
+      int index = (int) (position & mask);
+      if (sequences.get(index) != position + 1) {
+        break;
+      }
 
-    int n = Math.min(limit, queue.size());
-    List<AuditLogApiAccess.LogJob> result = new ArrayList<>(n);
-    for (int i = 0; i < n; i++) {
-      result.add(queue.removeFirst());
+      if (result == null) {
+        result = new ArrayList<>(Math.min(limit, size()));
+      }
+      result.add(slots.get(index));
+      slots.set(index, null);
+      // Frees the slot for the producer of the position in the next round.
+      sequences.set(index, position + mask + 1);
+      position++;
+      head = position;
     }
-    return result;
+    return result == null ? List.of() : result;
+  }
+
+  /** The approximate number of enqueued jobs. */
+  int size() {
+    return (int) Math.max(0, tail.get() - head);
+  }
+
+  boolean isEmpty() {
+    return size() == 0;
   }
 }
@@ -0,0 +1,157 @@
+package org.enso.base.enso_cloud.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the log messages that did not fit into the {@link LogJobsQueue} in a temporary file, until
+ * the background thread catches up with sending them.
+ *
+ * <p>The queue only fills up if the log endpoint is slower than the rate at which the messages are
+ * produced, so this is the slow path and it is simply synchronized. Only the payloads are written
+ * to disk - the request config (containing the access token) stays in memory.
+ */
+class LogSpillFile {
+  private static final Logger logger = Logger.getLogger(LogSpillFile.class.getName());
+
+  /** The maximum size of the messages waiting in the file. */
+  private final long maxBytes;
+
+  private Path path = null;
+  private FileChannel channel = null;
+  private long readPosition = 0;
+  private long writePosition = 0;
+  private int pendingCount = 0;
+  private long lostCount = 0;
+
+  /** The config shared by all the messages currently in the file. */
+  private AuditLogApiAccess.RequestConfig requestConfig = null;
+
+  LogSpillFile(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Appends the payload of a message to the file.
+   *
+   * @return {@code false} if the message was not stored, because the file is full, or it contains
+   *     messages for a different config, or writing failed
+   */
+  synchronized boolean append(String payload, AuditLogApiAccess.RequestConfig config) {
+    if (pendingCount > 0 && !config.equals(requestConfig)) {
+      return false;
+    }
+
+    byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+    long recordSize = Integer.BYTES + bytes.length;
+    if (writePosition - readPosition + recordSize > maxBytes) {
+      return false;
+    }
+
+    try {
+      if (channel == null) {
+        path = Files.createTempFile("enso-audit-log-", ".spill");
+        path.toFile().deleteOnExit();
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      }
+
+      ByteBuffer buffer = ByteBuffer.allocate((int) recordSize);
+      buffer.putInt(bytes.length).put(bytes).flip();
+      long position = writePosition;
+      while (buffer.hasRemaining()) {
+        position += channel.write(buffer, position);
+      }
+
+      // Only a completely written record is made visible to the reader.
+      writePosition = position;
+      pendingCount++;
+      requestConfig = config;
+      return true;
+    } catch (IOException e) {
+      logger.warning("Failed to spill an audit log message to " + path + ": " + e.getMessage());
+      return false;
+    }
+  }
+
+  synchronized boolean isEmpty() {
+    return pendingCount == 0;
+  }
+
+  /** The number of the messages that were stored in the file, but could not be read back. */
+  synchronized long getLostCount() {
+    return lostCount;
+  }
+
+  /** Removes up to {@code limit} messages from the file and returns them as jobs to be sent. */
+  synchronized List<AuditLogApiAccess.LogJob> take(int limit) {
+    if (pendingCount == 0) {
+      return List.of();
+    }
+
+    List<AuditLogApiAccess.LogJob> result = new ArrayList<>(Math.min(limit, pendingCount));
+    try {
+      ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+      while (result.size() < limit && pendingCount > 0) {
+        lengthBuffer.clear();
+        readFully(lengthBuffer, readPosition);
+        int length = lengthBuffer.flip().getInt();
+        ByteBuffer payloadBuffer = ByteBuffer.allocate(length);
+        readFully(payloadBuffer, readPosition + Integer.BYTES);
+
+        String payload = new String(payloadBuffer.array(), StandardCharsets.UTF_8);
+        result.add(new AuditLogApiAccess.LogJob(new SpilledMessage(payload), null, requestConfig));
+        readPosition += Integer.BYTES + length;
+        pendingCount--;
+      }
+    } catch (IOException e) {
+      logger.severe(
+          "Failed to read back "
+              + pendingCount
+              + " spilled audit log messages from "
+              + path
+              + ": "
+              + e.getMessage());
+      lostCount += pendingCount;
+      pendingCount = 0;
+    }
+
+    if (pendingCount == 0) {
+      truncate();
+    }
+    return result;
+  }
+
+  private void readFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new IOException("Unexpected end of the spill file.");
+      }
+      position += read;
+    }
+  }
+
+  /** Once everything has been read, the file is emptied, so that it does not keep growing. */
+  private void truncate() {
+    readPosition = 0;
+    writePosition = 0;
+    requestConfig = null;
+    try {
+      channel.truncate(0);
+    } catch (IOException e) {
+      // The data is overwritten from the start anyway, only the disk space is not reclaimed.
+      logger.warning("Failed to truncate the audit log spill file " + path + ": " + e.getMessage());
+    }
+  }
+
+  /** A message whose payload has been read back from the file. */
+  private record SpilledMessage(String payload) implements AuditLogApiAccess.LogMessage {}
+}
@@ -0,0 +1,185 @@
+package org.enso.base.parallel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.enso.base.Environment_Utils;
+import org.graalvm.polyglot.Context;
+
+/**
+ * A helper for running independent parts of a computation on multiple threads.
+ *
+ * <p>The tasks are run on the common fork-join pool. Its threads have not entered the polyglot
+ * context, so the tasks must not call into Enso nor use {@code Context.getCurrent()}. Instead, the
+ * calling thread waits for the tasks while regularly polling {@code Context.safepoint()}, so that
+ * the computation can still be interrupted. If that happens, the tasks are asked to stop through
+ * the {@link Cancellation} token they receive, which they should check every now and then.
+ */
+public final class ParallelTasks {
+  private ParallelTasks() {}
+
+  /** How often the calling thread polls the safepoint while waiting for the tasks. */
+  private static final long SAFEPOINT_POLL_INTERVAL_MS = 10;
+
+  /** A single task, identified by its index. */
+  @FunctionalInterface
+  public interface Task {
+    void run(int taskIndex, Cancellation cancellation);
+  }
+
+  /** A single computation producing a result, see {@link #start}. */
+  @FunctionalInterface
+  public interface Computation<T> {
+    T compute(Cancellation cancellation);
+  }
+
+  /** A token allowing the tasks to find out that the computation has been abandoned. */
+  public static final class Cancellation {
+    private volatile boolean isCancelled = false;
+
+    /**
+     * Throws a {@link CancellationException} if the computation was abandoned.
+     *
+     * <p>It is cheap and should be called by the tasks regularly, e.g. every few thousand rows.
+     */
+    public void check() {
+      if (isCancelled) {
+        throw new CancellationException();
+      }
+    }
+
+    private void cancel() {
+      isCancelled = true;
+    }
+  }
+
+  /** The number of threads that can run the tasks concurrently. */
+  public static int parallelism() {
+    return ForkJoinPool.getCommonPoolParallelism();
+  }
+
+  /**
+   * The environment variable which, when set to {@code true}, makes the parallel code paths run
+   * even if only a single thread is available. It allows covering these paths in tests on machines
+   * with a single processor.
+   */
+  public static final String FORCE_PARALLELISM_ENV_VAR = "ENSO_FORCE_PARALLEL_TASKS";
+
+  /**
+   * Checks if more than one thread is available to run the tasks, or if parallelism was forced with
+   * the {@link #FORCE_PARALLELISM_ENV_VAR} environment variable.
+   */
+  public static boolean isParallelismAvailable() {
+    return parallelism() > 1 || Environment_Utils.isEnabled(FORCE_PARALLELISM_ENV_VAR);
+  }
+
+  /**
+   * Runs {@code task} for every index from {@code 0} to {@code taskCount - 1}, concurrently, and
+   * waits until all of them complete.
+   *
+   * <p>If any of the tasks fails, its exception is rethrown and the remaining ones are cancelled.
+   */
+  public static void run(int taskCount, Task task) {
+    Context context = Context.getCurrent();
+    Cancellation cancellation = new Cancellation();
+    List<ForkJoinTask<?>> futures = new ArrayList<>(taskCount);
+    boolean completed = false;
+    try {
+      for (int i = 0; i < taskCount; i++) {
+        final int taskIndex = i;
+        futures.add(ForkJoinPool.commonPool().submit(() -> task.run(taskIndex, cancellation)));
+      }
+
+      for (ForkJoinTask<?> future : futures) {
+        awaitPollingSafepoints(future, context);
+      }
+
+      completed = true;
+    } finally {
+      if (!completed) {
+        cancellation.cancel();
+        for (ForkJoinTask<?> future : futures) {
+          future.cancel(false);
+        }
+      }
+    }
+  }
+
+  /**
+   * Starts a single computation in the background and returns immediately.
+   *
+   * <p>It allows the calling thread to keep producing further work while the previous pieces are
+   * being processed, e.g. when the input is read incrementally. The caller must eventually either
+   * {@link Pending#await} or {@link Pending#cancel} the returned computation.
+   */
+  public static <T> Pending<T> start(Computation<T> computation) {
+    Cancellation cancellation = new Cancellation();
+    ForkJoinTask<T> future =
+        ForkJoinPool.commonPool().submit(() -> computation.compute(cancellation));
+    return new Pending<>(future, cancellation);
+  }
+
+  /** A computation started with {@link #start}, whose result may not be available yet. */
+  public static final class Pending<T> {
+    private final ForkJoinTask<T> future;
+    private final Cancellation cancellation;
+
+    private Pending(ForkJoinTask<T> future, Cancellation cancellation) {
+      this.future = future;
+      this.cancellation = cancellation;
+    }
+
+    /**
+     * Waits for the result, polling the safepoint of the calling thread.
+     *
+     * <p>If the computation failed, its exception is rethrown. If the wait is interrupted, the
+     * computation is cancelled.
+     */
+    public T await() {
+      Context context = Context.getCurrent();
+      boolean completed = false;
+      try {
+        T result = awaitPollingSafepoints(future, context);
+        completed = true;
+        return result;
+      } finally {
+        if (!completed) {
+          cancel();
+        }
+      }
+    }
+
+    /** Asks the computation to stop, without waiting for it. */
+    public void cancel() {
+      cancellation.cancel();
+      future.cancel(false);
+    }
+  }
+
+  private static <T> T awaitPollingSafepoints(ForkJoinTask<T> future, Context context) {
+    while (true) {
+      try {
+        return future.get(SAFEPOINT_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        context.safepoint();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CancellationException("Interrupted while waiting for parallel tasks.");
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtimeException) {
+          throw runtimeException;
+        } else if (cause instanceof Error error) {
+          throw error;
+        } else {
+          throw new IllegalStateException("Unexpected exception in a parallel task.", cause);
+        }
+      }
+    }
+  }
+}
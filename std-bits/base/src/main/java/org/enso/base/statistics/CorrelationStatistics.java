@@ -1,9 +1,17 @@
 package org.enso.base.statistics;
 
+import java.util.BitSet;
+import org.enso.base.parallel.ParallelTasks;
 import org.graalvm.polyglot.Context;
 
 /** Class to compute covariance and correlations between series. */
 public class CorrelationStatistics {
+  /**
+   * Matrices whose computation takes fewer steps (pairs of series times their length) than this are
+   * computed on a single thread.
+   */
+  private static final long PARALLEL_THRESHOLD = 1 << 20;
+
   private long count = 0;
   private double totalX = 0.0;
   private double totalXX = 0.0;
@@ -11,8 +19,8 @@ public class CorrelationStatistics {
   private double totalYY = 0.0;
   private double totalXY = 0.0;
 
-  private void append(Double x, Double y) {
-    if (x == null || x.isNaN() || y == null || y.isNaN()) {
+  private void append(double x, double y) {
+    if (Double.isNaN(x) || Double.isNaN(y)) {
       return;
     }
 
@@ -110,45 +118,206 @@ public class CorrelationStatistics {
       throw new IllegalArgumentException("Left and right lengths are not the same.");
     }
 
+    return compute(unbox(x), null, unbox(y), null);
+  }
+
+  /**
+   * Create the CorrelationStats between two series of primitive values.
+   *
+   * @param x Array of X values
+   * @param xMissing Indices of the missing X values, or {@code null} if there are none
+   * @param y Array of Y values
+   * @param yMissing Indices of the missing Y values, or {@code null} if there are none
+   * @return CorrelationStats object for the 2 series.
+   */
+  public static CorrelationStatistics compute(
+      double[] x, BitSet xMissing, double[] y, BitSet yMissing) {
+    if (x.length != y.length) {
+      throw new IllegalArgumentException("Left and right lengths are not the same.");
+    }
+
     CorrelationStatistics output = new CorrelationStatistics();
     for (int i = 0; i < x.length; i++) {
-      output.append(x[i], y[i]);
+      if ((xMissing == null || !xMissing.get(i)) && (yMissing == null || !yMissing.get(i))) {
+        output.append(x[i], y[i]);
+      }
     }
     return output;
   }
 
   public static CorrelationStatistics[][] computeMatrix(Double[][] data) {
-    int len = data[0].length;
+    return computeMatrix(unboxAll(data), null);
+  }
+
+  /**
+   * Computes the CorrelationStats between every pair of the series. The pairs are computed in
+   * parallel, if there is enough work.
+   *
+   * @param data the series, all of the same length
+   * @param missing the indices of the missing values of each series, or {@code null} if there are
+   *     none in any series
+   */
+  public static CorrelationStatistics[][] computeMatrix(double[][] data, BitSet[] missing) {
+    CorrelationStatistics[][] output = new CorrelationStatistics[data.length][data.length];
+    forEachPair(
+        data,
+        (i, j, poll) ->
+            output[i][j] = compute(data[i], maskAt(missing, i), data[j], maskAt(missing, j)));
 
-    Context context = Context.getCurrent();
-    CorrelationStatistics[][] output = new CorrelationStatistics[data.length][];
     for (int i = 0; i < data.length; i++) {
-      if (data[i].length != len) {
-        throw new IllegalArgumentException("Data lengths are not consistent.");
+      for (int j = 0; j < i; j++) {
+        output[i][j] = output[j][i];
       }
-      output[i] = new CorrelationStatistics[data.length];
-      for (int j = 0; j < data.length; j++) {
-        if (j < i) {
-          output[i][j] = output[j][i];
-        } else {
-          output[i][j] = compute(data[i], data[j]);
-        }
+    }
+    return output;
+  }
+
+  public static double spearmanRankCorrelation(Double[] x, Double[] y) {
+    if (x.length != y.length) {
+      throw new IllegalArgumentException("Left and right lengths are not the same.");
+    }
+
+    return spearmanRankCorrelation(unbox(x), null, unbox(y), null);
+  }
+
+  public static double spearmanRankCorrelation(
+      double[] x, BitSet xMissing, double[] y, BitSet yMissing) {
+    return spearmanRankCorrelation(x, xMissing, y, yMissing, Context.getCurrent()::safepoint);
+  }
+
+  public static double[][] spearmanRankCorrelationMatrix(Double[][] data) {
+    return spearmanRankCorrelationMatrix(unboxAll(data), null);
+  }
 
-        context.safepoint();
+  /**
+   * Computes the Spearman rank correlation between every pair of the series, with 1 on the
+   * diagonal. The pairs are computed in parallel, if there is enough work.
+   *
+   * @param data the series, all of the same length
+   * @param missing the indices of the missing values of each series, or {@code null} if there are
+   *     none in any series
+   */
+  public static double[][] spearmanRankCorrelationMatrix(double[][] data, BitSet[] missing) {
+    double[][] output = new double[data.length][data.length];
+    forEachPair(
+        data,
+        (i, j, poll) ->
+            output[i][j] =
+                i == j
+                    ? 1.0
+                    : spearmanRankCorrelation(
+                        data[i], maskAt(missing, i), data[j], maskAt(missing, j), poll));
+
+    for (int i = 0; i < data.length; i++) {
+      for (int j = 0; j < i; j++) {
+        output[i][j] = output[j][i];
       }
     }
     return output;
   }
 
-  public static double spearmanRankCorrelation(Double[] x, Double[] y) {
-    double[][] pairedRanks = Rank.pairedRanks(x, y, Rank.Method.AVERAGE);
+  private static double spearmanRankCorrelation(
+      double[] x, BitSet xMissing, double[] y, BitSet yMissing, Runnable poll) {
+    double[][] pairedRanks = Rank.pairedRanks(x, xMissing, y, yMissing, Rank.Method.AVERAGE, poll);
 
-    Context context = Context.getCurrent();
     CorrelationStatistics computation = new CorrelationStatistics();
     for (int i = 0; i < pairedRanks[0].length; i++) {
       computation.append(pairedRanks[0][i], pairedRanks[1][i]);
-      context.safepoint();
     }
     return computation.pearsonCorrelation();
   }
+
+  /** A computation for the pair of series {@code i} and {@code j}, where {@code i <= j}. */
+  private interface PairTask {
+    void compute(int i, int j, Runnable poll);
+  }
+
+  /**
+   * Runs the task for every pair of the series in the upper triangle of the matrix, including the
+   * diagonal.
+   *
+   * <p>The pairs are split into contiguous chunks, which are computed concurrently. The chunks are
+   * of the same number of pairs, so that the rows of different lengths do not unbalance the work.
+   */
+  private static void forEachPair(double[][] data, PairTask task) {
+    int n = data.length;
+    if (n == 0) {
+      return;
+    }
+
+    int length = data[0].length;
+    for (double[] series : data) {
+      if (series.length != length) {
+        throw new IllegalArgumentException("Data lengths are not consistent.");
+      }
+    }
+
+    long pairCount = (long) n * (n + 1) / 2;
+    if (pairCount == 1
+        || pairCount * length < PARALLEL_THRESHOLD
+        || !ParallelTasks.isParallelismAvailable()) {
+      Context context = Context.getCurrent();
+      Runnable poll = context::safepoint;
+      for (int i = 0; i < n; i++) {
+        for (int j = i; j < n; j++) {
+          task.compute(i, j, poll);
+          context.safepoint();
+        }
+      }
+    } else {
+      int chunkCount = (int) Math.min(pairCount, 4L * ParallelTasks.parallelism());
+      ParallelTasks.run(
+          chunkCount,
+          (chunk, cancellation) -> {
+            long start = pairCount * chunk / chunkCount;
+            long end = pairCount * (chunk + 1) / chunkCount;
+
+            // Find the row and column of the first pair of the chunk.
+            int i = 0;
+            long rowStart = 0;
+            while (rowStart + (n - i) <= start) {
+              rowStart += n - i;
+              i++;
+            }
+            int j = i + (int) (start - rowStart);
+
+            Runnable poll = cancellation::check;
+            for (long pair = start; pair < end; pair++) {
+              task.compute(i, j, poll);
+              cancellation.check();
+              if (++j == n) {
+                i++;
+                j = i;
+              }
+            }
+          });
+    }
+  }
+
+  /** Checks if the value is missing, either because it is set in the mask or because it is NaN. */
+  static boolean isMissing(double[] values, BitSet missing, int index) {
+    return (missing != null && missing.get(index)) || Double.isNaN(values[index]);
+  }
+
+  private static BitSet maskAt(BitSet[] missing, int index) {
+    return missing == null ? null : missing[index];
+  }
+
+  /** Unboxes the values, replacing the missing ones with NaN - which is skipped just the same. */
+  static double[] unbox(Double[] values) {
+    double[] result = new double[values.length];
+    for (int i = 0; i < values.length; i++) {
+      Double value = values[i];
+      result[i] = value == null ? Double.NaN : value;
+    }
+    return result;
+  }
+
+  private static double[][] unboxAll(Double[][] data) {
+    double[][] result = new double[data.length][];
+    for (int i = 0; i < data.length; i++) {
+      result[i] = unbox(data[i]);
+    }
+    return result;
+  }
 }
@@ -0,0 +1,240 @@
+package org.enso.base.statistics;
+
+import java.util.Arrays;
+
+/**
+ * Estimates the quantiles of a stream of values in a single pass, keeping only a small summary of
+ * them.
+ *
+ * <p>It is a KLL sketch: the values are kept in a hierarchy of levels, where every value on level
+ * {@code h} stands for {@code 2^h} values of the input. Once a level fills up, it is sorted and
+ * every other value is promoted to the level above. The memory used grows only logarithmically with
+ * the number of values, while the error of the rank of an estimated quantile is proportional to
+ * {@code 1 / k} of the count.
+ *
+ * <p>Until more than {@code k} values are added, no value is discarded and the results are exact.
+ * The sketch is deterministic - the same values added in the same order give the same results.
+ */
+public final class QuantileSketch {
+  /** The default accuracy parameter, keeping the rank error within about 2% of the count. */
+  public static final int DEFAULT_K = 200;
+
+  /** The factor by which the capacity decreases with every level below the top one. */
+  private static final double CAPACITY_DECAY = 2.0 / 3.0;
+
+  /** The smallest capacity of a level. */
+  private static final int MIN_CAPACITY = 2;
+
+  private final int k;
+  private double[][] levels;
+  private int[] levelSizes;
+  private int levelCount;
+  private int retainedCount = 0;
+  private int maxRetainedCount;
+
+  /** Alternates the half of the values promoted by consecutive compactions. */
+  private boolean promoteOdd = false;
+
+  private long count = 0;
+  private double min = Double.NaN;
+  private double max = Double.NaN;
+
+  /** The retained values sorted together with their cumulative weights, built when queried. */
+  private double[] sortedValues = null;
+
+  private long[] cumulativeWeights = null;
+
+  public QuantileSketch() {
+    this(DEFAULT_K);
+  }
+
+  /**
+   * Creates a new sketch.
+   *
+   * @param k the accuracy parameter - the number of values retained by the top level
+   */
+  public QuantileSketch(int k) {
+    if (k < MIN_CAPACITY) {
+      throw new IllegalArgumentException("The accuracy of the sketch must be at least 2.");
+    }
+
+    this.k = k;
+    this.levels = new double[][] {new double[16]};
+    this.levelSizes = new int[1];
+    this.levelCount = 1;
+    this.maxRetainedCount = capacity(0);
+  }
+
+  /** Adds a value to the sketch. The value must not be NaN. */
+  public void add(double value) {
+    assert !Double.isNaN(value) : "NaN cannot be added to the sketch.";
+    if (count == 0 || value < min) {
+      min = value;
+    }
+    if (count == 0 || value > max) {
+      max = value;
+    }
+
+    count++;
+    append(0, value);
+    retainedCount++;
+    sortedValues = null;
+    cumulativeWeights = null;
+    if (retainedCount >= maxRetainedCount) {
+      compress();
+    }
+  }
+
+  /** The number of values added to the sketch. */
+  public long getCount() {
+    return count;
+  }
+
+  /** The smallest added value, or NaN if the sketch is empty. */
+  public double getMin() {
+    return min;
+  }
+
+  /** The largest added value, or NaN if the sketch is empty. */
+  public double getMax() {
+    return max;
+  }
+
+  /**
+   * Estimates the value which would be at the given position if all the added values were sorted.
+   *
+   * @param rank the 0-based position, clamped to the range of the added values
+   * @return the estimated value, or NaN if the sketch is empty
+   */
+  public double valueAtRank(long rank) {
+    if (count == 0) {
+      return Double.NaN;
+    } else if (rank <= 0) {
+      return min;
+    } else if (rank >= count - 1) {
+      return max;
+    }
+
+    if (sortedValues == null) {
+      buildSortedView();
+    }
+
+    // Find the first value whose cumulative weight exceeds the rank.
+    int low = 0;
+    int high = sortedValues.length - 1;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (cumulativeWeights[middle] > rank) {
+        high = middle;
+      } else {
+        low = middle + 1;
+      }
+    }
+    return sortedValues[low];
+  }
+
+  /** The capacity of a level, decreasing geometrically with the distance from the top level. */
+  private int capacity(int level) {
+    int depth = levelCount - level - 1;
+    return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth))) + 1;
+  }
+
+  private void append(int level, double value) {
+    double[] buffer = levels[level];
+    int size = levelSizes[level];
+    if (size == buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(16, size * 2));
+      levels[level] = buffer;
+    }
+    buffer[size] = value;
+    levelSizes[level] = size + 1;
+  }
+
+  /** Compacts the lowest level which is over its capacity. */
+  private void compress() {
+    for (int level = 0; level < levelCount; level++) {
+      if (levelSizes[level] >= capacity(level)) {
+        if (level + 1 == levelCount) {
+          addLevel();
+        }
+
+        compact(level);
+        return;
+      }
+    }
+  }
+
+  private void addLevel() {
+    levels = Arrays.copyOf(levels, levelCount + 1);
+    levelSizes = Arrays.copyOf(levelSizes, levelCount + 1);
+    levels[levelCount] = new double[16];
+    levelCount++;
+
+    maxRetainedCount = 0;
+    for (int level = 0; level < levelCount; level++) {
+      maxRetainedCount += capacity(level);
+    }
+  }
+
+  /**
+   * Sorts the level and promotes every other value to the level above, doubling its weight.
+   *
+   * <p>If the level holds an odd number of values, the smallest one stays behind, so the total
+   * weight of the retained values is always equal to the count.
+   */
+  private void compact(int level) {
+    double[] buffer = levels[level];
+    int size = levelSizes[level];
+    Arrays.sort(buffer, 0, size);
+
+    int kept = size % 2;
+    int offset = promoteOdd ? 1 : 0;
+    promoteOdd = !promoteOdd;
+    for (int i = kept + offset; i < size; i += 2) {
+      append(level + 1, buffer[i]);
+    }
+
+    levelSizes[level] = kept;
+    retainedCount -= (size - kept) / 2;
+  }
+
+  /** Merges the sorted levels into a single list of values with their cumulative weights. */
+  private void buildSortedView() {
+    double[] values = new double[0];
+    long[] weights = new long[0];
+    for (int level = 0; level < levelCount; level++) {
+      int size = levelSizes[level];
+      if (size == 0) {
+        continue;
+      }
+
+      double[] levelValues = Arrays.copyOf(levels[level], size);
+      Arrays.sort(levelValues);
+      long weight = 1L << level;
+
+      double[] mergedValues = new double[values.length + size];
+      long[] mergedWeights = new long[values.length + size];
+      int i = 0;
+      int j = 0;
+      for (int m = 0; m < mergedValues.length; m++) {
+        if (j == size || (i < values.length && values[i] <= levelValues[j])) {
+          mergedValues[m] = values[i];
+          mergedWeights[m] = weights[i];
+          i++;
+        } else {
+          mergedValues[m] = levelValues[j];
+          mergedWeights[m] = weight;
+          j++;
+        }
+      }
+      values = mergedValues;
+      weights = mergedWeights;
+    }
+
+    for (int i = 1; i < weights.length; i++) {
+      weights[i] += weights[i - 1];
+    }
+    sortedValues = values;
+    cumulativeWeights = weights;
+  }
+}
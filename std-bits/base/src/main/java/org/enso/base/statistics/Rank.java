@@ -1,15 +1,14 @@
 package org.enso.base.statistics;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.List;
 import org.enso.base.ObjectComparator;
 import org.graalvm.polyglot.Context;
 
 public class Rank {
-  private static final Comparator<Object> DOUBLE_COMPARATOR =
-      (a, b) -> Double.compare((Double) a, (Double) b);
-
   public enum Method {
     AVERAGE,
     MINIMUM,
@@ -20,8 +19,16 @@ public class Rank {
 
   private record ValueWithIndex(Object value, int index) {}
 
+  /** Runs of at most this length are sorted by insertion, before being merged. */
+  private static final int INSERTION_SORT_THRESHOLD = 32;
+
   public static double[] rank(Object[] input, Method method)
       throws NullPointerException, ClassCastException {
+    double[] doubles = asDoubles(input);
+    if (doubles != null) {
+      return computeRank(doubles, method, Context.getCurrent()::safepoint);
+    }
+
     List<ValueWithIndex> tuples = new ArrayList<>(input.length);
     for (int i = 0; i < input.length; i++) {
       if (input[i] == null) {
@@ -33,32 +40,185 @@ public class Rank {
     return computeRankFromTuples(tuples, new ObjectComparator(), method);
   }
 
+  /**
+   * Ranks the values, without boxing them.
+   *
+   * @param missing the indices of the missing values, or {@code null} if there are none; a missing
+   *     value cannot be ranked
+   */
+  public static double[] rank(double[] input, BitSet missing, Method method)
+      throws NullPointerException {
+    if (missing != null) {
+      int firstMissing = missing.nextSetBit(0);
+      if (firstMissing != -1 && firstMissing < input.length) {
+        throw new NullPointerException("Value is Nothing at index " + firstMissing);
+      }
+    }
+
+    return computeRank(input, method, Context.getCurrent()::safepoint);
+  }
+
   public static double[][] pairedRanks(Double[] x, Double[] y, Method method)
       throws IllegalArgumentException, NullPointerException, ClassCastException {
     if (x.length != y.length) {
       throw new IllegalArgumentException("Left and right lengths are not the same.");
     }
 
-    Context context = Context.getCurrent();
-    List<ValueWithIndex> x_tuples = new ArrayList<>(x.length);
-    List<ValueWithIndex> y_tuples = new ArrayList<>(y.length);
+    return pairedRanks(
+        CorrelationStatistics.unbox(x),
+        null,
+        CorrelationStatistics.unbox(y),
+        null,
+        method,
+        Context.getCurrent()::safepoint);
+  }
+
+  /**
+   * Ranks the pairs of values in which neither value is missing nor NaN.
+   *
+   * @param xMissing the indices of the missing values of {@code x}, or {@code null} if none
+   * @param yMissing the indices of the missing values of {@code y}, or {@code null} if none
+   */
+  public static double[][] pairedRanks(
+      double[] x, BitSet xMissing, double[] y, BitSet yMissing, Method method)
+      throws IllegalArgumentException {
+    return pairedRanks(x, xMissing, y, yMissing, method, Context.getCurrent()::safepoint);
+  }
+
+  static double[][] pairedRanks(
+      double[] x, BitSet xMissing, double[] y, BitSet yMissing, Method method, Runnable poll) {
+    if (x.length != y.length) {
+      throw new IllegalArgumentException("Left and right lengths are not the same.");
+    }
+
+    double[] xValues = new double[x.length];
+    double[] yValues = new double[y.length];
+    int count = 0;
     for (int i = 0; i < x.length; i++) {
-      if (x[i] == null || Double.isNaN(x[i]) || y[i] == null || Double.isNaN(y[i])) {
+      if (CorrelationStatistics.isMissing(x, xMissing, i)
+          || CorrelationStatistics.isMissing(y, yMissing, i)) {
         continue;
       }
 
-      x_tuples.add(new ValueWithIndex(x[i], x_tuples.size()));
-      y_tuples.add(new ValueWithIndex(y[i], y_tuples.size()));
-
-      context.safepoint();
+      xValues[count] = x[i];
+      yValues[count] = y[i];
+      count++;
     }
 
     return new double[][] {
-      computeRankFromTuples(x_tuples, DOUBLE_COMPARATOR, method),
-      computeRankFromTuples(y_tuples, DOUBLE_COMPARATOR, method)
+      computeRank(count == x.length ? xValues : Arrays.copyOf(xValues, count), method, poll),
+      computeRank(count == y.length ? yValues : Arrays.copyOf(yValues, count), method, poll)
     };
   }
 
+  /** Returns the values as primitive doubles, if all of them are {@code Double}s. */
+  private static double[] asDoubles(Object[] input) {
+    double[] result = new double[input.length];
+    for (int i = 0; i < input.length; i++) {
+      if (!(input[i] instanceof Double d)) {
+        return null;
+      }
+      result[i] = d;
+    }
+    return result;
+  }
+
+  /**
+   * Ranks the values the same way as {@link #computeRankFromTuples} does for {@code Double}s: the
+   * largest value gets the rank 1, and the equal values are ordered by their position.
+   */
+  private static double[] computeRank(double[] values, Method method, Runnable poll) {
+    int[] order = sortDescending(values, poll);
+    double[] output = new double[values.length];
+
+    int index = 0;
+    int dense = 0;
+    while (index < order.length) {
+      dense++;
+      int start = index;
+
+      // Find End of Equal Values
+      double value = values[order[start]];
+      while (index < order.length && Double.compare(value, values[order[index]]) == 0) {
+        index++;
+      }
+
+      // Build Rank
+      for (int i = start; i < index; i++) {
+        double rank =
+            switch (method) {
+              case MINIMUM -> start + 1;
+              case MAXIMUM -> index;
+              case DENSE -> dense;
+              case AVERAGE -> (start + 1 + index) / 2.0;
+              case ORDINAL -> i + 1;
+            };
+
+        output[order[i]] = rank;
+      }
+
+      poll.run();
+    }
+
+    return output;
+  }
+
+  /**
+   * Returns the indices of the values, ordered from the largest value to the smallest one. It is a
+   * stable merge sort, so the indices of equal values stay in the ascending order.
+   */
+  private static int[] sortDescending(double[] values, Runnable poll) {
+    int n = values.length;
+    int[] order = new int[n];
+    for (int i = 0; i < n; i++) {
+      order[i] = i;
+    }
+
+    for (int start = 0; start < n; start += INSERTION_SORT_THRESHOLD) {
+      int end = Math.min(start + INSERTION_SORT_THRESHOLD, n);
+      for (int i = start + 1; i < end; i++) {
+        int current = order[i];
+        int j = i - 1;
+        while (j >= start && Double.compare(values[order[j]], values[current]) < 0) {
+          order[j + 1] = order[j];
+          j--;
+        }
+        order[j + 1] = current;
+      }
+    }
+
+    int[] buffer = new int[n];
+    for (int width = INSERTION_SORT_THRESHOLD; width < n; width *= 2) {
+      for (int left = 0; left < n - width; left += 2 * width) {
+        int middle = left + width;
+        int right = Math.min(left + 2 * width, n);
+        if (Double.compare(values[order[middle - 1]], values[order[middle]]) >= 0) {
+          // The two runs are already in order.
+          continue;
+        }
+
+        System.arraycopy(order, left, buffer, left, right - left);
+        int i = left;
+        int j = middle;
+        int k = left;
+        while (i < middle && j < right) {
+          // Taking from the left run on ties keeps the sort stable.
+          order[k++] =
+              Double.compare(values[buffer[i]], values[buffer[j]]) >= 0 ? buffer[i++] : buffer[j++];
+        }
+        while (i < middle) {
+          order[k++] = buffer[i++];
+        }
+        while (j < right) {
+          order[k++] = buffer[j++];
+        }
+      }
+      poll.run();
+    }
+
+    return order;
+  }
+
   private static double[] computeRankFromTuples(
       List<ValueWithIndex> tuples, Comparator<Object> comparator, Method method)
       throws NullPointerException, ClassCastException {
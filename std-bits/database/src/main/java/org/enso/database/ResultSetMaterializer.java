@@ -0,0 +1,297 @@
+package org.enso.database;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+import java.util.ArrayList;
+import java.util.List;
+import org.enso.table.data.column.builder.BigDecimalBuilder;
+import org.enso.table.data.column.builder.BigIntegerBuilder;
+import org.enso.table.data.column.builder.BoolBuilder;
+import org.enso.table.data.column.builder.Builder;
+import org.enso.table.data.column.builder.DateBuilder;
+import org.enso.table.data.column.builder.DateTimeBuilder;
+import org.enso.table.data.column.builder.DoubleBuilder;
+import org.enso.table.data.column.builder.InferredBuilder;
+import org.enso.table.data.column.builder.LongBuilder;
+import org.enso.table.data.column.builder.NumericBuilder;
+import org.enso.table.data.column.builder.StringBuilder;
+import org.enso.table.data.column.builder.TimeOfDayBuilder;
+import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.column.storage.type.IntegerType;
+import org.enso.table.data.column.storage.type.TextType;
+import org.enso.table.problems.ProblemAggregator;
+import org.graalvm.polyglot.Context;
+
+/**
+ * Reads the rows of a {@link ResultSet} directly into the column builders.
+ *
+ * <p>Fetching the values one by one from Enso makes every cell cross the polyglot boundary and get
+ * boxed. Instead, each column gets a {@link ColumnReader} that moves the values from the result set
+ * to the builder of the matching type.
+ */
+public final class ResultSetMaterializer {
+  /** The number of rows read between the checks for cancellation. */
+  private static final int SAFEPOINT_INTERVAL = 1024;
+
+  private static final int INITIAL_CAPACITY = 128;
+
+  private ResultSetMaterializer() {}
+
+  /** Reads the values of a single column of a result set into a builder of the matching type. */
+  public interface ColumnReader {
+    Builder makeBuilder(int initialCapacity, ProblemAggregator problemAggregator);
+
+    /** Reads the value of the column in the current row and appends it to the builder. */
+    void readValue(ResultSet resultSet, int columnIndex, Builder builder) throws SQLException;
+  }
+
+  /**
+   * The materialized result set.
+   *
+   * @param storages the storages of the consecutive columns
+   * @param warnings the warnings reported while reading the rows
+   */
+  public record Result(Storage<?>[] storages, List<SQLWarning> warnings) {}
+
+  /**
+   * Reads all the remaining rows of the result set.
+   *
+   * @param readers the readers of the consecutive columns of the result set
+   * @param fetchSize the number of rows to fetch from the database at once, or 0 to use the
+   *     default of the driver
+   */
+  public static Result read(
+      ResultSet resultSet,
+      List<ColumnReader> readers,
+      int fetchSize,
+      ProblemAggregator problemAggregator)
+      throws SQLException {
+    if (fetchSize > 0) {
+      try {
+        resultSet.setFetchSize(fetchSize);
+      } catch (SQLFeatureNotSupportedException e) {
+        // The fetch size is only a hint, so the default of the driver is fine too.
+      }
+    }
+
+    ColumnReader[] columnReaders = readers.toArray(new ColumnReader[0]);
+    Builder[] builders = new Builder[columnReaders.length];
+    for (int i = 0; i < columnReaders.length; i++) {
+      builders[i] = columnReaders[i].makeBuilder(INITIAL_CAPACITY, problemAggregator);
+    }
+
+    Context context = Context.getCurrent();
+    List<SQLWarning> warnings = new ArrayList<>();
+    int rowsSinceSafepoint = 0;
+    while (resultSet.next()) {
+      for (int i = 0; i < columnReaders.length; i++) {
+        columnReaders[i].readValue(resultSet, i + 1, builders[i]);
+      }
+
+      for (SQLWarning warning = resultSet.getWarnings();
+          warning != null;
+          warning = warning.getNextWarning()) {
+        warnings.add(warning);
+      }
+
+      if (++rowsSinceSafepoint == SAFEPOINT_INTERVAL) {
+        rowsSinceSafepoint = 0;
+        context.safepoint();
+      }
+    }
+
+    Storage<?>[] storages = new Storage<?>[builders.length];
+    for (int i = 0; i < builders.length; i++) {
+      storages[i] = builders[i].seal();
+    }
+    return new Result(storages, warnings);
+  }
+
+  public static ColumnReader longColumn(IntegerType integerType) {
+    return new ColumnReader() {
+      @Override
+      public Builder makeBuilder(int initialCapacity, ProblemAggregator problemAggregator) {
+        return NumericBuilder.createLongBuilder(initialCapacity, integerType, problemAggregator);
+      }
+
+      @Override
+      public void readValue(ResultSet resultSet, int columnIndex, Builder builder)
+          throws SQLException {
+        long value = resultSet.getLong(columnIndex);
+        if (resultSet.wasNull()) {
+          builder.appendNulls(1);
+        } else {
+          ((LongBuilder) builder).appendLong(value);
+        }
+      }
+    };
+  }
+
+  public static ColumnReader doubleColumn() {
+    return new ColumnReader() {
+      @Override
+      public Builder makeBuilder(int initialCapacity, ProblemAggregator problemAggregator) {
+        return NumericBuilder.createDoubleBuilder(initialCapacity, problemAggregator);
+      }
+
+      @Override
+      public void readValue(ResultSet resultSet, int columnIndex, Builder builder)
+          throws SQLException {
+        double value = resultSet.getDouble(columnIndex);
+        if (resultSet.wasNull()) {
+          builder.appendNulls(1);
+        } else {
+          ((DoubleBuilder) builder).appendDouble(value);
+        }
+      }
+    };
+  }
+
+  public static ColumnReader booleanColumn() {
+    return new ColumnReader() {
+      @Override
+      public Builder makeBuilder(int initialCapacity, ProblemAggregator problemAggregator) {
+        return new BoolBuilder(initialCapacity);
+      }
+
+      @Override
+      public void readValue(ResultSet resultSet, int columnIndex, Builder builder)
+          throws SQLException {
+        boolean value = resultSet.getBoolean(columnIndex);
+        if (resultSet.wasNull()) {
+          builder.appendNulls(1);
+        } else {
+          ((BoolBuilder) builder).appendBoolean(value);
+        }
+      }
+    };
+  }
+
+  public static ColumnReader textColumn(TextType textType) {
+    return new ObjectColumnReader() {
+      @Override
+      public Builder makeBuilder(int initialCapacity, ProblemAggregator problemAggregator) {
+        return new StringBuilder(initialCapacity, textType);
+      }
+
+      @Override
+      Object getValue(ResultSet resultSet, int columnIndex) throws SQLException {
+        return resultSet.getString(columnIndex);
+      }
+    };
+  }
+
+  public static ColumnReader bigIntegerColumn() {
+    return new ObjectColumnReader() {
+      @Override
+      public Builder makeBuilder(int initialCapacity, ProblemAggregator problemAggregator) {
+        return new BigIntegerBuilder(initialCapacity, problemAggregator);
+      }
+
+      @Override
+      Object getValue(ResultSet resultSet, int columnIndex) throws SQLException {
+        BigDecimal value = resultSet.getBigDecimal(columnIndex);
+        return value == null ? null : value.toBigIntegerExact();
+      }
+    };
+  }
+
+  public static ColumnReader bigDecimalColumn() {
+    return new ObjectColumnReader() {
+      @Override
+      public Builder makeBuilder(int initialCapacity, ProblemAggregator problemAggregator) {
+        return new BigDecimalBuilder(initialCapacity);
+      }
+
+      @Override
+      Object getValue(ResultSet resultSet, int columnIndex) throws SQLException {
+        return resultSet.getBigDecimal(columnIndex);
+      }
+    };
+  }
+
+  public static ColumnReader dateColumn() {
+    return new ObjectColumnReader() {
+      @Override
+      public Builder makeBuilder(int initialCapacity, ProblemAggregator problemAggregator) {
+        return new DateBuilder(initialCapacity);
+      }
+
+      @Override
+      Object getValue(ResultSet resultSet, int columnIndex) throws SQLException {
+        return JDBCUtils.getLocalDate(resultSet, columnIndex);
+      }
+    };
+  }
+
+  public static ColumnReader timeOfDayColumn() {
+    return new ObjectColumnReader() {
+      @Override
+      public Builder makeBuilder(int initialCapacity, ProblemAggregator problemAggregator) {
+        return new TimeOfDayBuilder(initialCapacity);
+      }
+
+      @Override
+      Object getValue(ResultSet resultSet, int columnIndex) throws SQLException {
+        return JDBCUtils.getLocalTime(resultSet, columnIndex);
+      }
+    };
+  }
+
+  /**
+   * Reads a date-time column.
+   *
+   * @param hasTimezone whether the column has a timezone; if it does not, the values are
+   *     interpreted in the default system timezone
+   */
+  public static ColumnReader dateTimeColumn(boolean hasTimezone) {
+    return new ObjectColumnReader() {
+      @Override
+      public Builder makeBuilder(int initialCapacity, ProblemAggregator problemAggregator) {
+        return new DateTimeBuilder(initialCapacity);
+      }
+
+      @Override
+      Object getValue(ResultSet resultSet, int columnIndex) throws SQLException {
+        return hasTimezone
+            ? JDBCUtils.getZonedDateTime(resultSet, columnIndex)
+            : JDBCUtils.getLocalDateTimeAsZoned(resultSet, columnIndex);
+      }
+    };
+  }
+
+  /** Reads a column of any type, inferring the storage type from the values. */
+  public static ColumnReader inferredColumn() {
+    return new ObjectColumnReader() {
+      @Override
+      public Builder makeBuilder(int initialCapacity, ProblemAggregator problemAggregator) {
+        return new InferredBuilder(initialCapacity, problemAggregator);
+      }
+
+      @Override
+      Object getValue(ResultSet resultSet, int columnIndex) throws SQLException {
+        Object value = resultSet.getObject(columnIndex);
+        return resultSet.wasNull() ? null : value;
+      }
+    };
+  }
+
+  /** A reader of the columns whose values are objects, with {@code null} for missing values. */
+  private abstract static class ObjectColumnReader implements ColumnReader {
+    abstract Object getValue(ResultSet resultSet, int columnIndex) throws SQLException;
+
+    @Override
+    public void readValue(ResultSet resultSet, int columnIndex, Builder builder)
+        throws SQLException {
+      Object value = getValue(resultSet, columnIndex);
+      if (value == null) {
+        builder.appendNulls(1);
+      } else {
+        builder.append(value);
+      }
+    }
+  }
+}
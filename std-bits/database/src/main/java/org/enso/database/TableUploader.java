@@ -0,0 +1,374 @@
+package org.enso.database;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.enso.database.audit.AuditableConnection;
+import org.enso.table.data.column.storage.BoolStorage;
+import org.enso.table.data.column.storage.SpecializedStorage;
+import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.column.storage.StringStorage;
+import org.enso.table.data.column.storage.datetime.DateStorage;
+import org.enso.table.data.column.storage.datetime.DateTimeStorage;
+import org.enso.table.data.column.storage.datetime.TimeOfDayStorage;
+import org.enso.table.data.column.storage.numeric.AbstractLongStorage;
+import org.enso.table.data.column.storage.numeric.BigDecimalStorage;
+import org.enso.table.data.column.storage.numeric.BigIntegerStorage;
+import org.enso.table.data.column.storage.numeric.DoubleStorage;
+import org.graalvm.polyglot.Context;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/**
+ * Uploads the rows of an in-memory table, reading the values directly from the column storages.
+ *
+ * <p>On Postgres the rows are streamed with {@code COPY ... FROM STDIN} in the CSV format. Other
+ * databases get the rows bound to a prepared {@code INSERT} statement and executed in batches.
+ */
+public final class TableUploader {
+  /** The number of characters of CSV data sent to the database at once by {@code COPY}. */
+  private static final int COPY_CHUNK_SIZE = 1 << 16;
+
+  private TableUploader() {}
+
+  /** Checks if the values of all the storages can be uploaded by this class. */
+  public static boolean canUpload(List<Storage<?>> storages) {
+    for (Storage<?> storage : storages) {
+      boolean isSupported =
+          switch (storage) {
+            case AbstractLongStorage s -> true;
+            case DoubleStorage s -> true;
+            case BoolStorage s -> true;
+            case StringStorage s -> true;
+            case BigDecimalStorage s -> true;
+            case BigIntegerStorage s -> true;
+            case DateStorage s -> true;
+            case TimeOfDayStorage s -> true;
+            case DateTimeStorage s -> true;
+            default -> false;
+          };
+      if (!isSupported) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Checks if the connection can upload the rows with a Postgres {@code COPY}. */
+  public static boolean canCopy(Connection connection) throws SQLException {
+    return connection.isWrapperFor(PGConnection.class);
+  }
+
+  /**
+   * Uploads the first {@code rowCount} rows of the storages.
+   *
+   * <p>It is the responsibility of the caller to run it within a transaction, so that a failure
+   * does not leave the table partially filled.
+   *
+   * @param insertTemplate the {@code INSERT} statement with a parameter for each column
+   * @param copyTemplate the {@code COPY ... FROM STDIN (FORMAT csv)} statement loading all the
+   *     columns, or {@code null} if the rows should be inserted in batches; it is only used if
+   *     {@link #canCopy} holds for the connection
+   * @param storages the storages of the columns, in the order of the parameters
+   * @param hasTimezone whether the date-time values of each column should be uploaded with their
+   *     timezone
+   * @param batchSize the number of rows executed in a single batch of inserts
+   */
+  public static void upload(
+      Connection connection,
+      String insertTemplate,
+      String copyTemplate,
+      List<Storage<?>> storages,
+      List<Boolean> hasTimezone,
+      int rowCount,
+      int batchSize)
+      throws SQLException {
+    ColumnWriter[] writers = new ColumnWriter[storages.size()];
+    for (int i = 0; i < writers.length; i++) {
+      writers[i] = makeWriter(storages.get(i), hasTimezone.get(i));
+    }
+
+    if (copyTemplate != null && canCopy(connection)) {
+      copyRows(connection, copyTemplate, writers, rowCount);
+    } else {
+      insertRows(connection, insertTemplate, writers, rowCount, batchSize);
+    }
+  }
+
+  private static void insertRows(
+      Connection connection,
+      String insertTemplate,
+      ColumnWriter[] writers,
+      int rowCount,
+      int batchSize)
+      throws SQLException {
+    Context context = Context.getCurrent();
+    try (PreparedStatement statement = connection.prepareStatement(insertTemplate)) {
+      int rowsInBatch = 0;
+      for (int row = 0; row < rowCount; row++) {
+        for (int i = 0; i < writers.length; i++) {
+          writers[i].bind(statement, i + 1, row);
+        }
+        statement.addBatch();
+
+        if (++rowsInBatch == batchSize) {
+          checkUpdates(statement.executeBatch(), rowsInBatch);
+          rowsInBatch = 0;
+          context.safepoint();
+        }
+      }
+
+      if (rowsInBatch > 0) {
+        checkUpdates(statement.executeBatch(), rowsInBatch);
+      }
+    }
+  }
+
+  private static void checkUpdates(int[] updates, int expectedSize) {
+    if (updates.length != expectedSize) {
+      throw new IllegalStateException(
+          "The batch update unexpectedly affected "
+              + updates.length
+              + " rows instead of "
+              + expectedSize
+              + ".");
+    }
+
+    for (int affectedRows : updates) {
+      if (affectedRows != 1) {
+        throw new IllegalStateException(
+            "A single update within the batch unexpectedly affected " + affectedRows + " rows.");
+      }
+    }
+  }
+
+  private static void copyRows(
+      Connection connection, String copyTemplate, ColumnWriter[] writers, int rowCount)
+      throws SQLException {
+    if (connection instanceof AuditableConnection auditable) {
+      auditable.auditOperation("copy", copyTemplate);
+    }
+
+    Context context = Context.getCurrent();
+    CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(copyTemplate);
+    try {
+      StringBuilder chunk = new StringBuilder(COPY_CHUNK_SIZE + COPY_CHUNK_SIZE / 4);
+      for (int row = 0; row < rowCount; row++) {
+        for (int i = 0; i < writers.length; i++) {
+          if (i > 0) {
+            chunk.append(',');
+          }
+          writers[i].appendCsv(chunk, row);
+        }
+        chunk.append('\n');
+
+        if (chunk.length() >= COPY_CHUNK_SIZE) {
+          writeChunk(copy, chunk);
+          context.safepoint();
+        }
+      }
+
+      writeChunk(copy, chunk);
+      long copiedRows = copy.endCopy();
+      if (copiedRows != rowCount) {
+        throw new IllegalStateException(
+            "The copy unexpectedly loaded " + copiedRows + " rows instead of " + rowCount + ".");
+      }
+    } finally {
+      if (copy.isActive()) {
+        copy.cancelCopy();
+      }
+    }
+  }
+
+  private static void writeChunk(CopyIn copy, StringBuilder chunk) throws SQLException {
+    byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+    copy.writeToCopy(bytes, 0, bytes.length);
+    chunk.setLength(0);
+  }
+
+  /**
+   * Transfers the values of a single column to the database.
+   *
+   * <p>Missing values are bound as {@code NULL}, or left empty in CSV - which {@code COPY} reads as
+   * {@code NULL}, unlike the quoted empty text.
+   */
+  private abstract static class ColumnWriter {
+    private final Storage<?> storage;
+
+    ColumnWriter(Storage<?> storage) {
+      this.storage = storage;
+    }
+
+    final void bind(PreparedStatement statement, int parameterIndex, int row)
+        throws SQLException {
+      if (storage.isNothing(row)) {
+        statement.setNull(parameterIndex, Types.NULL);
+      } else {
+        bindValue(statement, parameterIndex, row);
+      }
+    }
+
+    final void appendCsv(StringBuilder output, int row) {
+      if (!storage.isNothing(row)) {
+        appendCsvValue(output, row);
+      }
+    }
+
+    abstract void bindValue(PreparedStatement statement, int parameterIndex, int row)
+        throws SQLException;
+
+    abstract void appendCsvValue(StringBuilder output, int row);
+  }
+
+  private interface ValueBinder<T> {
+    void bind(PreparedStatement statement, int parameterIndex, T value) throws SQLException;
+  }
+
+  private interface CsvFormatter<T> {
+    void append(StringBuilder output, T value);
+  }
+
+  private static <T> ColumnWriter objectWriter(
+      SpecializedStorage<T> storage, ValueBinder<T> binder, CsvFormatter<T> formatter) {
+    return new ColumnWriter(storage) {
+      @Override
+      void bindValue(PreparedStatement statement, int parameterIndex, int row)
+          throws SQLException {
+        binder.bind(statement, parameterIndex, storage.getItem(row));
+      }
+
+      @Override
+      void appendCsvValue(StringBuilder output, int row) {
+        formatter.append(output, storage.getItem(row));
+      }
+    };
+  }
+
+  private static ColumnWriter makeWriter(Storage<?> storage, boolean hasTimezone) {
+    return switch (storage) {
+      case AbstractLongStorage longs -> new ColumnWriter(longs) {
+        @Override
+        void bindValue(PreparedStatement statement, int parameterIndex, int row)
+            throws SQLException {
+          statement.setLong(parameterIndex, longs.getItem(row));
+        }
+
+        @Override
+        void appendCsvValue(StringBuilder output, int row) {
+          output.append(longs.getItem(row));
+        }
+      };
+      case DoubleStorage doubles -> new ColumnWriter(doubles) {
+        @Override
+        void bindValue(PreparedStatement statement, int parameterIndex, int row)
+            throws SQLException {
+          statement.setDouble(parameterIndex, doubles.getItem(row));
+        }
+
+        @Override
+        void appendCsvValue(StringBuilder output, int row) {
+          // Postgres accepts the `NaN`, `Infinity` and `-Infinity` produced by Java.
+          output.append(doubles.getItem(row));
+        }
+      };
+      case BoolStorage booleans -> new ColumnWriter(booleans) {
+        @Override
+        void bindValue(PreparedStatement statement, int parameterIndex, int row)
+            throws SQLException {
+          statement.setBoolean(parameterIndex, booleans.getItem(row));
+        }
+
+        @Override
+        void appendCsvValue(StringBuilder output, int row) {
+          output.append(booleans.getItem(row));
+        }
+      };
+      case StringStorage strings -> objectWriter(
+          strings, PreparedStatement::setString, TableUploader::appendQuoted);
+      case BigDecimalStorage decimals -> objectWriter(
+          decimals, PreparedStatement::setBigDecimal, (output, value) -> output.append(value));
+      case BigIntegerStorage integers -> objectWriter(
+          integers,
+          (statement, i, value) -> statement.setBigDecimal(i, new BigDecimal(value)),
+          (output, value) -> output.append(value));
+      case DateStorage dates -> objectWriter(
+          dates, JDBCUtils::setLocalDate, TableUploader::appendDate);
+      case TimeOfDayStorage times -> objectWriter(
+          times, JDBCUtils::setLocalTime, (output, value) -> output.append(value));
+      case DateTimeStorage dateTimes -> hasTimezone
+          ? objectWriter(
+              dateTimes, JDBCUtils::setZonedDateTime, TableUploader::appendDateTimeWithOffset)
+          : objectWriter(
+              dateTimes, JDBCUtils::setLocalDateTime, TableUploader::appendLocalDateTime);
+      default -> throw new IllegalStateException(
+          "Unsupported storage: " + storage.getClass().getCanonicalName());
+    };
+  }
+
+  private static void appendQuoted(StringBuilder output, String text) {
+    output.append('"');
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '"') {
+        output.append('"');
+      }
+      output.append(c);
+    }
+    output.append('"');
+  }
+
+  /**
+   * Appends the date in the format of Postgres, which writes the years before 1 AD as BC.
+   *
+   * <p>The era has to come last, so for date-times it is appended after the time.
+   */
+  private static void appendDate(StringBuilder output, LocalDate date) {
+    appendDateDigits(output, date);
+    appendEra(output, date);
+  }
+
+  private static void appendDateDigits(StringBuilder output, LocalDate date) {
+    int year = date.getYear();
+    appendPadded(output, year > 0 ? year : 1 - year, 4);
+    output.append('-');
+    appendPadded(output, date.getMonthValue(), 2);
+    output.append('-');
+    appendPadded(output, date.getDayOfMonth(), 2);
+  }
+
+  private static void appendEra(StringBuilder output, LocalDate date) {
+    if (date.getYear() <= 0) {
+      output.append(" BC");
+    }
+  }
+
+  private static void appendPadded(StringBuilder output, int value, int width) {
+    String digits = Integer.toString(value);
+    for (int i = digits.length(); i < width; i++) {
+      output.append('0');
+    }
+    output.append(digits);
+  }
+
+  private static void appendLocalDateTime(StringBuilder output, ZonedDateTime dateTime) {
+    appendDateDigits(output, dateTime.toLocalDate());
+    output.append(' ').append(dateTime.toLocalTime());
+    appendEra(output, dateTime.toLocalDate());
+  }
+
+  private static void appendDateTimeWithOffset(StringBuilder output, ZonedDateTime dateTime) {
+    appendDateDigits(output, dateTime.toLocalDate());
+    output.append(' ').append(dateTime.toLocalTime());
+    ZoneOffset offset = dateTime.getOffset();
+    output.append(offset.getTotalSeconds() == 0 ? "+00:00" : offset.getId());
+    appendEra(output, dateTime.toLocalDate());
+  }
+}
@@ -0,0 +1,10 @@
+package org.enso.database.audit;
+
+/** A connection that records the operations performed through it. */
+public interface AuditableConnection {
+  /**
+   * Records an operation that is performed on the underlying connection, bypassing the audited
+   * statements - like a Postgres {@code COPY} done through the driver-specific API.
+   */
+  void auditOperation(String operationType, String sql);
+}
@@ -1,8 +1,15 @@
 package org.enso.table.aggregations;
 
+import java.util.ArrayList;
 import java.util.List;
 import org.enso.table.data.column.builder.Builder;
+import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.column.storage.type.AnyObjectType;
+import org.enso.table.data.index.RowSlice;
+import org.enso.table.data.table.problems.ColumnAggregatedProblem;
+import org.enso.table.problems.ColumnAggregatedProblemAggregator;
 import org.enso.table.problems.ProblemAggregator;
+import org.graalvm.polyglot.Context;
 
 /** Interface used to define aggregate columns. */
 public abstract class Aggregator {
@@ -30,5 +37,141 @@ public abstract class Aggregator {
    * @param indexes - indexes to the rows in the source table to aggregate on
    * @return aggregated value
    */
-  public abstract Object aggregate(List<Integer> indexes, ProblemAggregator problemAggregator);
+  public abstract Object aggregate(RowSlice indexes, ProblemAggregator problemAggregator);
+
+  /**
+   * Creates an accumulator that computes this aggregate for a single group, being fed its rows one
+   * at a time.
+   *
+   * <p>Aggregators that need to see all rows of a group at once return {@code null}, which is the
+   * default.
+   */
+  public Accumulator makeAccumulator(ProblemAggregator problemAggregator) {
+    return null;
+  }
+
+  /**
+   * Checks if the accumulators of this aggregator can be fed rows on threads other than the one
+   * running the Enso program.
+   *
+   * <p>This is only safe if none of the inspected values can be an Enso object. By default, it is
+   * assumed to be unsafe.
+   */
+  public boolean canAccumulateInParallel() {
+    return false;
+  }
+
+  /** Checks if none of the given storages can contain Enso objects. */
+  protected static boolean canBeAccessedInParallel(Storage<?>... storages) {
+    for (Storage<?> storage : storages) {
+      if (storage.getType() instanceof AnyObjectType) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The state of the aggregation of a single group.
+   *
+   * <p>The rows of the group are passed to {@link #accumulate} in increasing order, and once all
+   * are processed, {@link #summarize} computes the final value. This allows to compute aggregates
+   * in a single pass over the table, keeping only a small state per group.
+   */
+  public abstract static class Accumulator {
+    private final ProblemAggregator problemAggregator;
+    private ColumnAggregatedProblemAggregator groupProblemAggregator = null;
+    private List<ColumnAggregatedProblem> deferredProblems = null;
+    private boolean isDeferringProblems = false;
+
+    protected Accumulator(ProblemAggregator problemAggregator) {
+      this.problemAggregator = problemAggregator;
+    }
+
+    /** Adds the value from the given row to the state. */
+    public abstract void accumulate(int row);
+
+    /** Returns the aggregated value of all rows accumulated so far. */
+    public abstract Object summarize();
+
+    /** Feeds all given rows to the accumulator and summarizes the result. */
+    public Object accumulateAll(RowSlice indexes) {
+      Context context = Context.getCurrent();
+      for (int i = 0; i < indexes.size(); i++) {
+        accumulate(indexes.get(i));
+        context.safepoint();
+      }
+      return summarize();
+    }
+
+    /**
+     * Reports a problem encountered while processing the group.
+     *
+     * <p>The problems of a single group are merged together, like if they were reported during a
+     * call to {@link Aggregator#aggregate}. The aggregator is only created once a problem occurs,
+     * so groups without problems do not take any extra memory.
+     */
+    protected void reportProblem(ColumnAggregatedProblem problem) {
+      if (isDeferringProblems) {
+        deferProblem(problem);
+        return;
+      }
+
+      if (groupProblemAggregator == null) {
+        groupProblemAggregator = new ColumnAggregatedProblemAggregator(problemAggregator);
+      }
+      groupProblemAggregator.reportColumnAggregatedProblem(problem);
+    }
+
+    /**
+     * Makes the accumulator keep the problems to itself instead of reporting them, until {@link
+     * #reportDeferredProblems} is called.
+     *
+     * <p>This allows to use the accumulator on a worker thread, where the problem aggregator must
+     * not be touched.
+     */
+    public void deferProblems() {
+      isDeferringProblems = true;
+    }
+
+    public boolean hasDeferredProblems() {
+      return deferredProblems != null;
+    }
+
+    /**
+     * Returns the row of the first problem that was deferred.
+     *
+     * <p>As rows are fed in increasing order, this is the point at which {@link #reportProblem}
+     * would have created the problem aggregator for this group.
+     */
+    public int getFirstDeferredProblemRow() {
+      return deferredProblems.get(0).getRows()[0];
+    }
+
+    /** Reports all deferred problems, as if they were reported directly. */
+    public void reportDeferredProblems() {
+      isDeferringProblems = false;
+      if (deferredProblems != null) {
+        for (ColumnAggregatedProblem problem : deferredProblems) {
+          reportProblem(problem);
+        }
+        deferredProblems = null;
+      }
+    }
+
+    private void deferProblem(ColumnAggregatedProblem problem) {
+      if (deferredProblems == null) {
+        deferredProblems = new ArrayList<>();
+      }
+
+      // Merge the problems the same way as ColumnAggregatedProblemAggregator would.
+      for (ColumnAggregatedProblem p : deferredProblems) {
+        if (p.merge(problem)) {
+          return;
+        }
+      }
+
+      deferredProblems.add(problem);
+    }
+  }
 }
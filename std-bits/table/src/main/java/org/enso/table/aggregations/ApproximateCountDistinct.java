@@ -0,0 +1,160 @@
+package org.enso.table.aggregations;
+
+import java.util.Arrays;
+import java.util.List;
+import org.enso.base.polyglot.NumericConverter;
+import org.enso.base.statistics.HyperLogLog;
+import org.enso.base.text.TextFoldingStrategy;
+import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.column.storage.numeric.AbstractLongStorage;
+import org.enso.table.data.column.storage.numeric.DoubleStorage;
+import org.enso.table.data.column.storage.type.IntegerType;
+import org.enso.table.data.index.RowSlice;
+import org.enso.table.data.index.UnorderedMultiValueKey;
+import org.enso.table.data.table.Column;
+import org.enso.table.data.table.problems.FloatingPointGrouping;
+import org.enso.table.problems.ProblemAggregator;
+import org.enso.table.util.ConstantList;
+
+/**
+ * Aggregate Column estimating the number of distinct items in a group, in memory bounded by the
+ * precision of a {@link HyperLogLog} sketch.
+ *
+ * <p>The items are compared the same way as in {@link CountDistinct} - each row is hashed from the
+ * folded values of its cells, so that the values considered equal there get the same hash.
+ */
+public class ApproximateCountDistinct extends KnownTypeAggregator {
+  private static final long NULL_HASH = 0x6a09e667f3bcc909L;
+  private static final long DOUBLE_TAG = 0x3c6ef372fe94f82bL;
+
+  private final Storage<?>[] storage;
+  private final List<TextFoldingStrategy> textFoldingStrategy;
+  private final boolean ignoreAllNull;
+  private final int precision;
+
+  /**
+   * Constructs an ApproximateCountDistinct Aggregator
+   *
+   * @param name output column name
+   * @param columns input columns
+   * @param ignoreAllNull if true ignore then all values are null
+   * @param precision the precision of the sketch, see {@link HyperLogLog#HyperLogLog(int)}
+   */
+  public ApproximateCountDistinct(
+      String name, Column[] columns, boolean ignoreAllNull, int precision) {
+    super(name, IntegerType.INT_64);
+    this.storage = Arrays.stream(columns).map(Column::getStorage).toArray(Storage[]::new);
+    this.ignoreAllNull = ignoreAllNull;
+    this.precision = precision;
+    textFoldingStrategy =
+        ConstantList.make(TextFoldingStrategy.unicodeNormalizedFold, storage.length);
+  }
+
+  @Override
+  public Object aggregate(RowSlice indexes, ProblemAggregator problemAggregator) {
+    return makeAccumulator(problemAggregator).accumulateAll(indexes);
+  }
+
+  @Override
+  public boolean canAccumulateInParallel() {
+    return canBeAccessedInParallel(storage);
+  }
+
+  @Override
+  public Accumulator makeAccumulator(ProblemAggregator problemAggregator) {
+    return new ApproximateCountDistinctAccumulator(problemAggregator);
+  }
+
+  private final class ApproximateCountDistinctAccumulator extends Accumulator {
+    private final HyperLogLog sketch = new HyperLogLog(precision);
+
+    ApproximateCountDistinctAccumulator(ProblemAggregator problemAggregator) {
+      super(problemAggregator);
+    }
+
+    @Override
+    public void accumulate(int row) {
+      long hash = 1;
+      boolean allNull = true;
+      boolean hasFloats = false;
+      for (int i = 0; i < storage.length; i++) {
+        Storage<?> cellStorage = storage[i];
+        long cellHash;
+        if (cellStorage.isNothing(row)) {
+          cellHash = NULL_HASH;
+        } else {
+          allNull = false;
+          switch (cellStorage) {
+            case AbstractLongStorage longStorage -> cellHash = hashLong(longStorage.getItem(row));
+            case DoubleStorage doubleStorage -> {
+              hasFloats = true;
+              cellHash = hashDouble(doubleStorage.getItemAsDouble(row));
+            }
+            default -> {
+              Object value = cellStorage.getItemBoxed(row);
+              hasFloats |= NumericConverter.isFloatLike(value);
+              cellHash = hashFolded(cellStorage, row, value, textFoldingStrategy.get(i));
+            }
+          }
+        }
+
+        hash = mix(hash * 31 + cellHash);
+      }
+
+      if (hasFloats) {
+        reportProblem(new FloatingPointGrouping(getName(), row));
+      }
+
+      if (!ignoreAllNull || !allNull) {
+        sketch.add(hash);
+      }
+    }
+
+    @Override
+    public Object summarize() {
+      return sketch.estimate();
+    }
+  }
+
+  private static long hashFolded(
+      Storage<?> storage, int row, Object value, TextFoldingStrategy textFoldingStrategy) {
+    Object folded = UnorderedMultiValueKey.foldValue(storage, row, value, textFoldingStrategy);
+    return switch (folded) {
+      case Long l -> hashLong(l);
+      case Double d -> hashDouble(d);
+      case String s -> hashString(s);
+      default -> mix(folded.hashCode());
+    };
+  }
+
+  /** Hashes the value the same way as a {@code Long} it would be folded to, if it is whole. */
+  private static long hashDouble(double value) {
+    if (value % 1 == 0) {
+      return hashLong((long) value);
+    }
+    return mix(Double.doubleToLongBits(value) ^ DOUBLE_TAG);
+  }
+
+  private static long hashLong(long value) {
+    return mix(value);
+  }
+
+  /** The 64-bit FNV-1a hash of the characters of the text. */
+  private static long hashString(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+    }
+    return mix(hash);
+  }
+
+  /** The finalizer of MurmurHash3, spreading the bits of the value over the whole hash. */
+  private static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb9fe1a85ec53L;
+    value ^= value >>> 33;
+    return value;
+  }
+}
@@ -1,7 +1,7 @@
 package org.enso.table.aggregations;
 
-import java.util.List;
 import org.enso.table.data.column.storage.type.IntegerType;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.problems.ProblemAggregator;
 
 /** Aggregate Column counting the number of entries in a group. */
@@ -11,7 +11,35 @@ public class Count extends KnownTypeAggregator {
   }
 
   @Override
-  public Object aggregate(List<Integer> indexes, ProblemAggregator problemAggregator) {
+  public Object aggregate(RowSlice indexes, ProblemAggregator problemAggregator) {
     return indexes.size();
   }
+
+  @Override
+  public boolean canAccumulateInParallel() {
+    return true;
+  }
+
+  @Override
+  public Accumulator makeAccumulator(ProblemAggregator problemAggregator) {
+    return new CountAccumulator(problemAggregator);
+  }
+
+  private static final class CountAccumulator extends Accumulator {
+    private long count = 0;
+
+    CountAccumulator(ProblemAggregator problemAggregator) {
+      super(problemAggregator);
+    }
+
+    @Override
+    public void accumulate(int row) {
+      count++;
+    }
+
+    @Override
+    public Object summarize() {
+      return count;
+    }
+  }
 }
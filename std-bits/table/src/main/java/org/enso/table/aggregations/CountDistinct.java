@@ -6,6 +6,7 @@ import java.util.List;
 import org.enso.base.text.TextFoldingStrategy;
 import org.enso.table.data.column.storage.Storage;
 import org.enso.table.data.column.storage.type.IntegerType;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.data.index.UnorderedMultiValueKey;
 import org.enso.table.data.table.Column;
 import org.enso.table.data.table.problems.FloatingPointGrouping;
@@ -39,12 +40,13 @@ public class CountDistinct extends KnownTypeAggregator {
   }
 
   @Override
-  public Object aggregate(List<Integer> indexes, ProblemAggregator problemAggregator) {
+  public Object aggregate(RowSlice indexes, ProblemAggregator problemAggregator) {
     ColumnAggregatedProblemAggregator innerAggregator =
         new ColumnAggregatedProblemAggregator(problemAggregator);
     Context context = Context.getCurrent();
     HashSet<UnorderedMultiValueKey> set = new HashSet<>();
-    for (int row : indexes) {
+    for (int i = 0; i < indexes.size(); i++) {
+      int row = indexes.get(i);
       UnorderedMultiValueKey key = new UnorderedMultiValueKey(storage, row, textFoldingStrategy);
       if (key.hasFloatValues()) {
         innerAggregator.reportColumnAggregatedProblem(
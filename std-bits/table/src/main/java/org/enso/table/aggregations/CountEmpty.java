@@ -1,8 +1,8 @@
 package org.enso.table.aggregations;
 
-import java.util.List;
 import org.enso.table.data.column.storage.Storage;
 import org.enso.table.data.column.storage.type.IntegerType;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.data.table.Column;
 import org.enso.table.data.table.problems.InvalidAggregation;
 import org.enso.table.problems.ColumnAggregatedProblemAggregator;
@@ -31,12 +31,13 @@ public class CountEmpty extends KnownTypeAggregator {
   }
 
   @Override
-  public Object aggregate(List<Integer> indexes, ProblemAggregator problemAggregator) {
+  public Object aggregate(RowSlice indexes, ProblemAggregator problemAggregator) {
     ColumnAggregatedProblemAggregator innerAggregator =
         new ColumnAggregatedProblemAggregator(problemAggregator);
     Context context = Context.getCurrent();
     int count = 0;
-    for (int row : indexes) {
+    for (int i = 0; i < indexes.size(); i++) {
+      int row = indexes.get(i);
       Object value = storage.getItemBoxed(row);
       if (value == null) {
         count += isEmpty ? 1 : 0;
@@ -1,11 +1,10 @@
 package org.enso.table.aggregations;
 
-import java.util.List;
 import org.enso.table.data.column.storage.Storage;
 import org.enso.table.data.column.storage.type.IntegerType;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.data.table.Column;
 import org.enso.table.problems.ProblemAggregator;
-import org.graalvm.polyglot.Context;
 
 /**
  * Aggregate Column counting the number of (not-)null entries in a group. If `isNothing` is true,
@@ -29,13 +28,35 @@ public class CountNothing extends KnownTypeAggregator {
   }
 
   @Override
-  public Object aggregate(List<Integer> indexes, ProblemAggregator problemAggregator) {
-    Context context = Context.getCurrent();
-    long count = 0;
-    for (int row : indexes) {
-      count += ((storage.getItemBoxed(row) == null) == isNothing ? 1L : 0L);
-      context.safepoint();
+  public Object aggregate(RowSlice indexes, ProblemAggregator problemAggregator) {
+    return makeAccumulator(problemAggregator).accumulateAll(indexes);
+  }
+
+  @Override
+  public boolean canAccumulateInParallel() {
+    return canBeAccessedInParallel(storage);
+  }
+
+  @Override
+  public Accumulator makeAccumulator(ProblemAggregator problemAggregator) {
+    return new CountNothingAccumulator(problemAggregator);
+  }
+
+  private final class CountNothingAccumulator extends Accumulator {
+    private long count = 0;
+
+    CountNothingAccumulator(ProblemAggregator problemAggregator) {
+      super(problemAggregator);
+    }
+
+    @Override
+    public void accumulate(int row) {
+      count += (storage.isNothing(row) == isNothing ? 1L : 0L);
+    }
+
+    @Override
+    public Object summarize() {
+      return count;
     }
-    return count;
   }
 }
@@ -1,12 +1,11 @@
 package org.enso.table.aggregations;
 
 import java.util.Arrays;
-import java.util.List;
 import org.enso.table.data.column.storage.Storage;
 import org.enso.table.data.index.OrderedMultiValueKey;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.data.table.Column;
 import org.enso.table.problems.ProblemAggregator;
-import org.graalvm.polyglot.Context;
 
 /** Aggregate Column finding the first value in a group. */
 public class First extends KnownTypeAggregator {
@@ -39,48 +38,77 @@ public class First extends KnownTypeAggregator {
   }
 
   @Override
-  public Object aggregate(List<Integer> indexes, ProblemAggregator problemAggregator) {
+  public Object aggregate(RowSlice indexes, ProblemAggregator problemAggregator) {
+    return makeAccumulator(problemAggregator).accumulateAll(indexes);
+  }
+
+  @Override
+  public boolean canAccumulateInParallel() {
+    return canBeAccessedInParallel(storage) && canBeAccessedInParallel(orderByColumns);
+  }
+
+  @Override
+  public Accumulator makeAccumulator(ProblemAggregator problemAggregator) {
     if (orderByColumns.length == 0) {
-      return firstByRowOrder(indexes);
+      return new FirstByRowOrderAccumulator(problemAggregator);
     } else {
-      return firstBySpecifiedOrder(indexes);
+      return new FirstBySpecifiedOrderAccumulator(problemAggregator);
     }
   }
 
-  private Object firstBySpecifiedOrder(List<Integer> indexes) {
-    OrderedMultiValueKey key = null;
-    Object current = null;
+  private final class FirstBySpecifiedOrderAccumulator extends Accumulator {
+    private OrderedMultiValueKey key = null;
+    private Object current = null;
+
+    FirstBySpecifiedOrderAccumulator(ProblemAggregator problemAggregator) {
+      super(problemAggregator);
+    }
 
-    Context context = Context.getCurrent();
-    for (int row : indexes) {
+    @Override
+    public void accumulate(int row) {
       Object value = storage.getItemBoxed(row);
       if (ignoreNothing && value == null) {
-        continue;
+        return;
       }
 
       OrderedMultiValueKey newKey =
-          new OrderedMultiValueKey(this.orderByColumns, row, this.orderByDirections);
+          new OrderedMultiValueKey(orderByColumns, row, orderByDirections);
       if (key == null || key.compareTo(newKey) > 0) {
         key = newKey;
-        current = storage.getItemBoxed(row);
+        current = value;
       }
-
-      context.safepoint();
     }
 
-    return current;
+    @Override
+    public Object summarize() {
+      return current;
+    }
   }
 
-  private Object firstByRowOrder(List<Integer> indexes) {
-    Context context = Context.getCurrent();
-    for (int row : indexes) {
+  private final class FirstByRowOrderAccumulator extends Accumulator {
+    private boolean found = false;
+    private Object current = null;
+
+    FirstByRowOrderAccumulator(ProblemAggregator problemAggregator) {
+      super(problemAggregator);
+    }
+
+    @Override
+    public void accumulate(int row) {
+      if (found) {
+        return;
+      }
+
       Object value = storage.getItemBoxed(row);
       if (!ignoreNothing || value != null) {
-        return value;
+        found = true;
+        current = value;
       }
+    }
 
-      context.safepoint();
+    @Override
+    public Object summarize() {
+      return current;
     }
-    return null;
   }
 }
@@ -1,7 +1,7 @@
 package org.enso.table.aggregations;
 
-import java.util.List;
 import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.data.table.Column;
 import org.enso.table.problems.ProblemAggregator;
 
@@ -15,7 +15,37 @@ public class GroupBy extends KnownTypeAggregator {
   }
 
   @Override
-  public Object aggregate(List<Integer> indexes, ProblemAggregator problemAggregator) {
+  public Object aggregate(RowSlice indexes, ProblemAggregator problemAggregator) {
     return indexes.isEmpty() ? null : storage.getItemBoxed(indexes.get(0));
   }
+
+  @Override
+  public boolean canAccumulateInParallel() {
+    return canBeAccessedInParallel(storage);
+  }
+
+  @Override
+  public Accumulator makeAccumulator(ProblemAggregator problemAggregator) {
+    return new GroupByAccumulator(problemAggregator);
+  }
+
+  private final class GroupByAccumulator extends Accumulator {
+    private int firstRow = -1;
+
+    GroupByAccumulator(ProblemAggregator problemAggregator) {
+      super(problemAggregator);
+    }
+
+    @Override
+    public void accumulate(int row) {
+      if (firstRow == -1) {
+        firstRow = row;
+      }
+    }
+
+    @Override
+    public Object summarize() {
+      return firstRow == -1 ? null : storage.getItemBoxed(firstRow);
+    }
+  }
 }
@@ -1,12 +1,11 @@
 package org.enso.table.aggregations;
 
 import java.util.Arrays;
-import java.util.List;
 import org.enso.table.data.column.storage.Storage;
 import org.enso.table.data.index.OrderedMultiValueKey;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.data.table.Column;
 import org.enso.table.problems.ProblemAggregator;
-import org.graalvm.polyglot.Context;
 
 public class Last extends KnownTypeAggregator {
   private final Storage<?> storage;
@@ -38,49 +37,72 @@ public class Last extends KnownTypeAggregator {
   }
 
   @Override
-  public Object aggregate(List<Integer> indexes, ProblemAggregator problemAggregator) {
+  public Object aggregate(RowSlice indexes, ProblemAggregator problemAggregator) {
+    return makeAccumulator(problemAggregator).accumulateAll(indexes);
+  }
+
+  @Override
+  public boolean canAccumulateInParallel() {
+    return canBeAccessedInParallel(storage) && canBeAccessedInParallel(orderByColumns);
+  }
+
+  @Override
+  public Accumulator makeAccumulator(ProblemAggregator problemAggregator) {
     if (orderByColumns.length == 0) {
-      return lastByRowOrder(indexes);
+      return new LastByRowOrderAccumulator(problemAggregator);
     } else {
-      return lastBySpecifiedOrder(indexes);
+      return new LastBySpecifiedOrderAccumulator(problemAggregator);
     }
   }
 
-  private Object lastBySpecifiedOrder(List<Integer> indexes) {
-    OrderedMultiValueKey key = null;
-    Object current = null;
+  private final class LastBySpecifiedOrderAccumulator extends Accumulator {
+    private OrderedMultiValueKey key = null;
+    private Object current = null;
+
+    LastBySpecifiedOrderAccumulator(ProblemAggregator problemAggregator) {
+      super(problemAggregator);
+    }
 
-    Context context = Context.getCurrent();
-    for (int i = indexes.size() - 1; i >= 0; i--) {
-      int row = indexes.get(i);
+    @Override
+    public void accumulate(int row) {
       Object value = storage.getItemBoxed(row);
       if (ignoreNothing && value == null) {
-        continue;
+        return;
       }
 
+      // Rows come in increasing order, so on ties the later row wins.
       OrderedMultiValueKey newKey =
-          new OrderedMultiValueKey(this.orderByColumns, row, this.orderByDirections);
-      if (key == null || key.compareTo(newKey) < 0) {
+          new OrderedMultiValueKey(orderByColumns, row, orderByDirections);
+      if (key == null || key.compareTo(newKey) <= 0) {
         key = newKey;
-        current = storage.getItemBoxed(row);
+        current = value;
       }
-
-      context.safepoint();
     }
 
-    return current;
+    @Override
+    public Object summarize() {
+      return current;
+    }
   }
 
-  private Object lastByRowOrder(List<Integer> indexes) {
-    Context context = Context.getCurrent();
-    for (int i = indexes.size() - 1; i >= 0; i--) {
-      Object value = storage.getItemBoxed(indexes.get(i));
+  private final class LastByRowOrderAccumulator extends Accumulator {
+    private Object current = null;
+
+    LastByRowOrderAccumulator(ProblemAggregator problemAggregator) {
+      super(problemAggregator);
+    }
+
+    @Override
+    public void accumulate(int row) {
+      Object value = storage.getItemBoxed(row);
       if (!ignoreNothing || value != null) {
-        return value;
+        current = value;
       }
+    }
 
-      context.safepoint();
+    @Override
+    public Object summarize() {
+      return current;
     }
-    return null;
   }
 }
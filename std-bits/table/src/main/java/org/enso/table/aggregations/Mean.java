@@ -2,7 +2,6 @@ package org.enso.table.aggregations;
 
 import java.math.BigDecimal;
 import java.math.MathContext;
-import java.util.List;
 import org.enso.base.polyglot.NumericConverter;
 import org.enso.table.data.column.storage.Storage;
 import org.enso.table.data.column.storage.numeric.AbstractLongStorage;
@@ -13,11 +12,10 @@ import org.enso.table.data.column.storage.type.BigIntegerType;
 import org.enso.table.data.column.storage.type.FloatType;
 import org.enso.table.data.column.storage.type.IntegerType;
 import org.enso.table.data.column.storage.type.StorageType;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.data.table.Column;
 import org.enso.table.data.table.problems.InvalidAggregation;
-import org.enso.table.problems.ColumnAggregatedProblemAggregator;
 import org.enso.table.problems.ProblemAggregator;
-import org.graalvm.polyglot.Context;
 
 /** Aggregate Column computing the mean value in a group. */
 public class Mean extends KnownTypeAggregator {
@@ -47,111 +45,92 @@ public class Mean extends KnownTypeAggregator {
   }
 
   @Override
-  public Object aggregate(List<Integer> indexes, ProblemAggregator problemAggregator) {
-    ColumnAggregatedProblemAggregator innerAggregator =
-        new ColumnAggregatedProblemAggregator(problemAggregator);
-    MeanAccumulator accumulator = makeAccumulator();
-    accumulator.accumulate(indexes, storage, innerAggregator);
-    return accumulator.summarize();
+  public Object aggregate(RowSlice indexes, ProblemAggregator problemAggregator) {
+    return makeAccumulator(problemAggregator).accumulateAll(indexes);
   }
 
-  private MeanAccumulator makeAccumulator() {
+  @Override
+  public boolean canAccumulateInParallel() {
+    return canBeAccessedInParallel(storage);
+  }
+
+  @Override
+  public Accumulator makeAccumulator(ProblemAggregator problemAggregator) {
     return switch (getType()) {
-      case FloatType floatType -> new FloatMeanAccumulator();
-      case BigDecimalType bigDecimalType -> new BigDecimalMeanAccumulator();
+      case FloatType floatType -> new FloatMeanAccumulator(problemAggregator);
+      case BigDecimalType bigDecimalType -> new BigDecimalMeanAccumulator(problemAggregator);
       default -> throw new IllegalStateException(
           "Unexpected output type in Mean aggregate: " + getType());
     };
   }
 
-  private abstract static class MeanAccumulator {
-    abstract void accumulate(
-        List<Integer> indexes, Storage<?> storage, ProblemAggregator problemAggregator);
-
-    abstract Object summarize();
-  }
-
-  private final class FloatMeanAccumulator extends MeanAccumulator {
+  private final class FloatMeanAccumulator extends Accumulator {
     private double total = 0;
     private long count = 0;
 
+    FloatMeanAccumulator(ProblemAggregator problemAggregator) {
+      super(problemAggregator);
+    }
+
     @Override
-    void accumulate(
-        List<Integer> indexes, Storage<?> storage, ProblemAggregator problemAggregator) {
-      Context context = Context.getCurrent();
+    public void accumulate(int row) {
       if (storage instanceof DoubleStorage doubleStorage) {
-        for (int i : indexes) {
-          if (!doubleStorage.isNothing(i)) {
-            total += doubleStorage.getItemAsDouble(i);
-            count++;
-          }
-          context.safepoint();
+        if (!doubleStorage.isNothing(row)) {
+          total += doubleStorage.getItemAsDouble(row);
+          count++;
         }
       } else if (storage instanceof AbstractLongStorage longStorage) {
-        for (int i : indexes) {
-          if (!longStorage.isNothing(i)) {
-            total += longStorage.getItem(i);
-            count++;
-          }
-          context.safepoint();
+        if (!longStorage.isNothing(row)) {
+          total += longStorage.getItem(row);
+          count++;
         }
       } else {
-        ColumnAggregatedProblemAggregator innerAggregator =
-            new ColumnAggregatedProblemAggregator(problemAggregator);
-        for (int i : indexes) {
-          Object value = storage.getItemBoxed(i);
-          if (value != null) {
-            Double dValue = NumericConverter.tryConvertingToDouble(value);
-            if (dValue == null) {
-              innerAggregator.reportColumnAggregatedProblem(
-                  new InvalidAggregation(columnName, i, "Cannot convert to a Float."));
-              continue;
-            }
-
-            total += dValue;
-            count++;
+        Object value = storage.getItemBoxed(row);
+        if (value != null) {
+          Double dValue = NumericConverter.tryConvertingToDouble(value);
+          if (dValue == null) {
+            reportProblem(new InvalidAggregation(columnName, row, "Cannot convert to a Float."));
+            return;
           }
-          context.safepoint();
+
+          total += dValue;
+          count++;
         }
       }
     }
 
     @Override
-    Object summarize() {
+    public Object summarize() {
       return count == 0 ? null : total / count;
     }
   }
 
-  private final class BigDecimalMeanAccumulator extends MeanAccumulator {
+  private final class BigDecimalMeanAccumulator extends Accumulator {
     private BigDecimal total = BigDecimal.ZERO;
     private long count = 0;
 
+    BigDecimalMeanAccumulator(ProblemAggregator problemAggregator) {
+      super(problemAggregator);
+    }
+
     @Override
-    void accumulate(
-        List<Integer> indexes, Storage<?> storage, ProblemAggregator problemAggregator) {
-      ColumnAggregatedProblemAggregator innerAggregator =
-          new ColumnAggregatedProblemAggregator(problemAggregator);
-      Context context = Context.getCurrent();
-      for (int i : indexes) {
-        Object value = storage.getItemBoxed(i);
-        if (value != null) {
-          try {
-            BigDecimal valueAsBigDecimal = NumericConverter.coerceToBigDecimal(value);
-            total = total.add(valueAsBigDecimal);
-            count++;
-          } catch (UnsupportedOperationException error) {
-            innerAggregator.reportColumnAggregatedProblem(
-                new InvalidAggregation(
-                    columnName, i, "Cannot convert to a BigDecimal: " + error.getMessage()));
-            continue;
-          }
+    public void accumulate(int row) {
+      Object value = storage.getItemBoxed(row);
+      if (value != null) {
+        try {
+          BigDecimal valueAsBigDecimal = NumericConverter.coerceToBigDecimal(value);
+          total = total.add(valueAsBigDecimal);
+          count++;
+        } catch (UnsupportedOperationException error) {
+          reportProblem(
+              new InvalidAggregation(
+                  columnName, row, "Cannot convert to a BigDecimal: " + error.getMessage()));
         }
-        context.safepoint();
       }
     }
 
     @Override
-    Object summarize() {
+    public Object summarize() {
       return count == 0 ? null : total.divide(BigDecimal.valueOf(count), MathContext.DECIMAL128);
     }
   }
@@ -1,14 +1,12 @@
 package org.enso.table.aggregations;
 
-import java.util.List;
 import org.enso.base.CompareException;
 import org.enso.base.ObjectComparator;
 import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.data.table.Column;
 import org.enso.table.data.table.problems.InvalidAggregation;
-import org.enso.table.problems.ColumnAggregatedProblemAggregator;
 import org.enso.table.problems.ProblemAggregator;
-import org.graalvm.polyglot.Context;
 
 /**
  * Aggregate Column finding the minimum (minOrMax = -1) or maximum (minOrMax = 1) entry in a group.
@@ -34,12 +32,34 @@ public class MinOrMax extends KnownTypeAggregator {
   }
 
   @Override
-  public Object aggregate(List<Integer> indexes, ProblemAggregator problemAggregator) {
-    ColumnAggregatedProblemAggregator innerAggregator =
-        new ColumnAggregatedProblemAggregator(problemAggregator);
-    Context context = Context.getCurrent();
-    Object current = null;
-    for (int row : indexes) {
+  public Object aggregate(RowSlice indexes, ProblemAggregator problemAggregator) {
+    return makeAccumulator(problemAggregator).accumulateAll(indexes);
+  }
+
+  @Override
+  public boolean canAccumulateInParallel() {
+    return canBeAccessedInParallel(storage);
+  }
+
+  @Override
+  public Accumulator makeAccumulator(ProblemAggregator problemAggregator) {
+    return new MinOrMaxAccumulator(problemAggregator);
+  }
+
+  private final class MinOrMaxAccumulator extends Accumulator {
+    private Object current = null;
+    private boolean failed = false;
+
+    MinOrMaxAccumulator(ProblemAggregator problemAggregator) {
+      super(problemAggregator);
+    }
+
+    @Override
+    public void accumulate(int row) {
+      if (failed) {
+        return;
+      }
+
       Object value = storage.getItemBoxed(row);
       if (value != null) {
         try {
@@ -48,17 +68,20 @@ public class MinOrMax extends KnownTypeAggregator {
             current = value;
           }
         } catch (CompareException e) {
-          innerAggregator.reportColumnAggregatedProblem(
+          reportProblem(
               new InvalidAggregation(
-                  this.getName(),
+                  getName(),
                   row,
                   "Cannot compare values " + e.getLeftOperand() + " with " + e.getRightOperand()));
-          return null;
+          failed = true;
+          current = null;
         }
       }
+    }
 
-      context.safepoint();
+    @Override
+    public Object summarize() {
+      return current;
     }
-    return current;
   }
 }
@@ -1,18 +1,29 @@
 package org.enso.table.aggregations;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import org.enso.base.polyglot.NumericConverter;
 import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.column.storage.numeric.AbstractLongStorage;
+import org.enso.table.data.column.storage.numeric.DoubleStorage;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.data.table.Column;
 import org.enso.table.data.table.problems.FloatingPointGrouping;
-import org.enso.table.problems.ColumnAggregatedProblemAggregator;
 import org.enso.table.problems.ProblemAggregator;
-import org.graalvm.polyglot.Context;
 
-/** Aggregate Column computing the most common value in a group (ignoring Nothing). */
+/**
+ * Aggregate Column computing the most common value in a group (ignoring Nothing).
+ *
+ * <p>Numbers are counted in hash maps keyed by primitive {@code long}s, so counting the values of
+ * numeric columns does not box them.
+ */
 public class Mode extends KnownTypeAggregator {
+  /** The smallest {@code long}, which is exactly representable as a double. */
+  private static final double MIN_LONG_AS_DOUBLE = -0x1p63;
+
+  /** The largest {@code long} plus one - the doubles below it fit in a {@code long}. */
+  private static final double MAX_LONG_AS_DOUBLE = 0x1p63;
+
   private final Storage<?> storage;
 
   public Mode(String name, Column column) {
@@ -21,46 +32,183 @@ public class Mode extends KnownTypeAggregator {
   }
 
   @Override
-  public Object aggregate(List<Integer> indexes, ProblemAggregator problemAggregator) {
-    ColumnAggregatedProblemAggregator innerAggregator =
-        new ColumnAggregatedProblemAggregator(problemAggregator);
-    Context context = Context.getCurrent();
-    Object current = null;
-    int count = 0;
-    Map<Object, Integer> currentMap = null;
-    for (int row : indexes) {
-      Object value = storage.getItemBoxed(row);
-      if (value != null) {
-        // Merge all numbers onto a Long if possible or a Double if needed
-        Long lValue = NumericConverter.tryConvertingToLong(value);
-        if (lValue == null) {
-          Double dValue = NumericConverter.tryConvertingToDouble(value);
-          if (dValue != null) {
-            innerAggregator.reportColumnAggregatedProblem(
-                new FloatingPointGrouping(this.getName(), row));
-            value = dValue;
+  public Object aggregate(RowSlice indexes, ProblemAggregator problemAggregator) {
+    return makeAccumulator(problemAggregator).accumulateAll(indexes);
+  }
+
+  @Override
+  public boolean canAccumulateInParallel() {
+    return canBeAccessedInParallel(storage);
+  }
+
+  @Override
+  public Accumulator makeAccumulator(ProblemAggregator problemAggregator) {
+    return new ModeAccumulator(problemAggregator);
+  }
+
+  private final class ModeAccumulator extends Accumulator {
+    /** The counts of the integers, including the floating point values with no fractional part. */
+    private LongCounts longCounts = null;
+
+    /** The counts of the other floating point values, keyed by their bits. */
+    private LongCounts doubleCounts = null;
+
+    /** The counts of all other values. */
+    private Map<Object, Integer> objectCounts = null;
+
+    private int count = 0;
+    private ValueKind currentKind = null;
+    private long currentBits = 0;
+    private Object currentObject = null;
+
+    ModeAccumulator(ProblemAggregator problemAggregator) {
+      super(problemAggregator);
+    }
+
+    @Override
+    public void accumulate(int row) {
+      if (storage instanceof AbstractLongStorage longStorage) {
+        if (!longStorage.isNothing(row)) {
+          addLong(longStorage.getItem(row));
+        }
+      } else if (storage instanceof DoubleStorage doubleStorage) {
+        if (!doubleStorage.isNothing(row)) {
+          addDouble(doubleStorage.getItemAsDouble(row), row);
+        }
+      } else {
+        Object value = storage.getItemBoxed(row);
+        if (value != null) {
+          // Merge all numbers onto a Long if possible or a Double if needed
+          Long lValue = NumericConverter.tryConvertingToLong(value);
+          if (lValue != null) {
+            addLong(lValue);
+          } else {
+            Double dValue = NumericConverter.tryConvertingToDouble(value);
+            if (dValue != null) {
+              addDouble(dValue, row);
+            } else {
+              addObject(value);
+            }
           }
-        } else {
-          value = lValue;
         }
+      }
+    }
 
-        if (current == null) {
-          current = value;
-          count = 1;
-          currentMap = new HashMap<>();
-          currentMap.put(value, 1);
-        } else {
-          int newCount = currentMap.getOrDefault(value, 0) + 1;
-          currentMap.put(value, newCount);
-          if (newCount > count) {
-            count = newCount;
-            current = value;
+    /**
+     * Counts the value as an integer if it has no fractional part and fits in a {@code long}.
+     * Otherwise, it is counted as a floating point value, so that the values out of the range of
+     * {@code long} are not merged by the saturating cast.
+     */
+    private void addDouble(double value, int row) {
+      if (value % 1.0 == 0.0 && value >= MIN_LONG_AS_DOUBLE && value < MAX_LONG_AS_DOUBLE) {
+        addLong((long) value);
+      } else {
+        reportProblem(new FloatingPointGrouping(getName(), row));
+        if (doubleCounts == null) {
+          doubleCounts = new LongCounts();
+        }
+
+        // Boxed Doubles are equal if their bits are, which makes all NaNs equal.
+        long bits = Double.doubleToLongBits(value);
+        update(doubleCounts.increment(bits), ValueKind.DOUBLE, bits, null);
+      }
+    }
+
+    private void addLong(long value) {
+      if (longCounts == null) {
+        longCounts = new LongCounts();
+      }
+      update(longCounts.increment(value), ValueKind.LONG, value, null);
+    }
+
+    private void addObject(Object value) {
+      if (objectCounts == null) {
+        objectCounts = new HashMap<>();
+      }
+      int newCount = objectCounts.merge(value, 1, Integer::sum);
+      update(newCount, ValueKind.OBJECT, 0, value);
+    }
+
+    /** The first value to reach a higher count than all the others becomes the mode. */
+    private void update(int newCount, ValueKind kind, long bits, Object object) {
+      if (newCount > count) {
+        count = newCount;
+        currentKind = kind;
+        currentBits = bits;
+        currentObject = object;
+      }
+    }
+
+    @Override
+    public Object summarize() {
+      if (currentKind == null) {
+        return null;
+      }
+
+      return switch (currentKind) {
+        case LONG -> currentBits;
+        case DOUBLE -> Double.longBitsToDouble(currentBits);
+        case OBJECT -> currentObject;
+      };
+    }
+  }
+
+  private enum ValueKind {
+    LONG,
+    DOUBLE,
+    OBJECT
+  }
+
+  /** Counts the occurrences of {@code long} keys in an open addressing hash table. */
+  private static final class LongCounts {
+    private long[] keys = new long[16];
+
+    /** The count of the key in the slot, or 0 if the slot is empty. */
+    private int[] counts = new int[16];
+
+    private int size = 0;
+
+    /** Increments the count of the key and returns the new count. */
+    int increment(long key) {
+      int mask = keys.length - 1;
+      int index = hash(key) & mask;
+      while (counts[index] != 0) {
+        if (keys[index] == key) {
+          return ++counts[index];
+        }
+        index = (index + 1) & mask;
+      }
+
+      keys[index] = key;
+      counts[index] = 1;
+      size++;
+      if (size * 2 > keys.length) {
+        grow();
+      }
+      return 1;
+    }
+
+    private void grow() {
+      long[] oldKeys = keys;
+      int[] oldCounts = counts;
+      keys = new long[oldKeys.length * 2];
+      counts = new int[oldCounts.length * 2];
+      int mask = keys.length - 1;
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldCounts[i] != 0) {
+          int index = hash(oldKeys[i]) & mask;
+          while (counts[index] != 0) {
+            index = (index + 1) & mask;
           }
+          keys[index] = oldKeys[i];
+          counts[index] = oldCounts[i];
         }
       }
+    }
 
-      context.safepoint();
+    private static int hash(long key) {
+      long h = key * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32));
     }
-    return current;
   }
 }
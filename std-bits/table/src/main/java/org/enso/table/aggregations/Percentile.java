@@ -1,104 +1,283 @@
 package org.enso.table.aggregations;
 
-import java.util.List;
-import java.util.Map;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.Arrays;
 import org.enso.base.polyglot.NumericConverter;
+import org.enso.base.statistics.QuantileSketch;
 import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.column.storage.numeric.AbstractLongStorage;
+import org.enso.table.data.column.storage.numeric.DoubleStorage;
 import org.enso.table.data.column.storage.type.FloatType;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.data.table.Column;
 import org.enso.table.data.table.problems.InvalidAggregation;
-import org.enso.table.problems.ColumnAggregatedProblemAggregator;
 import org.enso.table.problems.ProblemAggregator;
 import org.graalvm.polyglot.Context;
 
-/** Aggregate Column computing a percentile value in a group. */
+/**
+ * Aggregate Column computing a percentile value in a group.
+ *
+ * <p>The exact percentile is found by selecting the neighbouring values from a primitive array of
+ * the values of the group. The approximate one is estimated from a {@link QuantileSketch}, which
+ * keeps only a small summary of the group.
+ */
 public class Percentile extends KnownTypeAggregator {
   private final Storage<?> storage;
   private final double percentile;
+  private final boolean approximate;
 
   public Percentile(String name, Column column, double percentile) {
+    this(name, column, percentile, false);
+  }
+
+  public Percentile(String name, Column column, double percentile, boolean approximate) {
     super(name, FloatType.FLOAT_64);
     this.storage = column.getStorage();
     this.percentile = percentile;
+    this.approximate = approximate;
+  }
+
+  @Override
+  public Object aggregate(RowSlice indexes, ProblemAggregator problemAggregator) {
+    return makeAccumulator(problemAggregator).accumulateAll(indexes);
   }
 
   @Override
-  public Object aggregate(List<Integer> indexes, ProblemAggregator problemAggregator) {
-    ColumnAggregatedProblemAggregator innerAggregator =
-        new ColumnAggregatedProblemAggregator(problemAggregator);
-    Context context = Context.getCurrent();
-    int count = 0;
-    SortedMap<Double, Integer> currentMap = new TreeMap<>();
-    for (int row : indexes) {
-      Object value = storage.getItemBoxed(row);
-      if (value != null) {
-        Double dValue = NumericConverter.tryConvertingToDouble(value);
+  public boolean canAccumulateInParallel() {
+    return canBeAccessedInParallel(storage);
+  }
+
+  @Override
+  public Accumulator makeAccumulator(ProblemAggregator problemAggregator) {
+    return approximate
+        ? new ApproximatePercentileAccumulator(problemAggregator)
+        : new ExactPercentileAccumulator(problemAggregator);
+  }
+
+  double interpolate(double first, double second, double alpha) {
+    if (Double.isInfinite(first) && Double.isInfinite(second)) {
+      if (first == second) return first;
+      else return Double.NaN;
+    }
+
+    // If both are not infinite, then if one of them is infinite, the other must be finite.
+    if (Double.isInfinite(first)) return first;
+    if (Double.isInfinite(second)) return second;
 
+    return first + (second - first) * alpha;
+  }
+
+  /**
+   * Reads the values of the group, stopping at the first one which decides the result on its own.
+   */
+  private abstract class PercentileAccumulator extends Accumulator {
+    private boolean isInvalid = false;
+    private boolean hasNaN = false;
+
+    PercentileAccumulator(ProblemAggregator problemAggregator) {
+      super(problemAggregator);
+    }
+
+    protected abstract void add(double value);
+
+    /** Computes the percentile of the added values, of which there are {@code count}. */
+    protected abstract double compute(long count);
+
+    protected abstract long count();
+
+    @Override
+    public void accumulate(int row) {
+      if (isInvalid || hasNaN) {
+        return;
+      }
+
+      double value;
+      if (storage instanceof DoubleStorage doubleStorage) {
+        if (doubleStorage.isNothing(row)) {
+          return;
+        }
+        value = doubleStorage.getItemAsDouble(row);
+      } else if (storage instanceof AbstractLongStorage longStorage) {
+        if (longStorage.isNothing(row)) {
+          return;
+        }
+        value = longStorage.getItem(row);
+      } else {
+        Object item = storage.getItemBoxed(row);
+        if (item == null) {
+          return;
+        }
+
+        Double dValue = NumericConverter.tryConvertingToDouble(item);
         if (dValue == null) {
-          innerAggregator.reportColumnAggregatedProblem(
-              new InvalidAggregation(this.getName(), row, "Cannot convert to a number."));
-          return null;
-        } else if (dValue.isNaN()) {
-          // If any of the input values is a NaN, we do not know where in the ordering it should be
-          // and so we return NaN.
-          return Double.NaN;
-        } else {
-          count++;
-          currentMap.put(dValue, currentMap.getOrDefault(dValue, 0) + 1);
+          isInvalid = true;
+          reportProblem(new InvalidAggregation(getName(), row, "Cannot convert to a number."));
+          return;
         }
+        value = dValue;
+      }
+
+      if (Double.isNaN(value)) {
+        // If any of the input values is a NaN, we do not know where in the ordering it should be
+        // and so we return NaN.
+        hasNaN = true;
+      } else {
+        add(value);
+      }
+    }
+
+    @Override
+    public Object summarize() {
+      if (isInvalid) {
+        return null;
+      } else if (hasNaN) {
+        return Double.NaN;
       }
 
-      context.safepoint();
+      long count = count();
+      return count == 0 ? null : compute(count);
     }
+  }
 
-    if (count == 0) {
-      return null;
+  private final class ExactPercentileAccumulator extends PercentileAccumulator {
+    private double[] values = new double[16];
+    private int count = 0;
+
+    ExactPercentileAccumulator(ProblemAggregator problemAggregator) {
+      super(problemAggregator);
     }
 
-    double mid_value = (count - 1) * percentile + 1;
-    if (mid_value <= 1) {
-      return currentMap.firstKey();
-    } else if (mid_value >= count) {
-      return currentMap.lastKey();
+    @Override
+    public Object accumulateAll(RowSlice indexes) {
+      if (values.length < indexes.size()) {
+        values = new double[indexes.size()];
+      }
+      return super.accumulateAll(indexes);
     }
 
-    double mid = Math.floor(mid_value);
+    @Override
+    protected void add(double value) {
+      if (count == values.length) {
+        values = Arrays.copyOf(values, count * 2);
+      }
+      values[count++] = value;
+    }
 
-    double first = 0;
-    int current = 0;
-    for (Map.Entry<Double, Integer> entry : currentMap.entrySet()) {
-      int nextCurrent = current + entry.getValue();
+    @Override
+    protected long count() {
+      return count;
+    }
 
-      if (current <= mid - 1 && nextCurrent > mid - 1) {
-        first = entry.getKey();
+    @Override
+    protected double compute(long count) {
+      double midValue = (count - 1) * percentile + 1;
+      if (midValue <= 1) {
+        return min(0);
+      } else if (midValue >= count) {
+        return max();
       }
 
-      if (current <= mid && nextCurrent > mid) {
-        double second = entry.getKey();
-        return interpolate(first, second, mid_value - mid);
+      // Only the two neighbouring values are needed: the first one is selected and the second one
+      // is the smallest of the values following it.
+      int mid = (int) Math.floor(midValue);
+      select(mid - 1, Context.getCurrent());
+      return interpolate(values[mid - 1], min(mid), midValue - mid);
+    }
+
+    private double min(int from) {
+      double result = values[from];
+      for (int i = from + 1; i < count; i++) {
+        if (values[i] < result) {
+          result = values[i];
+        }
+      }
+      return result;
+    }
+
+    private double max() {
+      double result = values[0];
+      for (int i = 1; i < count; i++) {
+        if (values[i] > result) {
+          result = values[i];
+        }
       }
+      return result;
+    }
+
+    /**
+     * Rearranges the values so that the one at position {@code k} is the one that would be there
+     * if they were sorted, with no greater values before it and no smaller ones after it.
+     */
+    private void select(int k, Context context) {
+      int left = 0;
+      int right = count - 1;
+      while (right > left) {
+        double pivot = medianOfThree(values[left], values[(left + right) >>> 1], values[right]);
+        int i = left;
+        int j = right;
+        while (i <= j) {
+          while (values[i] < pivot) {
+            i++;
+          }
+          while (values[j] > pivot) {
+            j--;
+          }
+          if (i <= j) {
+            double swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+            i++;
+            j--;
+          }
+        }
+
+        // Now all values up to j are not greater than the pivot, and all from i are not smaller.
+        if (k <= j) {
+          right = j;
+        } else if (k >= i) {
+          left = i;
+        } else {
+          return;
+        }
 
-      current = nextCurrent;
-      context.safepoint();
+        context.safepoint();
+      }
     }
 
-    innerAggregator.reportColumnAggregatedProblem(
-        new InvalidAggregation(this.getName(), -1, "Failed calculating the percentile."));
-    return null;
+    private static double medianOfThree(double a, double b, double c) {
+      return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
   }
 
-  double interpolate(double first, double second, double alpha) {
-    if (Double.isInfinite(first) && Double.isInfinite(second)) {
-      if (first == second) return first;
-      else return Double.NaN;
+  private final class ApproximatePercentileAccumulator extends PercentileAccumulator {
+    private final QuantileSketch sketch = new QuantileSketch();
+
+    ApproximatePercentileAccumulator(ProblemAggregator problemAggregator) {
+      super(problemAggregator);
     }
 
-    // If both are not infinite, then if one of them is infinite, the other must be finite.
-    if (Double.isInfinite(first)) return first;
-    if (Double.isInfinite(second)) return second;
+    @Override
+    protected void add(double value) {
+      sketch.add(value);
+    }
 
-    return first + (second - first) * alpha;
+    @Override
+    protected long count() {
+      return sketch.getCount();
+    }
+
+    @Override
+    protected double compute(long count) {
+      double midValue = (count - 1) * percentile + 1;
+      if (midValue <= 1) {
+        return sketch.getMin();
+      } else if (midValue >= count) {
+        return sketch.getMax();
+      }
+
+      long mid = (long) Math.floor(midValue);
+      double first = sketch.valueAtRank(mid - 1);
+      double second = sketch.valueAtRank(mid);
+      return interpolate(first, second, midValue - mid);
+    }
   }
 }
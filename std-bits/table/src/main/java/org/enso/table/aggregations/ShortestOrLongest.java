@@ -1,9 +1,9 @@
 package org.enso.table.aggregations;
 
-import java.util.List;
 import org.enso.base.Text_Utils;
 import org.enso.table.data.column.storage.Storage;
 import org.enso.table.data.column.storage.type.TextType;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.data.table.Column;
 import org.enso.table.data.table.problems.InvalidAggregation;
 import org.enso.table.problems.ColumnAggregatedProblemAggregator;
@@ -24,14 +24,16 @@ public class ShortestOrLongest extends KnownTypeAggregator {
   }
 
   @Override
-  public Object aggregate(List<Integer> indexes, ProblemAggregator problemAggregator) {
+  public Object aggregate(RowSlice indexes, ProblemAggregator problemAggregator) {
     ColumnAggregatedProblemAggregator innerAggregator =
         new ColumnAggregatedProblemAggregator(problemAggregator);
     Context context = Context.getCurrent();
     long length = 0;
     Object current = null;
 
-    for (int row : indexes) {
+    for (int i = 0; i < indexes.size(); i++) {
+
+      int row = indexes.get(i);
       Object value = storage.getItemBoxed(row);
       if (value != null) {
         if (!(value instanceof String asString)) {
@@ -1,14 +1,12 @@
 package org.enso.table.aggregations;
 
-import java.util.List;
 import org.enso.base.polyglot.NumericConverter;
 import org.enso.table.data.column.storage.Storage;
 import org.enso.table.data.column.storage.type.FloatType;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.data.table.Column;
 import org.enso.table.data.table.problems.InvalidAggregation;
-import org.enso.table.problems.ColumnAggregatedProblemAggregator;
 import org.enso.table.problems.ProblemAggregator;
-import org.graalvm.polyglot.Context;
 
 /** Aggregate Column computing the standard deviation of a group. */
 public class StandardDeviation extends KnownTypeAggregator {
@@ -34,19 +32,41 @@ public class StandardDeviation extends KnownTypeAggregator {
   }
 
   @Override
-  public Object aggregate(List<Integer> indexes, ProblemAggregator problemAggregator) {
-    ColumnAggregatedProblemAggregator innerAggregator =
-        new ColumnAggregatedProblemAggregator(problemAggregator);
-    Context context = Context.getCurrent();
-    Calculation current = null;
-    for (int row : indexes) {
+  public Object aggregate(RowSlice indexes, ProblemAggregator problemAggregator) {
+    return makeAccumulator(problemAggregator).accumulateAll(indexes);
+  }
+
+  @Override
+  public boolean canAccumulateInParallel() {
+    return canBeAccessedInParallel(storage);
+  }
+
+  @Override
+  public Accumulator makeAccumulator(ProblemAggregator problemAggregator) {
+    return new StandardDeviationAccumulator(problemAggregator);
+  }
+
+  private final class StandardDeviationAccumulator extends Accumulator {
+    private Calculation current = null;
+    private boolean failed = false;
+
+    StandardDeviationAccumulator(ProblemAggregator problemAggregator) {
+      super(problemAggregator);
+    }
+
+    @Override
+    public void accumulate(int row) {
+      if (failed) {
+        return;
+      }
+
       Object value = storage.getItemBoxed(row);
       if (value != null) {
         Double dValue = NumericConverter.tryConvertingToDouble(value);
         if (dValue == null) {
-          innerAggregator.reportColumnAggregatedProblem(
-              new InvalidAggregation(this.getName(), row, "Cannot convert to a number."));
-          return null;
+          reportProblem(new InvalidAggregation(getName(), row, "Cannot convert to a number."));
+          failed = true;
+          return;
         }
 
         if (current == null) {
@@ -57,12 +77,14 @@ public class StandardDeviation extends KnownTypeAggregator {
           current.total_sqr += dValue * dValue;
         }
       }
-
-      context.safepoint();
     }
 
-    if (current == null || (!population && current.count <= 1)) return null;
-    return (population ? 1 : Math.sqrt(current.count / (current.count - 1.0)))
-        * Math.sqrt(current.total_sqr / current.count - Math.pow(current.total / current.count, 2));
+    @Override
+    public Object summarize() {
+      if (failed || current == null || (!population && current.count <= 1)) return null;
+      return (population ? 1 : Math.sqrt(current.count / (current.count - 1.0)))
+          * Math.sqrt(
+              current.total_sqr / current.count - Math.pow(current.total / current.count, 2));
+    }
   }
 }
@@ -1,13 +1,11 @@
 package org.enso.table.aggregations;
 
 import java.math.BigInteger;
-import java.util.List;
 import org.enso.base.polyglot.NumericConverter;
 import org.enso.table.data.column.builder.BigIntegerBuilder;
 import org.enso.table.data.column.builder.Builder;
 import org.enso.table.data.column.builder.DoubleBuilder;
 import org.enso.table.data.column.builder.InferredIntegerBuilder;
-import org.enso.table.data.column.operation.map.MapOperationProblemAggregator;
 import org.enso.table.data.column.storage.Storage;
 import org.enso.table.data.column.storage.numeric.AbstractLongStorage;
 import org.enso.table.data.column.storage.numeric.BigIntegerStorage;
@@ -16,9 +14,9 @@ import org.enso.table.data.column.storage.type.BigIntegerType;
 import org.enso.table.data.column.storage.type.FloatType;
 import org.enso.table.data.column.storage.type.IntegerType;
 import org.enso.table.data.column.storage.type.StorageType;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.data.table.Column;
 import org.enso.table.problems.ProblemAggregator;
-import org.graalvm.polyglot.Context;
 
 /** Aggregate Column computing the total value in a group. */
 public class Sum extends Aggregator {
@@ -43,33 +41,36 @@ public class Sum extends Aggregator {
   }
 
   @Override
-  public Object aggregate(List<Integer> indexes, ProblemAggregator problemAggregator) {
-    MapOperationProblemAggregator innerAggregator =
-        new MapOperationProblemAggregator(problemAggregator, getName());
-    SumAccumulator accumulator = makeAccumulator();
-    accumulator.accumulate(indexes, inputStorage);
-    return accumulator.summarize();
+  public Object aggregate(RowSlice indexes, ProblemAggregator problemAggregator) {
+    return makeAccumulator(problemAggregator).accumulateAll(indexes);
   }
 
-  private SumAccumulator makeAccumulator() {
+  @Override
+  public boolean canAccumulateInParallel() {
+    return canBeAccessedInParallel(inputStorage);
+  }
+
+  @Override
+  public Accumulator makeAccumulator(ProblemAggregator problemAggregator) {
     return switch (inputType) {
-      case IntegerType integerType -> new IntegerSumAccumulator();
-      case BigIntegerType bigIntegerType -> new IntegerSumAccumulator();
-      case FloatType floatType -> new FloatSumAccumulator();
+      case IntegerType integerType -> new IntegerSumAccumulator(inputStorage, problemAggregator);
+      case BigIntegerType bigIntegerType -> new IntegerSumAccumulator(
+          inputStorage, problemAggregator);
+      case FloatType floatType -> new FloatSumAccumulator(inputStorage, problemAggregator);
       default -> throw new IllegalStateException(
           "Unexpected input type for Sum aggregate: " + inputType);
     };
   }
 
-  private abstract static class SumAccumulator {
-    abstract void accumulate(List<Integer> indexes, Storage<?> storage);
-
-    abstract Object summarize();
-  }
-
-  private static final class IntegerSumAccumulator extends SumAccumulator {
+  private static final class IntegerSumAccumulator extends Accumulator {
+    private final Storage<?> storage;
     private Object accumulator = null;
 
+    IntegerSumAccumulator(Storage<?> storage, ProblemAggregator problemAggregator) {
+      super(problemAggregator);
+      this.storage = storage;
+    }
+
     void add(Object value) {
       if (value == null) {
         return;
@@ -86,28 +87,18 @@ public class Sum extends Aggregator {
     }
 
     @Override
-    void accumulate(List<Integer> indexes, Storage<?> storage) {
-      Context context = Context.getCurrent();
+    public void accumulate(int row) {
       if (storage instanceof AbstractLongStorage longStorage) {
-        for (int row : indexes) {
-          if (!longStorage.isNothing(row)) {
-            addLong(longStorage.getItem(row));
-          }
-          context.safepoint();
+        if (!longStorage.isNothing(row)) {
+          addLong(longStorage.getItem(row));
         }
       } else if (storage instanceof BigIntegerStorage bigIntegerStorage) {
-        for (int row : indexes) {
-          BigInteger value = bigIntegerStorage.getItem(row);
-          if (value != null) {
-            addBigInteger(value);
-          }
-          context.safepoint();
+        BigInteger value = bigIntegerStorage.getItem(row);
+        if (value != null) {
+          addBigInteger(value);
         }
       } else {
-        for (int row : indexes) {
-          add(storage.getItemBoxed(row));
-          context.safepoint();
-        }
+        add(storage.getItemBoxed(row));
       }
     }
 
@@ -148,14 +139,21 @@ public class Sum extends Aggregator {
       }
     }
 
-    Object summarize() {
+    @Override
+    public Object summarize() {
       return accumulator;
     }
   }
 
-  private static final class FloatSumAccumulator extends SumAccumulator {
+  private static final class FloatSumAccumulator extends Accumulator {
+    private final Storage<?> storage;
     private Double accumulator = null;
 
+    FloatSumAccumulator(Storage<?> storage, ProblemAggregator problemAggregator) {
+      super(problemAggregator);
+      this.storage = storage;
+    }
+
     void add(Object value) {
       if (value == null) {
         return;
@@ -170,20 +168,13 @@ public class Sum extends Aggregator {
     }
 
     @Override
-    void accumulate(List<Integer> indexes, Storage<?> storage) {
-      Context context = Context.getCurrent();
+    public void accumulate(int row) {
       if (storage instanceof DoubleStorage doubleStorage) {
-        for (int row : indexes) {
-          if (!doubleStorage.isNothing(row)) {
-            addDouble(doubleStorage.getItem(row));
-          }
-          context.safepoint();
+        if (!doubleStorage.isNothing(row)) {
+          addDouble(doubleStorage.getItem(row));
         }
       } else {
-        for (int row : indexes) {
-          add(storage.getItemBoxed(row));
-          context.safepoint();
-        }
+        add(storage.getItemBoxed(row));
       }
     }
 
@@ -195,7 +186,8 @@ public class Sum extends Aggregator {
       }
     }
 
-    Double summarize() {
+    @Override
+    public Double summarize() {
       return accumulator;
     }
   }
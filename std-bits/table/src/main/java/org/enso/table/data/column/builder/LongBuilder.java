@@ -7,7 +7,6 @@ import org.enso.table.data.column.operation.cast.ToIntegerStorageConverter;
 import org.enso.table.data.column.storage.BoolStorage;
 import org.enso.table.data.column.storage.Storage;
 import org.enso.table.data.column.storage.numeric.AbstractLongStorage;
-import org.enso.table.data.column.storage.numeric.LongStorage;
 import org.enso.table.data.column.storage.type.BigIntegerType;
 import org.enso.table.data.column.storage.type.BooleanType;
 import org.enso.table.data.column.storage.type.FloatType;
@@ -74,25 +73,15 @@ public abstract class LongBuilder extends NumericBuilder {
 
   @Override
   public void appendBulkStorage(Storage<?> storage) {
-    if (Objects.equals(storage.getType(), getType())
-        && storage instanceof LongStorage longStorage) {
-      // A fast path for the same type - no conversions/checks needed.
-      int n = longStorage.size();
-      ensureFreeSpaceFor(n);
-      System.arraycopy(longStorage.getRawData(), 0, data, currentSize, n);
-      BitSets.copy(longStorage.getIsNothingMap(), isNothing, currentSize, n);
-      currentSize += n;
-    } else if (storage.getType() instanceof IntegerType otherType && getType().fits(otherType)) {
+    if (storage.getType() instanceof IntegerType otherType && getType().fits(otherType)) {
       if (storage instanceof AbstractLongStorage longStorage) {
+        // A fast path for any narrower or equal integer type - the values need no checks, so they
+        // are copied in bulk from any of the integer storages.
         int n = longStorage.size();
         ensureFreeSpaceFor(n);
-        for (int i = 0; i < n; i++) {
-          if (longStorage.isNothing(i)) {
-            isNothing.set(currentSize++);
-          } else {
-            appendLongNoGrow(longStorage.getItem(i));
-          }
-        }
+        longStorage.readItems(0, n, data, currentSize);
+        BitSets.copy(longStorage.getIsNothingMap(), isNothing, currentSize, n);
+        currentSize += n;
       } else {
         throw new IllegalStateException(
             "Unexpected storage implementation for type INTEGER: "
@@ -145,8 +134,13 @@ public abstract class LongBuilder extends NumericBuilder {
     appendRawNoGrow(data);
   }
 
+  /**
+   * Seals the builder.
+   *
+   * <p>Columns of narrower integer types are stored in the corresponding compact storage.
+   */
   @Override
   public Storage<Long> seal() {
-    return new LongStorage(data, currentSize, isNothing, getType());
+    return AbstractLongStorage.makeCompact(data, currentSize, isNothing, getType());
   }
 }
@@ -2,6 +2,9 @@ package org.enso.table.data.column.builder;
 
 import java.util.Arrays;
 import java.util.BitSet;
+import org.enso.table.data.column.storage.numeric.ByteStorage;
+import org.enso.table.data.column.storage.numeric.IntStorage;
+import org.enso.table.data.column.storage.numeric.ShortStorage;
 import org.enso.table.data.column.storage.type.IntegerType;
 import org.enso.table.problems.ProblemAggregator;
 
@@ -31,6 +34,13 @@ public abstract class NumericBuilder extends TypedBuilder {
     return new InferringDoubleBuilder(new BitSet(), new long[size], 0, problemAggregator);
   }
 
+  /**
+   * Creates a {@link LongBuilder} for integers of the given type.
+   *
+   * <p>Values are accumulated as 64-bit integers, but builders of the 8, 16 and 32-bit types seal
+   * into the matching compact storage - {@link ByteStorage}, {@link ShortStorage} or {@link
+   * IntStorage} - so the column keeps only the narrow representation once built.
+   */
   public static LongBuilder createLongBuilder(
       int size, IntegerType type, ProblemAggregator problemAggregator) {
     return LongBuilder.make(size, type, problemAggregator);
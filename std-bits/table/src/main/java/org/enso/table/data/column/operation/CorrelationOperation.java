@@ -0,0 +1,83 @@
+package org.enso.table.data.column.operation;
+
+import java.util.BitSet;
+import org.enso.base.statistics.CorrelationStatistics;
+import org.enso.table.data.column.operation.map.numeric.helpers.DoubleArrayAdapter;
+import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.column.storage.numeric.AbstractLongStorage;
+import org.enso.table.data.column.storage.numeric.BigDecimalStorage;
+import org.enso.table.data.column.storage.numeric.BigIntegerStorage;
+import org.enso.table.data.column.storage.numeric.DoubleStorage;
+import org.enso.table.data.table.Column;
+
+/**
+ * Computes the correlation statistics of numeric columns.
+ *
+ * <p>The values are read straight from the storages into primitive arrays, together with the masks
+ * of the missing values, so no value is boxed on the way.
+ */
+public class CorrelationOperation {
+  /** Checks if the statistics can be computed directly from the storage of the column. */
+  public static boolean isSupported(Column column) {
+    return switch (column.getStorage()) {
+      case DoubleStorage s -> true;
+      case AbstractLongStorage s -> true;
+      case BigIntegerStorage s -> true;
+      case BigDecimalStorage s -> true;
+      default -> false;
+    };
+  }
+
+  public static CorrelationStatistics compute(Column x, Column y) {
+    var xValues = NumericValues.of(x.getStorage());
+    var yValues = NumericValues.of(y.getStorage());
+    return CorrelationStatistics.compute(
+        xValues.values, xValues.missing, yValues.values, yValues.missing);
+  }
+
+  public static double spearmanRankCorrelation(Column x, Column y) {
+    var xValues = NumericValues.of(x.getStorage());
+    var yValues = NumericValues.of(y.getStorage());
+    return CorrelationStatistics.spearmanRankCorrelation(
+        xValues.values, xValues.missing, yValues.values, yValues.missing);
+  }
+
+  private record NumericValues(double[] values, BitSet missing) {
+    static NumericValues of(Storage<?> storage) {
+      int size = storage.size();
+      double[] values = new double[size];
+      switch (storage) {
+        case DoubleStorage s -> {
+          // The array may be shorter than the column, all the rows past its end are missing.
+          long[] raw = s.getRawData();
+          int end = Math.min(size, raw.length);
+          for (int i = 0; i < end; i++) {
+            values[i] = Double.longBitsToDouble(raw[i]);
+          }
+          return new NumericValues(values, s.getIsNothingMap());
+        }
+        case AbstractLongStorage s -> {
+          BitSet missing = s.getIsNothingMap();
+          for (int i = 0; i < size; i++) {
+            if (!missing.get(i)) {
+              values[i] = s.getItem(i);
+            }
+          }
+          return new NumericValues(values, missing);
+        }
+        default -> {
+          var adapter = DoubleArrayAdapter.fromAnyStorage(storage);
+          BitSet missing = new BitSet(size);
+          for (int i = 0; i < size; i++) {
+            if (adapter.isNothing(i)) {
+              missing.set(i);
+            } else {
+              values[i] = adapter.getItemAsDouble(i);
+            }
+          }
+          return new NumericValues(values, missing);
+        }
+      }
+    }
+  }
+}
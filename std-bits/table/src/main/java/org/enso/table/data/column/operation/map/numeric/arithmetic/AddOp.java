@@ -28,6 +28,46 @@ public class AddOp<T extends Number, I extends Storage<? super T>>
     }
   }
 
+  @Override
+  protected boolean doLongBlock(long[] a, long[] b, long[] out, int from, int to) {
+    // The sign bit is set if any of the sums overflowed, like in Math.addExact.
+    long overflow = 0;
+    for (int i = from; i < to; i++) {
+      long r = a[i] + b[i];
+      out[i] = r;
+      overflow |= (a[i] ^ r) & (b[i] ^ r);
+    }
+    return overflow >= 0;
+  }
+
+  @Override
+  protected boolean doLongBlock(long[] a, long b, long[] out, int from, int to) {
+    long overflow = 0;
+    for (int i = from; i < to; i++) {
+      long r = a[i] + b;
+      out[i] = r;
+      overflow |= (a[i] ^ r) & (b ^ r);
+    }
+    return overflow >= 0;
+  }
+
+  @Override
+  protected boolean doDoubleBlock(long[] a, long[] b, long[] out, int from, int to) {
+    for (int i = from; i < to; i++) {
+      double r = Double.longBitsToDouble(a[i]) + Double.longBitsToDouble(b[i]);
+      out[i] = Double.doubleToRawLongBits(r);
+    }
+    return true;
+  }
+
+  @Override
+  protected boolean doDoubleBlock(long[] a, double b, long[] out, int from, int to) {
+    for (int i = from; i < to; i++) {
+      out[i] = Double.doubleToRawLongBits(Double.longBitsToDouble(a[i]) + b);
+    }
+    return true;
+  }
+
   @Override
   public BigInteger doBigInteger(
       BigInteger a, BigInteger b, int ix, MapOperationProblemAggregator problemAggregator) {
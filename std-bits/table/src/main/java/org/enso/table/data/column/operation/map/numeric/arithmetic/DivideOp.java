@@ -17,4 +17,28 @@ public class DivideOp<T extends Number, I extends Storage<? super T>>
     }
     return a / b;
   }
+
+  @Override
+  protected boolean doDoubleBlock(long[] a, long[] b, long[] out, int from, int to) {
+    // Divisions by zero need to be reported for each row, so such blocks are computed row by row.
+    boolean hasZeroDivisor = false;
+    for (int i = from; i < to; i++) {
+      double divisor = Double.longBitsToDouble(b[i]);
+      hasZeroDivisor |= divisor == 0.0;
+      out[i] = Double.doubleToRawLongBits(Double.longBitsToDouble(a[i]) / divisor);
+    }
+    return !hasZeroDivisor;
+  }
+
+  @Override
+  protected boolean doDoubleBlock(long[] a, double b, long[] out, int from, int to) {
+    if (b == 0.0) {
+      return false;
+    }
+
+    for (int i = from; i < to; i++) {
+      out[i] = Double.doubleToRawLongBits(Double.longBitsToDouble(a[i]) / b);
+    }
+    return true;
+  }
 }
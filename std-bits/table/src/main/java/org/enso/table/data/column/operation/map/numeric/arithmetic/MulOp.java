@@ -28,6 +28,46 @@ public class MulOp<T extends Number, I extends Storage<? super T>>
     }
   }
 
+  @Override
+  protected boolean doLongBlock(long[] a, long[] b, long[] out, int from, int to) {
+    // A product fits in a long if its high half is just the sign extension of the low half.
+    long overflow = 0;
+    for (int i = from; i < to; i++) {
+      long r = a[i] * b[i];
+      out[i] = r;
+      overflow |= Math.multiplyHigh(a[i], b[i]) ^ (r >> 63);
+    }
+    return overflow == 0;
+  }
+
+  @Override
+  protected boolean doLongBlock(long[] a, long b, long[] out, int from, int to) {
+    long overflow = 0;
+    for (int i = from; i < to; i++) {
+      long r = a[i] * b;
+      out[i] = r;
+      overflow |= Math.multiplyHigh(a[i], b) ^ (r >> 63);
+    }
+    return overflow == 0;
+  }
+
+  @Override
+  protected boolean doDoubleBlock(long[] a, long[] b, long[] out, int from, int to) {
+    for (int i = from; i < to; i++) {
+      double r = Double.longBitsToDouble(a[i]) * Double.longBitsToDouble(b[i]);
+      out[i] = Double.doubleToRawLongBits(r);
+    }
+    return true;
+  }
+
+  @Override
+  protected boolean doDoubleBlock(long[] a, double b, long[] out, int from, int to) {
+    for (int i = from; i < to; i++) {
+      out[i] = Double.doubleToRawLongBits(Double.longBitsToDouble(a[i]) * b);
+    }
+    return true;
+  }
+
   @Override
   public BigInteger doBigInteger(
       BigInteger a, BigInteger b, int ix, MapOperationProblemAggregator problemAggregator) {
@@ -20,6 +20,7 @@ import org.enso.table.data.column.storage.numeric.DoubleStorage;
 import org.enso.table.data.column.storage.numeric.LongStorage;
 import org.enso.table.data.column.storage.type.IntegerType;
 import org.enso.table.error.UnexpectedTypeException;
+import org.enso.table.util.BitSets;
 import org.graalvm.polyglot.Context;
 
 /** An operation expecting a numeric argument and returning a numeric column. */
@@ -29,6 +30,9 @@ public abstract class NumericBinaryOpImplementation<T extends Number, I extends
   // The type to use for small integer results (regardless of the input bit size).
   public static final IntegerType INTEGER_RESULT_TYPE = IntegerType.INT_64;
 
+  /** The number of rows computed by the block-wise loops between safepoint polls. */
+  private static final int BLOCK_SIZE = 4096;
+
   public NumericBinaryOpImplementation(String name) {
     super(name);
   }
@@ -157,8 +161,203 @@ public abstract class NumericBinaryOpImplementation<T extends Number, I extends
     };
   }
 
+  /**
+   * Computes the operation on a block of rows of two integer columns.
+   *
+   * <p>It allows the operations to provide a tight loop over the raw values, without boxing nor
+   * checking for missing values, that the compiler can vectorize. It is called for all rows of the
+   * block, including the missing ones - their values are arbitrary and their results are ignored.
+   *
+   * @return {@code false} if the block has to be computed row by row with {@link #doLong} instead,
+   *     e.g. because some of the results overflowed; the default implementation always does that
+   */
+  protected boolean doLongBlock(long[] a, long[] b, long[] out, int from, int to) {
+    return false;
+  }
+
+  /** Like {@link #doLongBlock(long[], long[], long[], int, int)}, with a constant argument. */
+  protected boolean doLongBlock(long[] a, long b, long[] out, int from, int to) {
+    return false;
+  }
+
+  /**
+   * Computes the operation on a block of rows of two float columns, represented as the raw bits of
+   * the values - like {@link #doLongBlock(long[], long[], long[], int, int)} does for integers.
+   *
+   * @return {@code false} if the block has to be computed row by row with {@link #doDouble}
+   *     instead; the default implementation always does that
+   */
+  protected boolean doDoubleBlock(long[] a, long[] b, long[] out, int from, int to) {
+    return false;
+  }
+
+  /** Like {@link #doDoubleBlock(long[], long[], long[], int, int)}, with a constant argument. */
+  protected boolean doDoubleBlock(long[] a, double b, long[] out, int from, int to) {
+    return false;
+  }
+
+  /** Returns the rows that are missing in either of the zipped storages. */
+  private static BitSet zipIsNothing(BitSet a, BitSet b, int n, int m) {
+    BitSet isNothing = BitSets.makeUnion(a, b, n);
+    if (m < n) {
+      isNothing.set(m, n);
+    }
+    return isNothing;
+  }
+
+  private DoubleStorage runDoubleZipInBlocks(
+      DoubleStorage a, DoubleStorage b, MapOperationProblemAggregator problemAggregator) {
+    Context context = Context.getCurrent();
+    int n = a.size();
+    int m = Math.min(a.size(), b.size());
+    long[] x = a.getRawData();
+    long[] y = b.getRawData();
+    long[] out = new long[n];
+    BitSet isNothing = zipIsNothing(a.getIsNothingMap(), b.getIsNothingMap(), n, m);
+    for (int from = 0; from < m; from += BLOCK_SIZE) {
+      int to = Math.min(from + BLOCK_SIZE, m);
+      if (!doDoubleBlock(x, y, out, from, to)) {
+        for (int i = from; i < to; i++) {
+          if (!isNothing.get(i)) {
+            double r = doDouble(a.getItemAsDouble(i), b.getItemAsDouble(i), i, problemAggregator);
+            out[i] = Double.doubleToRawLongBits(r);
+          }
+        }
+      }
+
+      context.safepoint();
+    }
+
+    return new DoubleStorage(out, n, isNothing);
+  }
+
+  private DoubleStorage runDoubleMapInBlocks(
+      DoubleStorage a, double b, MapOperationProblemAggregator problemAggregator) {
+    Context context = Context.getCurrent();
+    int n = a.size();
+    long[] x = a.getRawData();
+    long[] out = new long[n];
+    BitSet isNothing = BitSets.makeDuplicate(a.getIsNothingMap());
+    for (int from = 0; from < n; from += BLOCK_SIZE) {
+      int to = Math.min(from + BLOCK_SIZE, n);
+      if (!doDoubleBlock(x, b, out, from, to)) {
+        for (int i = from; i < to; i++) {
+          if (!isNothing.get(i)) {
+            double r = doDouble(a.getItemAsDouble(i), b, i, problemAggregator);
+            out[i] = Double.doubleToRawLongBits(r);
+          }
+        }
+      }
+
+      context.safepoint();
+    }
+
+    return new DoubleStorage(out, n, isNothing);
+  }
+
+  /**
+   * Computes the operation on two integer columns block by block.
+   *
+   * <p>Unless both storages keep their values in a {@code long[]}, the values of each block are
+   * first read into buffers, so that the same tight loops are used for all integer storages.
+   */
+  private LongStorage runLongZipInBlocks(
+      AbstractLongStorage a,
+      AbstractLongStorage b,
+      MapOperationProblemAggregator problemAggregator) {
+    Context context = Context.getCurrent();
+    int n = a.size();
+    int m = Math.min(a.size(), b.size());
+    long[] rawX = a.getRawLongs();
+    long[] rawY = b.getRawLongs();
+    boolean isRaw = rawX != null && rawY != null;
+    long[] x = isRaw ? rawX : new long[BLOCK_SIZE];
+    long[] y = isRaw ? rawY : new long[BLOCK_SIZE];
+    long[] out = new long[n];
+    long[] blockOut = isRaw ? out : new long[BLOCK_SIZE];
+    BitSet isNothing = zipIsNothing(a.getIsNothingMap(), b.getIsNothingMap(), n, m);
+    for (int from = 0; from < m; from += BLOCK_SIZE) {
+      int to = Math.min(from + BLOCK_SIZE, m);
+      // Row i of the block is at index i - offset of the arrays passed to doLongBlock.
+      int offset = isRaw ? 0 : from;
+      if (!isRaw) {
+        a.readItems(from, to, x, 0);
+        b.readItems(from, to, y, 0);
+      }
+
+      if (doLongBlock(x, y, blockOut, from - offset, to - offset)) {
+        if (!isRaw) {
+          System.arraycopy(blockOut, 0, out, from, to - from);
+        }
+      } else {
+        for (int i = from; i < to; i++) {
+          if (!isNothing.get(i)) {
+            Long r = doLong(x[i - offset], y[i - offset], i, problemAggregator);
+            if (r == null) {
+              isNothing.set(i);
+            } else {
+              out[i] = r;
+            }
+          }
+        }
+      }
+
+      context.safepoint();
+    }
+
+    return new LongStorage(out, n, isNothing, INTEGER_RESULT_TYPE);
+  }
+
+  /** Like {@link #runLongZipInBlocks}, with a constant argument. */
+  private LongStorage runLongMapInBlocks(
+      AbstractLongStorage a, long b, MapOperationProblemAggregator problemAggregator) {
+    Context context = Context.getCurrent();
+    int n = a.size();
+    long[] rawX = a.getRawLongs();
+    boolean isRaw = rawX != null;
+    long[] x = isRaw ? rawX : new long[BLOCK_SIZE];
+    long[] out = new long[n];
+    long[] blockOut = isRaw ? out : new long[BLOCK_SIZE];
+    BitSet isNothing = BitSets.makeDuplicate(a.getIsNothingMap());
+    for (int from = 0; from < n; from += BLOCK_SIZE) {
+      int to = Math.min(from + BLOCK_SIZE, n);
+      int offset = isRaw ? 0 : from;
+      if (!isRaw) {
+        a.readItems(from, to, x, 0);
+      }
+
+      if (doLongBlock(x, b, blockOut, from - offset, to - offset)) {
+        if (!isRaw) {
+          System.arraycopy(blockOut, 0, out, from, to - from);
+        }
+      } else {
+        for (int i = from; i < to; i++) {
+          if (!isNothing.get(i)) {
+            Long r = doLong(x[i - offset], b, i, problemAggregator);
+            if (r == null) {
+              isNothing.set(i);
+            } else {
+              out[i] = r;
+            }
+          }
+        }
+      }
+
+      context.safepoint();
+    }
+
+    return new LongStorage(out, n, isNothing, INTEGER_RESULT_TYPE);
+  }
+
   protected DoubleStorage runDoubleZip(
       DoubleArrayAdapter a, DoubleArrayAdapter b, MapOperationProblemAggregator problemAggregator) {
+    if (a instanceof DoubleStorage x
+        && b instanceof DoubleStorage y
+        && x.isRawDataComplete()
+        && y.isRawDataComplete()) {
+      return runDoubleZipInBlocks(x, y, problemAggregator);
+    }
+
     Context context = Context.getCurrent();
     int n = a.size();
     int m = Math.min(a.size(), b.size());
@@ -199,6 +398,10 @@ public abstract class NumericBinaryOpImplementation<T extends Number, I extends
     }
 
     double bNonNull = b;
+    if (a instanceof DoubleStorage x && x.isRawDataComplete()) {
+      return runDoubleMapInBlocks(x, bNonNull, problemAggregator);
+    }
+
     Context context = Context.getCurrent();
     int n = a.size();
     long[] out = new long[n];
@@ -221,31 +424,7 @@ public abstract class NumericBinaryOpImplementation<T extends Number, I extends
       AbstractLongStorage a,
       AbstractLongStorage b,
       MapOperationProblemAggregator problemAggregator) {
-    Context context = Context.getCurrent();
-    int n = a.size();
-    int m = Math.min(a.size(), b.size());
-    long[] out = new long[n];
-    BitSet isNothing = new BitSet();
-    for (int i = 0; i < m; i++) {
-      if (a.isNothing(i) || b.isNothing(i)) {
-        isNothing.set(i);
-      } else {
-        Long r = doLong(a.getItem(i), b.getItem(i), i, problemAggregator);
-        if (r == null) {
-          isNothing.set(i);
-        } else {
-          out[i] = r;
-        }
-      }
-
-      context.safepoint();
-    }
-
-    if (m < n) {
-      isNothing.set(m, n);
-    }
-
-    return new LongStorage(out, n, isNothing, INTEGER_RESULT_TYPE);
+    return runLongZipInBlocks(a, b, problemAggregator);
   }
 
   protected Storage<Long> runLongMap(
@@ -254,27 +433,7 @@ public abstract class NumericBinaryOpImplementation<T extends Number, I extends
       return LongStorage.makeEmpty(a.size(), INTEGER_RESULT_TYPE);
     }
 
-    long bNonNull = b;
-    Context context = Context.getCurrent();
-    int n = a.size();
-    long[] out = new long[n];
-    BitSet isNothing = new BitSet();
-    for (int i = 0; i < n; i++) {
-      if (a.isNothing(i)) {
-        isNothing.set(i);
-      } else {
-        Long r = doLong(a.getItem(i), bNonNull, i, problemAggregator);
-        if (r == null) {
-          isNothing.set(i);
-        } else {
-          out[i] = r;
-        }
-      }
-
-      context.safepoint();
-    }
-
-    return new LongStorage(out, n, isNothing, INTEGER_RESULT_TYPE);
+    return runLongMapInBlocks(a, b, problemAggregator);
   }
 
   protected BigIntegerStorage runBigIntegerZip(
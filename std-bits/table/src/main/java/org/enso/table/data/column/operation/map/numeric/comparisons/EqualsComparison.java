@@ -13,6 +13,13 @@ public class EqualsComparison<T extends Number, I extends Storage<? super T>>
     super(Storage.Maps.EQ);
   }
 
+  private static final Outcomes OUTCOMES = new Outcomes(false, true, false);
+
+  @Override
+  protected Outcomes getOutcomes() {
+    return OUTCOMES;
+  }
+
   @Override
   protected boolean doDouble(double a, double b) {
     return a == b;
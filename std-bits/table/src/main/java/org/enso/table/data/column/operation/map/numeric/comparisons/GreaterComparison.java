@@ -10,6 +10,13 @@ public class GreaterComparison<T extends Number, I extends Storage<? super T>>
     super(Storage.Maps.GT);
   }
 
+  private static final Outcomes OUTCOMES = new Outcomes(false, false, true);
+
+  @Override
+  protected Outcomes getOutcomes() {
+    return OUTCOMES;
+  }
+
   @Override
   protected boolean doDouble(double a, double b) {
     return a > b;
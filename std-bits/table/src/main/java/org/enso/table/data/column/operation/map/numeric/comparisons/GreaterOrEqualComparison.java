@@ -10,6 +10,13 @@ public class GreaterOrEqualComparison<T extends Number, I extends Storage<? supe
     super(Storage.Maps.GTE);
   }
 
+  private static final Outcomes OUTCOMES = new Outcomes(false, true, true);
+
+  @Override
+  protected Outcomes getOutcomes() {
+    return OUTCOMES;
+  }
+
   @Override
   protected boolean doDouble(double a, double b) {
     return a >= b;
@@ -10,6 +10,13 @@ public class LessComparison<T extends Number, I extends Storage<? super T>>
     super(Storage.Maps.LT);
   }
 
+  private static final Outcomes OUTCOMES = new Outcomes(true, false, false);
+
+  @Override
+  protected Outcomes getOutcomes() {
+    return OUTCOMES;
+  }
+
   @Override
   protected boolean doDouble(double a, double b) {
     return a < b;
@@ -10,6 +10,13 @@ public class LessOrEqualComparison<T extends Number, I extends Storage<? super T
     super(Storage.Maps.LTE);
   }
 
+  private static final Outcomes OUTCOMES = new Outcomes(true, true, false);
+
+  @Override
+  protected Outcomes getOutcomes() {
+    return OUTCOMES;
+  }
+
   @Override
   protected boolean doDouble(double a, double b) {
     return a <= b;
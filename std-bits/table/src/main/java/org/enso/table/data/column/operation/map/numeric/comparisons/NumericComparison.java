@@ -37,6 +37,195 @@ public abstract class NumericComparison<T extends Number, I extends Storage<? su
     throw new CompareException(a, b);
   }
 
+  /**
+   * Specifies whether the comparison holds when the first number is less than, equal to or greater
+   * than the second one. Comparisons involving NaN never hold, as it is not ordered.
+   */
+  protected record Outcomes(boolean less, boolean equal, boolean greater) {}
+
+  /**
+   * Returns the outcomes of the comparison, if it depends only on the ordering of the numbers.
+   *
+   * <p>Such comparisons of integer and float columns are done in tight loops over the raw values,
+   * that the compiler can vectorize, instead of calling {@link #doLong} or {@link #doDouble} for
+   * every row.
+   *
+   * @return the outcomes, or {@code null} to always compare the rows one by one
+   */
+  protected Outcomes getOutcomes() {
+    return null;
+  }
+
+  /** The number of rows compared by the block-wise loops between safepoint polls. */
+  private static final int BLOCK_SIZE = 4096;
+
+  /** Compares the rows {@code from} to {@code to}, which fit in a single word of the results. */
+  private interface WordComparator {
+    long compareWord(int from, int to);
+  }
+
+  private static BoolStorage compareInBlocks(
+      int n, int m, BitSet isNothing, WordComparator comparator) {
+    Context context = Context.getCurrent();
+    long[] words = new long[(n + Long.SIZE - 1) / Long.SIZE];
+    for (int from = 0; from < m; from += BLOCK_SIZE) {
+      int to = Math.min(from + BLOCK_SIZE, m);
+      for (int word = from; word < to; word += Long.SIZE) {
+        words[word / Long.SIZE] = comparator.compareWord(word, Math.min(word + Long.SIZE, to));
+      }
+
+      context.safepoint();
+    }
+
+    BitSet comparisonResults = BitSet.valueOf(words);
+    comparisonResults.andNot(isNothing);
+    return new BoolStorage(comparisonResults, isNothing, n, false);
+  }
+
+  /**
+   * Compares the rows {@code from} to {@code to} of two integer columns, whose values are at the
+   * indices shifted by {@code offset} in the arrays.
+   */
+  private static long compareLongWord(
+      long[] x, long[] y, int offset, int from, int to, Outcomes outcomes) {
+    long less = outcomes.less() ? 1 : 0;
+    long equal = outcomes.equal() ? 1 : 0;
+    long greater = outcomes.greater() ? 1 : 0;
+    long word = 0;
+    for (int i = from; i < to; i++) {
+      long a = x[i - offset];
+      long b = y[i - offset];
+      long r = (a < b ? less : 0) | (a == b ? equal : 0) | (a > b ? greater : 0);
+      word |= r << i;
+    }
+    return word;
+  }
+
+  /** Like {@link #compareLongWord(long[], long[], int, int, int, Outcomes)}, with a constant. */
+  private static long compareLongWord(
+      long[] x, long b, int offset, int from, int to, Outcomes outcomes) {
+    long less = outcomes.less() ? 1 : 0;
+    long equal = outcomes.equal() ? 1 : 0;
+    long greater = outcomes.greater() ? 1 : 0;
+    long word = 0;
+    for (int i = from; i < to; i++) {
+      long a = x[i - offset];
+      long r = (a < b ? less : 0) | (a == b ? equal : 0) | (a > b ? greater : 0);
+      word |= r << i;
+    }
+    return word;
+  }
+
+  /**
+   * Compares two integer columns word by word.
+   *
+   * <p>Unless both storages keep their values in a {@code long[]}, the values of each word are
+   * first read into buffers, so that the same tight loops are used for all integer storages.
+   */
+  private static BoolStorage compareLongsInBlocks(
+      AbstractLongStorage lhs, AbstractLongStorage rhs, Outcomes outcomes) {
+    int n = lhs.size();
+    int m = Math.min(lhs.size(), rhs.size());
+    BitSet isNothing = BitSets.makeUnion(lhs.getIsNothingMap(), rhs.getIsNothingMap(), n);
+    if (m < n) {
+      isNothing.set(m, n);
+    }
+
+    long[] rawX = lhs.getRawLongs();
+    long[] rawY = rhs.getRawLongs();
+    if (rawX != null && rawY != null) {
+      return compareInBlocks(
+          n, m, isNothing, (from, to) -> compareLongWord(rawX, rawY, 0, from, to, outcomes));
+    }
+
+    long[] x = new long[Long.SIZE];
+    long[] y = new long[Long.SIZE];
+    return compareInBlocks(
+        n,
+        m,
+        isNothing,
+        (from, to) -> {
+          lhs.readItems(from, to, x, 0);
+          rhs.readItems(from, to, y, 0);
+          return compareLongWord(x, y, from, from, to, outcomes);
+        });
+  }
+
+  /** Like {@link #compareLongsInBlocks(AbstractLongStorage, AbstractLongStorage, Outcomes)}. */
+  private static BoolStorage compareLongsInBlocks(
+      AbstractLongStorage lhs, long b, Outcomes outcomes) {
+    int n = lhs.size();
+    BitSet isNothing = BitSets.makeDuplicate(lhs.getIsNothingMap());
+    long[] rawX = lhs.getRawLongs();
+    if (rawX != null) {
+      return compareInBlocks(
+          n, n, isNothing, (from, to) -> compareLongWord(rawX, b, 0, from, to, outcomes));
+    }
+
+    long[] x = new long[Long.SIZE];
+    return compareInBlocks(
+        n,
+        n,
+        isNothing,
+        (from, to) -> {
+          lhs.readItems(from, to, x, 0);
+          return compareLongWord(x, b, from, from, to, outcomes);
+        });
+  }
+
+  private static BoolStorage compareDoublesInBlocks(
+      DoubleStorage lhs, DoubleStorage rhs, Outcomes outcomes) {
+    int n = lhs.size();
+    int m = Math.min(lhs.size(), rhs.size());
+    BitSet isNothing = BitSets.makeUnion(lhs.getIsNothingMap(), rhs.getIsNothingMap(), n);
+    if (m < n) {
+      isNothing.set(m, n);
+    }
+
+    long[] x = lhs.getRawData();
+    long[] y = rhs.getRawData();
+    long less = outcomes.less() ? 1 : 0;
+    long equal = outcomes.equal() ? 1 : 0;
+    long greater = outcomes.greater() ? 1 : 0;
+    return compareInBlocks(
+        n,
+        m,
+        isNothing,
+        (from, to) -> {
+          long word = 0;
+          for (int i = from; i < to; i++) {
+            double a = Double.longBitsToDouble(x[i]);
+            double b = Double.longBitsToDouble(y[i]);
+            long r = (a < b ? less : 0) | (a == b ? equal : 0) | (a > b ? greater : 0);
+            word |= r << i;
+          }
+          return word;
+        });
+  }
+
+  private static BoolStorage compareDoublesInBlocks(
+      DoubleStorage lhs, double b, Outcomes outcomes) {
+    int n = lhs.size();
+    BitSet isNothing = BitSets.makeDuplicate(lhs.getIsNothingMap());
+    long[] x = lhs.getRawData();
+    long less = outcomes.less() ? 1 : 0;
+    long equal = outcomes.equal() ? 1 : 0;
+    long greater = outcomes.greater() ? 1 : 0;
+    return compareInBlocks(
+        n,
+        n,
+        isNothing,
+        (from, to) -> {
+          long word = 0;
+          for (int i = from; i < to; i++) {
+            double a = Double.longBitsToDouble(x[i]);
+            long r = (a < b ? less : 0) | (a == b ? equal : 0) | (a > b ? greater : 0);
+            word |= r << i;
+          }
+          return word;
+        });
+  }
+
   public NumericComparison(String name) {
     super(name);
   }
@@ -118,6 +307,11 @@ public abstract class NumericComparison<T extends Number, I extends Storage<? su
 
   protected BoolStorage runLongMap(
       AbstractLongStorage lhs, long rhs, MapOperationProblemAggregator problemAggregator) {
+    Outcomes outcomes = getOutcomes();
+    if (outcomes != null) {
+      return compareLongsInBlocks(lhs, rhs, outcomes);
+    }
+
     int n = lhs.size();
     BitSet comparisonResults = new BitSet();
     BitSet isNothing = BitSets.makeDuplicate(lhs.getIsNothingMap());
@@ -139,6 +333,13 @@ public abstract class NumericComparison<T extends Number, I extends Storage<? su
 
   protected BoolStorage runDoubleMap(
       DoubleArrayAdapter lhs, double rhs, MapOperationProblemAggregator problemAggregator) {
+    Outcomes outcomes = getOutcomes();
+    if (outcomes != null
+        && lhs instanceof DoubleStorage doubleStorage
+        && doubleStorage.isRawDataComplete()) {
+      return compareDoublesInBlocks(doubleStorage, rhs, outcomes);
+    }
+
     int n = lhs.size();
     BitSet comparisonResults = new BitSet();
     BitSet isNothing = new BitSet();
@@ -286,6 +487,11 @@ public abstract class NumericComparison<T extends Number, I extends Storage<? su
       AbstractLongStorage lhs,
       AbstractLongStorage rhs,
       MapOperationProblemAggregator problemAggregator) {
+    Outcomes outcomes = getOutcomes();
+    if (outcomes != null) {
+      return compareLongsInBlocks(lhs, rhs, outcomes);
+    }
+
     int n = lhs.size();
     int m = Math.min(lhs.size(), rhs.size());
     BitSet comparisonResults = new BitSet();
@@ -317,6 +523,15 @@ public abstract class NumericComparison<T extends Number, I extends Storage<? su
       DoubleArrayAdapter lhs,
       DoubleArrayAdapter rhs,
       MapOperationProblemAggregator problemAggregator) {
+    Outcomes outcomes = getOutcomes();
+    if (outcomes != null
+        && lhs instanceof DoubleStorage x
+        && rhs instanceof DoubleStorage y
+        && x.isRawDataComplete()
+        && y.isRawDataComplete()) {
+      return compareDoublesInBlocks(x, y, outcomes);
+    }
+
     int n = lhs.size();
     int m = Math.min(lhs.size(), rhs.size());
     BitSet comparisonResults = new BitSet();
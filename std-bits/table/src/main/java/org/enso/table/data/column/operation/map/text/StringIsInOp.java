@@ -1,9 +1,13 @@
 package org.enso.table.data.column.operation.map.text;
 
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
 import org.enso.table.data.column.operation.map.SpecializedIsInOp;
+import org.enso.table.data.column.storage.BoolStorage;
 import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.column.storage.StringDictionary;
+import org.enso.table.data.column.storage.StringStorage;
 import org.graalvm.polyglot.Context;
 
 public class StringIsInOp<S extends Storage<String>> extends SpecializedIsInOp<String, S> {
@@ -22,4 +26,37 @@ public class StringIsInOp<S extends Storage<String>> extends SpecializedIsInOp<S
     }
     return new CompactRepresentation<>(set, hasNulls);
   }
+
+  @Override
+  public Storage<?> runMap(S storage, List<?> arg) {
+    if (storage instanceof StringStorage stringStorage && stringStorage.getDictionary() != null) {
+      return runOnDictionary(stringStorage.getDictionary(), storage.size(), arg);
+    }
+
+    return super.runMap(storage, arg);
+  }
+
+  /** Looks up each distinct value only once, and then just checks the codes. */
+  private Storage<?> runOnDictionary(StringDictionary dictionary, int size, List<?> arg) {
+    Context context = Context.getCurrent();
+    CompactRepresentation<String> compactRepresentation = prepareList(arg);
+    BitSet matchingCodes = dictionary.findCodes(compactRepresentation.coercedValues()::contains);
+    BitSet newVals = new BitSet();
+    BitSet isNothing = new BitSet();
+    if (!arg.isEmpty()) {
+      for (int i = 0; i < size; i++) {
+        int code = dictionary.getCode(i);
+        if (code == StringDictionary.NOTHING_CODE) {
+          isNothing.set(i);
+        } else if (matchingCodes.get(code)) {
+          newVals.set(i);
+        } else if (compactRepresentation.hasNulls()) {
+          isNothing.set(i);
+        }
+
+        context.safepoint();
+      }
+    }
+    return new BoolStorage(newVals, isNothing, size, false);
+  }
 }
@@ -0,0 +1,301 @@
+package org.enso.table.data.column.storage;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.enso.base.text.TextFoldingStrategy;
+import org.enso.table.data.mask.OrderMask;
+import org.graalvm.polyglot.Context;
+
+/**
+ * A dictionary encoding of a text column with few distinct values.
+ *
+ * <p>Every row is assigned the code of its value in a shared array of distinct values, or {@link
+ * #NOTHING_CODE} if it is missing. Operations that only depend on the value, like equality, {@code
+ * is_in}, grouping or sorting, can then be evaluated once per distinct value and applied to the
+ * rows through the codes.
+ *
+ * <p>Dictionaries derived from one another (e.g. by filtering the column) share the values, so the
+ * per-value results computed for one of them are reused by the others.
+ *
+ * <p>The encoded column still keeps its {@code String[]}, as all other text operations read it
+ * directly, so the encoding costs memory: the codes, kept in the narrowest array that fits the
+ * number of values - usually one byte per row - and the array of values. That is why columns are
+ * not encoded when they are built, but only once an operation that benefits from it, like grouping
+ * or joining, is run on them - see {@link StringStorage#encodeDictionary}.
+ */
+public final class StringDictionary {
+  /** The code assigned to missing values. */
+  public static final int NOTHING_CODE = -1;
+
+  /** Columns smaller than this are not worth encoding. */
+  private static final int MIN_ENCODED_SIZE = 64;
+
+  /** The number of rows checked up-front, to quickly give up on columns with many values. */
+  private static final int SAMPLE_SIZE = 1024;
+
+  /** The most distinct values the dictionary may have, relative to the column size. */
+  private static final int MAX_VALUES_RATIO = 4;
+
+  private final String[] values;
+  private final Codes codes;
+  private final FoldedValuesCache foldedValuesCache;
+
+  private StringDictionary(String[] values, Codes codes, FoldedValuesCache foldedValuesCache) {
+    this.values = values;
+    this.codes = codes;
+    this.foldedValuesCache = foldedValuesCache;
+  }
+
+  /**
+   * Encodes the strings, if the column is large enough and has few enough distinct values.
+   *
+   * @return the dictionary, or {@code null} if the column is not worth encoding
+   */
+  public static StringDictionary tryEncode(String[] data, int size) {
+    if (size < MIN_ENCODED_SIZE) {
+      return null;
+    }
+
+    int maxValues = size / MAX_VALUES_RATIO;
+    int sampleSize = Math.min(size, SAMPLE_SIZE);
+    if (hasMoreDistinctThan(data, sampleSize, sampleSize / MAX_VALUES_RATIO)) {
+      return null;
+    }
+
+    Context context = Context.getCurrent();
+    Map<String, Integer> codeOfValue = new HashMap<>();
+    int[] codes = new int[size];
+    for (int i = 0; i < size; i++) {
+      String value = data[i];
+      if (value == null) {
+        codes[i] = NOTHING_CODE;
+      } else {
+        int newCode = codeOfValue.size();
+        Integer code = codeOfValue.putIfAbsent(value, newCode);
+        if (code == null && newCode >= maxValues) {
+          return null;
+        }
+        codes[i] = code == null ? newCode : code;
+      }
+
+      context.safepoint();
+    }
+
+    String[] values = new String[codeOfValue.size()];
+    for (Map.Entry<String, Integer> entry : codeOfValue.entrySet()) {
+      values[entry.getValue()] = entry.getKey();
+    }
+
+    Codes compactCodes = Codes.compact(codes, values.length);
+    return new StringDictionary(values, compactCodes, new FoldedValuesCache());
+  }
+
+  /** Checks if the first {@code size} strings contain more than {@code limit} distinct values. */
+  private static boolean hasMoreDistinctThan(String[] data, int size, int limit) {
+    Set<String> seen = new HashSet<>();
+    for (int i = 0; i < size; i++) {
+      if (data[i] != null && seen.add(data[i]) && seen.size() > limit) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** The number of distinct values. */
+  public int getValueCount() {
+    return values.length;
+  }
+
+  public String getValue(int code) {
+    return values[code];
+  }
+
+  /** Returns the code of the value at the given row, or {@link #NOTHING_CODE} if it is missing. */
+  public int getCode(int row) {
+    return codes.get(row);
+  }
+
+  /**
+   * Returns the dictionary of the rows selected by the mask, as used by {@link Storage#applyMask}.
+   * It shares the distinct values with this one.
+   */
+  StringDictionary applyMask(OrderMask mask) {
+    Codes newCodes = codes.allocateLike(mask.length());
+    Context context = Context.getCurrent();
+    for (int i = 0; i < mask.length(); i++) {
+      int position = mask.get(i);
+      newCodes.set(i, position == Storage.NOT_FOUND_INDEX ? NOTHING_CODE : codes.get(position));
+      context.safepoint();
+    }
+    return new StringDictionary(values, newCodes, foldedValuesCache);
+  }
+
+  /**
+   * Returns the dictionary of the rows kept by the filter, as used by {@link Storage#applyFilter}.
+   * It shares the distinct values with this one.
+   */
+  StringDictionary applyFilter(BitSet filterMask, int newLength) {
+    Codes newCodes = codes.allocateLike(newLength);
+    int size = codes.size();
+    int resIx = 0;
+    Context context = Context.getCurrent();
+    for (int i = filterMask.nextSetBit(0); i >= 0 && i < size; i = filterMask.nextSetBit(i + 1)) {
+      newCodes.set(resIx++, codes.get(i));
+      context.safepoint();
+    }
+    return new StringDictionary(values, newCodes, foldedValuesCache);
+  }
+
+  /** Returns the set of codes of the values satisfying the predicate. */
+  public BitSet findCodes(Predicate<String> predicate) {
+    BitSet matching = new BitSet(values.length);
+    for (int code = 0; code < values.length; code++) {
+      if (predicate.test(values[code])) {
+        matching.set(code);
+      }
+    }
+    return matching;
+  }
+
+  /**
+   * Returns the rank of every distinct value in the order given by the comparator.
+   *
+   * <p>Values that the comparator considers equal get the same rank, so comparing the ranks of two
+   * rows is equivalent to comparing their values.
+   */
+  public int[] computeRanks(Comparator<? super String> comparator) {
+    Integer[] sortedCodes = new Integer[values.length];
+    Arrays.setAll(sortedCodes, code -> code);
+    Arrays.sort(sortedCodes, (a, b) -> comparator.compare(values[a], values[b]));
+
+    int[] ranks = new int[values.length];
+    int rank = 0;
+    for (int i = 0; i < sortedCodes.length; i++) {
+      if (i > 0 && comparator.compare(values[sortedCodes[i - 1]], values[sortedCodes[i]]) != 0) {
+        rank++;
+      }
+      ranks[sortedCodes[i]] = rank;
+    }
+    return ranks;
+  }
+
+  /**
+   * Returns the value of the given row folded with the given strategy, or {@code null} if it is
+   * missing.
+   *
+   * <p>Every distinct value is folded only once. It does not use the polyglot context, so it is
+   * safe to call from worker threads.
+   */
+  public String getFoldedItem(int row, TextFoldingStrategy textFoldingStrategy) {
+    int code = codes.get(row);
+    if (code == NOTHING_CODE) {
+      return null;
+    }
+
+    return foldedValuesCache.get(values, textFoldingStrategy)[code];
+  }
+
+  /**
+   * The code of every row, kept in the narrowest array that fits all codes.
+   *
+   * <p>Exactly one of the arrays is set. Checking which one it is costs a well-predicted branch,
+   * which is cheaper than a virtual call in the loops over the rows.
+   */
+  private static final class Codes {
+    private final byte[] bytes;
+    private final short[] shorts;
+    private final int[] ints;
+
+    private Codes(byte[] bytes, short[] shorts, int[] ints) {
+      this.bytes = bytes;
+      this.shorts = shorts;
+      this.ints = ints;
+    }
+
+    /** Copies the codes, which are all below {@code valueCount}, into the narrowest array. */
+    static Codes compact(int[] codes, int valueCount) {
+      if (valueCount <= Byte.MAX_VALUE + 1) {
+        byte[] bytes = new byte[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+          bytes[i] = (byte) codes[i];
+        }
+        return new Codes(bytes, null, null);
+      } else if (valueCount <= Short.MAX_VALUE + 1) {
+        short[] shorts = new short[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+          shorts[i] = (short) codes[i];
+        }
+        return new Codes(null, shorts, null);
+      } else {
+        return new Codes(null, null, codes);
+      }
+    }
+
+    /** Allocates codes of the given size, able to hold the same codes as this instance. */
+    Codes allocateLike(int size) {
+      if (bytes != null) {
+        return new Codes(new byte[size], null, null);
+      } else if (shorts != null) {
+        return new Codes(null, new short[size], null);
+      } else {
+        return new Codes(null, null, new int[size]);
+      }
+    }
+
+    int size() {
+      return bytes != null ? bytes.length : shorts != null ? shorts.length : ints.length;
+    }
+
+    int get(int row) {
+      if (bytes != null) {
+        return bytes[row];
+      } else if (shorts != null) {
+        return shorts[row];
+      } else {
+        return ints[row];
+      }
+    }
+
+    void set(int row, int code) {
+      if (bytes != null) {
+        bytes[row] = (byte) code;
+      } else if (shorts != null) {
+        shorts[row] = (short) code;
+      } else {
+        ints[row] = code;
+      }
+    }
+  }
+
+  /**
+   * Keeps the folded values for the most recently used folding strategy.
+   *
+   * <p>Grouping and joining use a single strategy per column, so remembering one is enough. If
+   * multiple threads fold the values concurrently, each one computes the same result, so the race
+   * is benign.
+   */
+  private static final class FoldedValuesCache {
+    private record FoldedValues(TextFoldingStrategy strategy, String[] folded) {}
+
+    private volatile FoldedValues cached = null;
+
+    String[] get(String[] values, TextFoldingStrategy strategy) {
+      FoldedValues current = cached;
+      if (current == null || current.strategy() != strategy) {
+        String[] folded = new String[values.length];
+        for (int code = 0; code < values.length; code++) {
+          folded[code] = strategy.fold(values[code]);
+        }
+        current = new FoldedValues(strategy, folded);
+        cached = current;
+      }
+      return current.folded();
+    }
+  }
+}
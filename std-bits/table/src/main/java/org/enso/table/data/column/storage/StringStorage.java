@@ -18,6 +18,7 @@ import org.enso.table.data.column.operation.map.text.StringLongToStringOp;
 import org.enso.table.data.column.operation.map.text.StringStringOp;
 import org.enso.table.data.column.storage.type.StorageType;
 import org.enso.table.data.column.storage.type.TextType;
+import org.enso.table.data.mask.OrderMask;
 import org.graalvm.polyglot.Context;
 import org.slf4j.Logger;
 
@@ -26,6 +27,8 @@ public final class StringStorage extends SpecializedStorage<String> {
   private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(StringStorage.class);
 
   private final TextType type;
+  private volatile StringDictionary dictionary;
+  private volatile boolean isEncodingChecked;
   private Future<Long> untrimmedCount;
 
   /**
@@ -34,8 +37,20 @@ public final class StringStorage extends SpecializedStorage<String> {
    * @param type the type of the column
    */
   public StringStorage(String[] data, int size, TextType type) {
+    this(data, size, type, null);
+  }
+
+  /**
+   * @param data the underlying data
+   * @param size the number of items stored
+   * @param type the type of the column
+   * @param dictionary the dictionary encoding of {@code data}, or {@code null} if it is not encoded
+   */
+  public StringStorage(String[] data, int size, TextType type, StringDictionary dictionary) {
     super(data, size, buildOps());
     this.type = type;
+    this.dictionary = dictionary;
+    this.isEncodingChecked = dictionary != null;
 
     untrimmedCount =
         CompletableFuture.supplyAsync(
@@ -57,6 +72,58 @@ public final class StringStorage extends SpecializedStorage<String> {
     return type;
   }
 
+  /** Returns the dictionary encoding of this column, or {@code null} if it is not encoded. */
+  public StringDictionary getDictionary() {
+    return dictionary;
+  }
+
+  /**
+   * Encodes this column with a {@link StringDictionary}, unless that was already tried.
+   *
+   * <p>It is called by the operations that benefit from the encoding, before they start. It must
+   * be called on the thread of the polyglot context.
+   *
+   * @return the dictionary, or {@code null} if the column is not worth encoding
+   */
+  public StringDictionary encodeDictionary() {
+    if (!isEncodingChecked) {
+      dictionary = StringDictionary.tryEncode(data, size);
+      isEncodingChecked = true;
+    }
+
+    return dictionary;
+  }
+
+  @Override
+  public SpecializedStorage<String> applyFilter(BitSet filterMask, int newLength) {
+    if (dictionary == null) {
+      return super.applyFilter(filterMask, newLength);
+    }
+
+    return fromCodes(dictionary.applyFilter(filterMask, newLength), newLength);
+  }
+
+  @Override
+  public SpecializedStorage<String> applyMask(OrderMask mask) {
+    if (dictionary == null) {
+      return super.applyMask(mask);
+    }
+
+    return fromCodes(dictionary.applyMask(mask), mask.length());
+  }
+
+  /** Creates a dictionary-encoded storage, decoding the values from the dictionary. */
+  private StringStorage fromCodes(StringDictionary newDictionary, int newSize) {
+    String[] newData = new String[newSize];
+    Context context = Context.getCurrent();
+    for (int i = 0; i < newSize; i++) {
+      int code = newDictionary.getCode(i);
+      newData[i] = code == StringDictionary.NOTHING_CODE ? null : newDictionary.getValue(code);
+      context.safepoint();
+    }
+    return new StringStorage(newData, newSize, type, newDictionary);
+  }
+
   /**
    * Counts the number of cells in the columns with whitespace. If the calculation fails then it
    * returns null.
@@ -89,6 +156,12 @@ public final class StringStorage extends SpecializedStorage<String> {
               SpecializedStorage<String> storage,
               Object arg,
               MapOperationProblemAggregator problemAggregator) {
+            if (arg instanceof String s
+                && storage instanceof StringStorage stringStorage
+                && stringStorage.getDictionary() != null) {
+              return runOnDictionary(stringStorage.getDictionary(), storage.size(), s);
+            }
+
             BitSet r = new BitSet();
             BitSet isNothing = new BitSet();
             Context context = Context.getCurrent();
@@ -104,6 +177,25 @@ public final class StringStorage extends SpecializedStorage<String> {
             return new BoolStorage(r, isNothing, storage.size(), false);
           }
 
+          /** Compares each distinct value only once, and then just checks the codes. */
+          private BoolStorage runOnDictionary(StringDictionary dictionary, int size, String arg) {
+            BitSet matchingCodes = dictionary.findCodes(value -> Text_Utils.equals(value, arg));
+            BitSet r = new BitSet();
+            BitSet isNothing = new BitSet();
+            Context context = Context.getCurrent();
+            for (int i = 0; i < size; i++) {
+              int code = dictionary.getCode(i);
+              if (code == StringDictionary.NOTHING_CODE) {
+                isNothing.set(i);
+              } else if (matchingCodes.get(code)) {
+                r.set(i);
+              }
+
+              context.safepoint();
+            }
+            return new BoolStorage(r, isNothing, size, false);
+          }
+
           @Override
           public BoolStorage runZip(
               SpecializedStorage<String> storage,
@@ -1,6 +1,10 @@
 package org.enso.table.data.column.storage.numeric;
 
+import java.math.BigInteger;
 import java.util.BitSet;
+import org.enso.base.polyglot.NumericConverter;
+import org.enso.table.data.column.builder.BigIntegerBuilder;
+import org.enso.table.data.column.builder.NumericBuilder;
 import org.enso.table.data.column.operation.map.MapOperationProblemAggregator;
 import org.enso.table.data.column.operation.map.MapOperationStorage;
 import org.enso.table.data.column.operation.map.numeric.LongRoundOp;
@@ -21,14 +25,58 @@ import org.enso.table.data.column.operation.map.numeric.isin.LongIsInOp;
 import org.enso.table.data.column.storage.*;
 import org.enso.table.data.column.storage.type.IntegerType;
 import org.enso.table.data.column.storage.type.StorageType;
+import org.enso.table.problems.ProblemAggregator;
 import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
 
 public abstract class AbstractLongStorage extends NumericStorage<Long>
     implements ColumnLongStorage, ColumnStorageWithNothingMap {
   public abstract long getItem(int idx);
 
+  /**
+   * Copies the values of the rows from {@code from} (inclusive) to {@code to} (exclusive) into
+   * {@code target}, starting at {@code offset}.
+   *
+   * <p>It allows tight loops over blocks of rows of any integer storage. The values copied for
+   * missing rows are arbitrary.
+   */
+  public void readItems(int from, int to, long[] target, int offset) {
+    for (int i = from; i < to; i++) {
+      if (!isNothing(i)) {
+        target[offset + i - from] = getItem(i);
+      }
+    }
+  }
+
+  /**
+   * Returns the array holding the values of all rows at their indices, if the storage keeps one.
+   *
+   * @return the array, or {@code null} if the values have to be read with {@link #readItems}
+   *     instead
+   */
+  public long[] getRawLongs() {
+    return null;
+  }
+
   private static final MapOperationStorage<Long, AbstractLongStorage> ops = buildOps();
 
+  /**
+   * Creates a storage holding the given integers in the most compact representation that the type
+   * allows.
+   *
+   * <p>All values that are not missing must fit the type - this is not checked. For 64-bit types,
+   * the array is used as-is, otherwise the values are copied into a narrower array.
+   */
+  public static AbstractLongStorage makeCompact(
+      long[] data, int size, BitSet isNothing, IntegerType type) {
+    return switch (type.bits()) {
+      case BITS_8 -> ByteStorage.fromLongs(data, size, isNothing, type);
+      case BITS_16 -> ShortStorage.fromLongs(data, size, isNothing, type);
+      case BITS_32 -> IntStorage.fromLongs(data, size, isNothing, type);
+      case BITS_64 -> new LongStorage(data, size, isNothing, type);
+    };
+  }
+
   @Override
   public boolean isBinaryOpVectorized(String name) {
     return ops.isSupportedBinary(name);
@@ -123,6 +171,74 @@ public abstract class AbstractLongStorage extends NumericStorage<Long>
     return ops;
   }
 
+  private Storage<?> fillMissingDouble(double arg, ProblemAggregator problemAggregator) {
+    final var builder = NumericBuilder.createDoubleBuilder(size(), problemAggregator);
+    long rawArg = Double.doubleToRawLongBits(arg);
+    Context context = Context.getCurrent();
+    for (int i = 0; i < size(); i++) {
+      if (isNothing(i)) {
+        builder.appendRawNoGrow(rawArg);
+      } else {
+        double coerced = getItem(i);
+        builder.appendRawNoGrow(Double.doubleToRawLongBits(coerced));
+      }
+
+      context.safepoint();
+    }
+
+    return builder.seal();
+  }
+
+  private Storage<?> fillMissingLong(long arg, ProblemAggregator problemAggregator) {
+    final var builder =
+        NumericBuilder.createLongBuilder(size(), IntegerType.INT_64, problemAggregator);
+    Context context = Context.getCurrent();
+    for (int i = 0; i < size(); i++) {
+      if (isNothing(i)) {
+        builder.appendRawNoGrow(arg);
+      } else {
+        builder.appendRawNoGrow(getItem(i));
+      }
+
+      context.safepoint();
+    }
+
+    return builder.seal();
+  }
+
+  private Storage<?> fillMissingBigInteger(
+      BigInteger bigInteger, ProblemAggregator problemAggregator) {
+    final var builder = new BigIntegerBuilder(size(), problemAggregator);
+    Context context = Context.getCurrent();
+    for (int i = 0; i < size(); i++) {
+      if (isNothing(i)) {
+        builder.appendRawNoGrow(bigInteger);
+      } else {
+        builder.appendRawNoGrow(BigInteger.valueOf(getItem(i)));
+      }
+
+      context.safepoint();
+    }
+
+    return builder.seal();
+  }
+
+  @Override
+  public Storage<?> fillMissing(
+      Value arg, StorageType commonType, ProblemAggregator problemAggregator) {
+    if (arg.isNumber()) {
+      if (NumericConverter.isCoercibleToLong(arg.as(Object.class))) {
+        return fillMissingLong(arg.asLong(), problemAggregator);
+      } else if (NumericConverter.isBigInteger(arg)) {
+        return fillMissingBigInteger(arg.asBigInteger(), problemAggregator);
+      } else {
+        return fillMissingDouble(arg.asDouble(), problemAggregator);
+      }
+    }
+
+    return super.fillMissing(arg, commonType, problemAggregator);
+  }
+
   @Override
   public AbstractLongStorage fillMissingFromPrevious(BoolStorage missingIndicator) {
     if (missingIndicator != null) {
@@ -155,7 +271,7 @@ public abstract class AbstractLongStorage extends NumericStorage<Long>
       context.safepoint();
     }
 
-    return new LongStorage(newData, n, newIsNothing, getType());
+    return makeCompact(newData, n, newIsNothing, getType());
   }
 
   /**
@@ -0,0 +1,91 @@
+package org.enso.table.data.column.storage.numeric;
+
+import java.util.BitSet;
+import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.column.storage.type.IntegerType;
+import org.enso.table.data.mask.OrderMask;
+import org.graalvm.polyglot.Context;
+
+/**
+ * A column storing integers that fit in 8 bits.
+ *
+ * <p>The values are kept in a {@code byte[]}, taking an eighth of the memory of a {@link
+ * LongStorage}. The declared type of the column may be wider than 8 bits - for example after
+ * widening - but all values must fit in 8 bits.
+ */
+public final class ByteStorage extends NarrowLongStorage<byte[]> {
+  /**
+   * @param data the underlying data
+   * @param size the number of items stored
+   * @param isNothing a bit set denoting at index {@code i} whether or not the value at index {@code
+   *     i} is missing.
+   * @param type the type of the column, which must be at least 8-bit
+   */
+  public ByteStorage(byte[] data, int size, BitSet isNothing, IntegerType type) {
+    super(data, size, isNothing, type);
+    assert type.fits(IntegerType.INT_8);
+  }
+
+  /**
+   * Creates a storage from 64-bit values, all of which must fit in 8 bits.
+   *
+   * <p>The values at missing indices are ignored.
+   */
+  public static ByteStorage fromLongs(long[] values, int size, BitSet isNothing, IntegerType type) {
+    byte[] data = new byte[size];
+    int n = Math.min(size, values.length);
+    Context context = Context.getCurrent();
+    for (int i = 0; i < n; i++) {
+      assert isNothing.get(i) || IntegerType.INT_8.fits(values[i]);
+      data[i] = (byte) values[i];
+      context.safepoint();
+    }
+    return new ByteStorage(data, size, isNothing, type);
+  }
+
+  /**
+   * @param idx an index
+   * @return the data item contained at the given index.
+   */
+  @Override
+  public long getItem(int idx) {
+    return data[idx];
+  }
+
+  @Override
+  public void readItems(int from, int to, long[] target, int offset) {
+    int end = Math.min(to, data.length);
+    for (int i = from; i < end; i++) {
+      target[offset + i - from] = data[i];
+    }
+  }
+
+  public byte[] getRawData() {
+    return data;
+  }
+
+  @Override
+  protected ByteStorage newInstance(byte[] data, int size, BitSet isNothing, IntegerType type) {
+    return new ByteStorage(data, size, isNothing, type);
+  }
+
+  @Override
+  protected byte[] newArray(int length) {
+    return new byte[length];
+  }
+
+  @Override
+  protected byte[] gather(OrderMask mask) {
+    byte[] newData = new byte[mask.length()];
+    Context context = Context.getCurrent();
+    for (int i = 0; i < newData.length; i++) {
+      int position = mask.get(i);
+      if (position != Storage.NOT_FOUND_INDEX && position < data.length) {
+        newData[i] = data[position];
+      }
+
+      context.safepoint();
+    }
+    return newData;
+  }
+}
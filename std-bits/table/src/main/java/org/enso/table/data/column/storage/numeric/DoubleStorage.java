@@ -280,6 +280,14 @@ public final class DoubleStorage extends NumericStorage<Double>
     return data;
   }
 
+  /**
+   * Checks if the raw data holds a value for every row. It may be shorter than the column if its
+   * trailing rows are all missing.
+   */
+  public boolean isRawDataComplete() {
+    return data.length >= size;
+  }
+
   private static MapOperationStorage<Double, DoubleStorage> buildOps() {
     MapOperationStorage<Double, DoubleStorage> ops = new MapOperationStorage<>();
     ops.add(new AddOp<>())
@@ -0,0 +1,91 @@
+package org.enso.table.data.column.storage.numeric;
+
+import java.util.BitSet;
+import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.column.storage.type.IntegerType;
+import org.enso.table.data.mask.OrderMask;
+import org.graalvm.polyglot.Context;
+
+/**
+ * A column storing integers that fit in 32 bits.
+ *
+ * <p>The values are kept in an {@code int[]}, taking half the memory of a {@link LongStorage}. The
+ * declared type of the column may be wider than 32 bits - for example after widening - but all
+ * values must fit in 32 bits.
+ */
+public final class IntStorage extends NarrowLongStorage<int[]> {
+  /**
+   * @param data the underlying data
+   * @param size the number of items stored
+   * @param isNothing a bit set denoting at index {@code i} whether or not the value at index {@code
+   *     i} is missing.
+   * @param type the type of the column, which must be at least 32-bit
+   */
+  public IntStorage(int[] data, int size, BitSet isNothing, IntegerType type) {
+    super(data, size, isNothing, type);
+    assert type.fits(IntegerType.INT_32);
+  }
+
+  /**
+   * Creates a storage from 64-bit values, all of which must fit in 32 bits.
+   *
+   * <p>The values at missing indices are ignored.
+   */
+  public static IntStorage fromLongs(long[] values, int size, BitSet isNothing, IntegerType type) {
+    int[] data = new int[size];
+    int n = Math.min(size, values.length);
+    Context context = Context.getCurrent();
+    for (int i = 0; i < n; i++) {
+      assert isNothing.get(i) || IntegerType.INT_32.fits(values[i]);
+      data[i] = (int) values[i];
+      context.safepoint();
+    }
+    return new IntStorage(data, size, isNothing, type);
+  }
+
+  /**
+   * @param idx an index
+   * @return the data item contained at the given index.
+   */
+  @Override
+  public long getItem(int idx) {
+    return data[idx];
+  }
+
+  @Override
+  public void readItems(int from, int to, long[] target, int offset) {
+    int end = Math.min(to, data.length);
+    for (int i = from; i < end; i++) {
+      target[offset + i - from] = data[i];
+    }
+  }
+
+  public int[] getRawData() {
+    return data;
+  }
+
+  @Override
+  protected IntStorage newInstance(int[] data, int size, BitSet isNothing, IntegerType type) {
+    return new IntStorage(data, size, isNothing, type);
+  }
+
+  @Override
+  protected int[] newArray(int length) {
+    return new int[length];
+  }
+
+  @Override
+  protected int[] gather(OrderMask mask) {
+    int[] newData = new int[mask.length()];
+    Context context = Context.getCurrent();
+    for (int i = 0; i < newData.length; i++) {
+      int position = mask.get(i);
+      if (position != Storage.NOT_FOUND_INDEX && position < data.length) {
+        newData[i] = data[position];
+      }
+
+      context.safepoint();
+    }
+    return newData;
+  }
+}
@@ -0,0 +1,201 @@
+package org.enso.table.data.column.storage.numeric;
+
+import java.lang.reflect.Array;
+import java.util.BitSet;
+import java.util.List;
+import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.column.storage.type.IntegerType;
+import org.enso.table.data.mask.OrderMask;
+import org.enso.table.data.mask.SliceRange;
+import org.enso.table.util.BitSets;
+import org.graalvm.polyglot.Context;
+
+/**
+ * A column storing integers in a primitive array narrower than a {@code long[]}.
+ *
+ * <p>It keeps the missing values, the size and the type of the column, and implements the
+ * operations rearranging rows by copying ranges of the array. The subclasses only provide the
+ * operations that need to know the element type of the array.
+ *
+ * <p>The array may be shorter than the column - the rows past its end are all missing.
+ *
+ * @param <A> the type of the array holding the values
+ */
+public abstract class NarrowLongStorage<A> extends AbstractLongStorage {
+  protected final A data;
+  private final BitSet isNothing;
+  private final int size;
+
+  private final IntegerType type;
+
+  /**
+   * @param data the underlying data
+   * @param size the number of items stored
+   * @param isNothing a bit set denoting at index {@code i} whether or not the value at index {@code
+   *     i} is missing.
+   * @param type the type of the column, which must fit all the values of the array type
+   */
+  protected NarrowLongStorage(A data, int size, BitSet isNothing, IntegerType type) {
+    this.data = data;
+    this.isNothing = isNothing;
+    this.size = size;
+    this.type = type;
+  }
+
+  /** Creates a storage of the same kind, holding the given array. */
+  protected abstract NarrowLongStorage<A> newInstance(
+      A data, int size, BitSet isNothing, IntegerType type);
+
+  /** Allocates an array of the kind held by this storage. */
+  protected abstract A newArray(int length);
+
+  /**
+   * Creates a new array with the values at the positions given by the mask.
+   *
+   * <p>The values at positions that are {@link Storage#NOT_FOUND_INDEX} or past the end of the
+   * array are left as {@code 0}.
+   */
+  protected abstract A gather(OrderMask mask);
+
+  /**
+   * @inheritDoc
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Long getItemBoxed(int idx) {
+    return isNothing.get(idx) ? null : getItem(idx);
+  }
+
+  /**
+   * @inheritDoc
+   */
+  @Override
+  public IntegerType getType() {
+    return type;
+  }
+
+  /**
+   * @inheritDoc
+   */
+  @Override
+  public boolean isNothing(long idx) {
+    return isNothing.get((int) idx);
+  }
+
+  @Override
+  public BitSet getIsNothingMap() {
+    return isNothing;
+  }
+
+  /** The selected rows are copied run by run, as filters usually keep contiguous ranges. */
+  @Override
+  public Storage<Long> applyFilter(BitSet filterMask, int newLength) {
+    A newData = newArray(newLength);
+    BitSet newIsNothing = new BitSet();
+    int dataLength = Array.getLength(data);
+    int resIx = 0;
+    Context context = Context.getCurrent();
+    int start = filterMask.nextSetBit(0);
+    while (start >= 0 && start < size) {
+      int end = Math.min(filterMask.nextClearBit(start), size);
+      int copied = Math.min(end, dataLength) - start;
+      if (copied > 0) {
+        System.arraycopy(data, start, newData, resIx, copied);
+      }
+
+      int missing = isNothing.nextSetBit(start);
+      while (missing >= 0 && missing < end) {
+        newIsNothing.set(resIx + missing - start);
+        missing = isNothing.nextSetBit(missing + 1);
+      }
+
+      resIx += end - start;
+      start = filterMask.nextSetBit(end);
+      context.safepoint();
+    }
+
+    return newInstance(newData, newLength, newIsNothing, type);
+  }
+
+  @Override
+  public Storage<Long> applyMask(OrderMask mask) {
+    A newData = gather(mask);
+    BitSet newIsNothing = new BitSet();
+    Context context = Context.getCurrent();
+    for (int i = 0; i < mask.length(); i++) {
+      int position = mask.get(i);
+      if (position == Storage.NOT_FOUND_INDEX || isNothing.get(position)) {
+        newIsNothing.set(i);
+      }
+
+      context.safepoint();
+    }
+
+    return newInstance(newData, mask.length(), newIsNothing, type);
+  }
+
+  @Override
+  public NarrowLongStorage<A> slice(int offset, int limit) {
+    int newSize = Math.min(size - offset, limit);
+    int dataLength = Array.getLength(data);
+    A newData;
+
+    // Special case if slice is after the actual data
+    if (offset >= dataLength) {
+      newData = newArray(0);
+    } else {
+      // Can only copy as much as there is data
+      int newDataSize = Math.min(dataLength - offset, newSize);
+      newData = newArray(newDataSize);
+      System.arraycopy(data, offset, newData, 0, newDataSize);
+    }
+
+    BitSet newMask = isNothing.get(offset, offset + limit);
+    return newInstance(newData, newSize, newMask, type);
+  }
+
+  @Override
+  public NarrowLongStorage<A> appendNulls(int count) {
+    BitSet newIsNothing = BitSets.makeDuplicate(isNothing);
+    newIsNothing.set(size, size + count);
+    A newData = newArray(size + count);
+    System.arraycopy(data, 0, newData, 0, Math.min(size, Array.getLength(data)));
+    return newInstance(newData, size + count, newIsNothing, type);
+  }
+
+  @Override
+  public NarrowLongStorage<A> slice(List<SliceRange> ranges) {
+    int newSize = SliceRange.totalLength(ranges);
+    A newData = newArray(newSize);
+    BitSet newIsNothing = new BitSet(newSize);
+    int dataLength = Array.getLength(data);
+    int offset = 0;
+    Context context = Context.getCurrent();
+    for (SliceRange range : ranges) {
+      int length = range.end() - range.start();
+      int copied = Math.min(range.end(), dataLength) - range.start();
+      if (copied > 0) {
+        System.arraycopy(data, range.start(), newData, offset, copied);
+      }
+
+      for (int i = 0; i < length; ++i) {
+        newIsNothing.set(offset + i, isNothing.get(range.start() + i));
+        context.safepoint();
+      }
+      offset += length;
+    }
+
+    return newInstance(newData, newSize, newIsNothing, type);
+  }
+
+  /** Widening to a bigger type can be done without copying the data. */
+  @Override
+  public NarrowLongStorage<A> widen(IntegerType widerType) {
+    assert widerType.fits(type);
+    return newInstance(data, size, isNothing, widerType);
+  }
+}
@@ -84,7 +84,7 @@ public class CrossTabIndex {
     }
   }
 
-  public List<Integer> get(UnorderedMultiValueKey xKey, UnorderedMultiValueKey yKey) {
+  public RowSlice get(UnorderedMultiValueKey xKey, UnorderedMultiValueKey yKey) {
     return combinedIndex.get(grid[getXCoordinate(xKey)][getYCoordinate(yKey)]);
   }
 
@@ -155,9 +155,9 @@ public class CrossTabIndex {
 
       // Fill the aggregate columns.
       for (UnorderedMultiValueKey xSubKey : getXKeys()) {
-        List<Integer> rowIds = get(xSubKey, ySubKey);
+        RowSlice rowIds = get(xSubKey, ySubKey);
         if (rowIds == null) {
-          rowIds = List.of();
+          rowIds = RowSlice.EMPTY;
         }
 
         for (int i = 0; i < aggregates.length; i++) {
@@ -0,0 +1,226 @@
+package org.enso.table.data.index;
+
+import java.util.Arrays;
+import java.util.List;
+import org.enso.base.Environment_Utils;
+import org.enso.base.arrays.IntArrayBuilder;
+import org.enso.base.parallel.ParallelTasks;
+import org.enso.base.text.TextFoldingStrategy;
+import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.column.storage.type.AnyObjectType;
+import org.enso.table.data.table.Column;
+import org.enso.table.problems.ColumnAggregatedProblemAggregator;
+import org.graalvm.polyglot.Context;
+
+/**
+ * Splits the rows of a table into partitions based on the hash of their key.
+ *
+ * <p>All rows with equal keys land in the same partition, so the partitions can be grouped
+ * independently, on separate threads. Within each partition, the rows are kept in increasing order.
+ *
+ * <p>The hash code of the key of every row is kept, so that the partitions can be further hashed
+ * without recomputing the keys. Two partitionings built by the same process for key columns of
+ * different tables are compatible - rows with equal keys end up in partitions with the same number.
+ *
+ * <p>The partitioning itself is also done in parallel. It must not be used on columns that may
+ * contain Enso objects, as these cannot be accessed from the worker threads - see {@link
+ * #canPartition}.
+ */
+public final class KeyPartitioning {
+  /** The default minimum number of rows for which parallel processing is worth it. */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 100_000;
+
+  /** The environment variable overriding {@link #DEFAULT_PARALLEL_THRESHOLD}. */
+  public static final String PARALLEL_THRESHOLD_ENV_VAR = "ENSO_TABLE_PARALLEL_THRESHOLD";
+
+  /** How many rows a task processes between checks for cancellation. */
+  public static final int CANCELLATION_CHECK_INTERVAL = 4096;
+
+  private static final int MAX_PARTITION_BITS = 7;
+
+  private final Storage<?>[] keyStorages;
+  private final List<TextFoldingStrategy> textFoldingStrategies;
+  private final int[] partitionOffsets;
+  private final int[] partitionedRows;
+  private final int[] rowHashes;
+  private final int[] floatingRows;
+
+  private KeyPartitioning(
+      Storage<?>[] keyStorages,
+      List<TextFoldingStrategy> textFoldingStrategies,
+      int[] partitionOffsets,
+      int[] partitionedRows,
+      int[] rowHashes,
+      int[] floatingRows) {
+    this.keyStorages = keyStorages;
+    this.textFoldingStrategies = textFoldingStrategies;
+    this.partitionOffsets = partitionOffsets;
+    this.partitionedRows = partitionedRows;
+    this.rowHashes = rowHashes;
+    this.floatingRows = floatingRows;
+  }
+
+  /**
+   * Checks if it is both possible and worth it to process the rows of a table with the given
+   * columns in parallel.
+   */
+  public static boolean shouldPartition(Column[] columns, int tableSize) {
+    return tableSize >= parallelThreshold()
+        && ParallelTasks.isParallelismAvailable()
+        && canPartition(columns);
+  }
+
+  /** The minimum number of rows for which the table operations are run in parallel. */
+  private static long parallelThreshold() {
+    long threshold =
+        Environment_Utils.getNonNegativeLong(
+            PARALLEL_THRESHOLD_ENV_VAR, DEFAULT_PARALLEL_THRESHOLD);
+    return Math.max(threshold, 1);
+  }
+
+  /**
+   * Checks if the values of the columns can be safely accessed from worker threads.
+   *
+   * <p>Only the mixed-type storages may contain Enso objects, so all other are safe.
+   */
+  public static boolean canPartition(Column[] columns) {
+    return Arrays.stream(columns).noneMatch(c -> c.getStorage().getType() instanceof AnyObjectType);
+  }
+
+  /** Partitions the rows of the key storages, using all available threads. */
+  public static KeyPartitioning build(
+      Storage<?>[] keyStorages, List<TextFoldingStrategy> textFoldingStrategies, int size) {
+    UnorderedMultiValueKey.encodeTextStorages(keyStorages);
+    int partitionBits = choosePartitionBits();
+    int partitionCount = 1 << partitionBits;
+    int chunkCount = Math.max(1, Math.min(partitionCount, size / CANCELLATION_CHECK_INTERVAL));
+    int chunkSize = (size + chunkCount - 1) / chunkCount;
+
+    // First, compute the partition of each row and count the rows of each partition per chunk.
+    int[] rowHashes = new int[size];
+    byte[] rowPartitions = new byte[size];
+    int[][] chunkCounts = new int[chunkCount][partitionCount];
+    int[][] chunkFloatingRows = new int[chunkCount][];
+    ParallelTasks.run(
+        chunkCount,
+        (chunk, cancellation) -> {
+          int[] counts = chunkCounts[chunk];
+          IntArrayBuilder floatingRows = new IntArrayBuilder(16);
+          int end = Math.min(size, (chunk + 1) * chunkSize);
+          for (int row = chunk * chunkSize; row < end; row++) {
+            var key = new UnorderedMultiValueKey(keyStorages, row, textFoldingStrategies);
+            int hash = key.hashCode();
+            int partition = partitionOf(hash, partitionBits);
+            rowHashes[row] = hash;
+            rowPartitions[row] = (byte) partition;
+            counts[partition]++;
+            if (key.hasFloatValues()) {
+              floatingRows.add(row);
+            }
+            if (row % CANCELLATION_CHECK_INTERVAL == 0) {
+              cancellation.check();
+            }
+          }
+          chunkFloatingRows[chunk] =
+              Arrays.copyOf(floatingRows.unsafeGetResultAndInvalidate(), floatingRows.getLength());
+        });
+
+    // Lay out the partitions one after another, and inside each partition the chunks in order, so
+    // that the rows end up sorted within each partition.
+    int[] partitionOffsets = new int[partitionCount + 1];
+    int[][] chunkOffsets = new int[chunkCount][partitionCount];
+    int offset = 0;
+    for (int partition = 0; partition < partitionCount; partition++) {
+      partitionOffsets[partition] = offset;
+      for (int chunk = 0; chunk < chunkCount; chunk++) {
+        chunkOffsets[chunk][partition] = offset;
+        offset += chunkCounts[chunk][partition];
+      }
+    }
+    partitionOffsets[partitionCount] = offset;
+
+    // Then scatter the rows, each chunk writing to its own reserved ranges.
+    int[] partitionedRows = new int[size];
+    ParallelTasks.run(
+        chunkCount,
+        (chunk, cancellation) -> {
+          int[] cursors = chunkOffsets[chunk];
+          int end = Math.min(size, (chunk + 1) * chunkSize);
+          for (int row = chunk * chunkSize; row < end; row++) {
+            partitionedRows[cursors[rowPartitions[row]]++] = row;
+            if (row % CANCELLATION_CHECK_INTERVAL == 0) {
+              cancellation.check();
+            }
+          }
+        });
+
+    // The chunks are in row order, so the floating rows remain sorted.
+    int[] floatingRows = Arrays.stream(chunkFloatingRows).flatMapToInt(Arrays::stream).toArray();
+    return new KeyPartitioning(
+        keyStorages,
+        textFoldingStrategies,
+        partitionOffsets,
+        partitionedRows,
+        rowHashes,
+        floatingRows);
+  }
+
+  public int getPartitionCount() {
+    return partitionOffsets.length - 1;
+  }
+
+  /** Returns the hash code of the {@link UnorderedMultiValueKey} of the given row. */
+  public int getRowHash(int row) {
+    return rowHashes[row];
+  }
+
+  /**
+   * Returns the rows whose keys contain floating point values, in increasing order.
+   *
+   * <p>These are the rows for which {@link UnorderedMultiValueKey#checkAndReportFloatingEquality}
+   * may report a problem.
+   */
+  public int[] getFloatingRows() {
+    return floatingRows;
+  }
+
+  /**
+   * Reports the keys containing floating point values, in row order - the same way as grouping the
+   * rows sequentially would.
+   *
+   * <p>It must be called on the main thread.
+   */
+  public void reportFloatingEquality(
+      ColumnAggregatedProblemAggregator problemAggregator,
+      MultiValueKeyBase.ColumnNameMapping columnNameMapping) {
+    Context context = Context.getCurrent();
+    for (int row : floatingRows) {
+      new UnorderedMultiValueKey(keyStorages, row, textFoldingStrategies)
+          .checkAndReportFloatingEquality(problemAggregator, columnNameMapping);
+      context.safepoint();
+    }
+  }
+
+  /** Returns the rows of the given partition, in increasing order. */
+  public RowSlice getRows(int partition) {
+    return new RowSlice(
+        partitionedRows, partitionOffsets[partition], partitionOffsets[partition + 1]);
+  }
+
+  private static int choosePartitionBits() {
+    // Use a few partitions per thread, to even out the differences in partition sizes.
+    int desired = ParallelTasks.parallelism() * 4;
+    int bits = 32 - Integer.numberOfLeadingZeros(desired - 1);
+    return Math.max(1, Math.min(MAX_PARTITION_BITS, bits));
+  }
+
+  /**
+   * Computes the partition from the upper bits of a scrambled hash code.
+   *
+   * <p>Hash maps use the lower bits of the hash code, so using different bits for partitioning
+   * avoids skewing the bucket distribution within partitions.
+   */
+  private static int partitionOf(int hashCode, int partitionBits) {
+    return (hashCode * 0x9E3779B9) >>> (32 - partitionBits);
+  }
+}
@@ -2,6 +2,7 @@ package org.enso.table.data.index;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -9,7 +10,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.function.IntFunction;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.enso.base.text.TextFoldingStrategy;
 import org.enso.table.aggregations.Aggregator;
@@ -23,10 +23,26 @@ import org.enso.table.problems.ProblemAggregator;
 import org.enso.table.util.ConstantList;
 import org.graalvm.polyglot.Context;
 
+/**
+ * An index grouping the rows of a table by the values of the key columns.
+ *
+ * <p>Each group is assigned a number, in the iteration order of the key map used to build the
+ * index. The rows are kept in a compressed layout: a single {@code int[]} holds the row indices of
+ * all groups one after another (in increasing row order within each group), and an offsets array
+ * marks where each group starts. This way the index needs only one key object per group and a
+ * couple of primitive arrays, instead of a boxed list entry per row.
+ */
 public class MultiValueIndex<KeyType extends MultiValueKeyBase> {
+  /** The value returned by {@link #findGroup} if there is no group for a key. */
+  public static final int NOT_FOUND = -1;
+
   private final ProblemAggregator problemAggregator;
   private final Column[] keyColumns;
-  private final Map<KeyType, List<Integer>> locs;
+  private final Map<KeyType, Integer> groupNumbers;
+  private final List<KeyType> groupKeys;
+  private final int[] groupOffsets;
+  private final int[] groupedRows;
+  private final int[] rowGroups;
   private final boolean isUnique;
 
   public static MultiValueIndex<OrderedMultiValueKey> makeOrderedIndex(
@@ -35,12 +51,13 @@ public class MultiValueIndex<KeyType extends MultiValueKeyBase> {
       int[] ordering,
       Comparator<Object> objectComparator,
       ProblemAggregator problemAggregator) {
-    TreeMap<OrderedMultiValueKey, List<Integer>> locs = new TreeMap<>();
+    TreeMap<OrderedMultiValueKey, Integer> groupNumbers = new TreeMap<>();
     final Storage<?>[] storage =
         Arrays.stream(keyColumns).map(Column::getStorage).toArray(Storage[]::new);
     IntFunction<OrderedMultiValueKey> keyFactory =
         i -> new OrderedMultiValueKey(storage, i, ordering, objectComparator);
-    return new MultiValueIndex<>(keyColumns, tableSize, locs, keyFactory, problemAggregator);
+    return new MultiValueIndex<>(
+        keyColumns, tableSize, groupNumbers, keyFactory, problemAggregator);
   }
 
   public static MultiValueIndex<UnorderedMultiValueKey> makeUnorderedIndex(
@@ -48,12 +65,14 @@ public class MultiValueIndex<KeyType extends MultiValueKeyBase> {
       int tableSize,
       List<TextFoldingStrategy> textFoldingStrategies,
       ProblemAggregator problemAggregator) {
-    HashMap<UnorderedMultiValueKey, List<Integer>> locs = new HashMap<>();
+    HashMap<UnorderedMultiValueKey, Integer> groupNumbers = new HashMap<>();
     final Storage<?>[] storage =
         Arrays.stream(keyColumns).map(Column::getStorage).toArray(Storage[]::new);
+    UnorderedMultiValueKey.encodeTextStorages(storage);
     IntFunction<UnorderedMultiValueKey> keyFactory =
         i -> new UnorderedMultiValueKey(storage, i, textFoldingStrategies);
-    return new MultiValueIndex<>(keyColumns, tableSize, locs, keyFactory, problemAggregator);
+    return new MultiValueIndex<>(
+        keyColumns, tableSize, groupNumbers, keyFactory, problemAggregator);
   }
 
   public static MultiValueIndex<UnorderedMultiValueKey> makeUnorderedIndex(
@@ -69,37 +88,83 @@ public class MultiValueIndex<KeyType extends MultiValueKeyBase> {
   private MultiValueIndex(
       Column[] keyColumns,
       int tableSize,
-      Map<KeyType, List<Integer>> initialLocs,
+      Map<KeyType, Integer> initialGroupNumbers,
       IntFunction<KeyType> keyFactory,
       ProblemAggregator problemAggregator) {
     this.keyColumns = keyColumns;
-    this.locs = initialLocs;
+    this.groupNumbers = initialGroupNumbers;
     this.problemAggregator = problemAggregator;
 
+    Context context = Context.getCurrent();
     if (keyColumns.length != 0) {
-      boolean isUnique = true;
       int size = keyColumns[0].getSize();
       ColumnAggregatedProblemAggregator groupingProblemAggregator =
           new ColumnAggregatedProblemAggregator(problemAggregator);
 
-      Context context = Context.getCurrent();
+      // First pass: assign each row a provisional group number, in order of first occurrence.
+      int[] provisionalGroups = new int[size];
+      int[] provisionalCounts = new int[16];
+      int groupCount = 0;
       for (int i = 0; i < size; i++) {
         KeyType key = keyFactory.apply(i);
         key.checkAndReportFloatingEquality(
             groupingProblemAggregator, columnIx -> keyColumns[columnIx].getName());
 
-        List<Integer> ids = this.locs.computeIfAbsent(key, x -> new ArrayList<>());
-        ids.add(i);
-        isUnique = isUnique && ids.size() == 1;
+        Integer existing = this.groupNumbers.get(key);
+        int group;
+        if (existing == null) {
+          group = groupCount++;
+          this.groupNumbers.put(key, group);
+          if (group == provisionalCounts.length) {
+            provisionalCounts = Arrays.copyOf(provisionalCounts, provisionalCounts.length * 2);
+          }
+        } else {
+          group = existing;
+        }
+
+        provisionalGroups[i] = group;
+        provisionalCounts[group]++;
 
         context.safepoint();
       }
 
-      this.isUnique = isUnique;
+      this.isUnique = groupCount == size;
+
+      // Renumber the groups to follow the iteration order of the map, so that the group numbers
+      // are consistent with `keys()` (which matters for the sorted variant).
+      int[] renumbering = new int[groupCount];
+      this.groupKeys = new ArrayList<>(groupCount);
+      this.groupOffsets = new int[groupCount + 1];
+      for (Map.Entry<KeyType, Integer> entry : this.groupNumbers.entrySet()) {
+        int newGroup = groupKeys.size();
+        int oldGroup = entry.getValue();
+        renumbering[oldGroup] = newGroup;
+        entry.setValue(newGroup);
+        groupKeys.add(entry.getKey());
+        groupOffsets[newGroup + 1] = groupOffsets[newGroup] + provisionalCounts[oldGroup];
+        context.safepoint();
+      }
+
+      // Second pass: scatter the rows into their groups. Rows are visited in order, so each group
+      // ends up sorted.
+      int[] cursors = Arrays.copyOf(groupOffsets, groupCount);
+      this.groupedRows = new int[size];
+      for (int i = 0; i < size; i++) {
+        int group = renumbering[provisionalGroups[i]];
+        provisionalGroups[i] = group;
+        groupedRows[cursors[group]++] = i;
+        context.safepoint();
+      }
+
+      this.rowGroups = provisionalGroups;
     } else {
       this.isUnique = tableSize <= 1;
-      this.locs.put(
-          keyFactory.apply(0), IntStream.range(0, tableSize).boxed().collect(Collectors.toList()));
+      KeyType key = keyFactory.apply(0);
+      this.groupNumbers.put(key, 0);
+      this.groupKeys = List.of(key);
+      this.groupOffsets = new int[] {0, tableSize};
+      this.groupedRows = IntStream.range(0, tableSize).toArray();
+      this.rowGroups = new int[tableSize];
     }
   }
 
@@ -110,7 +175,7 @@ public class MultiValueIndex<KeyType extends MultiValueKeyBase> {
   public Table makeTable(Aggregator[] columns) {
     Context context = Context.getCurrent();
     final int length = columns.length;
-    final int size = locs.size();
+    final int size = size();
 
     boolean emptyScenario = size == 0 && keyColumns.length == 0;
     Builder[] storage =
@@ -120,15 +185,15 @@ public class MultiValueIndex<KeyType extends MultiValueKeyBase> {
 
     if (emptyScenario) {
       // No grouping and no data
-      List<Integer> empty = new ArrayList<>();
       for (int i = 0; i < length; i++) {
-        storage[i].appendNoGrow(columns[i].aggregate(empty, problemAggregator));
+        storage[i].appendNoGrow(columns[i].aggregate(RowSlice.EMPTY, problemAggregator));
         context.safepoint();
       }
     } else {
-      for (List<Integer> group_locs : this.locs.values()) {
+      for (int group = 0; group < size; group++) {
+        RowSlice groupRows = getRows(group);
         for (int i = 0; i < length; i++) {
-          Object value = columns[i].aggregate(group_locs, problemAggregator);
+          Object value = columns[i].aggregate(groupRows, problemAggregator);
           storage[i].appendNoGrow(value);
           context.safepoint();
         }
@@ -141,24 +206,74 @@ public class MultiValueIndex<KeyType extends MultiValueKeyBase> {
             .toArray(Column[]::new));
   }
 
+  /** The keys of all groups, iterated in the order of group numbers. */
   public Set<KeyType> keys() {
-    return locs.keySet();
+    return groupNumbers.keySet();
   }
 
   public boolean contains(KeyType key) {
-    return this.locs.containsKey(key);
+    return this.groupNumbers.containsKey(key);
+  }
+
+  /** Returns the rows belonging to the group with the given key, or null if there is none. */
+  public RowSlice get(KeyType key) {
+    int group = findGroup(key);
+    return group == NOT_FOUND ? null : getRows(group);
   }
 
-  public List<Integer> get(KeyType key) {
-    return this.locs.get(key);
+  /** Returns the number of the group with the given key, or {@link #NOT_FOUND} if there is none. */
+  public int findGroup(KeyType key) {
+    Integer group = this.groupNumbers.get(key);
+    return group == null ? NOT_FOUND : group;
   }
 
-  public Map<KeyType, List<Integer>> mapping() {
-    return locs;
+  /** Returns the key representing the given group. */
+  public KeyType getKey(int group) {
+    return groupKeys.get(group);
+  }
+
+  /** Returns the rows belonging to the given group, in increasing order. */
+  public RowSlice getRows(int group) {
+    return new RowSlice(groupedRows, groupOffsets[group], groupOffsets[group + 1]);
+  }
+
+  /** Returns the number of rows in the given group. */
+  public int getGroupSize(int group) {
+    return groupOffsets[group + 1] - groupOffsets[group];
+  }
+
+  /** Returns the number of the group that the given row of the indexed table belongs to. */
+  public int groupOfRow(int row) {
+    return rowGroups[row];
+  }
+
+  /**
+   * Returns the numbers of all groups, ordered by the first row of each group.
+   *
+   * <p>Unlike the group numbers, this order does not depend on the key map, so it can be reproduced
+   * by the operations that group the rows in parallel.
+   */
+  public int[] groupsInRowOrder() {
+    Context context = Context.getCurrent();
+    int[] groups = new int[size()];
+    BitSet isSeen = new BitSet(groups.length);
+    int count = 0;
+    for (int row = 0; row < rowGroups.length && count < groups.length; row++) {
+      int group = rowGroups[row];
+      if (!isSeen.get(group)) {
+        isSeen.set(group);
+        groups[count++] = group;
+      }
+
+      context.safepoint();
+    }
+
+    return groups;
   }
 
+  /** The number of groups in the index. */
   public int size() {
-    return this.locs.size();
+    return this.groupKeys.size();
   }
 
   /**
@@ -169,7 +284,7 @@ public class MultiValueIndex<KeyType extends MultiValueKeyBase> {
     for (Column c : keyColumns) {
       boolean containsNulls = CountNothing.anyNothing(c.getStorage());
       if (containsNulls) {
-        for (KeyType key : locs.keySet()) {
+        for (KeyType key : groupKeys) {
           if (key.hasAnyNulls()) {
             return key;
           }
@@ -0,0 +1,67 @@
+package org.enso.table.data.index;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A read-only view over a range of row indices stored in a shared primitive array.
+ *
+ * <p>It is used to pass the rows of a group around without boxing every index, as the index
+ * structures keep all rows of all groups in a single {@code int[]}.
+ */
+public final class RowSlice {
+  public static final RowSlice EMPTY = new RowSlice(new int[0], 0, 0);
+
+  private final int[] rows;
+  private final int start;
+  private final int end;
+
+  /**
+   * Creates a view over {@code rows[start]} to {@code rows[end - 1]}.
+   *
+   * <p>The array is not copied, so it must not be modified after the slice is created.
+   */
+  public RowSlice(int[] rows, int start, int end) {
+    assert 0 <= start && start <= end && end <= rows.length;
+    this.rows = rows;
+    this.start = start;
+    this.end = end;
+  }
+
+  /** Creates a slice covering all the given rows. */
+  public static RowSlice of(int... rows) {
+    return new RowSlice(rows, 0, rows.length);
+  }
+
+  /** Creates a slice containing the rows {@code 0} to {@code size - 1} in order. */
+  public static RowSlice range(int size) {
+    return of(IntStream.range(0, size).toArray());
+  }
+
+  public int size() {
+    return end - start;
+  }
+
+  public boolean isEmpty() {
+    return start == end;
+  }
+
+  /** Returns the row index at the given position within the slice. */
+  public int get(int position) {
+    assert 0 <= position && position < size();
+    return rows[start + position];
+  }
+
+  public int[] toArray() {
+    return Arrays.copyOfRange(rows, start, end);
+  }
+
+  public IntStream stream() {
+    return Arrays.stream(rows, start, end);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+}
@@ -0,0 +1,240 @@
+package org.enso.table.data.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.enso.base.parallel.ParallelTasks;
+import org.enso.base.text.TextFoldingStrategy;
+import org.enso.table.aggregations.Aggregator;
+import org.enso.table.data.column.builder.Builder;
+import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.table.Column;
+import org.enso.table.data.table.Table;
+import org.enso.table.problems.ColumnAggregatedProblemAggregator;
+import org.enso.table.problems.ProblemAggregator;
+import org.enso.table.util.ConstantList;
+import org.graalvm.polyglot.Context;
+
+/**
+ * Computes a group-by aggregation in a single pass over the table.
+ *
+ * <p>Unlike {@link MultiValueIndex#makeTable}, it does not remember which rows belong to which
+ * group. Instead, every group keeps one {@link Aggregator.Accumulator} per aggregate, which is fed
+ * the rows as they are encountered. Thus the memory used depends on the number of groups, not the
+ * number of rows. It can only be used if all aggregates support accumulation.
+ *
+ * <p>The groups are output in the same order as {@link MultiValueIndex#makeTable} would use for the
+ * same key columns.
+ */
+public final class StreamingGroupBy {
+  private StreamingGroupBy() {}
+
+  /** Checks if all the given aggregates can be computed in a single pass. */
+  public static boolean canAggregate(Aggregator[] aggregates, ProblemAggregator problemAggregator) {
+    // Creating an accumulator does not register any problem aggregators, so it is cheap to probe.
+    return Arrays.stream(aggregates).allMatch(a -> a.makeAccumulator(problemAggregator) != null);
+  }
+
+  public static Table makeTable(
+      Column[] keyColumns,
+      int tableSize,
+      TextFoldingStrategy textFoldingStrategy,
+      Aggregator[] aggregates,
+      ProblemAggregator problemAggregator) {
+    Context context = Context.getCurrent();
+    List<Aggregator.Accumulator[]> groups;
+    if (keyColumns.length != 0) {
+      Map<UnorderedMultiValueKey, Aggregator.Accumulator[]> groupStates = new HashMap<>();
+      Storage<?>[] storage =
+          Arrays.stream(keyColumns).map(Column::getStorage).toArray(Storage[]::new);
+      UnorderedMultiValueKey.encodeTextStorages(storage);
+      List<TextFoldingStrategy> strategies =
+          ConstantList.make(textFoldingStrategy, keyColumns.length);
+      ColumnAggregatedProblemAggregator groupingProblemAggregator =
+          new ColumnAggregatedProblemAggregator(problemAggregator);
+
+      int size = keyColumns[0].getSize();
+      for (int row = 0; row < size; row++) {
+        UnorderedMultiValueKey key = new UnorderedMultiValueKey(storage, row, strategies);
+        key.checkAndReportFloatingEquality(
+            groupingProblemAggregator, columnIx -> keyColumns[columnIx].getName());
+
+        Aggregator.Accumulator[] accumulators = groupStates.get(key);
+        if (accumulators == null) {
+          accumulators = makeAccumulators(aggregates, problemAggregator);
+          groupStates.put(key, accumulators);
+        }
+
+        for (Aggregator.Accumulator accumulator : accumulators) {
+          accumulator.accumulate(row);
+        }
+
+        context.safepoint();
+      }
+
+      groups = new ArrayList<>(groupStates.values());
+    } else {
+      // Without key columns, all rows form a single group - even if there are no rows at all.
+      Aggregator.Accumulator[] accumulators = makeAccumulators(aggregates, problemAggregator);
+      for (int row = 0; row < tableSize; row++) {
+        for (Aggregator.Accumulator accumulator : accumulators) {
+          accumulator.accumulate(row);
+        }
+
+        context.safepoint();
+      }
+
+      groups = List.<Aggregator.Accumulator[]>of(accumulators);
+    }
+
+    return buildTable(groups, aggregates, problemAggregator);
+  }
+
+  /**
+   * Computes the same result as {@link #makeTable}, but processes the rows on multiple threads.
+   *
+   * <p>The rows are partitioned by the hash of their key, and each partition is grouped and
+   * aggregated independently. Problems found on the worker threads are deferred and then reported
+   * in the same order and with the same merging as the sequential variant would, so the result is
+   * indistinguishable from it.
+   *
+   * <p>It requires at least one key column, and all columns used by the key and the aggregates must
+   * be safe to access from other threads - see {@link KeyPartitioning#shouldPartition} and {@link
+   * Aggregator#canAccumulateInParallel}.
+   */
+  public static Table makeTableInParallel(
+      Column[] keyColumns,
+      TextFoldingStrategy textFoldingStrategy,
+      Aggregator[] aggregates,
+      ProblemAggregator problemAggregator) {
+    assert keyColumns.length != 0;
+    Context context = Context.getCurrent();
+    Storage<?>[] storage =
+        Arrays.stream(keyColumns).map(Column::getStorage).toArray(Storage[]::new);
+    List<TextFoldingStrategy> strategies =
+        ConstantList.make(textFoldingStrategy, keyColumns.length);
+    ColumnAggregatedProblemAggregator groupingProblemAggregator =
+        new ColumnAggregatedProblemAggregator(problemAggregator);
+
+    int size = keyColumns[0].getSize();
+    KeyPartitioning partitioning = KeyPartitioning.build(storage, strategies, size);
+    int partitionCount = partitioning.getPartitionCount();
+    GroupState[][] partitionGroups = new GroupState[partitionCount][];
+    ParallelTasks.run(
+        partitionCount,
+        (partition, cancellation) -> {
+          RowSlice rows = partitioning.getRows(partition);
+          Map<UnorderedMultiValueKey, GroupState> groupStates = new HashMap<>();
+          List<GroupState> groupsInOrder = new ArrayList<>();
+          for (int i = 0; i < rows.size(); i++) {
+            int row = rows.get(i);
+            UnorderedMultiValueKey key = new UnorderedMultiValueKey(storage, row, strategies);
+            GroupState state = groupStates.get(key);
+            if (state == null) {
+              Aggregator.Accumulator[] accumulators =
+                  makeAccumulators(aggregates, problemAggregator);
+              for (Aggregator.Accumulator accumulator : accumulators) {
+                accumulator.deferProblems();
+              }
+              state = new GroupState(key, row, accumulators);
+              groupStates.put(key, state);
+              groupsInOrder.add(state);
+            }
+
+            for (Aggregator.Accumulator accumulator : state.accumulators()) {
+              accumulator.accumulate(row);
+            }
+
+            if (i % KeyPartitioning.CANCELLATION_CHECK_INTERVAL == 0) {
+              cancellation.check();
+            }
+          }
+
+          partitionGroups[partition] = groupsInOrder.toArray(new GroupState[0]);
+        });
+
+    partitioning.reportFloatingEquality(
+        groupingProblemAggregator, columnIx -> keyColumns[columnIx].getName());
+
+    // Restore the order in which the sequential pass would have encountered the groups.
+    GroupState[] allGroups =
+        Arrays.stream(partitionGroups)
+            .flatMap(Arrays::stream)
+            .sorted(Comparator.comparingInt(GroupState::firstRow))
+            .toArray(GroupState[]::new);
+
+    // The sequential pass creates the problem aggregator of a group when its first problem is
+    // found. Replaying the deferred problems ordered by that row reproduces the same reporting.
+    List<DeferredProblems> deferredProblems = new ArrayList<>();
+    for (GroupState group : allGroups) {
+      Aggregator.Accumulator[] accumulators = group.accumulators();
+      for (int i = 0; i < accumulators.length; i++) {
+        Aggregator.Accumulator accumulator = accumulators[i];
+        if (accumulator.hasDeferredProblems()) {
+          int firstRow = accumulator.getFirstDeferredProblemRow();
+          deferredProblems.add(new DeferredProblems(firstRow, i, accumulator));
+        }
+      }
+      context.safepoint();
+    }
+    deferredProblems.sort(
+        Comparator.comparingInt(DeferredProblems::firstRow)
+            .thenComparingInt(DeferredProblems::aggregateIndex));
+    for (DeferredProblems problems : deferredProblems) {
+      problems.accumulator().reportDeferredProblems();
+      context.safepoint();
+    }
+
+    // Inserting the keys into a hash map in the same order as the sequential pass results in the
+    // same iteration order, so the groups are output in the same order too.
+    Map<UnorderedMultiValueKey, Aggregator.Accumulator[]> orderedGroups = new HashMap<>();
+    for (GroupState group : allGroups) {
+      orderedGroups.put(group.key(), group.accumulators());
+      context.safepoint();
+    }
+
+    return buildTable(new ArrayList<>(orderedGroups.values()), aggregates, problemAggregator);
+  }
+
+  private static Table buildTable(
+      List<Aggregator.Accumulator[]> groups,
+      Aggregator[] aggregates,
+      ProblemAggregator problemAggregator) {
+    Context context = Context.getCurrent();
+    int groupCount = groups.size();
+    Builder[] builders =
+        Arrays.stream(aggregates)
+            .map(a -> a.makeBuilder(groupCount, problemAggregator))
+            .toArray(Builder[]::new);
+    for (Aggregator.Accumulator[] accumulators : groups) {
+      for (int i = 0; i < aggregates.length; i++) {
+        builders[i].appendNoGrow(accumulators[i].summarize());
+        context.safepoint();
+      }
+    }
+
+    return new Table(
+        IntStream.range(0, aggregates.length)
+            .mapToObj(i -> new Column(aggregates[i].getName(), builders[i].seal()))
+            .toArray(Column[]::new));
+  }
+
+  private static Aggregator.Accumulator[] makeAccumulators(
+      Aggregator[] aggregates, ProblemAggregator problemAggregator) {
+    Aggregator.Accumulator[] accumulators = new Aggregator.Accumulator[aggregates.length];
+    for (int i = 0; i < aggregates.length; i++) {
+      accumulators[i] = aggregates[i].makeAccumulator(problemAggregator);
+    }
+    return accumulators;
+  }
+
+  private record GroupState(
+      UnorderedMultiValueKey key, int firstRow, Aggregator.Accumulator[] accumulators) {}
+
+  private record DeferredProblems(
+      int firstRow, int aggregateIndex, Aggregator.Accumulator accumulator) {}
+}
@@ -9,6 +9,7 @@ import org.enso.base.polyglot.EnsoObjectWrapper;
 import org.enso.base.polyglot.NumericConverter;
 import org.enso.base.text.TextFoldingStrategy;
 import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.column.storage.StringStorage;
 
 /**
  * A multi-value key for unordered operations like group-by or distinct.
@@ -44,7 +45,7 @@ public class UnorderedMultiValueKey extends MultiValueKeyBase {
         hasAnyNulls = true;
       } else {
         hasFloatValues = hasFloatValues || NumericConverter.isFloatLike(value);
-        Object folded = EnsoObjectWrapper.foldObject(value, textFoldingStrategy.get(i));
+        Object folded = foldValue(storages[i], rowIndex, value, textFoldingStrategy.get(i));
         h += folded.hashCode();
       }
     }
@@ -54,7 +55,38 @@ public class UnorderedMultiValueKey extends MultiValueKeyBase {
   }
 
   protected Object getObjectFolded(int index) {
-    return EnsoObjectWrapper.foldObject(this.get(index), textFoldingStrategy.get(index));
+    return foldValue(storages[index], rowIndex, this.get(index), textFoldingStrategy.get(index));
+  }
+
+  /**
+   * Dictionary-encodes the text storages of the key, if they are worth it, so that their values are
+   * folded once per distinct value - see {@link #foldValue}.
+   *
+   * <p>It must be called on the thread of the polyglot context, before the keys are built.
+   */
+  public static void encodeTextStorages(Storage<?>[] storages) {
+    for (Storage<?> storage : storages) {
+      if (storage instanceof StringStorage stringStorage) {
+        stringStorage.encodeDictionary();
+      }
+    }
+  }
+
+  /**
+   * Folds the value of a cell.
+   *
+   * <p>For dictionary-encoded text columns, the folded values are cached per distinct value, so the
+   * same text is not folded over and over again.
+   */
+  public static Object foldValue(
+      Storage<?> storage, int rowIndex, Object value, TextFoldingStrategy textFoldingStrategy) {
+    if (value instanceof String
+        && storage instanceof StringStorage stringStorage
+        && stringStorage.getDictionary() != null) {
+      return stringStorage.getDictionary().getFoldedItem(rowIndex, textFoldingStrategy);
+    }
+
+    return EnsoObjectWrapper.foldObject(value, textFoldingStrategy);
   }
 
   /**
@@ -70,6 +102,33 @@ public class UnorderedMultiValueKey extends MultiValueKeyBase {
     return new UnorderedMultiValueKey(newStorages, rowIndex, textFoldingStrategy);
   }
 
+  /**
+   * Checks if the keys of two rows would be equal, without creating the keys.
+   *
+   * <p>The storages may come from different tables, but must correspond to each other. Callers are
+   * expected to compare the hash codes of the keys first, as this check is more expensive.
+   */
+  public static boolean areRowsEqual(
+      Storage<?>[] storages,
+      int rowIndex,
+      Storage<?>[] otherStorages,
+      int otherRowIndex,
+      List<TextFoldingStrategy> textFoldingStrategy) {
+    assert storages.length == otherStorages.length;
+    for (int i = 0; i < storages.length; i++) {
+      TextFoldingStrategy strategy = textFoldingStrategy.get(i);
+      Object value = storages[i].getItemBoxed(rowIndex);
+      Object otherValue = otherStorages[i].getItemBoxed(otherRowIndex);
+      Object folded = foldValue(storages[i], rowIndex, value, strategy);
+      Object otherFolded = foldValue(otherStorages[i], otherRowIndex, otherValue, strategy);
+      if (!Objects.equals(folded, otherFolded)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -19,9 +19,11 @@ import org.enso.table.data.column.storage.BoolStorage;
 import org.enso.table.data.column.storage.Storage;
 import org.enso.table.data.column.storage.type.TextType;
 import org.enso.table.data.index.CrossTabIndex;
+import org.enso.table.data.index.KeyPartitioning;
 import org.enso.table.data.index.MultiValueIndex;
 import org.enso.table.data.index.MultiValueKeyBase;
 import org.enso.table.data.index.OrderedMultiValueKey;
+import org.enso.table.data.index.StreamingGroupBy;
 import org.enso.table.data.mask.OrderMask;
 import org.enso.table.data.mask.SliceRange;
 import org.enso.table.data.table.join.CrossJoin;
@@ -169,6 +171,40 @@ public class Table {
         columns, this.rowCount(), TextFoldingStrategy.unicodeNormalizedFold, problemAggregator);
   }
 
+  /**
+   * Groups the rows of this table by the specified columns and computes the aggregates for each
+   * group.
+   *
+   * <p>If all aggregates can be computed incrementally, this is done in a single pass that keeps
+   * only per-group state - split across multiple threads if the table is large enough. Otherwise,
+   * an index of all rows is built first.
+   *
+   * @param keyColumns set of columns to group by
+   * @param aggregates the aggregates to compute for each group
+   * @param problemAggregator an aggregator for problems
+   * @return a table with a column for each aggregate and a row for each group
+   */
+  public Table aggregate(
+      Column[] keyColumns, Aggregator[] aggregates, ProblemAggregator problemAggregator) {
+    if (StreamingGroupBy.canAggregate(aggregates, problemAggregator)) {
+      if (keyColumns.length != 0
+          && KeyPartitioning.shouldPartition(keyColumns, this.rowCount())
+          && Arrays.stream(aggregates).allMatch(Aggregator::canAccumulateInParallel)) {
+        return StreamingGroupBy.makeTableInParallel(
+            keyColumns, TextFoldingStrategy.unicodeNormalizedFold, aggregates, problemAggregator);
+      }
+
+      return StreamingGroupBy.makeTable(
+          keyColumns,
+          this.rowCount(),
+          TextFoldingStrategy.unicodeNormalizedFold,
+          aggregates,
+          problemAggregator);
+    } else {
+      return indexFromColumns(keyColumns, problemAggregator).makeTable(aggregates);
+    }
+  }
+
   /**
    * Build a cross-tab table on the given grouping and naming columns, aggregating across the
    * aggregate columns.
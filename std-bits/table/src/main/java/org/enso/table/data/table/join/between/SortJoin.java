@@ -7,6 +7,7 @@ import java.util.List;
 import org.enso.base.ObjectComparator;
 import org.enso.table.data.column.storage.Storage;
 import org.enso.table.data.index.OrderedMultiValueKey;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.data.table.join.JoinKind;
 import org.enso.table.data.table.join.JoinResult;
 import org.enso.table.data.table.join.JoinStrategy;
@@ -83,15 +84,15 @@ public class SortJoin implements JoinStrategy {
   }
 
   public void joinSubsets(
-      List<Integer> leftGroup,
-      List<Integer> rightGroup,
+      RowSlice leftGroup,
+      RowSlice rightGroup,
       JoinResult.Builder resultBuilder,
       ProblemAggregator problemAggregator) {
     Context context = Context.getCurrent();
 
     List<OrderedMultiValueKey> leftKeys =
         leftGroup.stream()
-            .map(i -> new OrderedMultiValueKey(leftStorages, i, directions, objectComparator))
+            .mapToObj(i -> new OrderedMultiValueKey(leftStorages, i, directions, objectComparator))
             .toList();
     if (leftKeys.isEmpty()) {
       // left group is completely empty - there will be no matches at all
@@ -100,7 +101,8 @@ public class SortJoin implements JoinStrategy {
 
     SortedListIndex<OrderedMultiValueKey> leftIndex = buildSortedLeftIndex(leftKeys);
 
-    for (int rightRowIx : rightGroup) {
+    for (int i = 0; i < rightGroup.size(); i++) {
+      int rightRowIx = rightGroup.get(i);
       int matches = addMatchingLeftRows(leftIndex, rightRowIx, resultBuilder);
       if (joinKind.wantsRightUnmatched && matches == 0) {
         resultBuilder.addUnmatchedRightRow(rightRowIx);
@@ -109,7 +111,8 @@ public class SortJoin implements JoinStrategy {
     }
 
     if (joinKind.wantsLeftUnmatched) {
-      for (int leftRowIx : leftGroup) {
+      for (int i = 0; i < leftGroup.size(); i++) {
+        int leftRowIx = leftGroup.get(i);
         if (!matchedLeftRows.get(leftRowIx)) {
           resultBuilder.addUnmatchedLeftRow(leftRowIx);
         }
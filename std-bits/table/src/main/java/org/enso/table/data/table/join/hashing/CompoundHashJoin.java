@@ -1,14 +1,25 @@
 package org.enso.table.data.table.join.hashing;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.List;
+import org.enso.base.parallel.ParallelTasks;
+import org.enso.base.text.TextFoldingStrategy;
+import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.index.KeyPartitioning;
 import org.enso.table.data.index.MultiValueIndex;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.data.index.UnorderedMultiValueKey;
+import org.enso.table.data.table.Column;
 import org.enso.table.data.table.join.JoinKind;
 import org.enso.table.data.table.join.JoinResult;
 import org.enso.table.data.table.join.JoinStrategy;
 import org.enso.table.data.table.join.between.SortJoin;
 import org.enso.table.data.table.join.conditions.Between;
 import org.enso.table.data.table.join.conditions.HashableCondition;
+import org.enso.table.problems.ColumnAggregatedProblemAggregator;
 import org.enso.table.problems.ProblemAggregator;
 import org.graalvm.polyglot.Context;
 
@@ -35,6 +46,12 @@ public class CompoundHashJoin implements JoinStrategy {
 
   @Override
   public JoinResult join(ProblemAggregator problemAggregator) {
+    int rowCount = Math.max(hashJoinConfig.getLeftNumRows(), hashJoinConfig.getRightNumRows());
+    if (KeyPartitioning.shouldPartition(hashJoinConfig.getLeftEquals(), rowCount)
+        && KeyPartitioning.canPartition(hashJoinConfig.getRightEquals())) {
+      return joinInParallel(problemAggregator);
+    }
+
     Context context = Context.getCurrent();
 
     var leftIndex =
@@ -50,19 +67,21 @@ public class CompoundHashJoin implements JoinStrategy {
             hashJoinConfig.getTextFoldingStrategies(),
             problemAggregator);
 
+    // The groups are processed in the order of their first rows, so that the parallel variant can
+    // produce the rows in the same order.
     JoinResult.Builder resultBuilder = new JoinResult.Builder();
-    for (var leftEntry : leftIndex.mapping().entrySet()) {
-      UnorderedMultiValueKey leftKey = leftEntry.getKey();
-      List<Integer> leftRows = leftEntry.getValue();
+    for (int leftGroup : leftIndex.groupsInRowOrder()) {
+      UnorderedMultiValueKey leftKey = leftIndex.getKey(leftGroup);
+      RowSlice leftRows = leftIndex.getRows(leftGroup);
       // If any field of the key is null, it cannot match anything.
-      List<Integer> rightRows = leftKey.hasAnyNulls() ? null : rightIndex.get(leftKey);
+      RowSlice rightRows = leftKey.hasAnyNulls() ? null : rightIndex.get(leftKey);
 
       if (rightRows != null) {
         sortJoin.joinSubsets(leftRows, rightRows, resultBuilder, problemAggregator);
       } else {
         if (joinKind.wantsLeftUnmatched) {
-          for (int leftRow : leftRows) {
-            resultBuilder.addUnmatchedLeftRow(leftRow);
+          for (int i = 0; i < leftRows.size(); i++) {
+            resultBuilder.addUnmatchedLeftRow(leftRows.get(i));
             context.safepoint();
           }
         }
@@ -72,19 +91,147 @@ public class CompoundHashJoin implements JoinStrategy {
     }
 
     if (joinKind.wantsRightUnmatched) {
-      for (var rightEntry : rightIndex.mapping().entrySet()) {
-        UnorderedMultiValueKey rightKey = rightEntry.getKey();
+      for (int rightGroup : rightIndex.groupsInRowOrder()) {
+        UnorderedMultiValueKey rightKey = rightIndex.getKey(rightGroup);
         // If any field of the key is null, it cannot match anything.
         boolean wasCompletelyUnmatched =
             rightKey.hasAnyNulls() ? true : !leftIndex.contains(rightKey);
         if (wasCompletelyUnmatched) {
-          for (int rightRow : rightEntry.getValue()) {
-            resultBuilder.addUnmatchedRightRow(rightRow);
+          RowSlice rightRows = rightIndex.getRows(rightGroup);
+          for (int i = 0; i < rightRows.size(); i++) {
+            resultBuilder.addUnmatchedRightRow(rightRows.get(i));
+          }
+        }
+      }
+    }
+
+    return resultBuilder.buildAndInvalidate();
+  }
+
+  /**
+   * Performs the join, grouping and matching the keys on multiple threads.
+   *
+   * <p>Both tables are partitioned by the hashes of their keys, and within each pair of partitions
+   * the groups of the left table are matched with the groups of the right table. The remaining
+   * conditions are then checked by {@link SortJoin} on the main thread, processing the left groups
+   * in the order of their first rows.
+   */
+  private JoinResult joinInParallel(ProblemAggregator problemAggregator) {
+    Context context = Context.getCurrent();
+    Column[] leftEquals = hashJoinConfig.getLeftEquals();
+    Column[] rightEquals = hashJoinConfig.getRightEquals();
+    List<TextFoldingStrategy> strategies = hashJoinConfig.getTextFoldingStrategies();
+    Storage<?>[] leftStorage =
+        Arrays.stream(leftEquals).map(Column::getStorage).toArray(Storage[]::new);
+    Storage<?>[] rightStorage =
+        Arrays.stream(rightEquals).map(Column::getStorage).toArray(Storage[]::new);
+
+    // The problem aggregators are created in the same order as in the sequential variant.
+    var leftProblemAggregator = new ColumnAggregatedProblemAggregator(problemAggregator);
+    var rightProblemAggregator = new ColumnAggregatedProblemAggregator(problemAggregator);
+    KeyPartitioning leftPartitioning =
+        KeyPartitioning.build(leftStorage, strategies, hashJoinConfig.getLeftNumRows());
+    KeyPartitioning rightPartitioning =
+        KeyPartitioning.build(rightStorage, strategies, hashJoinConfig.getRightNumRows());
+    leftPartitioning.reportFloatingEquality(
+        leftProblemAggregator, columnIx -> leftEquals[columnIx].getName());
+    rightPartitioning.reportFloatingEquality(
+        rightProblemAggregator, columnIx -> rightEquals[columnIx].getName());
+
+    int partitionCount = leftPartitioning.getPartitionCount();
+    assert partitionCount == rightPartitioning.getPartitionCount();
+    PartitionHashTable[] leftTables = new PartitionHashTable[partitionCount];
+    PartitionHashTable[] rightTables = new PartitionHashTable[partitionCount];
+    int[][] leftGroupMatches = new int[partitionCount][];
+    BitSet[] matchedRightGroups = new BitSet[partitionCount];
+    ParallelTasks.run(
+        partitionCount,
+        (partition, cancellation) -> {
+          var leftTable =
+              PartitionHashTable.build(
+                  leftStorage, strategies, leftPartitioning, partition, cancellation);
+          var rightTable =
+              PartitionHashTable.build(
+                  rightStorage, strategies, rightPartitioning, partition, cancellation);
+          int[] matches = new int[leftTable.size()];
+          BitSet matched = new BitSet();
+          for (int leftGroup = 0; leftGroup < leftTable.size(); leftGroup++) {
+            int leftRow = leftTable.getFirstRow(leftGroup);
+            // If any field of the key is null, it cannot match anything.
+            int rightGroup =
+                leftTable.hasAnyNulls(leftGroup)
+                    ? MultiValueIndex.NOT_FOUND
+                    : rightTable.find(leftStorage, leftRow, leftPartitioning.getRowHash(leftRow));
+            matches[leftGroup] = rightGroup;
+            if (rightGroup != MultiValueIndex.NOT_FOUND) {
+              matched.set(rightGroup);
+            }
+
+            if (leftGroup % KeyPartitioning.CANCELLATION_CHECK_INTERVAL == 0) {
+              cancellation.check();
+            }
+          }
+
+          leftTables[partition] = leftTable;
+          rightTables[partition] = rightTable;
+          leftGroupMatches[partition] = matches;
+          matchedRightGroups[partition] = matched;
+        });
+
+    List<GroupRef> leftGroups = new ArrayList<>();
+    for (int partition = 0; partition < partitionCount; partition++) {
+      PartitionHashTable leftTable = leftTables[partition];
+      for (int leftGroup = 0; leftGroup < leftTable.size(); leftGroup++) {
+        leftGroups.add(new GroupRef(partition, leftGroup, leftTable.getFirstRow(leftGroup)));
+      }
+      context.safepoint();
+    }
+    leftGroups.sort(Comparator.comparingInt(GroupRef::firstRow));
+
+    JoinResult.Builder resultBuilder = new JoinResult.Builder();
+    for (GroupRef leftGroup : leftGroups) {
+      RowSlice leftRows = leftTables[leftGroup.partition()].getRows(leftGroup.group());
+      int rightGroup = leftGroupMatches[leftGroup.partition()][leftGroup.group()];
+      if (rightGroup != MultiValueIndex.NOT_FOUND) {
+        RowSlice rightRows = rightTables[leftGroup.partition()].getRows(rightGroup);
+        sortJoin.joinSubsets(leftRows, rightRows, resultBuilder, problemAggregator);
+      } else if (joinKind.wantsLeftUnmatched) {
+        for (int i = 0; i < leftRows.size(); i++) {
+          resultBuilder.addUnmatchedLeftRow(leftRows.get(i));
+          context.safepoint();
+        }
+      }
+
+      context.safepoint();
+    }
+
+    if (joinKind.wantsRightUnmatched) {
+      List<GroupRef> unmatchedRightGroups = new ArrayList<>();
+      for (int partition = 0; partition < partitionCount; partition++) {
+        PartitionHashTable rightTable = rightTables[partition];
+        BitSet matched = matchedRightGroups[partition];
+        for (int rightGroup = 0; rightGroup < rightTable.size(); rightGroup++) {
+          if (!matched.get(rightGroup)) {
+            unmatchedRightGroups.add(
+                new GroupRef(partition, rightGroup, rightTable.getFirstRow(rightGroup)));
           }
         }
+        context.safepoint();
+      }
+      unmatchedRightGroups.sort(Comparator.comparingInt(GroupRef::firstRow));
+
+      for (GroupRef rightGroup : unmatchedRightGroups) {
+        RowSlice rightRows = rightTables[rightGroup.partition()].getRows(rightGroup.group());
+        for (int i = 0; i < rightRows.size(); i++) {
+          resultBuilder.addUnmatchedRightRow(rightRows.get(i));
+        }
+        context.safepoint();
       }
     }
 
     return resultBuilder.buildAndInvalidate();
   }
+
+  /** Identifies a group within one of the partitions. */
+  private record GroupRef(int partition, int group, int firstRow) {}
 }
@@ -0,0 +1,186 @@
+package org.enso.table.data.table.join.hashing;
+
+import java.util.Arrays;
+import java.util.List;
+import org.enso.base.parallel.ParallelTasks;
+import org.enso.base.text.TextFoldingStrategy;
+import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.index.KeyPartitioning;
+import org.enso.table.data.index.MultiValueIndex;
+import org.enso.table.data.index.RowSlice;
+import org.enso.table.data.index.UnorderedMultiValueKey;
+
+/**
+ * Groups the rows of a single partition of a {@link KeyPartitioning} by their keys.
+ *
+ * <p>Unlike {@link MultiValueIndex}, it does not create a key object per row - it relies on the key
+ * hashes computed by the partitioning and compares the rows in place. The groups are stored as
+ * primitive arrays: an open hash table of group numbers, chained through {@code nextInBucket}, and
+ * the rows of each group as a contiguous, increasing range of {@code groupedRows}.
+ *
+ * <p>It does not touch the polyglot context, so it can be built and queried on worker threads.
+ */
+final class PartitionHashTable {
+  private final Storage<?>[] storages;
+  private final List<TextFoldingStrategy> textFoldingStrategies;
+  private final int[] buckets;
+  private final int[] nextInBucket;
+  private final int[] groupHashes;
+  private final int[] groupOffsets;
+  private final int[] groupedRows;
+
+  private PartitionHashTable(
+      Storage<?>[] storages,
+      List<TextFoldingStrategy> textFoldingStrategies,
+      int[] buckets,
+      int[] nextInBucket,
+      int[] groupHashes,
+      int[] groupOffsets,
+      int[] groupedRows) {
+    this.storages = storages;
+    this.textFoldingStrategies = textFoldingStrategies;
+    this.buckets = buckets;
+    this.nextInBucket = nextInBucket;
+    this.groupHashes = groupHashes;
+    this.groupOffsets = groupOffsets;
+    this.groupedRows = groupedRows;
+  }
+
+  /**
+   * Groups the rows of the given partition.
+   *
+   * <p>The groups are numbered in the order of their first rows.
+   */
+  static PartitionHashTable build(
+      Storage<?>[] storages,
+      List<TextFoldingStrategy> textFoldingStrategies,
+      KeyPartitioning partitioning,
+      int partition,
+      ParallelTasks.Cancellation cancellation) {
+    RowSlice rows = partitioning.getRows(partition);
+    int size = rows.size();
+    int[] buckets = new int[bucketCountFor(size)];
+    Arrays.fill(buckets, MultiValueIndex.NOT_FOUND);
+    int[] nextInBucket = new int[size];
+    int[] groupHashes = new int[size];
+    int[] groupFirstRows = new int[size];
+    int[] groupSizes = new int[size + 1];
+    int[] rowGroups = new int[size];
+
+    int groupCount = 0;
+    for (int i = 0; i < size; i++) {
+      int row = rows.get(i);
+      int hash = partitioning.getRowHash(row);
+      int bucket = bucketOf(hash, buckets.length);
+      int group = buckets[bucket];
+      while (group != MultiValueIndex.NOT_FOUND
+          && !(groupHashes[group] == hash
+              && UnorderedMultiValueKey.areRowsEqual(
+                  storages, groupFirstRows[group], storages, row, textFoldingStrategies))) {
+        group = nextInBucket[group];
+      }
+
+      if (group == MultiValueIndex.NOT_FOUND) {
+        group = groupCount++;
+        groupHashes[group] = hash;
+        groupFirstRows[group] = row;
+        nextInBucket[group] = buckets[bucket];
+        buckets[bucket] = group;
+      }
+
+      groupSizes[group + 1]++;
+      rowGroups[i] = group;
+
+      if (i % KeyPartitioning.CANCELLATION_CHECK_INTERVAL == 0) {
+        cancellation.check();
+      }
+    }
+
+    // Lay out the rows of each group next to each other, keeping them in increasing order.
+    int[] groupOffsets = Arrays.copyOf(groupSizes, groupCount + 1);
+    for (int group = 0; group < groupCount; group++) {
+      groupOffsets[group + 1] += groupOffsets[group];
+    }
+    int[] cursors = Arrays.copyOf(groupOffsets, groupCount);
+    int[] groupedRows = new int[size];
+    for (int i = 0; i < size; i++) {
+      groupedRows[cursors[rowGroups[i]]++] = rows.get(i);
+    }
+
+    return new PartitionHashTable(
+        storages,
+        textFoldingStrategies,
+        buckets,
+        nextInBucket,
+        groupHashes,
+        groupOffsets,
+        groupedRows);
+  }
+
+  /** The number of groups. */
+  int size() {
+    return groupOffsets.length - 1;
+  }
+
+  RowSlice getRows(int group) {
+    return new RowSlice(groupedRows, groupOffsets[group], groupOffsets[group + 1]);
+  }
+
+  int getGroupSize(int group) {
+    return groupOffsets[group + 1] - groupOffsets[group];
+  }
+
+  int getFirstRow(int group) {
+    return groupedRows[groupOffsets[group]];
+  }
+
+  /** Checks if the key of the given group contains a missing value. */
+  boolean hasAnyNulls(int group) {
+    return hasAnyNulls(storages, getFirstRow(group));
+  }
+
+  /**
+   * Finds the group whose key is equal to the key of a row of another table.
+   *
+   * @param otherStorages the key storages of the other table, corresponding to the storages of this
+   *     table
+   * @param otherRow the row of the other table
+   * @param otherHash the hash of the key of {@code otherRow}
+   * @return the group number or {@link MultiValueIndex#NOT_FOUND}
+   */
+  int find(Storage<?>[] otherStorages, int otherRow, int otherHash) {
+    int group = buckets[bucketOf(otherHash, buckets.length)];
+    while (group != MultiValueIndex.NOT_FOUND) {
+      if (groupHashes[group] == otherHash
+          && UnorderedMultiValueKey.areRowsEqual(
+              storages, getFirstRow(group), otherStorages, otherRow, textFoldingStrategies)) {
+        return group;
+      }
+      group = nextInBucket[group];
+    }
+    return MultiValueIndex.NOT_FOUND;
+  }
+
+  /** Checks if any field of the key at the given row is missing, in which case it cannot match. */
+  static boolean hasAnyNulls(Storage<?>[] storages, int row) {
+    for (Storage<?> storage : storages) {
+      if (storage.isNothing(row)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int bucketCountFor(int size) {
+    // A power of two keeping the load factor between 0.25 and 0.5.
+    return Integer.highestOneBit(Math.max(1, size)) << 2;
+  }
+
+  /**
+   * The rows of a partition share the upper bits of their scrambled hash, so the lower bits of the
+   * original hash are used to pick the bucket.
+   */
+  private static int bucketOf(int hash, int bucketCount) {
+    return (hash ^ (hash >>> 16)) & (bucketCount - 1);
+  }
+}
@@ -1,11 +1,16 @@
 package org.enso.table.data.table.join.hashing;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Set;
+import org.enso.base.parallel.ParallelTasks;
+import org.enso.base.text.TextFoldingStrategy;
 import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.index.KeyPartitioning;
 import org.enso.table.data.index.MultiValueIndex;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.data.index.UnorderedMultiValueKey;
 import org.enso.table.data.table.Column;
 import org.enso.table.data.table.join.JoinKind;
@@ -52,6 +57,12 @@ public class SimpleHashJoin implements JoinStrategy {
     // The result builder flips the indexes back as you add them
     assert (hashJoinConfig.getLeftNumRows() >= hashJoinConfig.getRightNumRows());
 
+    if (KeyPartitioning.shouldPartition(
+            hashJoinConfig.getLeftEquals(), hashJoinConfig.getLeftNumRows())
+        && KeyPartitioning.canPartition(hashJoinConfig.getRightEquals())) {
+      return joinInParallel(problemAggregator);
+    }
+
     var groupingProblemAggregator = new ColumnAggregatedProblemAggregator(problemAggregator);
     var rightIndex =
         MultiValueIndex.makeUnorderedIndex(
@@ -63,19 +74,21 @@ public class SimpleHashJoin implements JoinStrategy {
         Arrays.stream(hashJoinConfig.getLeftEquals())
             .map(Column::getStorage)
             .toArray(Storage[]::new);
-    Set<UnorderedMultiValueKey> matchedRightKeys = new HashSet<>();
+    UnorderedMultiValueKey.encodeTextStorages(storage);
+    BitSet matchedRightGroups = new BitSet();
 
     Context context = Context.getCurrent();
     for (int leftRow = 0; leftRow < hashJoinConfig.getLeftNumRows(); leftRow++) {
       var leftKey = makeLeftKey(storage, leftRow, groupingProblemAggregator);
       // If any field of the key is null, it cannot match anything.
-      List<Integer> rightRows = leftKey.hasAnyNulls() ? null : rightIndex.get(leftKey);
-      if (rightRows != null) {
+      int rightGroup =
+          leftKey.hasAnyNulls() ? MultiValueIndex.NOT_FOUND : rightIndex.findGroup(leftKey);
+      if (rightGroup != MultiValueIndex.NOT_FOUND) {
         if (joinKind.wantsCommon) {
-          addAll(leftRow, rightRows, resultBuilder);
+          addAll(leftRow, rightIndex.getRows(rightGroup), resultBuilder);
         }
         if (joinKind.wantsRightUnmatched) {
-          matchedRightKeys.add(leftKey);
+          matchedRightGroups.set(rightGroup);
         }
       } else if (joinKind.wantsLeftUnmatched) {
         resultBuilder.addUnmatchedLeftRow(leftRow);
@@ -85,22 +98,178 @@ public class SimpleHashJoin implements JoinStrategy {
     }
 
     if (joinKind.wantsRightUnmatched) {
-      addUnmatchedRightRows(rightIndex, matchedRightKeys);
+      addUnmatchedRightRows(rightIndex, matchedRightGroups);
     }
 
     return resultBuilder.buildAndInvalidate();
   }
 
+  /**
+   * Performs the join on multiple threads.
+   *
+   * <p>Both tables are partitioned by the hashes of their keys, so that matching rows always end up
+   * in partitions with the same number. Each partition of the right table is then hashed and probed
+   * with the rows of the corresponding left partition independently. The matches are first only
+   * counted, so that every left row knows where its pairs go in the result, and then written
+   * directly into the result arrays.
+   *
+   * <p>The pairs are ordered by the left row, like in the sequential variant. The unmatched right
+   * rows come last, grouped by key, with the groups ordered by their first row.
+   */
+  private JoinResult joinInParallel(ProblemAggregator problemAggregator) {
+    Context context = Context.getCurrent();
+    Column[] leftEquals = hashJoinConfig.getLeftEquals();
+    Column[] rightEquals = hashJoinConfig.getRightEquals();
+    List<TextFoldingStrategy> strategies = hashJoinConfig.getTextFoldingStrategies();
+    Storage<?>[] leftStorage =
+        Arrays.stream(leftEquals).map(Column::getStorage).toArray(Storage[]::new);
+    Storage<?>[] rightStorage =
+        Arrays.stream(rightEquals).map(Column::getStorage).toArray(Storage[]::new);
+    int leftSize = hashJoinConfig.getLeftNumRows();
+
+    // The problem aggregators are created in the same order as in the sequential variant.
+    var groupingProblemAggregator = new ColumnAggregatedProblemAggregator(problemAggregator);
+    var rightProblemAggregator = new ColumnAggregatedProblemAggregator(problemAggregator);
+    KeyPartitioning leftPartitioning = KeyPartitioning.build(leftStorage, strategies, leftSize);
+    KeyPartitioning rightPartitioning =
+        KeyPartitioning.build(rightStorage, strategies, hashJoinConfig.getRightNumRows());
+    rightPartitioning.reportFloatingEquality(
+        rightProblemAggregator, columnIx -> rightEquals[columnIx].getName());
+    leftPartitioning.reportFloatingEquality(
+        groupingProblemAggregator, columnIx -> leftEquals[columnIx].getName());
+
+    int partitionCount = leftPartitioning.getPartitionCount();
+    assert partitionCount == rightPartitioning.getPartitionCount();
+    PartitionHashTable[] rightTables = new PartitionHashTable[partitionCount];
+    BitSet[] matchedRightGroups = new BitSet[partitionCount];
+    int[] leftMatches = new int[leftSize];
+    int[] leftOffsets = new int[leftSize];
+    ParallelTasks.run(
+        partitionCount,
+        (partition, cancellation) -> {
+          var rightTable =
+              PartitionHashTable.build(
+                  rightStorage, strategies, rightPartitioning, partition, cancellation);
+          BitSet matched = new BitSet();
+          RowSlice leftRows = leftPartitioning.getRows(partition);
+          for (int i = 0; i < leftRows.size(); i++) {
+            int leftRow = leftRows.get(i);
+            // If any field of the key is null, it cannot match anything.
+            int rightGroup =
+                PartitionHashTable.hasAnyNulls(leftStorage, leftRow)
+                    ? MultiValueIndex.NOT_FOUND
+                    : rightTable.find(leftStorage, leftRow, leftPartitioning.getRowHash(leftRow));
+            leftMatches[leftRow] = rightGroup;
+            if (rightGroup != MultiValueIndex.NOT_FOUND) {
+              leftOffsets[leftRow] = joinKind.wantsCommon ? rightTable.getGroupSize(rightGroup) : 0;
+              matched.set(rightGroup);
+            } else {
+              leftOffsets[leftRow] = joinKind.wantsLeftUnmatched ? 1 : 0;
+            }
+
+            if (i % KeyPartitioning.CANCELLATION_CHECK_INTERVAL == 0) {
+              cancellation.check();
+            }
+          }
+
+          rightTables[partition] = rightTable;
+          matchedRightGroups[partition] = matched;
+        });
+
+    // Turn the per-row pair counts into offsets of the first pair of each left row.
+    int offset = 0;
+    for (int leftRow = 0; leftRow < leftSize; leftRow++) {
+      int count = leftOffsets[leftRow];
+      leftOffsets[leftRow] = offset;
+      offset = Math.addExact(offset, count);
+      context.safepoint();
+    }
+
+    RowSlice[] unmatchedRightGroups =
+        joinKind.wantsRightUnmatched
+            ? findUnmatchedRightGroups(rightTables, matchedRightGroups)
+            : new RowSlice[0];
+    int resultSize = offset;
+    for (RowSlice rows : unmatchedRightGroups) {
+      resultSize = Math.addExact(resultSize, rows.size());
+    }
+
+    int[] bigIndices = new int[resultSize];
+    int[] smallIndices = new int[resultSize];
+    ParallelTasks.run(
+        partitionCount,
+        (partition, cancellation) -> {
+          PartitionHashTable rightTable = rightTables[partition];
+          RowSlice leftRows = leftPartitioning.getRows(partition);
+          for (int i = 0; i < leftRows.size(); i++) {
+            int leftRow = leftRows.get(i);
+            int position = leftOffsets[leftRow];
+            int rightGroup = leftMatches[leftRow];
+            if (rightGroup != MultiValueIndex.NOT_FOUND) {
+              if (joinKind.wantsCommon) {
+                RowSlice rightRows = rightTable.getRows(rightGroup);
+                for (int j = 0; j < rightRows.size(); j++) {
+                  bigIndices[position + j] = leftRow;
+                  smallIndices[position + j] = rightRows.get(j);
+                }
+              }
+            } else if (joinKind.wantsLeftUnmatched) {
+              bigIndices[position] = leftRow;
+              smallIndices[position] = -1;
+            }
+
+            if (i % KeyPartitioning.CANCELLATION_CHECK_INTERVAL == 0) {
+              cancellation.check();
+            }
+          }
+        });
+
+    int position = offset;
+    for (RowSlice rows : unmatchedRightGroups) {
+      for (int i = 0; i < rows.size(); i++) {
+        bigIndices[position] = -1;
+        smallIndices[position] = rows.get(i);
+        position++;
+      }
+      context.safepoint();
+    }
+
+    return resultBuilder.flipLeftAndRight
+        ? new JoinResult(smallIndices, bigIndices, resultSize)
+        : new JoinResult(bigIndices, smallIndices, resultSize);
+  }
+
+  private static RowSlice[] findUnmatchedRightGroups(
+      PartitionHashTable[] rightTables, BitSet[] matchedRightGroups) {
+    Context context = Context.getCurrent();
+    List<RowSlice> unmatched = new ArrayList<>();
+    for (int partition = 0; partition < rightTables.length; partition++) {
+      PartitionHashTable rightTable = rightTables[partition];
+      BitSet matched = matchedRightGroups[partition];
+      for (int rightGroup = 0; rightGroup < rightTable.size(); rightGroup++) {
+        if (!matched.get(rightGroup)) {
+          unmatched.add(rightTable.getRows(rightGroup));
+        }
+        context.safepoint();
+      }
+    }
+    unmatched.sort(Comparator.comparingInt(rows -> rows.get(0)));
+    return unmatched.toArray(new RowSlice[0]);
+  }
+
+  /**
+   * Adds the rows of the right groups that matched nothing, with the groups ordered by their first
+   * row, like in {@link #joinInParallel}.
+   */
   private void addUnmatchedRightRows(
-      MultiValueIndex<UnorderedMultiValueKey> rightIndex,
-      Set<UnorderedMultiValueKey> matchedRightKeys) {
+      MultiValueIndex<UnorderedMultiValueKey> rightIndex, BitSet matchedRightGroups) {
     Context context = Context.getCurrent();
-    for (var rightEntry : rightIndex.mapping().entrySet()) {
-      UnorderedMultiValueKey rightKey = rightEntry.getKey();
-      boolean wasCompletelyUnmatched = !matchedRightKeys.contains(rightKey);
+    for (int rightGroup : rightIndex.groupsInRowOrder()) {
+      boolean wasCompletelyUnmatched = !matchedRightGroups.get(rightGroup);
       if (wasCompletelyUnmatched) {
-        for (int rightRow : rightEntry.getValue()) {
-          resultBuilder.addUnmatchedRightRow(rightRow);
+        RowSlice rightRows = rightIndex.getRows(rightGroup);
+        for (int i = 0; i < rightRows.size(); i++) {
+          resultBuilder.addUnmatchedRightRow(rightRows.get(i));
           context.safepoint();
         }
       }
@@ -121,10 +290,10 @@ public class SimpleHashJoin implements JoinStrategy {
   }
 
   private static void addAll(
-      int leftRow, List<Integer> rightGroup, SimpleHashJoinResultBuilder resultBuilder) {
+      int leftRow, RowSlice rightGroup, SimpleHashJoinResultBuilder resultBuilder) {
     Context context = Context.getCurrent();
-    for (var rightRow : rightGroup) {
-      resultBuilder.addMatchedRowsPair(leftRow, rightRow);
+    for (int i = 0; i < rightGroup.size(); i++) {
+      resultBuilder.addMatchedRowsPair(leftRow, rightGroup.get(i));
       context.safepoint();
     }
     context.safepoint();
@@ -7,6 +7,7 @@ import org.enso.base.text.TextFoldingStrategy;
 import org.enso.table.data.column.builder.Builder;
 import org.enso.table.data.column.storage.Storage;
 import org.enso.table.data.index.MultiValueIndex;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.data.index.UnorderedMultiValueKey;
 import org.enso.table.data.mask.OrderMask;
 import org.enso.table.data.table.Column;
@@ -129,7 +130,7 @@ public class LookupJoin {
 
   private int findLookupRow(int baseRowIx) {
     UnorderedMultiValueKey key = makeTableRowKey(baseRowIx);
-    List<Integer> lookupRowIndices = lookupIndex.get(key);
+    RowSlice lookupRowIndices = lookupIndex.get(key);
     if (lookupRowIndices == null) {
       if (allowUnmatchedRows) {
         return Storage.NOT_FOUND_INDEX;
@@ -4,8 +4,8 @@ import java.util.BitSet;
 import org.enso.base.polyglot.NumericConverter;
 import org.enso.base.statistics.Statistic;
 import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.column.storage.numeric.AbstractLongStorage;
 import org.enso.table.data.column.storage.numeric.DoubleStorage;
-import org.enso.table.data.column.storage.numeric.LongStorage;
 import org.enso.table.data.column.storage.type.IntegerType;
 import org.enso.table.data.table.Column;
 import org.enso.table.data.table.problems.IgnoredNaN;
@@ -130,7 +130,7 @@ public class AddRunning {
 
     @Override
     public Storage<Long> createStorage(long[] result, int size, BitSet isNothing) {
-      return new LongStorage(result, size, isNothing, type);
+      return AbstractLongStorage.makeCompact(result, size, isNothing, type);
     }
   }
 
@@ -6,9 +6,13 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import org.enso.base.arrays.IntArrayBuilder;
+import org.enso.base.parallel.ParallelTasks;
 import org.enso.base.text.TextFoldingStrategy;
 import org.enso.table.data.column.storage.Storage;
-import org.enso.table.data.index.MultiValueKeyBase;
+import org.enso.table.data.index.KeyPartitioning;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.data.index.UnorderedMultiValueKey;
 import org.enso.table.data.table.Column;
 import org.enso.table.problems.ColumnAggregatedProblemAggregator;
@@ -24,24 +28,27 @@ public class Distinct {
       Column[] keyColumns,
       TextFoldingStrategy textFoldingStrategy,
       ProblemAggregator problemAggregator) {
-    ColumnAggregatedProblemAggregator groupingProblemAggregator =
-        new ColumnAggregatedProblemAggregator(problemAggregator);
-    Context context = Context.getCurrent();
     var mask = new BitSet();
     if (keyColumns.length != 0) {
-      HashSet<MultiValueKeyBase> visitedRows = new HashSet<>();
+      if (KeyPartitioning.shouldPartition(keyColumns, tableSize)) {
+        return buildMaskInParallel(
+            keyColumns, textFoldingStrategy, problemAggregator, Distinct::findFirstRows);
+      }
+
+      ColumnAggregatedProblemAggregator groupingProblemAggregator =
+          new ColumnAggregatedProblemAggregator(problemAggregator);
+      Context context = Context.getCurrent();
+      Set<UnorderedMultiValueKey> visitedKeys = new HashSet<>();
       int size = keyColumns[0].getSize();
-      Storage<?>[] storage =
-          Arrays.stream(keyColumns).map(Column::getStorage).toArray(Storage[]::new);
+      Storage<?>[] storage = keyStorages(keyColumns);
       List<TextFoldingStrategy> strategies = ConstantList.make(textFoldingStrategy, storage.length);
       for (int i = 0; i < size; i++) {
         UnorderedMultiValueKey key = new UnorderedMultiValueKey(storage, i, strategies);
         key.checkAndReportFloatingEquality(
             groupingProblemAggregator, columnIx -> keyColumns[columnIx].getName());
 
-        if (!visitedRows.contains(key)) {
+        if (visitedKeys.add(key)) {
           mask.set(i);
-          visitedRows.add(key);
         }
 
         context.safepoint();
@@ -59,27 +66,29 @@ public class Distinct {
       Column[] keyColumns,
       TextFoldingStrategy textFoldingStrategy,
       ProblemAggregator problemAggregator) {
-    ColumnAggregatedProblemAggregator groupingProblemAggregator =
-        new ColumnAggregatedProblemAggregator(problemAggregator);
-    Context context = Context.getCurrent();
     var mask = new BitSet();
     if (keyColumns.length != 0) {
-      Map<MultiValueKeyBase, Integer> visitedRows = new HashMap<>();
+      if (KeyPartitioning.shouldPartition(keyColumns, tableSize)) {
+        return buildMaskInParallel(
+            keyColumns, textFoldingStrategy, problemAggregator, Distinct::findDuplicatedRows);
+      }
+
+      ColumnAggregatedProblemAggregator groupingProblemAggregator =
+          new ColumnAggregatedProblemAggregator(problemAggregator);
+      Context context = Context.getCurrent();
+      Map<UnorderedMultiValueKey, Integer> firstRows = new HashMap<>();
       int size = keyColumns[0].getSize();
-      Storage<?>[] storage =
-          Arrays.stream(keyColumns).map(Column::getStorage).toArray(Storage[]::new);
+      Storage<?>[] storage = keyStorages(keyColumns);
       List<TextFoldingStrategy> strategies = ConstantList.make(textFoldingStrategy, storage.length);
       for (int i = 0; i < size; i++) {
         UnorderedMultiValueKey key = new UnorderedMultiValueKey(storage, i, strategies);
         key.checkAndReportFloatingEquality(
             groupingProblemAggregator, columnIx -> keyColumns[columnIx].getName());
 
-        var keyIndex = visitedRows.get(key);
-        if (keyIndex == null) {
-          visitedRows.put(key, i);
-        } else {
+        Integer firstRow = firstRows.putIfAbsent(key, i);
+        if (firstRow != null) {
+          mask.set(firstRow);
           mask.set(i);
-          mask.set(keyIndex);
         }
 
         context.safepoint();
@@ -91,4 +100,122 @@ public class Distinct {
 
     return mask;
   }
+
+  /** Selects the rows of a single partition that should be included in the mask. */
+  private interface PartitionRowSelector {
+    void selectRows(
+        RowSlice rows,
+        Storage<?>[] storage,
+        List<TextFoldingStrategy> strategies,
+        IntArrayBuilder selectedRows,
+        ParallelTasks.Cancellation cancellation);
+  }
+
+  /**
+   * Builds the mask by processing partitions of rows with equal keys on multiple threads.
+   *
+   * <p>The floating point keys are reported afterwards, in row order, so that the problems are the
+   * same as when grouping sequentially.
+   */
+  private static BitSet buildMaskInParallel(
+      Column[] keyColumns,
+      TextFoldingStrategy textFoldingStrategy,
+      ProblemAggregator problemAggregator,
+      PartitionRowSelector selector) {
+    Context context = Context.getCurrent();
+    Storage<?>[] storage = keyStorages(keyColumns);
+    List<TextFoldingStrategy> strategies =
+        ConstantList.make(textFoldingStrategy, keyColumns.length);
+    ColumnAggregatedProblemAggregator groupingProblemAggregator =
+        new ColumnAggregatedProblemAggregator(problemAggregator);
+
+    int size = keyColumns[0].getSize();
+    KeyPartitioning partitioning = KeyPartitioning.build(storage, strategies, size);
+    int partitionCount = partitioning.getPartitionCount();
+    int[][] partitionSelectedRows = new int[partitionCount][];
+    ParallelTasks.run(
+        partitionCount,
+        (partition, cancellation) -> {
+          IntArrayBuilder selectedRows = new IntArrayBuilder(16);
+          selector.selectRows(
+              partitioning.getRows(partition),
+              storage,
+              strategies,
+              selectedRows,
+              cancellation);
+          partitionSelectedRows[partition] = toArray(selectedRows);
+        });
+
+    partitioning.reportFloatingEquality(
+        groupingProblemAggregator, columnIx -> keyColumns[columnIx].getName());
+
+    var mask = new BitSet(size);
+    for (int[] rows : partitionSelectedRows) {
+      for (int row : rows) {
+        mask.set(row);
+      }
+      context.safepoint();
+    }
+
+    return mask;
+  }
+
+  private static void findFirstRows(
+      RowSlice rows,
+      Storage<?>[] storage,
+      List<TextFoldingStrategy> strategies,
+      IntArrayBuilder selectedRows,
+      ParallelTasks.Cancellation cancellation) {
+    Set<UnorderedMultiValueKey> visitedKeys = new HashSet<>();
+    for (int i = 0; i < rows.size(); i++) {
+      int row = rows.get(i);
+      UnorderedMultiValueKey key = new UnorderedMultiValueKey(storage, row, strategies);
+      if (visitedKeys.add(key)) {
+        selectedRows.add(row);
+      }
+
+      if (i % KeyPartitioning.CANCELLATION_CHECK_INTERVAL == 0) {
+        cancellation.check();
+      }
+    }
+  }
+
+  private static void findDuplicatedRows(
+      RowSlice rows,
+      Storage<?>[] storage,
+      List<TextFoldingStrategy> strategies,
+      IntArrayBuilder selectedRows,
+      ParallelTasks.Cancellation cancellation) {
+    Map<UnorderedMultiValueKey, Integer> firstRows = new HashMap<>();
+    for (int i = 0; i < rows.size(); i++) {
+      int row = rows.get(i);
+      UnorderedMultiValueKey key = new UnorderedMultiValueKey(storage, row, strategies);
+      Integer firstRow = firstRows.putIfAbsent(key, row);
+      if (firstRow != null) {
+        // The first row of a key is added again for each of its duplicates, the mask ignores that.
+        selectedRows.add(firstRow);
+        selectedRows.add(row);
+      }
+
+      if (i % KeyPartitioning.CANCELLATION_CHECK_INTERVAL == 0) {
+        cancellation.check();
+      }
+    }
+  }
+
+  /**
+   * Gets the storages of the key columns, dictionary-encoding the text ones so that their keys are
+   * cheaper to hash and compare.
+   */
+  private static Storage<?>[] keyStorages(Column[] keyColumns) {
+    Storage<?>[] storage =
+        Arrays.stream(keyColumns).map(Column::getStorage).toArray(Storage[]::new);
+    UnorderedMultiValueKey.encodeTextStorages(storage);
+    return storage;
+  }
+
+  private static int[] toArray(IntArrayBuilder builder) {
+    int length = builder.getLength();
+    return Arrays.copyOf(builder.unsafeGetResultAndInvalidate(), length);
+  }
 }
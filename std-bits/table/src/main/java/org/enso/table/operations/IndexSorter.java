@@ -0,0 +1,138 @@
+package org.enso.table.operations;
+
+/**
+ * Stable sorts of row indices that work on primitive arrays, avoiding boxing the indices and the
+ * values being compared.
+ */
+final class IndexSorter {
+  /** Compares two row indices. */
+  @FunctionalInterface
+  interface IndexComparator {
+    int compare(int i, int j);
+  }
+
+  /** Runs shorter than this are sorted with insertion sort. */
+  private static final int INSERTION_SORT_THRESHOLD = 32;
+
+  private static final int RADIX_BITS = 8;
+  private static final int RADIX = 1 << RADIX_BITS;
+  private static final int RADIX_PASSES = Long.SIZE / RADIX_BITS;
+
+  private IndexSorter() {}
+
+  /**
+   * Sorts the row indices by their keys, compared as unsigned numbers.
+   *
+   * <p>It is a stable LSD radix sort, skipping the digits that are the same in all keys - so keys
+   * from a small range take only a few passes.
+   *
+   * @param positions the row indices to sort, in place
+   * @param keys the keys of all rows, indexed by the row index
+   */
+  static void radixSort(int[] positions, long[] keys) {
+    int n = positions.length;
+    if (n < 2) {
+      return;
+    }
+
+    long[] sortedKeys = new long[n];
+    for (int i = 0; i < n; i++) {
+      sortedKeys[i] = keys[positions[i]];
+    }
+
+    int[][] counts = new int[RADIX_PASSES][RADIX];
+    for (long key : sortedKeys) {
+      for (int pass = 0; pass < RADIX_PASSES; pass++) {
+        counts[pass][digit(key, pass)]++;
+      }
+    }
+
+    long[] keyBuffer = null;
+    int[] positionBuffer = null;
+    for (int pass = 0; pass < RADIX_PASSES; pass++) {
+      int[] count = counts[pass];
+      if (count[digit(sortedKeys[0], pass)] == n) {
+        continue;
+      }
+
+      if (keyBuffer == null) {
+        keyBuffer = new long[n];
+        positionBuffer = new int[n];
+      }
+
+      int offset = 0;
+      for (int d = 0; d < RADIX; d++) {
+        int c = count[d];
+        count[d] = offset;
+        offset += c;
+      }
+
+      for (int i = 0; i < n; i++) {
+        int target = count[digit(sortedKeys[i], pass)]++;
+        keyBuffer[target] = sortedKeys[i];
+        positionBuffer[target] = positions[i];
+      }
+
+      long[] swappedKeys = sortedKeys;
+      sortedKeys = keyBuffer;
+      keyBuffer = swappedKeys;
+      System.arraycopy(positionBuffer, 0, positions, 0, n);
+    }
+  }
+
+  private static int digit(long key, int pass) {
+    return (int) (key >>> (pass * RADIX_BITS)) & (RADIX - 1);
+  }
+
+  /**
+   * Sorts the row indices with a stable merge sort.
+   *
+   * @param positions the row indices to sort, in place
+   * @param comparator the comparator of the row indices
+   */
+  static void mergeSort(int[] positions, IndexComparator comparator) {
+    int[] buffer = positions.clone();
+    mergeSort(buffer, positions, 0, positions.length, comparator);
+  }
+
+  /** Sorts the range of {@code target}, using {@code source} holding the same values as scratch. */
+  private static void mergeSort(
+      int[] source, int[] target, int from, int to, IndexComparator comparator) {
+    if (to - from <= INSERTION_SORT_THRESHOLD) {
+      insertionSort(target, from, to, comparator);
+      return;
+    }
+
+    int middle = (from + to) >>> 1;
+    mergeSort(target, source, from, middle, comparator);
+    mergeSort(target, source, middle, to, comparator);
+
+    if (comparator.compare(source[middle - 1], source[middle]) <= 0) {
+      System.arraycopy(source, from, target, from, to - from);
+      return;
+    }
+
+    int left = from;
+    int right = middle;
+    for (int i = from; i < to; i++) {
+      if (right >= to
+          || (left < middle && comparator.compare(source[left], source[right]) <= 0)) {
+        target[i] = source[left++];
+      } else {
+        target[i] = source[right++];
+      }
+    }
+  }
+
+  private static void insertionSort(int[] positions, int from, int to, IndexComparator comparator) {
+    for (int i = from + 1; i < to; i++) {
+      int current = positions[i];
+      int j = i - 1;
+      while (j >= from && comparator.compare(positions[j], current) > 0) {
+        positions[j + 1] = positions[j];
+        j--;
+      }
+      positions[j + 1] = current;
+    }
+  }
+}
@@ -1,12 +1,20 @@
 package org.enso.table.operations;
 
+import java.time.LocalDate;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.IntStream;
 import org.enso.base.ObjectComparator;
+import org.enso.table.data.column.storage.BoolStorage;
 import org.enso.table.data.column.storage.Storage;
+import org.enso.table.data.column.storage.StringDictionary;
+import org.enso.table.data.column.storage.StringStorage;
+import org.enso.table.data.column.storage.datetime.DateStorage;
+import org.enso.table.data.column.storage.numeric.AbstractLongStorage;
+import org.enso.table.data.column.storage.numeric.DoubleStorage;
 import org.enso.table.data.mask.OrderMask;
 import org.enso.table.data.table.Column;
+import org.enso.table.operations.IndexSorter.IndexComparator;
 
 /** Builds an order mask resulting in sorting storages according to specified rules. */
 public class OrderBuilder {
@@ -37,6 +45,10 @@ public class OrderBuilder {
      */
     public Comparator<Integer> toComparator() {
       final Storage<?> storage = column.getStorage();
+      if (storage instanceof StringStorage stringStorage && stringStorage.getDictionary() != null) {
+        return toDictionaryComparator(stringStorage.getDictionary());
+      }
+
       Comparator<Object> itemCmp = ObjectComparator.DEFAULT;
 
       if (!ascending) {
@@ -52,11 +64,142 @@ public class OrderBuilder {
       final Comparator<Object> cmp = itemCmp;
       return (i, j) -> cmp.compare(storage.getItemBoxed(i), storage.getItemBoxed(j));
     }
+
+    /**
+     * Builds a comparator for a dictionary-encoded text column.
+     *
+     * <p>The distinct values are sorted once, and then the rows are compared by the ranks of their
+     * values, avoiding the text comparison for every pair of rows.
+     */
+    private Comparator<Integer> toDictionaryComparator(StringDictionary dictionary) {
+      final int[] ranks = dictionary.computeRanks(ObjectComparator.DEFAULT);
+      final int direction = ascending ? 1 : -1;
+      final int missingOrder = missingLast ? 1 : -1;
+      return (i, j) -> {
+        int code1 = dictionary.getCode(i);
+        int code2 = dictionary.getCode(j);
+        if (code1 == StringDictionary.NOTHING_CODE || code2 == StringDictionary.NOTHING_CODE) {
+          if (code1 == code2) {
+            return 0;
+          }
+          return code1 == StringDictionary.NOTHING_CODE ? missingOrder : -missingOrder;
+        }
+
+        return direction * Integer.compare(ranks[code1], ranks[code2]);
+      };
+    }
+
+    /**
+     * Computes the sort keys of the rows, if the column holds values that can be ordered as
+     * primitive numbers.
+     *
+     * <p>The keys are encoded so that comparing them as unsigned numbers gives the ordering of the
+     * values in the requested direction - e.g. the sign bit of the integers is flipped, so that the
+     * negative ones come first, and descending keys are negated. The keys of missing values are
+     * unspecified.
+     *
+     * @return the keys, or {@code null} if the column does not support primitive keys
+     */
+    private long[] computeSortKeys() {
+      Storage<?> storage = column.getStorage();
+      int size = storage.size();
+      long[] keys = new long[size];
+      switch (storage) {
+        case AbstractLongStorage longStorage -> {
+          for (int i = 0; i < size; i++) {
+            if (!longStorage.isNothing(i)) {
+              keys[i] = longStorage.getItem(i) ^ Long.MIN_VALUE;
+            }
+          }
+        }
+        case DoubleStorage doubleStorage -> {
+          for (int i = 0; i < size; i++) {
+            if (!doubleStorage.isNothing(i)) {
+              keys[i] = sortableDoubleBits(doubleStorage.getItemAsDouble(i));
+            }
+          }
+        }
+        case BoolStorage boolStorage -> {
+          for (int i = 0; i < size; i++) {
+            if (!boolStorage.isNothing(i)) {
+              keys[i] = boolStorage.getItem(i) ? 1 : 0;
+            }
+          }
+        }
+        case DateStorage dateStorage -> {
+          for (int i = 0; i < size; i++) {
+            LocalDate date = dateStorage.getItemBoxed(i);
+            if (date != null) {
+              keys[i] = date.toEpochDay() ^ Long.MIN_VALUE;
+            }
+          }
+        }
+        case StringStorage stringStorage when stringStorage.getDictionary() != null -> {
+          StringDictionary dictionary = stringStorage.getDictionary();
+          int[] ranks = dictionary.computeRanks(ObjectComparator.DEFAULT);
+          for (int i = 0; i < size; i++) {
+            int code = dictionary.getCode(i);
+            if (code != StringDictionary.NOTHING_CODE) {
+              keys[i] = ranks[code];
+            }
+          }
+        }
+        default -> {
+          return null;
+        }
+      }
+
+      if (!ascending) {
+        for (int i = 0; i < size; i++) {
+          keys[i] = ~keys[i];
+        }
+      }
+      return keys;
+    }
+
+    /**
+     * Maps a double to a key ordered the same way as {@link Double#compare}, when compared as an
+     * unsigned number - including the negative zero and NaN.
+     */
+    private static long sortableDoubleBits(double value) {
+      long bits = Double.doubleToLongBits(value);
+      return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    /**
+     * Builds a comparator of row indices, comparing the primitive keys if they are available, or
+     * the boxed values otherwise.
+     */
+    private IndexComparator toIndexComparator(long[] keys) {
+      Storage<?> storage = column.getStorage();
+      if (keys == null) {
+        Comparator<Integer> comparator = toComparator();
+        return comparator::compare;
+      }
+
+      final int missingOrder = missingLast ? 1 : -1;
+      return (i, j) -> {
+        boolean isNothing1 = storage.isNothing(i);
+        boolean isNothing2 = storage.isNothing(j);
+        if (isNothing1 || isNothing2) {
+          if (isNothing1 == isNothing2) {
+            return 0;
+          }
+          return isNothing1 ? missingOrder : -missingOrder;
+        }
+
+        return Long.compareUnsigned(keys[i], keys[j]);
+      };
+    }
   }
 
   /**
    * Builds an order mask based on the specified set of rules.
    *
+   * <p>Columns of integers, floats, booleans, dates and dictionary-encoded text are sorted by
+   * primitive keys - with a radix sort if there is a single such rule, or a merge sort comparing
+   * the keys of each rule in turn otherwise.
+   *
    * @param rules a list of rules that should be used in generating the ordering. The rules are
    *     treated hierarchically, i.e. the first rule is applied first, all the groups of equal
    *     elements are then internally reordered according to the second rule etc. The ordering is
@@ -66,11 +209,64 @@ public class OrderBuilder {
    */
   public static OrderMask buildOrderMask(List<OrderRule> rules) {
     int size = rules.get(0).column.getSize();
-    Comparator<Integer> comparator =
-        rules.stream().map(OrderRule::toComparator).reduce(Comparator::thenComparing).get();
+    long[][] keys = new long[rules.size()][];
+    for (int i = 0; i < rules.size(); i++) {
+      keys[i] = rules.get(i).computeSortKeys();
+    }
+
+    if (rules.size() == 1 && keys[0] != null) {
+      return OrderMask.fromArray(sortByKeys(rules.get(0), keys[0], size));
+    }
 
-    int[] positions =
-        IntStream.range(0, size).boxed().sorted(comparator).mapToInt(i -> i).toArray();
+    IndexComparator[] comparators = new IndexComparator[rules.size()];
+    for (int i = 0; i < rules.size(); i++) {
+      comparators[i] = rules.get(i).toIndexComparator(keys[i]);
+    }
+
+    int[] positions = IntStream.range(0, size).toArray();
+    IndexSorter.mergeSort(
+        positions,
+        (i, j) -> {
+          for (IndexComparator comparator : comparators) {
+            int result = comparator.compare(i, j);
+            if (result != 0) {
+              return result;
+            }
+          }
+          return 0;
+        });
     return OrderMask.fromArray(positions);
   }
+
+  /**
+   * Sorts the rows by the primitive keys of a single rule.
+   *
+   * <p>The missing values are all equal, so they are just moved to the start or the end in their
+   * original order, and the other rows are radix-sorted by their keys.
+   */
+  private static int[] sortByKeys(OrderRule rule, long[] keys, int size) {
+    Storage<?> storage = rule.column.getStorage();
+    int missingCount = 0;
+    for (int i = 0; i < size; i++) {
+      if (storage.isNothing(i)) {
+        missingCount++;
+      }
+    }
+
+    int[] present = new int[size - missingCount];
+    int[] positions = new int[size];
+    int missingOffset = rule.missingLast ? present.length : 0;
+    int presentIx = 0;
+    for (int i = 0; i < size; i++) {
+      if (storage.isNothing(i)) {
+        positions[missingOffset++] = i;
+      } else {
+        present[presentIx++] = i;
+      }
+    }
+
+    IndexSorter.radixSort(present, keys);
+    System.arraycopy(present, 0, positions, rule.missingLast ? 0 : missingCount, present.length);
+    return positions;
+  }
 }
@@ -10,6 +10,7 @@ import org.enso.base.text.TextFoldingStrategy;
 import org.enso.table.data.column.storage.Storage;
 import org.enso.table.data.index.MultiValueIndex;
 import org.enso.table.data.index.OrderedMultiValueKey;
+import org.enso.table.data.index.RowSlice;
 import org.enso.table.data.index.UnorderedMultiValueKey;
 import org.enso.table.data.table.Column;
 import org.enso.table.problems.ColumnAggregatedProblemAggregator;
@@ -151,12 +152,12 @@ class GroupingOrderingRunning<T> extends RunningLooper<T> {
             (int) numRows,
             TextFoldingStrategy.unicodeNormalizedFold,
             problemAggregator);
-    for (var entry : groupIndex.mapping().entrySet()) {
-      List<Integer> indices = entry.getValue();
+    for (int group = 0; group < groupIndex.size(); group++) {
+      RowSlice indices = groupIndex.getRows(group);
       List<OrderedMultiValueKey> orderingKeys =
           new ArrayList<>(
               indices.stream()
-                  .map(i -> new OrderedMultiValueKey(orderingStorages, i, directions))
+                  .mapToObj(i -> new OrderedMultiValueKey(orderingStorages, i, directions))
                   .toList());
       orderingKeys.sort(null);
       var it = runningStatistic.getNewIterator();
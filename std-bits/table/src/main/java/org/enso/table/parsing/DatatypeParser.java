@@ -24,4 +24,24 @@ public abstract class DatatypeParser {
    */
   public abstract Storage<?> parseColumn(
       Storage<String> sourceStorage, CommonParseProblemAggregator problemAggregator);
+
+  /**
+   * Parses a column like {@link #parseColumn}, also returning the parser that should be used for
+   * further parts of the same column, so that all of them get the same type.
+   *
+   * <p>By default, the parser does not depend on the values, so it is used for the further parts
+   * as-is.
+   */
+  public ParsedColumn parseColumnFixingType(
+      Storage<String> sourceStorage, CommonParseProblemAggregator problemAggregator) {
+    return new ParsedColumn(parseColumn(sourceStorage, problemAggregator), this);
+  }
+
+  /**
+   * The result of {@link #parseColumnFixingType}.
+   *
+   * @param storage the parsed column
+   * @param parserForRest the parser to use for the further parts of the column
+   */
+  public record ParsedColumn(Storage<?> storage, DatatypeParser parserForRest) {}
 }
@@ -42,11 +42,23 @@ public class TypeInferringParser extends DatatypeParser {
   @Override
   public Storage<?> parseColumn(
       Storage<String> sourceStorage, CommonParseProblemAggregator problemAggregator) {
+    return parseColumnFixingType(sourceStorage, problemAggregator).storage();
+  }
+
+  /**
+   * Parses the column, returning the parser that succeeded as the one to use for the further parts
+   * of the column.
+   *
+   * <p>If the column has no values, its type cannot be inferred yet, so this parser is returned.
+   */
+  @Override
+  public ParsedColumn parseColumnFixingType(
+      Storage<String> sourceStorage, CommonParseProblemAggregator problemAggregator) {
     // If there are no values, the Auto parser would guess some random type (the first one that is
     // checked). Instead, we just return the empty column unchanged.
     boolean hasNoValues = (sourceStorage.size() == 0) || CountNothing.allNothing(sourceStorage);
     if (hasNoValues) {
-      return fallbackParser.parseColumn(sourceStorage, problemAggregator);
+      return new ParsedColumn(fallbackParser.parseColumn(sourceStorage, problemAggregator), this);
     }
 
     Context context = Context.getCurrent();
@@ -73,9 +85,10 @@ public class TypeInferringParser extends DatatypeParser {
         context.safepoint();
       }
 
-      return builder.seal();
+      return new ParsedColumn(builder.seal(), parser);
     }
 
-    return fallbackParser.parseColumn(sourceStorage, problemAggregator);
+    return new ParsedColumn(
+        fallbackParser.parseColumn(sourceStorage, problemAggregator), fallbackParser);
   }
 }
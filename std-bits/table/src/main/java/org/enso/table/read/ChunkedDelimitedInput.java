@@ -0,0 +1,69 @@
+package org.enso.table.read;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A delimited input split into chunks of whole records, so that they can be parsed independently.
+ *
+ * <p>The chunks are found with a {@link RecordBoundaryScanner}. If it cannot determine the record
+ * boundaries in some part of the input, the splitting stops and the rest of the input has to be
+ * parsed in one go, see {@link #remainder()}.
+ */
+interface ChunkedDelimitedInput {
+  /** A piece of the input containing whole records. */
+  interface Chunk {
+    /** The number of lines in the input before this chunk. */
+    long precedingLines();
+
+    /**
+     * Returns the text of the chunk.
+     *
+     * <p>It may be called on a worker thread, so it does not report any problems. Instead, it
+     * returns the positions of the characters that could not be decoded.
+     */
+    DecodedText decode();
+  }
+
+  /**
+   * The text of a chunk.
+   *
+   * @param text the array holding the characters of the chunk
+   * @param length the number of characters in {@code text} that belong to the chunk
+   * @param invalidCharacterPositions the positions in the input of the characters that could not be
+   *     decoded, in increasing order
+   */
+  record DecodedText(char[] text, int length, long[] invalidCharacterPositions) {}
+
+  /**
+   * The line separator used to find the record boundaries.
+   *
+   * <p>It may be {@code null} if it could not be detected, in which case no splitting is done.
+   */
+  String getLineSeparator();
+
+  /**
+   * Returns the next chunk, containing at least {@code minRecords} records, or the rest of the
+   * input if it has fewer.
+   *
+   * <p>It returns {@code null} once the whole input has been returned or when splitting has been
+   * stopped - in the latter case, the rest of the input is available from {@link #remainder()}.
+   */
+  Chunk nextChunk(long minRecords) throws IOException;
+
+  /** Checks if the whole input has already been returned in the chunks. */
+  boolean isAtEnd();
+
+  /** Checks if the input could not be split up to its end, so there is a {@link #remainder()}. */
+  boolean wasSplittingStopped();
+
+  /**
+   * Returns the part of the input that was not returned in the chunks.
+   *
+   * <p>It should only be used once {@link #nextChunk} returned {@code null}.
+   */
+  Reader remainder() throws IOException;
+
+  /** The number of lines in the input preceding the {@link #remainder()}. */
+  long getRemainderPrecedingLines();
+}
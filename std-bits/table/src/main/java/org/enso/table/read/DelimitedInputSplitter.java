@@ -0,0 +1,160 @@
+package org.enso.table.read;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * Splits a delimited input read from a {@link Reader} into chunks of whole records.
+ *
+ * <p>The input is read into a buffer holding the current chunk, which grows if a chunk does not
+ * fit.
+ */
+final class DelimitedInputSplitter implements ChunkedDelimitedInput {
+  private static final long[] NO_POSITIONS = new long[0];
+
+  private record TextChunk(char[] text, long precedingLines) implements Chunk {
+    @Override
+    public DecodedText decode() {
+      return new DecodedText(text, text.length, NO_POSITIONS);
+    }
+  }
+
+  private final Reader input;
+  private final int chunkSize;
+  private final String lineSeparator;
+  private final RecordBoundaryScanner scanner;
+
+  private char[] buffer;
+  private int chunkStart = 0;
+  private int scanPosition = 0;
+  private int end = 0;
+  private boolean reachedEndOfInput = false;
+  private boolean isSplitting;
+  private long linesBeforeChunk = 0;
+
+  /**
+   * Creates a new splitter.
+   *
+   * @param lineSeparator the line separator, or {@code null} to detect it from the input
+   * @param chunkSize the minimum number of characters in a chunk; chunks end at the first record
+   *     boundary after that
+   */
+  DelimitedInputSplitter(
+      Reader input,
+      char delimiter,
+      char quoteCharacter,
+      char commentCharacter,
+      String lineSeparator,
+      int chunkSize)
+      throws IOException {
+    this.input = input;
+    this.chunkSize = chunkSize;
+    this.buffer = new char[chunkSize];
+
+    fill();
+    this.lineSeparator =
+        lineSeparator == null
+            ? RecordBoundaryScanner.detectLineSeparator(CharBuffer.wrap(buffer, 0, end))
+            : lineSeparator;
+    this.isSplitting = RecordBoundaryScanner.isSupportedLineSeparator(this.lineSeparator);
+    this.scanner =
+        isSplitting
+            ? new RecordBoundaryScanner(
+                delimiter, quoteCharacter, commentCharacter, this.lineSeparator)
+            : null;
+  }
+
+  @Override
+  public String getLineSeparator() {
+    return lineSeparator;
+  }
+
+  @Override
+  public Chunk nextChunk(long minRecords) throws IOException {
+    if (!isSplitting) {
+      return null;
+    }
+
+    long records = 0;
+    while (true) {
+      while (scanPosition < end) {
+        int result = scanner.feed(buffer[scanPosition++]);
+        if (result == RecordBoundaryScanner.UNCERTAIN) {
+          isSplitting = false;
+          return null;
+        } else if (result == RecordBoundaryScanner.RECORD_END) {
+          records++;
+          if (records >= minRecords && scanPosition - chunkStart >= chunkSize) {
+            return cutChunk();
+          }
+        }
+      }
+
+      if (reachedEndOfInput) {
+        return chunkStart == end ? null : cutChunk();
+      }
+
+      fill();
+    }
+  }
+
+  @Override
+  public boolean isAtEnd() {
+    return isSplitting && reachedEndOfInput && chunkStart == end;
+  }
+
+  @Override
+  public boolean wasSplittingStopped() {
+    return !isSplitting;
+  }
+
+  @Override
+  public Reader remainder() throws IOException {
+    int length = end - chunkStart;
+    PushbackReader reader = new PushbackReader(input, Math.max(1, length));
+    reader.unread(buffer, chunkStart, length);
+    return reader;
+  }
+
+  @Override
+  public long getRemainderPrecedingLines() {
+    return linesBeforeChunk;
+  }
+
+  private Chunk cutChunk() {
+    char[] text = new char[scanPosition - chunkStart];
+    System.arraycopy(buffer, chunkStart, text, 0, text.length);
+    Chunk chunk = new TextChunk(text, linesBeforeChunk);
+    chunkStart = scanPosition;
+    linesBeforeChunk = scanner.getLineCount();
+    return chunk;
+  }
+
+  /** Reads more of the input into the buffer, making space for it if needed. */
+  private void fill() throws IOException {
+    if (end == buffer.length) {
+      if (end - chunkStart <= buffer.length / 2) {
+        System.arraycopy(buffer, chunkStart, buffer, 0, end - chunkStart);
+        scanPosition -= chunkStart;
+        end -= chunkStart;
+        chunkStart = 0;
+      } else {
+        char[] newBuffer = new char[buffer.length * 2];
+        System.arraycopy(buffer, 0, newBuffer, 0, end);
+        buffer = newBuffer;
+      }
+    }
+
+    // Try to fill the buffer completely, so that the chunks are not cut short by small reads.
+    while (end < buffer.length) {
+      int read = input.read(buffer, end, buffer.length - end);
+      if (read < 0) {
+        reachedEndOfInput = true;
+        return;
+      }
+      end += read;
+    }
+  }
+}
@@ -3,13 +3,21 @@ package org.enso.table.read;
 import com.univocity.parsers.csv.CsvFormat;
 import com.univocity.parsers.csv.CsvParser;
 import com.univocity.parsers.csv.CsvParserSettings;
+import java.io.CharArrayReader;
+import java.io.IOException;
 import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 import java.util.Queue;
 import java.util.stream.Collectors;
+import org.enso.base.Environment_Utils;
+import org.enso.base.encoding.DecodingProblemAggregator;
+import org.enso.base.parallel.ParallelTasks;
 import org.enso.table.data.column.builder.StringBuilder;
 import org.enso.table.data.column.storage.Storage;
 import org.enso.table.data.column.storage.type.TextType;
@@ -49,14 +57,27 @@ public class DelimitedReader {
   private static final String COLUMN_NAME = "Column";
   private static final char noQuoteCharacter = '\0';
   private static final long invalidRowsLimit = 10;
+
+  /**
+   * The approximate number of characters parsed by a single task when reading in parallel.
+   *
+   * <p>Inputs that fit in a single chunk are read sequentially.
+   */
+  public static final int DEFAULT_PARALLEL_CHUNK_SIZE = 1 << 22;
+
+  /** The environment variable overriding {@link #DEFAULT_PARALLEL_CHUNK_SIZE}. */
+  public static final String PARALLEL_CHUNK_SIZE_ENV_VAR = "ENSO_TABLE_DELIMITED_CHUNK_SIZE";
+
   private final char delimiter;
   private final char quoteCharacter;
   private final char quoteEscapeCharacter;
+  private final char commentCharacter;
   private final HeaderBehavior headerBehavior;
   private final long skipRows;
   private final long rowLimit;
   private final int maxColumns;
-  private final CsvParser parser;
+  private final int parallelChunkSize;
+  private CsvParser parser;
   private final DatatypeParser valueParser;
   private final TypeInferringParser cellTypeGuesser;
   private final boolean keepInvalidRows;
@@ -67,9 +88,21 @@ public class DelimitedReader {
   /** The line number of the start of the current row in the input file. */
   private long currentLine = 0;
 
+  /** The number of lines in the input before the part that is being parsed by {@code parser}. */
+  private long precedingLines = 0;
+
   private StringBuilder[] builders = null;
+
+  /**
+   * The parsers of the individual columns, if reading in batches, so that each batch gets the same
+   * types as the first one.
+   */
+  private DatatypeParser[] columnParsers = null;
   private final DelimitedReaderProblemAggregator problemAggregator;
 
+  /** Receives the decoding problems, if the reader is decoding the input itself. */
+  private DecodingProblemAggregator decodingProblemAggregator = null;
+
   /**
    * Creates a new reader.
    *
@@ -165,6 +198,12 @@ public class DelimitedReader {
     this.skipRows = skipRows;
     this.rowLimit = rowLimit;
     this.maxColumns = maxColumns;
+    this.parallelChunkSize =
+        Math.clamp(
+            Environment_Utils.getNonNegativeLong(
+                PARALLEL_CHUNK_SIZE_ENV_VAR, DEFAULT_PARALLEL_CHUNK_SIZE),
+            1,
+            Integer.MAX_VALUE);
     this.keepInvalidRows = keepInvalidRows;
 
     this.valueParser = valueParser;
@@ -173,11 +212,30 @@ public class DelimitedReader {
     this.problemAggregator =
         new DelimitedReaderProblemAggregator(
             problemAggregator, warningsAsErrors, quoteCharacter, invalidRowsLimit);
-    this.parser = setupCsvParser(commentCharacter);
+
+    if (commentCharacter == null) {
+      this.commentCharacter = COMMENT_CHARACTER;
+    } else {
+      if (commentCharacter.length() != 1) {
+        throw new IllegalArgumentException(
+            "The comment character should be set to Nothing or consist of exactly one character"
+                + " (codepoint).");
+      }
+
+      this.commentCharacter = commentCharacter.charAt(0);
+    }
+
+    this.parser = setupCsvParser(skipRows, true);
   }
 
-  /** Creates a {@code CsvParser} according to the settings specified at construction. */
-  private CsvParser setupCsvParser(String commentCharacter) {
+  /**
+   * Creates a {@code CsvParser} according to the settings specified at construction.
+   *
+   * @param rowsToSkip the number of rows to skip at the start of the input
+   * @param readInputOnSeparateThread whether the parser should read the input on a separate thread;
+   *     it is not worth it for inputs that are already in memory
+   */
+  private CsvParser setupCsvParser(long rowsToSkip, boolean readInputOnSeparateThread) {
     CsvParserSettings settings = new CsvParserSettings();
     settings.setHeaderExtractionEnabled(false);
     CsvFormat format = new CsvFormat();
@@ -201,20 +259,10 @@ public class DelimitedReader {
       format.setLineSeparator(newlineSetting);
     }
 
-    if (commentCharacter == null) {
-      format.setComment(COMMENT_CHARACTER);
-    } else {
-      if (commentCharacter.length() != 1) {
-        throw new IllegalArgumentException(
-            "The comment character should be set to Nothing or consist of exactly one character"
-                + " (codepoint).");
-      }
-
-      format.setComment(commentCharacter.charAt(0));
-    }
-
+    format.setComment(commentCharacter);
     settings.setFormat(format);
-    settings.setNumberOfRowsToSkip(skipRows);
+    settings.setNumberOfRowsToSkip(rowsToSkip);
+    settings.setReadInputOnSeparateThread(readInputOnSeparateThread);
 
     return new CsvParser(settings);
   }
@@ -233,7 +281,7 @@ public class DelimitedReader {
    * instead.
    */
   private Row loadNextRow() {
-    long line = parser.getContext().currentLine() + 1;
+    long line = precedingLines + parser.getContext().currentLine() + 1;
     String[] cells = parser.parseNext();
     if (cells == null) return null;
     return new Row(line, cells);
@@ -438,26 +486,27 @@ public class DelimitedReader {
   /**
    * Reads the input stream and returns a Table.
    *
+   * <p>If the input is large enough and more threads are available, the rows are parsed in
+   * parallel, see {@link #readInParallel}.
+   *
    * <p>It should only be called once.
    */
-  public Table read(Reader input) {
+  public Table read(Reader input) throws IOException {
     markUsed();
     Context context = Context.getCurrent();
     try {
-      parser.beginParsing(input);
-      detectHeaders();
-      int columnCount = getColumnCount();
-      if (columnCount == 0) {
-        throw new EmptyFileException();
-      }
-
-      initBuilders(columnCount);
-      while (canFitMoreRows()) {
-        var currentRow = readNextRow();
-        if (currentRow == null) break;
-        appendRow(currentRow);
-
-        context.safepoint();
+      if (canReadInParallel()) {
+        readInParallel(
+            new DelimitedInputSplitter(
+                input,
+                delimiter,
+                quoteCharacter,
+                commentCharacter,
+                newlineSetting,
+                parallelChunkSize),
+            context);
+      } else {
+        readSequentially(input, context);
       }
     } finally {
       // We ensure that parsing is stopped, even if the parsing has been interrupted.
@@ -465,6 +514,62 @@ public class DelimitedReader {
       parser.stopParsing();
     }
 
+    return buildTable(context);
+  }
+
+  /**
+   * Checks if the given local file can be read with {@link #readMappedFile} and chooses the
+   * encoding to read it with.
+   *
+   * @param requestedCharset the encoding requested by the user, or {@code null} to detect it
+   * @return the encoding to use, or {@code null} if the file should be read as a stream
+   */
+  public static Charset chooseMappedFileCharset(String path, Charset requestedCharset)
+      throws IOException {
+    return MappedDelimitedInput.chooseCharset(Path.of(path), requestedCharset);
+  }
+
+  /**
+   * Reads a local file by mapping it into memory, and returns a Table.
+   *
+   * <p>The record boundaries are found directly in the mapped bytes and each chunk of records is
+   * decoded only by the thread that parses it, see {@link MappedDelimitedInput}. That avoids
+   * copying the file through the stream buffers and decoding it on a single thread.
+   *
+   * <p>It should only be called once, and only with an encoding returned by {@link
+   * #chooseMappedFileCharset}.
+   *
+   * @param decodingProblemAggregator the aggregator for the characters that could not be decoded
+   */
+  public Table readMappedFile(
+      String path, Charset charset, DecodingProblemAggregator decodingProblemAggregator)
+      throws IOException {
+    markUsed();
+    Context context = Context.getCurrent();
+    this.decodingProblemAggregator = decodingProblemAggregator;
+    // The decoding problems are reported from the thread reading the input, so it must be the
+    // main thread.
+    parser = setupCsvParser(skipRows, false);
+    try (MappedDelimitedInput input =
+        new MappedDelimitedInput(
+            Path.of(path),
+            charset,
+            delimiter,
+            quoteCharacter,
+            commentCharacter,
+            newlineSetting,
+            parallelChunkSize,
+            canReadInParallel(),
+            decodingProblemAggregator)) {
+      readInParallel(input, context);
+    } finally {
+      parser.stopParsing();
+    }
+
+    return buildTable(context);
+  }
+
+  private Table buildTable(Context context) {
     Column[] columns = new Column[builders.length];
     for (int i = 0; i < builders.length; i++) {
       String columnName = effectiveColumnNames[i];
@@ -475,7 +580,15 @@ public class DelimitedReader {
       Value expectedEnsoValueType = Value.asValue(null);
       CommonParseProblemAggregator parseProblemAggregator =
           ParseProblemAggregator.make(problemAggregator, columnName, expectedEnsoValueType);
-      Storage<?> storage = valueParser.parseColumn(col, parseProblemAggregator);
+      Storage<?> storage;
+      if (columnParsers == null) {
+        storage = valueParser.parseColumn(col, parseProblemAggregator);
+      } else {
+        DatatypeParser.ParsedColumn parsed =
+            columnParsers[i].parseColumnFixingType(col, parseProblemAggregator);
+        storage = parsed.storage();
+        columnParsers[i] = parsed.parserForRest();
+      }
       columns[i] = new Column(columnName, storage);
       context.safepoint();
     }
@@ -483,6 +596,222 @@ public class DelimitedReader {
     return new Table(columns);
   }
 
+  /**
+   * Starts reading the input in batches of rows.
+   *
+   * <p>The headers are read immediately, and the rows are only read as the batches are requested,
+   * so that only a single batch needs to be kept in memory.
+   *
+   * <p>It should only be called once, instead of {@link #read}.
+   *
+   * @param batchSize the maximum number of rows in a batch
+   */
+  public BatchReader readInBatches(Reader input, int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("The batch size must be positive.");
+    }
+
+    markUsed();
+    try {
+      parser.beginParsing(input);
+      detectHeaders();
+      initBuilders();
+    } catch (RuntimeException e) {
+      parser.stopParsing();
+      throw e;
+    }
+
+    columnParsers = new DatatypeParser[builders.length];
+    Arrays.fill(columnParsers, valueParser);
+    return new BatchReader(batchSize);
+  }
+
+  /**
+   * Reads the consecutive batches of rows of the input as tables.
+   *
+   * <p>The column types are inferred from the first batch, and the following batches are parsed as
+   * the same types - values that do not fit the type are reported as invalid. A column that has no
+   * values in the first batch keeps being inferred until a batch that has some.
+   *
+   * <p>The problems are reported to the problem aggregator of the reader, as the batches are read.
+   */
+  public final class BatchReader implements AutoCloseable {
+    private final int batchSize;
+    private boolean isFirstBatch = true;
+    private boolean isFinished = false;
+
+    private BatchReader(int batchSize) {
+      this.batchSize = batchSize;
+    }
+
+    /**
+     * Reads the next batch.
+     *
+     * <p>The first batch is returned even if it has no rows, so that the columns are known.
+     *
+     * @return the next batch, or {@code null} if all rows have already been read
+     */
+    public Table next() {
+      if (isFinished) {
+        return null;
+      }
+
+      Context context = Context.getCurrent();
+      long batchStart = targetTableIndex;
+      if (!isFirstBatch) {
+        initBuilders();
+      }
+
+      while (targetTableIndex - batchStart < batchSize) {
+        String[] row = canFitMoreRows() ? readNextRow() : null;
+        if (row == null) {
+          close();
+          break;
+        }
+
+        appendRow(row);
+        context.safepoint();
+      }
+
+      if (targetTableIndex == batchStart && !isFirstBatch) {
+        return null;
+      }
+
+      isFirstBatch = false;
+      return buildTable(context);
+    }
+
+    /** Stops reading the input, so that the next batches are empty. */
+    @Override
+    public void close() {
+      isFinished = true;
+      parser.stopParsing();
+    }
+  }
+
+  private void readSequentially(Reader input, Context context) {
+    parser.beginParsing(input);
+    detectHeaders();
+    initBuilders();
+    readRemainingRows(context);
+  }
+
+  /**
+   * The input can be split into records without parsing it only if the quotes are escaped by
+   * doubling them - otherwise the escape sequences would also need to be tracked.
+   */
+  private boolean canReadInParallel() {
+    return ParallelTasks.isParallelismAvailable() && quoteEscapeCharacter == quoteCharacter;
+  }
+
+  /**
+   * Reads the input, parsing its chunks on multiple threads.
+   *
+   * <p>The first chunk, which also contains the skipped rows and the rows used to detect the
+   * headers, is parsed by the main parser. The following chunks are decoded and parsed in the
+   * background by separate parsers, while the main thread keeps splitting the input. The parsed
+   * rows are then appended in the input order on the main thread, so the results and the reported
+   * problems are the same as when reading sequentially.
+   *
+   * <p>If the record boundaries cannot be safely found in some part of the input, the rest of it is
+   * parsed sequentially.
+   */
+  private void readInParallel(ChunkedDelimitedInput input, Context context) throws IOException {
+    ChunkedDelimitedInput.Chunk firstChunk = input.nextChunk(skipRows + 2);
+    if (firstChunk == null) {
+      readSequentially(input.remainder(), context);
+      return;
+    }
+
+    ChunkedDelimitedInput.DecodedText firstText = firstChunk.decode();
+    reportDecodingProblems(firstText.invalidCharacterPositions());
+    if (input.isAtEnd()) {
+      readSequentially(new CharArrayReader(firstText.text(), 0, firstText.length()), context);
+      return;
+    }
+
+    // All parsers must agree on the line separator, so the detected one is used explicitly.
+    newlineSetting = input.getLineSeparator();
+    parser = setupCsvParser(skipRows, false);
+    readSequentially(new CharArrayReader(firstText.text(), 0, firstText.length()), context);
+    parser.stopParsing();
+
+    int maxPendingChunks = 2 * ParallelTasks.parallelism();
+    Deque<ParallelTasks.Pending<ParsedChunk>> pendingChunks = new ArrayDeque<>();
+    try {
+      while (canFitMoreRows()) {
+        while (pendingChunks.size() < maxPendingChunks) {
+          ChunkedDelimitedInput.Chunk chunk = input.nextChunk(1);
+          if (chunk == null) break;
+          pendingChunks.add(ParallelTasks.start(cancellation -> parseChunk(chunk, cancellation)));
+        }
+
+        if (pendingChunks.isEmpty()) break;
+        ParsedChunk parsedChunk = pendingChunks.remove().await();
+        reportDecodingProblems(parsedChunk.invalidCharacterPositions());
+        List<Row> rows = parsedChunk.rows();
+        for (int i = 0; i < rows.size() && canFitMoreRows(); i++) {
+          currentLine = rows.get(i).lineNumber;
+          appendRow(rows.get(i).cells);
+          context.safepoint();
+        }
+      }
+    } finally {
+      pendingChunks.forEach(ParallelTasks.Pending::cancel);
+    }
+
+    if (canFitMoreRows() && input.wasSplittingStopped()) {
+      parser = setupCsvParser(0, decodingProblemAggregator == null);
+      precedingLines = input.getRemainderPrecedingLines();
+      parser.beginParsing(input.remainder());
+      readRemainingRows(context);
+    }
+  }
+
+  private record ParsedChunk(List<Row> rows, long[] invalidCharacterPositions) {}
+
+  /**
+   * Decodes and parses the rows of a chunk of the input.
+   *
+   * <p>It runs on a worker thread, so it must not touch the polyglot context, the builders nor the
+   * problem aggregators.
+   */
+  private ParsedChunk parseChunk(
+      ChunkedDelimitedInput.Chunk chunk, ParallelTasks.Cancellation cancellation) {
+    ChunkedDelimitedInput.DecodedText text = chunk.decode();
+    CsvParser chunkParser = setupCsvParser(0, false);
+    List<Row> rows = new ArrayList<>();
+    try {
+      chunkParser.beginParsing(new CharArrayReader(text.text(), 0, text.length()));
+      while (true) {
+        long line = chunk.precedingLines() + chunkParser.getContext().currentLine() + 1;
+        String[] cells = chunkParser.parseNext();
+        if (cells == null) break;
+        rows.add(new Row(line, cells));
+        cancellation.check();
+      }
+    } finally {
+      chunkParser.stopParsing();
+    }
+    return new ParsedChunk(rows, text.invalidCharacterPositions());
+  }
+
+  private void reportDecodingProblems(long[] invalidCharacterPositions) {
+    for (long position : invalidCharacterPositions) {
+      decodingProblemAggregator.reportInvalidCharacterProblem(position);
+    }
+  }
+
+  private void readRemainingRows(Context context) {
+    while (canFitMoreRows()) {
+      var currentRow = readNextRow();
+      if (currentRow == null) break;
+      appendRow(currentRow);
+
+      context.safepoint();
+    }
+  }
+
   private boolean wasAlreadyUsed = false;
 
   private void markUsed() {
@@ -496,7 +825,12 @@ public class DelimitedReader {
 
   private static final int INITIAL_ROW_CAPACITY = 100;
 
-  private void initBuilders(int count) {
+  private void initBuilders() {
+    int count = getColumnCount();
+    if (count == 0) {
+      throw new EmptyFileException();
+    }
+
     builders = new StringBuilder[count];
     for (int i = 0; i < count; i++) {
       builders[i] = new StringBuilder(INITIAL_ROW_CAPACITY, TextType.VARIABLE_LENGTH);
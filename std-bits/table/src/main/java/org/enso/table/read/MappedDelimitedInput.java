@@ -0,0 +1,404 @@
+package org.enso.table.read;
+
+import static org.enso.base.encoding.Encoding_Utils.INVALID_CHARACTER;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import org.enso.base.Environment_Utils;
+import org.enso.base.encoding.DecodingProblemAggregator;
+import org.enso.base.encoding.Encoding_Utils;
+import org.enso.base.parallel.ParallelTasks;
+
+/**
+ * A delimited input read from a memory-mapped local file.
+ *
+ * <p>The record boundaries are found by scanning the bytes directly, without decoding them. This is
+ * only possible for encodings in which the ASCII characters are always encoded as the same single
+ * bytes, which never appear as parts of other characters - so the delimiter, quote, comment and
+ * newline characters must all be ASCII. Each chunk is then decoded straight from the mapped memory,
+ * on the thread that parses it.
+ */
+final class MappedDelimitedInput implements ChunkedDelimitedInput, Closeable {
+  /** Smaller files are not worth mapping. */
+  static final long DEFAULT_MIN_FILE_SIZE = 1 << 22;
+
+  /** The environment variable overriding {@link #DEFAULT_MIN_FILE_SIZE}. */
+  static final String MIN_FILE_SIZE_ENV_VAR = "ENSO_TABLE_DELIMITED_MIN_MAPPED_FILE_SIZE";
+
+  /** How many bytes are mapped at once when scanning or decoding the file sequentially. */
+  private static final int WINDOW_SIZE = 1 << 26;
+
+  /** Chunks are mapped as a single buffer, so they must fit in one. */
+  private static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE / 2;
+
+  private static final Set<Charset> ASCII_COMPATIBLE_CHARSETS =
+      Set.of(
+          StandardCharsets.UTF_8,
+          StandardCharsets.US_ASCII,
+          StandardCharsets.ISO_8859_1,
+          Charset.forName("windows-1252"));
+
+  private static final byte[] UTF_8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+  private static final byte[] UTF_16_LE_BOM = {(byte) 0xFF, (byte) 0xFE};
+  private static final byte[] UTF_16_BE_BOM = {(byte) 0xFE, (byte) 0xFF};
+
+  private record MappedChunk(ByteBuffer bytes, Charset charset, long offset, long precedingLines)
+      implements Chunk {
+    @Override
+    public DecodedText decode() {
+      return decodeChunk(bytes.duplicate(), charset, offset);
+    }
+  }
+
+  private final FileChannel channel;
+  private final Charset charset;
+  private final DecodingProblemAggregator decodingProblemAggregator;
+  private final int chunkSize;
+  private final long fileSize;
+  private final long dataStart;
+  private final String lineSeparator;
+  private final RecordBoundaryScanner scanner;
+
+  private ByteBuffer scanWindow = ByteBuffer.allocate(0);
+  private long scanWindowStart;
+  private long chunkStart;
+  private long scanPosition;
+  private boolean isSplitting;
+  private long linesBeforeChunk = 0;
+
+  /**
+   * Maps the file.
+   *
+   * @param charset the encoding of the file, as chosen by {@link #chooseCharset}
+   * @param lineSeparator the line separator, or {@code null} to detect it from the file
+   * @param chunkSize the minimum number of bytes in a chunk; chunks end at the first record
+   *     boundary after that
+   * @param allowSplitting whether to split the file into chunks; if not, the whole file is read
+   *     through the {@link #remainder()}
+   * @param decodingProblemAggregator the aggregator receiving the problems found when decoding the
+   *     {@link #remainder()}
+   */
+  MappedDelimitedInput(
+      Path path,
+      Charset charset,
+      char delimiter,
+      char quoteCharacter,
+      char commentCharacter,
+      String lineSeparator,
+      int chunkSize,
+      boolean allowSplitting,
+      DecodingProblemAggregator decodingProblemAggregator)
+      throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    this.charset = charset;
+    this.decodingProblemAggregator = decodingProblemAggregator;
+    this.chunkSize = chunkSize;
+    this.fileSize = channel.size();
+
+    // The BOM is not a part of the decoded text, in the same way as when decoding a stream.
+    boolean hasBom = charset.equals(StandardCharsets.UTF_8) && startsWith(channel, UTF_8_BOM);
+    this.dataStart = hasBom ? UTF_8_BOM.length : 0;
+    this.scanWindowStart = dataStart;
+    this.chunkStart = dataStart;
+    this.scanPosition = dataStart;
+
+    if (lineSeparator == null) {
+      int sampleSize = (int) Math.min(WINDOW_SIZE, fileSize - dataStart);
+      ByteBuffer sample = channel.map(FileChannel.MapMode.READ_ONLY, dataStart, sampleSize);
+      lineSeparator =
+          RecordBoundaryScanner.detectLineSeparator(StandardCharsets.ISO_8859_1.decode(sample));
+    }
+    this.lineSeparator = lineSeparator;
+    this.isSplitting =
+        allowSplitting
+            && RecordBoundaryScanner.isSupportedLineSeparator(lineSeparator)
+            && isAscii(delimiter)
+            && isAscii(quoteCharacter)
+            && isAscii(commentCharacter);
+    this.scanner =
+        isSplitting
+            ? new RecordBoundaryScanner(delimiter, quoteCharacter, commentCharacter, lineSeparator)
+            : null;
+  }
+
+  /**
+   * Checks if the file can be read through the mapped input and chooses the encoding for it.
+   *
+   * <p>If no encoding is requested, it is detected in the same way as for streams: a file without
+   * a BOM is read as UTF-8 if it is valid UTF-8, and as Windows-1252 otherwise. The files whose BOM
+   * requires a special treatment are left to the streams, which report the related problems.
+   *
+   * @param requestedCharset the encoding requested by the user, or {@code null} to detect it
+   * @return the encoding to use, or {@code null} if the file should be read as a stream
+   */
+  static Charset chooseCharset(Path path, Charset requestedCharset) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long minFileSize =
+          Environment_Utils.getNonNegativeLong(MIN_FILE_SIZE_ENV_VAR, DEFAULT_MIN_FILE_SIZE);
+      if (channel.size() < minFileSize) {
+        return null;
+      }
+
+      boolean hasUtf16Bom =
+          startsWith(channel, UTF_16_LE_BOM) || startsWith(channel, UTF_16_BE_BOM);
+      if (requestedCharset == null) {
+        if (hasUtf16Bom || startsWith(channel, UTF_8_BOM)) {
+          return null;
+        }
+        return isValidUtf8(channel) ? StandardCharsets.UTF_8 : Charset.forName("windows-1252");
+      } else if (!ASCII_COMPATIBLE_CHARSETS.contains(requestedCharset)) {
+        return null;
+      } else if (requestedCharset.equals(StandardCharsets.UTF_8) && hasUtf16Bom) {
+        return null;
+      } else {
+        return requestedCharset;
+      }
+    }
+  }
+
+  @Override
+  public String getLineSeparator() {
+    return lineSeparator;
+  }
+
+  @Override
+  public Chunk nextChunk(long minRecords) throws IOException {
+    if (!isSplitting) {
+      return null;
+    }
+
+    long records = 0;
+    while (scanPosition < fileSize) {
+      if (scanPosition == scanWindowStart + scanWindow.limit()) {
+        scanWindowStart = scanPosition;
+        scanWindow = map(scanPosition, Math.min(WINDOW_SIZE, fileSize - scanPosition));
+      }
+
+      char c = (char) (scanWindow.get((int) (scanPosition - scanWindowStart)) & 0xFF);
+      scanPosition++;
+      int result = scanner.feed(c);
+      if (result == RecordBoundaryScanner.UNCERTAIN || scanPosition - chunkStart > MAX_CHUNK_SIZE) {
+        isSplitting = false;
+        return null;
+      } else if (result == RecordBoundaryScanner.RECORD_END) {
+        records++;
+        if (records >= minRecords && scanPosition - chunkStart >= chunkSize) {
+          return cutChunk();
+        }
+      }
+    }
+
+    return chunkStart == fileSize ? null : cutChunk();
+  }
+
+  @Override
+  public boolean isAtEnd() {
+    return isSplitting && chunkStart == fileSize;
+  }
+
+  @Override
+  public boolean wasSplittingStopped() {
+    return !isSplitting;
+  }
+
+  @Override
+  public Reader remainder() {
+    return new MappedFileReader(chunkStart);
+  }
+
+  @Override
+  public long getRemainderPrecedingLines() {
+    return linesBeforeChunk;
+  }
+
+  @Override
+  public void close() throws IOException {
+    // The already mapped buffers remain valid after the channel is closed.
+    channel.close();
+  }
+
+  private Chunk cutChunk() throws IOException {
+    ByteBuffer bytes = map(chunkStart, scanPosition - chunkStart);
+    Chunk chunk = new MappedChunk(bytes, charset, chunkStart - dataStart, linesBeforeChunk);
+    chunkStart = scanPosition;
+    linesBeforeChunk = scanner.getLineCount();
+    return chunk;
+  }
+
+  private ByteBuffer map(long position, long size) throws IOException {
+    return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+  }
+
+  private static boolean isAscii(char c) {
+    return c < 0x80;
+  }
+
+  private static CharsetDecoder newDecoder(Charset charset) {
+    return charset
+        .newDecoder()
+        .onMalformedInput(CodingErrorAction.REPORT)
+        .onUnmappableCharacter(CodingErrorAction.REPORT);
+  }
+
+  private static boolean startsWith(FileChannel channel, byte[] prefix) throws IOException {
+    ByteBuffer beginning = ByteBuffer.allocate(prefix.length);
+    while (beginning.hasRemaining() && channel.read(beginning, beginning.position()) > 0) {}
+    return !beginning.hasRemaining() && beginning.flip().equals(ByteBuffer.wrap(prefix));
+  }
+
+  /**
+   * Decodes a chunk, replacing the invalid characters and recording their positions.
+   *
+   * <p>It does not touch the polyglot context, so it can run on a worker thread.
+   *
+   * @param offset the position of the chunk in the decoded input, used for the reported positions
+   */
+  private static DecodedText decodeChunk(ByteBuffer bytes, Charset charset, long offset) {
+    CharsetDecoder decoder = newDecoder(charset);
+    // None of the supported encodings yields more characters than bytes.
+    CharBuffer out = CharBuffer.allocate(bytes.remaining() + 1);
+    LongStream.Builder invalidPositions = LongStream.builder();
+    while (true) {
+      CoderResult result = decoder.decode(bytes, out, true);
+      if (result.isMalformed() || result.isUnmappable()) {
+        invalidPositions.add(offset + bytes.position());
+        if (out.remaining() < INVALID_CHARACTER.length()) {
+          out = Encoding_Utils.resize(out, CharBuffer::allocate, CharBuffer::put);
+        }
+        out.put(INVALID_CHARACTER);
+        bytes.position(bytes.position() + result.length());
+      } else if (result.isOverflow()) {
+        out = Encoding_Utils.resize(out, CharBuffer::allocate, CharBuffer::put);
+      } else {
+        break;
+      }
+    }
+    decoder.flush(out);
+    return new DecodedText(out.array(), out.position(), invalidPositions.build().toArray());
+  }
+
+  /**
+   * Checks if the whole file is valid UTF-8.
+   *
+   * <p>The file is split into parts checked in parallel. The parts start at bytes that are not
+   * continuation bytes, so the file is valid if and only if all the parts are.
+   */
+  private static boolean isValidUtf8(FileChannel channel) throws IOException {
+    long size = channel.size();
+    int partCount = (int) ((size + WINDOW_SIZE - 1) / WINDOW_SIZE);
+    long[] partStarts = new long[partCount + 1];
+    for (int i = 1; i < partCount; i++) {
+      partStarts[i] = skipContinuationBytes(channel, (long) i * WINDOW_SIZE);
+    }
+    partStarts[partCount] = size;
+
+    AtomicBoolean isValid = new AtomicBoolean(true);
+    ParallelTasks.run(
+        partCount,
+        (part, cancellation) -> {
+          long start = partStarts[part];
+          long end = Math.max(start, partStarts[part + 1]);
+          ByteBuffer bytes;
+          try {
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+
+          CharsetDecoder decoder = newDecoder(StandardCharsets.UTF_8);
+          CharBuffer out = CharBuffer.allocate(8192);
+          while (isValid.get()) {
+            CoderResult result = decoder.decode(bytes, out, true);
+            if (result.isError()) {
+              isValid.set(false);
+            } else if (result.isOverflow()) {
+              out.clear();
+              cancellation.check();
+            } else {
+              break;
+            }
+          }
+        });
+    return isValid.get();
+  }
+
+  /** Returns the position of the first byte at or after the given one that starts a character. */
+  private static long skipContinuationBytes(FileChannel channel, long position) throws IOException {
+    ByteBuffer next = ByteBuffer.allocate(4);
+    channel.read(next, position);
+    int i = 0;
+    // A character has at most 3 continuation bytes, so the others are invalid anyway.
+    while (i < next.position() && i < 3 && (next.get(i) & 0xC0) == 0x80) {
+      i++;
+    }
+    return position + i;
+  }
+
+  /**
+   * Decodes the file sequentially from the given position, reporting the invalid characters
+   * directly to the aggregator.
+   */
+  private final class MappedFileReader extends Reader {
+    private final CharsetDecoder decoder = newDecoder(charset);
+    private ByteBuffer window = ByteBuffer.allocate(0);
+    private long windowStart;
+    private boolean isFinished = false;
+
+    private MappedFileReader(long start) {
+      this.windowStart = start;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+
+      CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+      while (out.hasRemaining() && !isFinished) {
+        boolean isLastWindow = windowStart + window.limit() == fileSize;
+        CoderResult result = decoder.decode(window, out, isLastWindow);
+        if (result.isMalformed() || result.isUnmappable()) {
+          if (out.remaining() < INVALID_CHARACTER.length()) {
+            // The problem will be found again in the next call.
+            break;
+          }
+          decodingProblemAggregator.reportInvalidCharacterProblem(
+              windowStart + window.position() - dataStart);
+          out.put(INVALID_CHARACTER);
+          window.position(window.position() + result.length());
+        } else if (result.isOverflow()) {
+          break;
+        } else if (isLastWindow) {
+          decoder.flush(out);
+          isFinished = true;
+        } else {
+          // Any incomplete character at the end of the window is mapped again with the next one.
+          windowStart += window.position();
+          window = map(windowStart, Math.min(WINDOW_SIZE, fileSize - windowStart));
+        }
+      }
+
+      int count = out.position() - off;
+      return count == 0 && isFinished ? -1 : count;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,176 @@
+package org.enso.table.read;
+
+/**
+ * Finds the record boundaries of a delimited input without parsing it.
+ *
+ * <p>It is fed the input character by character, tracking just enough state to know whether a
+ * newline ends a record - it does not if it is quoted. It follows how the parser treats well-formed
+ * input. If it encounters anything that the parser might interpret in a different way - like a
+ * quote in the middle of an unquoted value, or characters after a closing quote - it reports that
+ * the boundaries can no longer be determined.
+ *
+ * <p>Only the {@code \n} and {@code \r\n} line separators are supported, and the quotes must be
+ * escaped by doubling them.
+ */
+final class RecordBoundaryScanner {
+  /** The character did not end a record. */
+  static final int CONTINUE = 0;
+
+  /** The character ended a record, so the next one starts a new record. */
+  static final int RECORD_END = 1;
+
+  /** The record boundaries can no longer be determined. */
+  static final int UNCERTAIN = -1;
+
+  private static final String LF = "\n";
+  private static final String CRLF = "\r\n";
+
+  private enum State {
+    RECORD_START,
+    FIELD_START,
+    UNQUOTED,
+    QUOTED,
+    AFTER_QUOTE,
+    COMMENT
+  }
+
+  private final char delimiter;
+  private final char quoteCharacter;
+  private final char commentCharacter;
+  private final boolean isCrlf;
+  private State state = State.RECORD_START;
+  private boolean isAfterCarriageReturn = false;
+  private long lineCount = 0;
+
+  RecordBoundaryScanner(
+      char delimiter, char quoteCharacter, char commentCharacter, String lineSeparator) {
+    assert isSupportedLineSeparator(lineSeparator);
+    this.delimiter = delimiter;
+    this.quoteCharacter = quoteCharacter;
+    this.commentCharacter = commentCharacter;
+    this.isCrlf = CRLF.equals(lineSeparator);
+  }
+
+  static boolean isSupportedLineSeparator(String lineSeparator) {
+    return LF.equals(lineSeparator) || CRLF.equals(lineSeparator);
+  }
+
+  /**
+   * Detects the line separator the same way as the parser does - from the first newline characters
+   * in the input.
+   *
+   * @return the line separator, or {@code null} if it cannot be determined from the given text
+   */
+  static String detectLineSeparator(CharSequence text) {
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '\n') {
+        return i + 1 < text.length() && text.charAt(i + 1) == '\r' ? null : LF;
+      } else if (c == '\r') {
+        if (i + 1 == text.length()) {
+          return null;
+        }
+        return text.charAt(i + 1) == '\n' ? CRLF : "\r";
+      }
+    }
+    return null;
+  }
+
+  /** The number of line separators encountered so far, including the quoted ones. */
+  long getLineCount() {
+    return lineCount;
+  }
+
+  /**
+   * Processes the next character of the input.
+   *
+   * @return {@link #CONTINUE}, {@link #RECORD_END} or {@link #UNCERTAIN}
+   */
+  int feed(char c) {
+    if (isAfterCarriageReturn) {
+      isAfterCarriageReturn = false;
+      if (c == '\n') {
+        return endLine();
+      } else if (!advance('\r')) {
+        return UNCERTAIN;
+      }
+    }
+
+    if (c == '\n') {
+      // A lone LF in an input using CRLF may or may not be treated as a newline, so it is better
+      // left to the parser to decide.
+      return isCrlf ? UNCERTAIN : endLine();
+    } else if (c == '\r' && isCrlf) {
+      isAfterCarriageReturn = true;
+      return CONTINUE;
+    } else {
+      return advance(c) ? CONTINUE : UNCERTAIN;
+    }
+  }
+
+  private int endLine() {
+    lineCount++;
+    switch (state) {
+      case QUOTED -> {
+        return CONTINUE;
+      }
+      case COMMENT -> {
+        state = State.RECORD_START;
+        return CONTINUE;
+      }
+      default -> {
+        state = State.RECORD_START;
+        return RECORD_END;
+      }
+    }
+  }
+
+  /**
+   * Updates the state after a character that is not part of a line separator.
+   *
+   * @return {@code false} if the character makes the further interpretation of the input uncertain
+   */
+  private boolean advance(char c) {
+    switch (state) {
+      case RECORD_START -> {
+        if (c == commentCharacter) {
+          state = State.COMMENT;
+        } else {
+          state = State.FIELD_START;
+          return advance(c);
+        }
+      }
+      case FIELD_START -> {
+        if (c == quoteCharacter) {
+          state = State.QUOTED;
+        } else if (c != delimiter) {
+          state = State.UNQUOTED;
+        }
+      }
+      case UNQUOTED -> {
+        if (c == quoteCharacter) {
+          return false;
+        } else if (c == delimiter) {
+          state = State.FIELD_START;
+        }
+      }
+      case QUOTED -> {
+        if (c == quoteCharacter) {
+          state = State.AFTER_QUOTE;
+        }
+      }
+      case AFTER_QUOTE -> {
+        // The quote was either escaped by doubling it, or it was the closing quote.
+        if (c == quoteCharacter) {
+          state = State.QUOTED;
+        } else if (c == delimiter) {
+          state = State.FIELD_START;
+        } else {
+          return false;
+        }
+      }
+      case COMMENT -> {}
+    }
+    return true;
+  }
+}
@@ -32,4 +32,14 @@ public class BitSets {
     result.or(source);
     return result;
   }
+
+  /** Returns the union of the two bitsets, limited to the first {@code size} bits. */
+  public static BitSet makeUnion(BitSet a, BitSet b, int size) {
+    BitSet result = makeDuplicate(a);
+    result.or(b);
+    if (result.length() > size) {
+      result.clear(size, result.length());
+    }
+    return result;
+  }
 }
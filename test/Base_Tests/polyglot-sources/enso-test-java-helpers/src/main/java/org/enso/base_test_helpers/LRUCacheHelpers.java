@@ -0,0 +1,136 @@
+package org.enso.base_test_helpers;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.enso.base.cache.LRUCache;
+
+/** Helpers for sending requests to an {@link LRUCache} from several threads at once. */
+public class LRUCacheHelpers {
+  /** How long the helpers wait for the other threads before giving up. */
+  private static final long TIMEOUT_SECONDS = 10;
+
+  /**
+   * Builds items with a fixed content and counts the requests.
+   *
+   * <p>The first request can be held until {@link #releaseFirstRequest} is called, so that other
+   * requests for the same key arrive while it is in flight. The following requests can be made to
+   * wait for each other, to check that they are sent at the same time rather than one by one.
+   */
+  public static class FakeItemBuilder implements LRUCache.ItemBuilder<String> {
+    private final String key;
+    private final String content;
+    private final Integer ttl;
+    private final AtomicInteger requestCount = new AtomicInteger(0);
+    private final CountDownLatch firstRequested = new CountDownLatch(1);
+    private final CountDownLatch firstReleased;
+    private final CountDownLatch followers;
+    private volatile boolean followersWereConcurrent = true;
+
+    /**
+     * @param ttl the time to live of the items in seconds, or null if they should not be cached
+     * @param holdFirst whether the first request is held until released
+     * @param concurrentFollowers the number of requests after the first one that wait for each
+     *     other, or 0 if they do not wait
+     */
+    public FakeItemBuilder(
+        String key, String content, Integer ttl, boolean holdFirst, int concurrentFollowers) {
+      this.key = key;
+      this.content = content;
+      this.ttl = ttl;
+      this.firstReleased = holdFirst ? new CountDownLatch(1) : null;
+      this.followers = concurrentFollowers > 0 ? new CountDownLatch(concurrentFollowers) : null;
+    }
+
+    @Override
+    public String makeCacheKey() {
+      return key;
+    }
+
+    @Override
+    public LRUCache.Item<String> buildItem() throws InterruptedException {
+      int index = requestCount.getAndIncrement();
+      if (index == 0) {
+        firstRequested.countDown();
+        if (firstReleased != null) {
+          firstReleased.await();
+        }
+      } else if (followers != null) {
+        followers.countDown();
+        if (!followers.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          followersWereConcurrent = false;
+        }
+      }
+
+      byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+      return new LRUCache.Item<>(
+          new ByteArrayInputStream(bytes),
+          content,
+          Optional.of((long) bytes.length),
+          Optional.ofNullable(ttl));
+    }
+
+    public int getRequestCount() {
+      return requestCount.get();
+    }
+
+    /** Waits until the first request is sent. Returns false if it does not happen in time. */
+    public boolean awaitFirstRequest() throws InterruptedException {
+      return firstRequested.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public void releaseFirstRequest() {
+      if (firstReleased != null) {
+        firstReleased.countDown();
+      }
+    }
+
+    /** Checks that all the requests after the first one were in progress at the same time. */
+    public boolean followersWereConcurrent() {
+      return followersWereConcurrent && (followers == null || followers.getCount() == 0);
+    }
+  }
+
+  /** Gets the item through the cache and reads its content. */
+  public static String fetch(LRUCache<String> cache, FakeItemBuilder builder) throws Exception {
+    var result = cache.getResult(builder);
+    try (var stream = result.inputStream()) {
+      return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  /** Runs {@link #fetch} on a new thread. */
+  public static Future<String> fetchInBackground(LRUCache<String> cache, FakeItemBuilder builder) {
+    var task = new FutureTask<>(() -> fetch(cache, builder));
+    var thread = new Thread(task, "LRUCache test request");
+    thread.setDaemon(true);
+    thread.start();
+    return task;
+  }
+
+  /** Gets the result of {@link #fetchInBackground}, failing if it does not finish in time. */
+  public static String await(Future<String> result) throws Exception {
+    return result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Waits until the given number of requests wait for downloads by other requests. Returns false
+   * if it does not happen in time.
+   */
+  public static boolean awaitWaitingRequests(LRUCache<String> cache, long count)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+    while (cache.getNumWaitingRequests() < count) {
+      if (System.nanoTime() > deadline) {
+        return false;
+      }
+      Thread.sleep(1);
+    }
+    return true;
+  }
+}
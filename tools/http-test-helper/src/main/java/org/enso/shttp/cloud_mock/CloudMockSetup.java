@@ -2,10 +2,23 @@ package org.enso.shttp.cloud_mock;
 
 import java.util.List;
 
-public record CloudMockSetup(boolean logBatchingTestModeEnabled) {
+/**
+ * @param logBatchingTestModeEnabled see {@link PostLogHandler}
+ * @param logResponseDelayMillis how long the log endpoint waits before responding, simulating a
+ *     slow endpoint
+ */
+public record CloudMockSetup(boolean logBatchingTestModeEnabled, long logResponseDelayMillis) {
+  private static final String LOG_RESPONSE_DELAY_PREFIX = "--log-response-delay-ms=";
+
   public static CloudMockSetup fromArgs(String[] remainingArgs) {
     List<String> args = List.of(remainingArgs);
     boolean logBatchingTestModeEnabled = args.contains("--enable-manual-log-batching-test");
-    return new CloudMockSetup(logBatchingTestModeEnabled);
+    long logResponseDelayMillis =
+        args.stream()
+            .filter(arg -> arg.startsWith(LOG_RESPONSE_DELAY_PREFIX))
+            .map(arg -> Long.parseLong(arg.substring(LOG_RESPONSE_DELAY_PREFIX.length())))
+            .findFirst()
+            .orElse(0L);
+    return new CloudMockSetup(logBatchingTestModeEnabled, logResponseDelayMillis);
   }
 }
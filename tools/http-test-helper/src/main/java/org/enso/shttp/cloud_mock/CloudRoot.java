@@ -26,7 +26,11 @@ public class CloudRoot extends HandlerWithTokenAuth {
           new PathResolver(assetStore),
           new DirectoriesHandler(assetStore),
           new GetLogsHandler(eventsService),
-          new PostLogHandler(usersService, eventsService, setup.logBatchingTestModeEnabled())
+          new PostLogHandler(
+              usersService,
+              eventsService,
+              setup.logBatchingTestModeEnabled(),
+              setup.logResponseDelayMillis())
         };
   }
 
@@ -25,14 +25,29 @@ public class PostLogHandler implements CloudHandler {
    */
   private final boolean batchingTestModeEnabled;
 
+  /**
+   * How long to wait before responding to every request, in milliseconds.
+   *
+   * <p>It simulates a slow log endpoint, so that the Enso process fills up its in-memory queue of
+   * log messages and has to spill them to disk. All the messages should still arrive eventually.
+   */
+  private final long responseDelayMillis;
+
   public PostLogHandler(
-      UsersService usersService, EventsService eventsService, boolean batchingTestModeEnabled) {
+      UsersService usersService,
+      EventsService eventsService,
+      boolean batchingTestModeEnabled,
+      long responseDelayMillis) {
     this.usersService = usersService;
     this.eventsService = eventsService;
     this.batchingTestModeEnabled = batchingTestModeEnabled;
+    this.responseDelayMillis = responseDelayMillis;
     if (batchingTestModeEnabled) {
       System.out.println("Manual audit log batching test mode enabled.");
     }
+    if (responseDelayMillis > 0) {
+      System.out.println("Audit log responses are delayed by " + responseDelayMillis + " ms.");
+    }
   }
 
   @Override
@@ -57,6 +72,13 @@ public class PostLogHandler implements CloudHandler {
         // ignore the interruption
       }
     }
+    if (responseDelayMillis > 0) {
+      try {
+        Thread.sleep(responseDelayMillis);
+      } catch (InterruptedException e) {
+        // ignore the interruption
+      }
+    }
     if (incomingEvents.isEmpty()) {
       exchange.sendResponse(400, "Empty array was sent.");
       return;